@@ -0,0 +1,85 @@
+package com.upec.androidtemplate20192020;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.upec.androidtemplate20192020.game.Constants;
+import com.upec.androidtemplate20192020.game.PongView;
+import com.upec.androidtemplate20192020.game.engine.FrameMetrics;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.MethodSorters;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented benchmark of the start of the game: the time from the tap on Play to
+ * the first stable frame (FrameMetrics.STABLE_FRAMES frames in a row without jank).
+ * The first test turns off the warm-up of the menu (Constants.WARM_UP_IN_MENU),
+ * the second one taps after the warm-up. Every test runs in a new process
+ * (the orchestrator with clearPackageData, see build.gradle), so the first one
+ * has no JIT code and no world of a previous test.
+ * The times are reported in the status of the instrumentation and in the log.
+ */
+@RunWith(AndroidJUnit4.class)
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ColdStartBenchmark {
+
+    private static final String TAG = "ColdStartBenchmark";
+    private static final long TIMEOUT_NANOS = 20000000000L;
+
+    private static long playToStableFrame(String name, boolean afterWarmUp) throws InterruptedException {
+        Constants.WARM_UP_IN_MENU = afterWarmUp;
+        ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class);
+        try {
+            long start = System.nanoTime();
+            /*No warm-up thread runs with the game: it's finished, or it wasn't started.*/
+            final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+            while (afterWarmUp ? !PongView.isPrepared(context) : PongView.isPreparing()) {
+                assertTrue("warm-up timeout", System.nanoTime() - start < TIMEOUT_NANOS);
+                Thread.sleep(10);
+            }
+            assertEquals(afterWarmUp, PongView.isPrepared(context));
+            final long[] tap = new long[1];
+            final PongView[] view = new PongView[1];
+            scenario.onActivity(new ActivityScenario.ActivityAction<MainActivity>() {
+                @Override
+                public void perform(MainActivity activity) {
+                    tap[0] = System.nanoTime();
+                    activity.findViewById(R.id.button1).performClick();
+                    view[0] = activity.getPongView();
+                }
+            });
+            FrameMetrics metrics = view[0].getFrameMetrics();
+            while (metrics.getStableNanos() == 0) {
+                assertTrue("no stable frame", System.nanoTime() - tap[0] < TIMEOUT_NANOS);
+                Thread.sleep(1);
+            }
+            long millis = (metrics.getStableNanos() - tap[0]) / 1000000;
+            Bundle results = new Bundle();
+            results.putLong(name, millis);
+            InstrumentationRegistry.getInstrumentation().sendStatus(0, results);
+            Log.i(TAG, name + " " + millis + " ms");
+            return millis;
+        } finally {
+            scenario.close();
+        }
+    }
+
+    @Test
+    public void a_playToStableFrameWithoutWarmUp() throws InterruptedException {
+        assertTrue(playToStableFrame("play_to_stable_frame_cold_ms", false) > 0);
+    }
+
+    @Test
+    public void b_playToStableFrameAfterWarmUp() throws InterruptedException {
+        assertTrue(playToStableFrame("play_to_stable_frame_warm_ms", true) > 0);
+    }
+}
@@ -9,14 +9,17 @@ import android.view.WindowManager;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.CompoundButton;
 import android.widget.Spinner;
 import android.widget.Toast;
 import com.upec.androidtemplate20192020.game.Constants;
+import com.upec.androidtemplate20192020.game.engine.Difficulty;
 import java.util.ArrayList;
 
 /**Class which handles the layout ChooseDifficulty.
- * it has the back button and spinner with
- * selection of the difficulty.
+ * it has the back button, spinner with
+ * selection of the difficulty, the party mode and the arena check boxes.
  * @author Ceban Cristian
  * @author cristiceban4444@gmail.com
  * @version 1.3
@@ -63,29 +66,45 @@ public class ChooseDifficulty extends AppCompatActivity {
         /*Set to be dropped down by clicking on them and load the the layout.*/
         arrayAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         spinner.setAdapter(arrayAdapter);
+        spinner.setSelection(Constants.CONFIG.getDifficulty().ordinal());
 
         /*Create the spinner and put adapter in him.
-         *Here you select the speed of the bot's rectangle*/
+         *Here you select the speed and the skill of the bot.*/
         spinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
                 String difficulty = parent.getItemAtPosition(position).toString();
                 Toast.makeText(parent.getContext(), "Selected: " + difficulty,Toast.LENGTH_LONG).show();
-                if (position == 0)
-                    Constants.RECTANGLE_DEFAULT_SPEED = 5;
-                else if (position == 1)
-                    Constants.RECTANGLE_DEFAULT_SPEED = 10;
-                else if (position == 2)
-                    Constants.RECTANGLE_DEFAULT_SPEED = 15;
-                else if (position == 3 )
-                    Constants.RECTANGLE_DEFAULT_SPEED = 30;
-
+                /*The items of the spinner are in the same order as the difficulties.*/
+                Constants.CONFIG = Constants.CONFIG.withDifficulty(Difficulty.values()[position]);
             }
             @Override
             public void onNothingSelected(AdapterView <?> parent) {
             }
         });
 
+        /*Create the party mode check box, in the party mode
+         *the game has Constants.PARTY_BALL_COUNT balls at once.*/
+        CheckBox party = findViewById(R.id.checkbox_party);
+        party.setChecked(Constants.CONFIG.getBallCount() > 1);
+        party.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                Constants.CONFIG = Constants.CONFIG.withBallCount(isChecked ? Constants.PARTY_BALL_COUNT : 1);
+            }
+        });
+
+        /*Create the arena check box, in the arena the balls
+         *break the bricks of Constants.ARENA_LEVEL_FILE.*/
+        CheckBox arena = findViewById(R.id.checkbox_arena);
+        arena.setChecked(Constants.ARENA_LEVEL != null);
+        arena.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                Constants.ARENA_LEVEL = isChecked ? Constants.ARENA_LEVEL_FILE : null;
+            }
+        });
+
         /*Create the back button to the main app
          * and link it with the function to go back.*/
         Button bt1 = findViewById(R.id.buttonBack);
@@ -32,6 +32,9 @@ import com.upec.androidtemplate20192020.game.PongView;
  */
 public class MainActivity extends AppCompatActivity{
 
+    /*The game, null while the menu is shown.*/
+    private PongView pongView;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         /*Set the Window in full screen without title.*/
@@ -45,8 +48,7 @@ public class MainActivity extends AppCompatActivity{
          */
         DisplayMetrics dm = new DisplayMetrics();
         getWindowManager().getDefaultDisplay().getMetrics(dm);
-        Constants.SCREEN_WIDTH = dm.widthPixels;
-        Constants.SCREEN_HEIGHT = dm.heightPixels;
+        Constants.CONFIG = Constants.CONFIG.withScreen(dm.widthPixels, dm.heightPixels);
 
         /*Set the content view with xml file.*/
         setContentView(R.layout.activity_main);
@@ -75,7 +77,7 @@ public class MainActivity extends AppCompatActivity{
             public void onClick(View view) {
                 /*If it's clicked,then choose the difficulty.
                  * This is done by changing the bot's rectangle speed.
-                 * This is saved in Constants.RECTANGLE_DEFAULT_SPEED.
+                 * This is saved in Constants.CONFIG.
                  */
                 chooseDifficulty();
             }
@@ -92,9 +94,34 @@ public class MainActivity extends AppCompatActivity{
         });
     }
 
-    /*Launch the game and set the current content view to PongView.*/
+    /*The game is built and warmed up while the menu is shown,
+     * again when the settings changed in ChooseDifficulty.*/
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (pongView == null && Constants.WARM_UP_IN_MENU)
+            PongView.prepare(this, Constants.CONFIG);
+    }
+
+    /*Launch the game and set the current content view to PongView,
+     * a warm-up still in progress is stopped.*/
     public void player1(){
-        setContentView(new PongView(this));
+        PongView.cancelPrepare();
+        pongView = new PongView(this);
+        setContentView(pongView);
+    }
+
+    /*The game, null while the menu is shown.*/
+    PongView getPongView() {
+        return pongView;
+    }
+
+    /*The system needs memory, the game frees what it can build again.*/
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (pongView != null)
+            pongView.trimMemory(level);
     }
 
     /*Start the new activity where the difficulty can be chosen.*/
@@ -1,4 +1,7 @@
 package com.upec.androidtemplate20192020.game;
+
+import com.upec.androidtemplate20192020.game.engine.GameConfig;
+
 /**A class which stores the constants.
  *
  * @author Ceban Cristian
@@ -9,21 +12,62 @@ package com.upec.androidtemplate20192020.game;
  */
 
 public class Constants {
-    /*Max Screen width.*/
-    public static int SCREEN_WIDTH;
-
-    /*Max Screen height.*/
-    public static int SCREEN_HEIGHT;
-
-    /*Default speed of the ball.*/
-    static int BALL_DEFAULT_SPEED = 10;
-
-    /*Default speed of the rectangle,it can be changed by
-     * choosing the difficulties.
+    /*Settings of the next game: the screen's size, the speeds,
+     * the difficulty of the bot and the number of balls.
+     * The config is immutable, the menus replace it with a new one,
+     * so the game thread always reads a whole config.
+     * Speed of the bot for the difficulties:
      * Easy      - 5;
      * Medium    - 10;
      * Hard      - 15;
      * Nightmare - 30;
+     * Number of balls:
+     * Normal - 1;
+     * Party  - PARTY_BALL_COUNT;
      */
-    public static int RECTANGLE_DEFAULT_SPEED = 10;
+    public static volatile GameConfig CONFIG = GameConfig.DEFAULT;
+
+    /*Number of balls in the party mode.*/
+    public static final int PARTY_BALL_COUNT = 500;
+
+    /*Show the timing of the frames (percentiles and janks) over the game.*/
+    public static boolean SHOW_FRAME_METRICS = false;
+
+    /*Wanted rate of the frames, 0 for the refresh rate of the screen
+     * (60, 90 or 120 Hz), it's never more than the refresh rate.*/
+    public static float TARGET_FPS = 0;
+
+    /*Pace the frames on the vsync of the screen, else on a timer.*/
+    public static boolean VSYNC_PACING = true;
+
+    /*Draw on the GPU with the hardware canvas of the surface (API 23+),
+     * else on the software canvas.*/
+    public static boolean HARDWARE_CANVAS = true;
+
+    /*Level of the bricks of the arena, a file of the assets as ARENA_LEVEL_FILE,
+     * null to play without bricks. It's set by the arena check box of ChooseDifficulty.
+     * The bricks aren't played between two players.*/
+    public static volatile String ARENA_LEVEL = null;
+
+    /*Level of the arena mode of the menu.*/
+    public static final String ARENA_LEVEL_FILE = "levels/bricks.txt";
+
+    /*Build and warm up the world of the game while the menu is shown
+     * (PongView.prepare), turned off to measure a cold start.*/
+    public static volatile boolean WARM_UP_IN_MENU = true;
+
+    /*Address (IP) of the other device for a game between two players over UDP,
+     * null for a game against the bot. Both devices must have the same screen size,
+     * the same settings and the same seed. The host plays the bottom rectangle,
+     * the guest plays the top one. No menu sets it, it's set here in the source.*/
+    public static volatile String NETPLAY_PEER = null;
+
+    /*True on the device which plays the bottom rectangle.*/
+    public static boolean NETPLAY_HOST = true;
+
+    /*UDP port of the game on both devices.*/
+    public static int NETPLAY_PORT = 19720;
+
+    /*Seed of the game between two players, the same on both devices.*/
+    public static long NETPLAY_SEED = 1972;
 }
@@ -1,149 +1,158 @@
 package com.upec.androidtemplate20192020.game;
 
-import android.graphics.Canvas;
-import android.view.SurfaceHolder;
+import com.upec.androidtemplate20192020.game.engine.DirtyRegion;
+import com.upec.androidtemplate20192020.game.engine.FrameMetrics;
+import com.upec.androidtemplate20192020.game.engine.FrameScheduler;
+import com.upec.androidtemplate20192020.game.engine.PausableThread;
+import com.upec.androidtemplate20192020.game.engine.WorldSnapshot;
 
 /**Extended Thread class for app to be run.
- * It sets to draw game's logic and update
- * the objects on the canvas.It updates and draws
- * every frame. For default is set to 60 FPS.
+ * It draws the objects of the game with the renderer every frame,
+ * paced by a FrameScheduler (for default on the vsync of the screen).
+ * The game is updated by SimulationThread, this thread only draws the latest
+ * snapshot of the world published by it, interpolated to the time of the frame.
+ * The time of every stage of the frames is measured in FrameMetrics.
+ * It lives as long as PongView: it's paused when the surface is destroyed
+ * and resumed on the next surface, without being created again.
  *@author Ceban Cristian
  * @author cristiceban4444@gmail.com
  * @version 1.3
  * @since 1.0
  */
-public class PongThread extends Thread {
+public class PongThread extends PausableThread {
 
-    /**Max FPS locked on 60.*/
-    private static final int MAX_FPS = 60;
+    /**Duration of a tick of the game logic in ns.*/
+    private static final float TICK_NANOS = 1e9f / SimulationThread.TICKS_PER_SECOND;
 
-    /**Average FPS of app running on device.*/
-    private double averageFPS;
-
-    /**Surface holder where Canvas is drawn.*/
-    private final SurfaceHolder surfaceHolder;
+    /**Renderer on the surface where the frames are drawn.*/
+    private final SurfaceRenderer renderer;
 
     /**All game logic is here*/
-    private PongView pongView;
+    private final PongView pongView;
+
+    /**Paces the frames.*/
+    private final FrameScheduler scheduler;
 
-    /**Boolean to test if app is running or is closed.*/
-    private boolean running;
+    /**The timing of the frames, kept by the view, it is recorded and read by this thread only.*/
+    private final FrameMetrics metrics;
 
-    /**Canvas to draw*/
-    private static Canvas canvas;
+    /**Start time of the previous frame in ns.*/
+    private long previousTime;
 
-    /**Constructor.
+    /**Number of the last tick whose update was recorded.*/
+    private long recordedTick;
+
+    /**Constructor, the thread is paused until resumeLoop.
      *
-     * @param surfaceHolder Surface holder where Canvas is drawn.
+     * @param renderer Renderer on the surface where the frames are drawn.
      * @param pongView Game logic.
+     * @param scheduler Paces the frames, it's released with the thread.
      */
-    PongThread(SurfaceHolder surfaceHolder, PongView pongView){
-        super();
-        this.surfaceHolder = surfaceHolder;
+    PongThread(SurfaceRenderer renderer, PongView pongView, FrameScheduler scheduler){
+        super("render");
+        this.renderer = renderer;
         this.pongView = pongView;
+        this.scheduler = scheduler;
+        this.metrics = pongView.getFrameMetrics();
     }
 
-    /**Set thread state to running
-     *
-     * @param running state to put.
-     */
-    void setRunning(boolean running){
-        this.running = running;
+    @Override
+    protected void onResume() {
+        scheduler.resume();
+        previousTime = System.nanoTime();
     }
 
-    /**Override the method "run" from THREAD.*/
     @Override
-    public void run () {
-        /*Start time of thread in ns*/
-        long startTime;
-
-        /*Time in ms.*/
-        long timeMills = 1000/MAX_FPS;
-
-        /* Wait time to not overlay MAX_FPS*/
-        long waitTime;
-
-        /*Number of frame to not overlay MAX_FPS*/
-        int frameCount = 0;
-
-        /*Total time from*/
-        long totalTime = 0;
-
-        /*Target time to not overlap MAX_FPS*/
-        long targetTime = 1000/MAX_FPS;
-
-        /*Until Thread is running do all game logic*/
-        while(running){
+    protected void wake() {
+        /*Release the thread if it waits for a frame.*/
+        scheduler.stop();
+    }
 
-            /*Start time = System time (in ns),this is done for
-             * sinchronized the FPS to be 60 or less.
-             */
-            startTime = System.nanoTime();
+    /**Draw one frame of the game.*/
+    @Override
+    protected void step() throws InterruptedException {
+        /*Start time of frame in ns*/
+        long startTime;
 
-            /*Set canvas null for*/
-            canvas = null;
+        /*Time of a stage of the frame in ns.*/
+        long stageTime;
+
+        /*Wait for the start of the frame, on the vsync or on the timer,
+         * and measure how late the thread woke up.*/
+        long frameTime = scheduler.awaitFrame();
+        if (!isRunning())
+            return;
+        metrics.record(FrameMetrics.Stage.SLEEP_OVERSHOOT, System.nanoTime() - frameTime);
+
+        /*Start time = System time (in ns).*/
+        startTime = System.nanoTime();
+        metrics.record(FrameMetrics.Stage.FRAME, startTime - previousTime);
+        previousTime = startTime;
+
+        /*The latest tick of the game, it isn't changed by SimulationThread while it's drawn.*/
+        WorldSnapshot snapshot = pongView.acquireSnapshot();
+
+        /*SimulationThread doesn't touch the metrics, the time of its tick comes with the snapshot.
+         *A tick is recorded once, the ticks replaced before they were drawn aren't.*/
+        if (snapshot.getTick() != recordedTick) {
+            recordedTick = snapshot.getTick();
+            metrics.record(FrameMetrics.Stage.UPDATE, snapshot.getUpdateNanos());
+        }
 
-            /*Trying to lock canvas and make the draw
-             * and update functions to be displayed on surfaceHolder.
-             * Can throw Exception on the method
-             * this.surfaceHolder.lockCanvas()
+        /*Fraction of the tick passed after the snapshot, to draw between its last two ticks.*/
+        float alpha = Math.max(0, Math.min(1, (frameTime - snapshot.getTickNanos()) / TICK_NANOS));
+        stageTime = System.nanoTime();
+
+        /*Only the parts which changed are drawn on the software canvas.*/
+        DirtyRegion dirty = pongView.track(snapshot, alpha);
+
+        /*True if the frame was begun, so it must be posted.*/
+        boolean begun = false;
+
+        /*Time of locking and posting the canvas, without the drawing.*/
+        long lockPostTime = 0;
+
+        /*Trying to lock canvas and make the draw
+         * function to be displayed on the surface.
+         * Can throw Exception on the method
+         * renderer.beginFrame(dirty)
+         */
+        try{
+            /*Lock the surface just for one
+             *Canvas to be drawn at the same time*/
+            begun = renderer.beginFrame(dirty);
+            lockPostTime = System.nanoTime() - stageTime;
+            stageTime = System.nanoTime();
+            /*Draw between the last two ticks.*/
+            if (begun) {
+                this.pongView.draw(renderer, snapshot, alpha);
+                metrics.record(FrameMetrics.Stage.DRAW, System.nanoTime() - stageTime);
+            }
+        }
+        catch(Exception e){
+            e.printStackTrace();
+        }
+        finally {
+            /*If the frame was begun then trying to unlock canvas
+             *and post it.
              */
-            try{
-                /*Lock the SurfaceHolder just for one
-                 *Canvas to be drawn at the same time*/
-                canvas = this.surfaceHolder.lockCanvas();
-                synchronized (surfaceHolder){
-                    this.pongView.update();
-                    this.pongView.draw(canvas);
+            if(begun){
+                stageTime = System.nanoTime();
+                try{
+                    renderer.endFrame();
                 }
-            }
-            catch(Exception e){
-                e.printStackTrace();
-            }
-            finally {
-                /*If canvas is != null then trying to unlock canvas
-                 *and post it.
-                 */
-                if(canvas != null){
-                    try{
-                        surfaceHolder.unlockCanvasAndPost(canvas);
-                    }
-                    catch(Exception e){
-                        e.printStackTrace();
-                    }
+                catch(Exception e){
+                    e.printStackTrace();
                 }
-            }
-            /*Set the time in ms current time - start time and convert to ms*/
-            timeMills = (System.nanoTime() - startTime)/1000000;
-
-            /*Set wait time for the next fps */
-            waitTime = targetTime - timeMills;
-            try{
-                /*Wait for the necessary time.*/
-                if(waitTime>0)
-                    sleep(waitTime);
-            }
-            catch(Exception e){
-                e.printStackTrace();
-            }
-            /*Increment total time.*/
-            totalTime += System.nanoTime() - startTime;
-
-            /*Increment frame count until it 60*/
-            frameCount++;
-
-            /*If frame count is equal to MAX_FPS then
-             *reset all the values specified to current second and
-             *print the average FPS.
-             */
-            if(frameCount == MAX_FPS) {
-                averageFPS = 1000/((totalTime/frameCount)/1000000);
-                frameCount = 0;
-                totalTime = 0;
-                System.out.println(averageFPS);
+                lockPostTime += System.nanoTime() - stageTime;
             }
         }
+        metrics.record(FrameMetrics.Stage.LOCK_POST, lockPostTime);
     }
 
+    @Override
+    protected void onShutdown() {
+        scheduler.release();
+        renderer.release();
+    }
 }
-
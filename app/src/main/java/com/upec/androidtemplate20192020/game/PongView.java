@@ -2,19 +2,45 @@ package com.upec.androidtemplate20192020.game;
 
 
 import android.annotation.SuppressLint;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
-import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.Point;
-import android.graphics.Rect;
+import android.os.Process;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
-
-
-/**A class which is used to store all game logic and interact with
- * threads (PongThread).
+import android.view.WindowManager;
+import com.upec.androidtemplate20192020.game.engine.DatagramTransport;
+import com.upec.androidtemplate20192020.game.engine.DirtyRegion;
+import com.upec.androidtemplate20192020.game.engine.FrameMetrics;
+import com.upec.androidtemplate20192020.game.engine.FrameScheduler;
+import com.upec.androidtemplate20192020.game.engine.GameConfig;
+import com.upec.androidtemplate20192020.game.engine.InputRing;
+import com.upec.androidtemplate20192020.game.engine.LatencyHistogram;
+import com.upec.androidtemplate20192020.game.engine.Level;
+import com.upec.androidtemplate20192020.game.engine.ParkingFrameScheduler;
+import com.upec.androidtemplate20192020.game.engine.Renderer;
+import com.upec.androidtemplate20192020.game.engine.ReplayRecorder;
+import com.upec.androidtemplate20192020.game.engine.RollbackSession;
+import com.upec.androidtemplate20192020.game.engine.SnapshotBuffer;
+import com.upec.androidtemplate20192020.game.engine.World;
+import com.upec.androidtemplate20192020.game.engine.WorldDrawer;
+import com.upec.androidtemplate20192020.game.engine.WorldPool;
+import com.upec.androidtemplate20192020.game.engine.WorldSnapshot;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**A class which is used to interact with threads (SimulationThread and PongThread),
+ * give the touch input to the game World and draw its snapshots.
  * The Android SurfaceView provides a dedicated drawing surface with
  * good render and speed of callback.
  * @author Ceban Cristian
@@ -28,45 +54,93 @@ public class PongView extends SurfaceView implements SurfaceHolder.Callback {
     /**The context which allows access callback for surfaceView.*/
     Context context;
 
-    /**A thread's class for run the pong Game.*/
-    private PongThread pongThread;
+    /**A thread's class for draw the pong Game, paused while there's no surface.*/
+    private final PongThread pongThread;
+
+    /**A thread's class for update the pong Game, paused while there's no surface.*/
+    private final SimulationThread simulationThread;
 
     /**Surface holder of the View.*/
     private SurfaceHolder surfaceHolder;
 
-    /**Player's rectangle.*/
-    private Rectangle player;
+    /**The settings of the game, read once from Constants.CONFIG with the mode of the game (gameConfig).*/
+    private final GameConfig config;
 
-    /**Bot's rectangle.*/
-    private Rectangle bot;
+    /**The game: rectangles, ball and score, only used by SimulationThread.*/
+    private World world;
 
-    /**Center of the player's rectangle.It is used to update
-     * the player's rectangle using the onTouchEvent.
-     */
-    private Point playerPoint;
+    /**New settings of the bot, given by the UI thread and applied by SimulationThread
+     * between two ticks, null if there are none.*/
+    private final AtomicReference<GameConfig> pendingConfig = new AtomicReference<>();
 
-    /**Center of the bot's rectangle.It is used to move the bot's
-     * rectangle along the screen.
-     */
-    private Point botPoint;
+    /**The last settings asked with setConfig.*/
+    private volatile GameConfig requestedConfig;
+
+    /**Snapshots of the world from SimulationThread to PongThread.*/
+    private final SnapshotBuffer snapshots;
+
+    /**Number of ticks published.*/
+    private long ticks;
+
+    /**Max. number of touches waiting for the game thread.*/
+    private static final int INPUT_CAPACITY = 256;
+
+    /**Touches from the UI thread to the game thread.*/
+    private final InputRing input = new InputRing(INPUT_CAPACITY);
+
+    /**Refresh rate of the screen.*/
+    private final float refreshRate;
+
+    /**Rate of the frames: Constants.TARGET_FPS, but not more than the refresh rate.*/
+    private final float framesPerSecond;
+
+    /**Timing of the frames, measured by the thread.*/
+    private final FrameMetrics metrics;
+
+    /**Lines of the metrics' overlay, rebuilt only once by second.*/
+    private final String[] metricsText = new String[FrameMetrics.Stage.values().length + 1];
+
+    /**Frames drawn since the metrics' overlay was rebuilt.*/
+    private int metricsFrames = Integer.MAX_VALUE;
 
-    /**Ball which is bounced from the paddle and the screen's edges.*/
-    private Ball ball;
+    /**The world of the next game, built and warmed up while the menu is shown,
+     * and the world of a finished game kept for the next one.*/
+    static final WorldPool WORLDS = new WorldPool(WorldPool.WARM_UP_TICKS);
 
-    /**Both rectangles width.*/
-    private int recW;
+    /**True while the warm-up thread runs, there's never more than one.*/
+    private static final AtomicBoolean WARMING_UP = new AtomicBoolean();
 
-    /**Both rectangles height.*/
-    private int recH;
+    /**The level of Constants.ARENA_LEVEL read from the assets and scaled to the screen,
+     * kept for the next games, the name of its file and the screen. Guarded by the class, see gameConfig.*/
+    private static Level arenaLevel;
+    private static String arenaName;
+    private static int arenaWidth, arenaHeight;
 
-    /**Player's score.*/
-    private static int leftScore;
+    /**Name of the file in which the last game is recorded.*/
+    static final String REPLAY_FILE = "last_game.replay";
 
-    /**Bot's score.*/
-    private static int rightScore;
+    /**Records the game in REPLAY_FILE, null if it's not recorded.*/
+    private ReplayRecorder recorder;
 
-    /**Paint to store the colors.*/
-    private Paint paint;
+    /**Address (IP) of the other device, read once from Constants.NETPLAY_PEER, null against the bot.*/
+    private final String peer;
+
+    /**The game against a player on another device (Constants.NETPLAY_PEER),
+     * null for a game against the bot. Only used by SimulationThread.*/
+    private RollbackSession session;
+
+    /**Paints of the styles of the drawing, by the ordinal of Renderer.Style.*/
+    private final Paint[] paints = new Paint[Renderer.Style.values().length];
+
+    /**Draws the snapshots of the world on the renderer.*/
+    private final WorldDrawer drawer;
+
+    /**Renderer on the surface of the view, the same for every surface.*/
+    private final SurfaceRenderer renderer;
+
+    /**Sprites of the game for the resolution of the surface, null until the surface
+     * is known or after it's evicted. Used only on the UI thread.*/
+    private SpriteAtlas atlas;
 
     /**Standard constructor which creates the game.
      *
@@ -78,43 +152,55 @@ public class PongView extends SurfaceView implements SurfaceHolder.Callback {
         /*Callback the holder.*/
         getHolder().addCallback(this);
 
-        /*Create the pong Thread.*/
-        pongThread = new PongThread(getHolder(), this);
-
-        /*Store the width and height of the rectangle in Constants.*/
-        sizeR();
-
-        /*Create the player's rectangle at the bottom of the screen.*/
-        player = new Rectangle(new Rect((int) (Constants.SCREEN_WIDTH / 2 - recW / 2), (int) (Constants.SCREEN_HEIGHT / 2 + recH / 2),
-                (int) (Constants.SCREEN_WIDTH / 2 + recW / 2), (int) (Constants.SCREEN_HEIGHT / 2 - recH / 2)), Color.rgb(255, 0, 0));
+        /*The frames are paced on the screen, 60, 90 or 120 Hz.*/
+        refreshRate = ((WindowManager) context.getSystemService(Context.WINDOW_SERVICE))
+                .getDefaultDisplay().getRefreshRate();
+        framesPerSecond = Constants.TARGET_FPS > 0 ? Math.min(Constants.TARGET_FPS, refreshRate) : refreshRate;
+        metrics = new FrameMetrics((long) (1e9 / framesPerSecond));
 
-        /*Create the bot's rectangle at the top of the screen.*/
-        bot = new Rectangle(new Rect((int) (Constants.SCREEN_WIDTH / 2 - recW / 2), (int) (Constants.SCREEN_HEIGHT / 2 + recH / 2),
-                (int) (Constants.SCREEN_WIDTH / 2 + recW / 2), (int) (Constants.SCREEN_HEIGHT / 2 - recH / 2)), Color.rgb(0, 0, 100));
+        /*Create the game with the screen's size, the chosen difficulty and the mode of the game.
+         *The world prepared in the menu is already built for it, it's only restarted.*/
+        peer = Constants.NETPLAY_PEER;
+        config = gameConfig(context, Constants.CONFIG, peer != null);
+        requestedConfig = config;
+        world = WORLDS.take(config, peer != null ? Constants.NETPLAY_SEED : System.nanoTime());
+        snapshots = new SnapshotBuffer(config.getBallCount());
 
-        /*Assign the player's point with the center of the player's rectangle.*/
-        playerPoint = new Point(Constants.SCREEN_WIDTH / 2 , Constants.SCREEN_HEIGHT - Constants.SCREEN_HEIGHT / 5);
+        /*All the paints are built once, so the draw doesn't allocate.*/
+        drawer = new WorldDrawer(config.getWidth(), config.getHeight());
+        for (int i = 0; i < paints.length; i++)
+            paints[i] = new Paint();
 
-        /*Assign the bot's point with the center of the bot's rectangle.*/
-        botPoint = new Point(Constants.SCREEN_WIDTH / 2, 100);
+        /*The game is on a white background.*/
+        paints[Renderer.Style.BACKGROUND.ordinal()].setColor(Color.WHITE);
 
-        /*The ball which will be bounced from the edges and the paddle.*/
-        ball = new Ball(225, 225, 35, Color.rgb(254, 50, 123));
+        /*The player's rectangle is red and the bot's rectangle is blue.*/
+        paints[Renderer.Style.PLAYER.ordinal()].setColor(Color.rgb(255, 0, 0));
+        paints[Renderer.Style.BOT.ordinal()].setColor(Color.rgb(0, 0, 100));
 
-        /*The player's score.*/
-        leftScore = 0;
+        /*The color of the ball.*/
+        paints[Renderer.Style.BALL.ordinal()].setColor(Color.rgb(254, 50, 123));
 
-        /*The bot's score.*/
-        rightScore = 0;
+        /*The bricks are gray.*/
+        paints[Renderer.Style.BRICK.ordinal()].setColor(Color.rgb(120, 120, 120));
 
-        /*Paint to store colors.*/
-        paint = new Paint();
+        /*Set the score with the black color.*/
+        paints[Renderer.Style.SCORE.ordinal()].setTextSize(50);
+        paints[Renderer.Style.SCORE.ordinal()].setColor(Color.BLACK);
 
-        /*Set the color of the paint to red.*/
-        paint.setColor(Color.RED);
+        /*The overlay of the metrics is small and gray.*/
+        paints[Renderer.Style.METRICS.ordinal()].setColor(Color.GRAY);
+        paints[Renderer.Style.METRICS.ordinal()].setTextSize(28);
 
         /*Focus the Context.*/
         setFocusable(true);
+
+        /*The threads live as long as the view, they wait for the surface.*/
+        renderer = new SurfaceRenderer(getHolder(), paints, Constants.HARDWARE_CANVAS);
+        simulationThread = new SimulationThread(this);
+        pongThread = new PongThread(renderer, this, newFrameScheduler());
+        simulationThread.start();
+        pongThread.start();
     }
 
     /**Function which is called when the surface was created.
@@ -124,37 +210,211 @@ public class PongView extends SurfaceView implements SurfaceHolder.Callback {
      */
     @Override
     public void surfaceCreated(SurfaceHolder surfaceHolder) {
-        /*Create the thread with current holder and run his.*/
-        pongThread = new PongThread(getHolder(), this);
-        pongThread.setRunning(true);
-        pongThread.start();
+        /*The difficulty may have been changed while the game was hidden.*/
+        setConfig(Constants.CONFIG);
+
+        /*Resume the threads, the game goes on from where it was paused.*/
+        simulationThread.resumeLoop();
+        pongThread.resumeLoop();
+    }
+
+    /**Create the scheduler of the frames chosen in Constants, it's released with the thread.
+     *
+     * @return the scheduler on the vsync, or on a timer.
+     */
+    private FrameScheduler newFrameScheduler() {
+        if (Constants.VSYNC_PACING)
+            return new VsyncFrameScheduler(refreshRate, Constants.TARGET_FPS);
+        return new ParkingFrameScheduler(framesPerSecond);
+    }
+
+    /**The settings of the game of the menu's settings: between two devices the balls move in
+     * fixed point, so both play the same bits whatever their processor, else the bricks of
+     * Constants.ARENA_LEVEL are added (they're only in the physics of the floats).
+     * The level is read from the assets and scaled to the screen once, by the warm-up thread if it ran.
+     *
+     * @param context the context of the assets.
+     * @param config the settings of the menu.
+     * @param netplay true for a game against a player on another device.
+     * @return the settings of the game.
+     */
+    static synchronized GameConfig gameConfig(Context context, GameConfig config, boolean netplay) {
+        if (netplay)
+            return config.withLevel(null).withFixedPoint(true);
+        String name = Constants.ARENA_LEVEL;
+        int width = config.getWidth(), height = config.getHeight();
+        if (name != null && (!name.equals(arenaName) || width != arenaWidth || height != arenaHeight)) {
+            Level level = readLevel(context, name);
+            arenaLevel = level != null ? level.scale(width, height) : null;
+            arenaName = name;
+            arenaWidth = width;
+            arenaHeight = height;
+        }
+        return config.withFixedPoint(false).withLevel(name != null ? arenaLevel : null);
+    }
+
+    /**Read a level of the assets, in pixels of a 1080x1920 screen (Level.WIDTH and HEIGHT).
+     * The game is played without bricks if it can't be read.
+     *
+     * @param context the context of the assets.
+     * @param name the name of the file in the assets.
+     * @return the level, or null.
+     */
+    private static Level readLevel(Context context, String name) {
+        try (Reader reader = new InputStreamReader(context.getAssets().open(name), "UTF-8")) {
+            return Level.read(reader);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**Open the link to the other device, or the replay's file of a game against the bot.
+     * It's called by SimulationThread before its first tick, so the UI thread doesn't
+     * wait for the socket or the file when the game starts.
+     */
+    void open() {
+        if (peer != null) {
+            /*Both devices play the same world, the peer plays the other rectangle.
+             *The peer is an IP, so nothing is resolved.*/
+            try {
+                session = new RollbackSession(world, Constants.NETPLAY_HOST,
+                        new DatagramTransport(new InetSocketAddress(Constants.NETPLAY_PORT),
+                                new InetSocketAddress(peer, Constants.NETPLAY_PORT)),
+                        RollbackSession.DEFAULT_MAX_ROLLBACK);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return;
+        }
+        /*Record the game, so it can be played again from the seed and the touches.*/
+        try {
+            recorder = new ReplayRecorder(world,
+                    new FileOutputStream(new File(context.getFilesDir(), REPLAY_FILE)).getChannel());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
+    /**Function which is called when the format or the size of the surface changed,
+     * and once after the surface was created.
+     * The sprites are built for the resolution of the surface, again only if it changed.
+     *
+     * @param surfaceHolder The surface.
+     * @param format The pixel format of the surface.
+     * @param width The width of the surface.
+     * @param height The height of the surface.
+     */
     @Override
-    public void surfaceChanged(SurfaceHolder surfaceHolder, int i, int i1, int i2) {
+    public void surfaceChanged(SurfaceHolder surfaceHolder, int format, int width, int height) {
+        if (atlas == null || !atlas.isFor(width, height))
+            atlas = new SpriteAtlas(config.withScreen(width, height), paints);
+        renderer.setAtlas(atlas);
+    }
 
+    /**Free the memory which can be built again when the system needs it,
+     * called by the activity. The sprites are built again on the next surface.
+     *
+     * @param level the level of ComponentCallbacks2.onTrimMemory.
+     */
+    public void trimMemory(int level) {
+        if (level < ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL)
+            return;
+        /*The renderer draws the objects without sprites until then.*/
+        atlas = null;
+        renderer.setAtlas(null);
     }
 
-    /**The function which stops the thread if the app was closed.
+    /**The function which pauses the threads when the surface is destroyed,
+     * when the app is hidden or rotated. It returns when they are parked,
+     * so nothing is drawn on the destroyed surface.
      *
      * @param surfaceHolder Surface to be destroyed.
      */
     @Override
     public void surfaceDestroyed(SurfaceHolder surfaceHolder) {
-        /*Stop the thread.*/
-        boolean retry = true;
-        while (true) {
-            try {
-                pongThread.setRunning(false);
-                pongThread.join();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-            retry = false;
+        pongThread.pauseLoop();
+        simulationThread.pauseLoop();
+    }
+
+    /**The function which stops the threads when the view is removed,
+     * when the app is closed.
+     */
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        try {
+            pongThread.shutdown();
+            simulationThread.shutdown();
+            /*Nothing uses the world now, the next game reuses it.*/
+            WORLDS.give(world);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
         }
     }
 
-    /**
+    /**True if the world of the next game is ready, built and warmed up.
+     *
+     * @param config the settings of the next game.
+     * @return true if the game will reuse a world.
+     */
+    public static boolean isPrepared(GameConfig config) {
+        return WORLDS.isReady(config);
+    }
+
+    /**True if the world of the next game of the menu's settings is built and warmed up.
+     *
+     * @param context the context of the assets of the level.
+     * @return true if the game will start without building its world.
+     */
+    public static boolean isPrepared(Context context) {
+        return isPrepared(gameConfig(context, Constants.CONFIG, Constants.NETPLAY_PEER != null));
+    }
+
+    /**Build and warm up the world of the next game on a background thread,
+     * while the menu is shown, so the game starts without building it and
+     * its first frames don't run in the interpreter.
+     * Only one warm-up runs at a time, it's called on the UI thread.
+     * The world is built for the mode of the game (gameConfig), the level is read there.
+     *
+     * @param context the context of the assets of the level.
+     * @param config the settings of the menu for the next game.
+     */
+    public static void prepare(Context context, final GameConfig config) {
+        if (!WARMING_UP.compareAndSet(false, true))
+            return;
+        final Context application = context.getApplicationContext();
+        final boolean netplay = Constants.NETPLAY_PEER != null;
+        /*Read now, so a game started before the thread runs cancels it too.*/
+        final int generation = WORLDS.getGeneration();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    /*Below the UI thread, the menu stays smooth.*/
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    WORLDS.prepare(gameConfig(application, config, netplay), generation);
+                } finally {
+                    WARMING_UP.set(false);
+                }
+            }
+        }, "warm-up");
+        thread.start();
+    }
+
+    /**Stop the warm-up in progress, the game starts and needs the processor.*/
+    public static void cancelPrepare() {
+        WORLDS.cancel();
+    }
+
+    /**True while the warm-up thread runs.*/
+    public static boolean isPreparing() {
+        return WARMING_UP.get();
+    }
+
+    /**Function which is called on the UI thread when the screen is touched.
+     * The touches are put in the input queue with their history (the touches
+     * between two events), the game thread reads them on its ticks.
      *
      * @param event absconding coordinates
      *              from the touched place.
@@ -166,82 +426,180 @@ public class PongView extends SurfaceView implements SurfaceHolder.Callback {
         switch (event.getAction()) {
             case MotionEvent.ACTION_DOWN:
             case MotionEvent.ACTION_MOVE:
-                playerPoint.set((int) event.getX(), (int) event.getY());
+                /*The times of the events are on the uptime clock, it's the clock of System.nanoTime().*/
+                for (int h = 0; h < event.getHistorySize(); h++)
+                    input.offer((int) event.getHistoricalX(h), event.getHistoricalEventTime(h) * 1000000L);
+                input.offer((int) event.getX(), event.getEventTime() * 1000000L);
         }
         return true;
     }
 
+    /**The parts of the next frame which changed since the previous one,
+     * called by the thread before the frame is begun.
+     *
+     * @param snapshot The latest tick of the game.
+     * @param alpha Fraction of the tick passed after the snapshot, between [0..1].
+     * @return the dirty region of the frame.
+     */
+    public DirtyRegion track(WorldSnapshot snapshot, float alpha) {
+        DirtyRegion region = drawer.track(snapshot, alpha);
+        /*The metrics are drawn over all the screen.*/
+        if (Constants.SHOW_FRAME_METRICS)
+            region.invalidateAll();
+        return region;
+    }
+
     /**Draw function which is called every frame by the thread.
      * It draws all the objects and sets the score on the screen.
+     * The moving objects are interpolated between the last two ticks,
+     * so the game looks smooth even if the FPS is not the rate of the ticks.
      *
-     * @param canvas The canvas on which will be drawn.
+     * @param renderer The renderer on which will be drawn.
+     * @param snapshot The latest tick of the game.
+     * @param alpha Fraction of the tick passed after the snapshot, between [0..1].
      */
-    @Override
-    public void draw(Canvas canvas) {
-        /*Reset game if any of the score reached 5 points.*/
-        if (leftScore == 5 || rightScore == 5)
-            resetGame();
-
-        /*Draw on the white canvas.*/
-        super.draw(canvas);
-        canvas.drawColor(Color.WHITE);
-
-        /*Draw the player's rectangle.*/
-        player.draw(canvas);
-
-        /*Draw the bot's rectangle.*/
-        bot.draw(canvas);
+    public void draw(Renderer renderer, WorldSnapshot snapshot, float alpha) {
+        drawer.draw(renderer, snapshot, alpha);
 
-        /*Draw the ball.*/
-        ball.draw(canvas);
-
-        /*Set the score with the black color on the center of the screen.*/
-        paint.setTextSize(50);
-        paint.setColor(Color.BLACK);
-        canvas.drawText(String.valueOf(leftScore), (float) (Constants.SCREEN_WIDTH * 0.33), (float) (Constants.SCREEN_HEIGHT * 0.5), paint);
-        canvas.drawText(String.valueOf(rightScore), (float) (Constants.SCREEN_WIDTH * 0.66), (float) (Constants.SCREEN_HEIGHT * 0.5), paint);
+        /*Draw the timing of the frames over the game.*/
+        if (Constants.SHOW_FRAME_METRICS)
+            drawMetrics(renderer);
     }
 
-    /**Update function which is called every frame by the thread.
-     * It draws all the objects and sets the score on the screen.
+    /**Draw the percentiles of every stage of the frames, in ms.
+     * The text is rebuilt only once by second, to not allocate every frame.
+     *
+     * @param renderer the renderer on which will be drawn.
      */
-    public void update() {
-        /*Update the player's rectangle position.*/
-        player.update(playerPoint, true,ball);
+    private void drawMetrics(Renderer renderer) {
+        if (++metricsFrames >= framesPerSecond) {
+            metricsFrames = 0;
+            for (FrameMetrics.Stage stage : FrameMetrics.Stage.values()) {
+                LatencyHistogram histogram = metrics.getHistogram(stage);
+                metricsText[stage.ordinal()] = String.format(Locale.US, "%s p50 %.1f p95 %.1f p99 %.1f max %.1f ms",
+                        stage, histogram.percentile(50) / 1e6, histogram.percentile(95) / 1e6,
+                        histogram.percentile(99) / 1e6, histogram.getMax() / 1e6);
+            }
+            metricsText[metricsText.length - 1] = String.format(Locale.US, "%.1f FPS, %d janks",
+                    metrics.getAverageFps(), metrics.getJankCount());
+        }
+        float textSize = paints[Renderer.Style.METRICS.ordinal()].getTextSize();
+        for (int i = 0; i < metricsText.length; i++)
+            renderer.drawText(metricsText[i], textSize, textSize * (i + 2), Renderer.Style.METRICS);
+    }
 
-        /*Update the bot's position.*/
-        bot.update(botPoint,false,ball);
+    /**Standard getter of the timing of the frames.*/
+    public FrameMetrics getFrameMetrics() {
+        return metrics;
+    }
 
-        /*Update the ball's position.*/
-        ball.update(player.getRect(),bot.getRect());
+    /**Update function which is called every tick by the thread.
+     * It moves all the objects on the screen.
+     *
+     * @param tickNanos the time of the tick on the clock of System.nanoTime(),
+     *                  the touches until this time are used by the tick.
+     */
+    public void update(long tickNanos) {
+        /*Against a player on another device, the session plays the tick with the last touch.*/
+        if (session != null) {
+            int localX = Constants.NETPLAY_HOST ? world.getPlayerX() : world.getBotX();
+            try {
+                session.advance(input.drainUntil(tickNanos, localX));
+            } catch (IOException e) {
+                e.printStackTrace();
+                closeSession();
+            }
+            return;
+        }
+        /*Change the bot between two ticks, and record it with the touches.*/
+        GameConfig changed = pendingConfig.getAndSet(null);
+        if (changed != null) {
+            world.setConfig(changed);
+            if (recorder != null) {
+                try {
+                    recorder.recordConfig(changed);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    stopRecording();
+                }
+            }
+        }
+        /*Move the player to the last touch of this tick.*/
+        world.setPlayerX(input.drainUntil(tickNanos, world.getPlayerX()));
+        /*Record the touch used by this tick.*/
+        if (recorder != null) {
+            try {
+                recorder.record(world.getPlayerX());
+            } catch (IOException e) {
+                e.printStackTrace();
+                stopRecording();
+            }
+        }
+        world.update();
     }
 
-    /**Save the rectangle width and height based
-     * on the screen width and height.
+    /**Publish the world to PongThread after a tick, called by SimulationThread.
+     *
+     * @param tickNanos the time of the tick on the clock of System.nanoTime().
+     * @param updateNanos the duration of the update of the tick in ns.
      */
-    public void sizeR() {
-        recW = (int) (Constants.SCREEN_WIDTH * 0.33);
-        recH = (int) (Constants.SCREEN_HEIGHT * 0.025);
+    void publish(long tickNanos, long updateNanos) {
+        WorldSnapshot back = snapshots.getBack();
+        back.copy(world, ++ticks, tickNanos);
+        back.setUpdateNanos(updateNanos);
+        snapshots.publish();
+    }
+
+    /**Latest snapshot of the world, called by PongThread before drawing a frame.*/
+    WorldSnapshot acquireSnapshot() {
+        return snapshots.acquire();
     }
 
-    /**Increment the player's score.*/
-    public static void incLeftScore() {
-        leftScore++;
+    /**Stop recording the game and close the replay's file.
+     * It's called by the thread when it stops, after the last update.
+     */
+    void stopRecording() {
+        if (recorder == null)
+            return;
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        recorder = null;
     }
 
-    /**Increment the bot's score.*/
-    public static void incRightScore() {
-        rightScore++;
+    /**Close the link to the other device, the bot plays the peer's rectangle from now.
+     * It's called by the thread when it stops, or when the link is broken.
+     */
+    void closeSession() {
+        if (session == null)
+            return;
+        try {
+            session.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        session = null;
+        world.setRemoteBot(false);
     }
 
-    /**Reset the score to 0 for both paddles.*/
-    public static void resetScore() {
-        leftScore = 0;
-        rightScore = 0;
+    /**Change the bot during the game, from any thread.
+     * It's applied by SimulationThread before its next tick,
+     * the other settings are kept since they need a new game.
+     *
+     * @param config the settings with the new difficulty and speed of the bot.
+     */
+    public void setConfig(GameConfig config) {
+        GameConfig requested = requestedConfig;
+        if (config.getDifficulty() == requested.getDifficulty() && config.getBotSpeed() == requested.getBotSpeed())
+            return;
+        requestedConfig = requested.withDifficulty(config.getDifficulty(), config.getBotSpeed());
+        pendingConfig.set(requestedConfig);
     }
 
     /**Reset the game.*/
     public void resetGame() {
-        resetScore();
+        world.resetScore();
     }
 }
\ No newline at end of file
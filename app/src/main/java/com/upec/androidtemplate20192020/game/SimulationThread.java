@@ -0,0 +1,111 @@
+package com.upec.androidtemplate20192020.game;
+
+import com.upec.androidtemplate20192020.game.engine.FixedStepLoop;
+import com.upec.androidtemplate20192020.game.engine.FrameScheduler;
+import com.upec.androidtemplate20192020.game.engine.ParkingFrameScheduler;
+import com.upec.androidtemplate20192020.game.engine.PausableThread;
+
+/**Thread which updates the game on a fixed timestep of TICKS_PER_SECOND.
+ * After every tick the world is copied in a snapshot and published to PongThread,
+ * which draws it. The two threads never wait for each other, so the physics
+ * go on even if a frame is slow to draw, and the surface isn't held during the updates.
+ * It lives as long as PongView: it's paused while the game is hidden, and the game
+ * goes on from the same tick when it's resumed.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+class SimulationThread extends PausableThread {
+
+    /**Rate of the game logic. The speeds in Constants are in pixels per tick,
+     * so this rate keeps the game as fast as when it was updated once per frame.
+     */
+    static final int TICKS_PER_SECOND = 60;
+
+    /**All game logic is here*/
+    private final PongView pongView;
+
+    /**Paces the ticks on a timer, without spinning: the touches have their own time,
+     * so waking up a bit late doesn't change the game.*/
+    private final FrameScheduler scheduler = new ParkingFrameScheduler(TICKS_PER_SECOND, 0);
+
+    /**Fixed timestep loop which catches up the ticks missed if the thread was late.*/
+    private final FixedStepLoop loop = new FixedStepLoop(TICKS_PER_SECOND);
+
+    /**Start time of the previous batch of ticks in ns.*/
+    private long previousTime;
+
+    /**Start time of the current batch of ticks in ns.*/
+    private long frameNanos;
+
+    /**True once the replay's file or the link to the other device was opened.*/
+    private boolean opened;
+
+    /**One tick of the game logic.*/
+    private final FixedStepLoop.Simulation simulation = new FixedStepLoop.Simulation() {
+        @Override
+        public void step() {
+            /*When some ticks are done at once, the earlier ticks get the earlier
+             *touches, and the last tick gets all of them for the lowest latency.*/
+            long lag = loop.getLagNanos();
+            long startTime = System.nanoTime();
+            /*As the draw of PongThread, a tick which throws is logged and the game goes on,
+             *else this thread would die and the last snapshot would stay on the screen.*/
+            try {
+                pongView.update(lag < loop.getStepNanos() ? Long.MAX_VALUE : frameNanos - lag);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            /*The time of the tick goes with its snapshot: the metrics are only written by PongThread.*/
+            pongView.publish(frameNanos - lag, System.nanoTime() - startTime);
+        }
+    };
+
+    /**Constructor, the thread is paused until resumeLoop.
+     *
+     * @param pongView Game logic.
+     */
+    SimulationThread(PongView pongView) {
+        super("simulation");
+        this.pongView = pongView;
+    }
+
+    @Override
+    protected void onResume() {
+        /*Before the first tick, on this thread and not on the UI thread.*/
+        if (!opened) {
+            opened = true;
+            pongView.open();
+        }
+        /*The time of the pause isn't played.*/
+        scheduler.resume();
+        previousTime = System.nanoTime();
+    }
+
+    @Override
+    protected void wake() {
+        /*Release the thread if it waits for a tick.*/
+        scheduler.stop();
+    }
+
+    /**Step the game logic for every tick passed from the previous batch.*/
+    @Override
+    protected void step() throws InterruptedException {
+        scheduler.awaitFrame();
+        if (!isRunning())
+            return;
+        long startTime = System.nanoTime();
+        frameNanos = startTime;
+        loop.advance(startTime - previousTime, simulation);
+        previousTime = startTime;
+    }
+
+    @Override
+    protected void onShutdown() {
+        scheduler.release();
+        /*No more updates, so the replay of the game is complete.*/
+        pongView.stopRecording();
+        pongView.closeSession();
+    }
+}
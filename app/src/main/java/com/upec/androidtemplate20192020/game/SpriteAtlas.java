@@ -0,0 +1,163 @@
+package com.upec.androidtemplate20192020.game;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import com.upec.androidtemplate20192020.game.engine.GameConfig;
+import com.upec.androidtemplate20192020.game.engine.Renderer;
+
+/**One bitmap with the sprites of the game pre-rasterized: the ball, the two rectangles
+ * and the glyphs of the digits of the score, so a frame is only blits of the bitmap.
+ * It's built for the size of the screen (the size of the objects depends on it),
+ * so it's built again when the resolution changes.
+ * It's immutable once built: the UI thread builds a new one and gives it to the renderer,
+ * the old one is freed by the GC, never while it's drawn.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+class SpriteAtlas {
+
+    /**Empty pixels around the sprites, so the filtering doesn't take the next sprite.*/
+    private static final int PADDING = 2;
+
+    /**Max. width of a row of sprites in the bitmap, wider sprites have a row of their own.*/
+    private static final int ROW_WIDTH = 512;
+
+    /**Index of the sprites.*/
+    private static final int BALL = 0, PLAYER = 1, BOT = 2, DIGITS = 3, SPRITES = DIGITS + 10;
+
+    /**The size of the screen of the atlas.*/
+    private final int width, height;
+
+    /**The bitmap of all the sprites.*/
+    private final Bitmap bitmap;
+
+    /**Part of the bitmap of every sprite.*/
+    private final Rect[] sprites = new Rect[SPRITES];
+
+    /**Size of the objects of the sprites, as they are drawn by the game.*/
+    private final float ballRadius;
+    private final int paddleWidth, paddleHeight;
+
+    /**Advance of every digit, and the distance from the baseline to the top of the glyphs.*/
+    private final float[] advances = new float[10];
+    private final float ascent;
+
+    /**Build the atlas, on the UI thread.
+     *
+     * @param config the settings of the game on this screen.
+     * @param paints the paint of every style, by the ordinal of the style.
+     */
+    SpriteAtlas(GameConfig config, Paint[] paints) {
+        width = config.getWidth();
+        height = config.getHeight();
+        ballRadius = config.getBallRadius();
+        paddleWidth = config.getPaddleWidth();
+        paddleHeight = config.getPaddleHeight();
+        Paint score = paints[Renderer.Style.SCORE.ordinal()];
+        Paint.FontMetrics metrics = score.getFontMetrics();
+        ascent = (float) Math.ceil(-metrics.ascent);
+        int glyphHeight = (int) (ascent + Math.ceil(metrics.descent));
+        char[] digit = new char[1];
+
+        /*The size of the sprites, then their place in rows.*/
+        int ball = (int) Math.ceil(2 * ballRadius);
+        int[] spriteWidths = new int[SPRITES], spriteHeights = new int[SPRITES];
+        spriteWidths[BALL] = spriteHeights[BALL] = ball;
+        spriteWidths[PLAYER] = spriteWidths[BOT] = paddleWidth;
+        spriteHeights[PLAYER] = spriteHeights[BOT] = paddleHeight;
+        for (int i = 0; i < 10; i++) {
+            digit[0] = (char) ('0' + i);
+            advances[i] = score.measureText(digit, 0, 1);
+            spriteWidths[DIGITS + i] = (int) Math.ceil(advances[i]);
+            spriteHeights[DIGITS + i] = glyphHeight;
+        }
+        int x = 0, y = 0, rowHeight = 0, bitmapWidth = 1;
+        for (int i = 0; i < SPRITES; i++) {
+            if (x > 0 && x + spriteWidths[i] + PADDING > ROW_WIDTH) {
+                x = 0;
+                y += rowHeight;
+                rowHeight = 0;
+            }
+            sprites[i] = new Rect(x + PADDING, y + PADDING,
+                    x + PADDING + spriteWidths[i], y + PADDING + spriteHeights[i]);
+            x += spriteWidths[i] + PADDING;
+            rowHeight = Math.max(rowHeight, spriteHeights[i] + PADDING);
+            bitmapWidth = Math.max(bitmapWidth, x + PADDING);
+        }
+        bitmap = Bitmap.createBitmap(bitmapWidth, y + rowHeight + PADDING, Bitmap.Config.ARGB_8888);
+
+        /*Rasterize every sprite once, with the paints of the game.*/
+        Canvas canvas = new Canvas(bitmap);
+        Rect sprite = sprites[BALL];
+        canvas.drawCircle(sprite.left + ball / 2f, sprite.top + ball / 2f, ballRadius,
+                paints[Renderer.Style.BALL.ordinal()]);
+        sprite = sprites[PLAYER];
+        canvas.drawRect(sprite, paints[Renderer.Style.PLAYER.ordinal()]);
+        sprite = sprites[BOT];
+        canvas.drawRect(sprite, paints[Renderer.Style.BOT.ordinal()]);
+        for (int i = 0; i < 10; i++) {
+            digit[0] = (char) ('0' + i);
+            sprite = sprites[DIGITS + i];
+            canvas.drawText(digit, 0, 1, sprite.left, sprite.top + ascent, score);
+        }
+    }
+
+    /**True if the atlas was built for this size of screen.*/
+    boolean isFor(int width, int height) {
+        return this.width == width && this.height == height;
+    }
+
+    /**Standard getter of the bitmap of all the sprites.*/
+    Bitmap getBitmap() {
+        return bitmap;
+    }
+
+    /**The sprite of a circle, null if the atlas hasn't this circle.
+     *
+     * @param radius the radius of the circle.
+     * @param style the style of the circle.
+     * @return the part of the bitmap of the sprite.
+     */
+    Rect getCircle(float radius, Renderer.Style style) {
+        return style == Renderer.Style.BALL && radius == ballRadius ? sprites[BALL] : null;
+    }
+
+    /**The sprite of a rectangle, null if the atlas hasn't this rectangle.
+     *
+     * @param width the width of the rectangle.
+     * @param height the height of the rectangle.
+     * @param style the style of the rectangle.
+     * @return the part of the bitmap of the sprite.
+     */
+    Rect getRect(float width, float height, Renderer.Style style) {
+        if (width != paddleWidth || height != paddleHeight)
+            return null;
+        if (style == Renderer.Style.PLAYER)
+            return sprites[PLAYER];
+        return style == Renderer.Style.BOT ? sprites[BOT] : null;
+    }
+
+    /**The glyph of a digit, null if the atlas hasn't the glyphs of this style.
+     *
+     * @param digit the digit, between [0..9].
+     * @param style the style of the text.
+     * @return the part of the bitmap of the glyph.
+     */
+    Rect getDigit(int digit, Renderer.Style style) {
+        return style == Renderer.Style.SCORE ? sprites[DIGITS + digit] : null;
+    }
+
+    /**Standard getter of the advance of a digit, from its start to the start of the next one.*/
+    float getAdvance(int digit) {
+        return advances[digit];
+    }
+
+    /**Standard getter of the distance from the baseline to the top of the glyphs.*/
+    float getAscent() {
+        return ascent;
+    }
+}
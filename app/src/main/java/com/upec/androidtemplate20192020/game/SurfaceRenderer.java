@@ -0,0 +1,238 @@
+package com.upec.androidtemplate20192020.game;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Build;
+import android.view.SurfaceHolder;
+import com.upec.androidtemplate20192020.game.engine.DirtyRegion;
+import com.upec.androidtemplate20192020.game.engine.Renderer;
+
+/**Renderer on the surface of PongView.
+ * On API 23+ the frames are drawn with Surface.lockHardwareCanvas, on the GPU,
+ * else (or if the hardware canvas fails) with SurfaceHolder.lockCanvas, in software.
+ * The layer (background and scores) is pre-rendered in a bitmap of the size
+ * of the surface, and rendered again only when it's invalidated.
+ * The software canvas locks only the bounds of the dirty region, the surface keeps
+ * the rest of the previous frame, and the layer is drawn only in the rectangles of the region.
+ * The ball, the rectangles and the digits are blits of the SpriteAtlas when it has them,
+ * else (before the atlas is built, after it's evicted) they are rasterized.
+ * It's used only by PongThread.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+class SurfaceRenderer implements Renderer {
+
+    /**Surface holder where the frames are drawn.*/
+    private final SurfaceHolder surfaceHolder;
+
+    /**Paint of every style, by the ordinal of the style.*/
+    private final Paint[] paints;
+
+    /**True while the hardware canvas can be used.*/
+    private boolean hardware;
+
+    /**Canvas of the current frame, null out of a frame.*/
+    private Canvas canvas;
+
+    /**True if the canvas of the current frame is a hardware canvas.*/
+    private boolean hardwareFrame;
+
+    /**Sprites given by the UI thread, null while there are none.*/
+    private volatile SpriteAtlas atlas;
+
+    /**Sprites of the current frame, the same for all the frame.*/
+    private SpriteAtlas frameAtlas;
+
+    /**Paint of the blits, filtered for the positions between two pixels.*/
+    private final Paint spritePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    /**Where a sprite is drawn.*/
+    private final RectF spriteRect = new RectF();
+
+    /**Digits of a number, the text of a number without atlas.*/
+    private final char[] digits = new char[10];
+
+    /**Dirty region of the current frame, null if the frame is drawn whole.*/
+    private DirtyRegion partialRegion;
+
+    /**The part of the surface locked, and a rectangle of the layer to draw.*/
+    private final Rect dirtyRect = new Rect(), layerRect = new Rect();
+
+    /**Where the calls draw: the canvas of the frame, or the layer while it's rendered.*/
+    private Canvas target;
+
+    /**Pre-rendered layer and its canvas, null before the first frame.*/
+    private Bitmap layerBitmap;
+    private Canvas layerCanvas;
+
+    /**True if the layer must be rendered on the next drawLayer.*/
+    private boolean layerInvalid = true;
+
+    /**Standard constructor.
+     *
+     * @param surfaceHolder the surface holder where the frames are drawn.
+     * @param paints the paint of every style, by the ordinal of the style.
+     * @param hardware true to draw on the GPU when the device can.
+     */
+    SurfaceRenderer(SurfaceHolder surfaceHolder, Paint[] paints, boolean hardware) {
+        this.surfaceHolder = surfaceHolder;
+        this.paints = paints;
+        this.hardware = hardware && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M;
+    }
+
+    @Override
+    public boolean beginFrame(DirtyRegion dirty) {
+        canvas = null;
+        hardwareFrame = false;
+        partialRegion = null;
+        frameAtlas = atlas;
+        if (hardware) {
+            try {
+                canvas = surfaceHolder.getSurface().lockHardwareCanvas();
+                hardwareFrame = true;
+            } catch (RuntimeException e) {
+                /*The surface can't be drawn on the GPU, the software canvas is used from now.*/
+                e.printStackTrace();
+                hardware = false;
+            }
+        }
+        if (canvas == null && dirty != null && !dirty.isFull() && layerBitmap != null && !layerInvalid) {
+            dirtyRect.set(dirty.getBoundsLeft(), dirty.getBoundsTop(), dirty.getBoundsRight(), dirty.getBoundsBottom());
+            canvas = surfaceHolder.lockCanvas(dirtyRect);
+            /*The surface gives a bigger rectangle when it couldn't keep the previous frame,
+             * then all the frame is drawn.*/
+            if (canvas != null && dirtyRect.left == dirty.getBoundsLeft() && dirtyRect.top == dirty.getBoundsTop()
+                    && dirtyRect.right == dirty.getBoundsRight() && dirtyRect.bottom == dirty.getBoundsBottom())
+                partialRegion = dirty;
+        }
+        if (canvas == null)
+            canvas = surfaceHolder.lockCanvas();
+        target = canvas;
+        return canvas != null;
+    }
+
+    @Override
+    public void fill(Style style) {
+        target.drawColor(paints[style.ordinal()].getColor());
+    }
+
+    @Override
+    public void drawLayer(Layer layer) {
+        /*The layer has the size of the surface, it's created again if the surface changed.*/
+        if (layerBitmap == null || layerBitmap.getWidth() != canvas.getWidth()
+                || layerBitmap.getHeight() != canvas.getHeight()) {
+            release();
+            layerBitmap = Bitmap.createBitmap(canvas.getWidth(), canvas.getHeight(), Bitmap.Config.ARGB_8888);
+            layerCanvas = new Canvas(layerBitmap);
+            layerInvalid = true;
+        }
+        if (layerInvalid) {
+            layerInvalid = false;
+            target = layerCanvas;
+            layer.draw(this);
+            target = canvas;
+        }
+        if (partialRegion == null) {
+            canvas.drawBitmap(layerBitmap, 0, 0, null);
+            return;
+        }
+        /*Only the rectangles of the region, the rest of the locked bounds is kept from the previous frame.*/
+        for (int i = 0; i < partialRegion.getCount(); i++) {
+            layerRect.set(partialRegion.getLeft(i), partialRegion.getTop(i),
+                    partialRegion.getRight(i), partialRegion.getBottom(i));
+            canvas.drawBitmap(layerBitmap, layerRect, layerRect, null);
+        }
+    }
+
+    @Override
+    public void invalidateLayer() {
+        layerInvalid = true;
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Style style) {
+        Rect sprite = frameAtlas == null ? null
+                : frameAtlas.getRect(Math.abs(right - left), Math.abs(bottom - top), style);
+        if (sprite == null) {
+            target.drawRect(left, top, right, bottom, paints[style.ordinal()]);
+            return;
+        }
+        spriteRect.set(Math.min(left, right), Math.min(top, bottom), Math.max(left, right), Math.max(top, bottom));
+        target.drawBitmap(frameAtlas.getBitmap(), sprite, spriteRect, spritePaint);
+    }
+
+    @Override
+    public void drawCircle(float x, float y, float radius, Style style) {
+        Rect sprite = frameAtlas == null ? null : frameAtlas.getCircle(radius, style);
+        if (sprite == null) {
+            target.drawCircle(x, y, radius, paints[style.ordinal()]);
+            return;
+        }
+        /*The sprite has whole pixels, its center is the center of the circle.*/
+        float half = sprite.width() / 2f;
+        spriteRect.set(x - half, y - half, x + half, y + half);
+        target.drawBitmap(frameAtlas.getBitmap(), sprite, spriteRect, spritePaint);
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Style style) {
+        target.drawText(text, x, y, paints[style.ordinal()]);
+    }
+
+    @Override
+    public void drawNumber(int value, float x, float y, Style style) {
+        /*The digits from the last one.*/
+        int start = digits.length;
+        do {
+            digits[--start] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        if (frameAtlas == null || frameAtlas.getDigit(0, style) == null) {
+            target.drawText(digits, start, digits.length - start, x, y, paints[style.ordinal()]);
+            return;
+        }
+        for (int i = start; i < digits.length; i++) {
+            int digit = digits[i] - '0';
+            Rect glyph = frameAtlas.getDigit(digit, style);
+            float top = y - frameAtlas.getAscent();
+            spriteRect.set(x, top, x + glyph.width(), top + glyph.height());
+            target.drawBitmap(frameAtlas.getBitmap(), glyph, spriteRect, spritePaint);
+            x += frameAtlas.getAdvance(digit);
+        }
+    }
+
+    @Override
+    public void endFrame() {
+        /*A hardware canvas is posted by its surface, the holder only knows its own lock.*/
+        if (hardwareFrame)
+            surfaceHolder.getSurface().unlockCanvasAndPost(canvas);
+        else
+            surfaceHolder.unlockCanvasAndPost(canvas);
+        canvas = null;
+        target = null;
+        partialRegion = null;
+        frameAtlas = null;
+    }
+
+    /**Give the sprites to draw from the next frame, called by the UI thread.
+     *
+     * @param atlas the sprites, null to rasterize everything.
+     */
+    void setAtlas(SpriteAtlas atlas) {
+        this.atlas = atlas;
+    }
+
+    /**Free the pre-rendered layer, it's rendered again on the next frame.*/
+    void release() {
+        if (layerBitmap != null)
+            layerBitmap.recycle();
+        layerBitmap = null;
+        layerCanvas = null;
+        layerInvalid = true;
+    }
+}
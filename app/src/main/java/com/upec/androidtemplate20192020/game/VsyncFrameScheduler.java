@@ -0,0 +1,155 @@
+package com.upec.androidtemplate20192020.game;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.view.Choreographer;
+import com.upec.androidtemplate20192020.game.engine.FrameScheduler;
+
+/**Frame scheduler on the vsync of the screen.
+ * The Choreographer calls doFrame on every vsync on its own thread,
+ * and the game thread waiting in awaitFrame is woken up on the vsyncs
+ * of its target rate. On a 90 or 120 Hz screen the game runs at 90 or 120 FPS,
+ * with a lower target rate some vsyncs are skipped (60 FPS on 120 Hz is one of two).
+ * The period of the vsync is measured, so it adapts if the screen changes its rate.
+ * While it's stopped the callback isn't posted again, so a paused game doesn't get the vsyncs.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+class VsyncFrameScheduler implements FrameScheduler, Choreographer.FrameCallback {
+
+    /**Thread on which the Choreographer calls doFrame.*/
+    private final HandlerThread thread = new HandlerThread("vsync");
+
+    /**Handler of the thread.*/
+    private final Handler handler;
+
+    /**Choreographer of the thread, set on the thread.*/
+    private Choreographer choreographer;
+
+    /**Wanted rate of the frames, 0 for the rate of the screen.*/
+    private final float targetFps;
+
+    /**Measured period of the vsync in ns.*/
+    private volatile long vsyncNanos;
+
+    /**Time of the previous vsync, 0 before the first one.*/
+    private long previousVsync;
+
+    /**Vsyncs passed since the last frame.*/
+    private int skipped;
+
+    /**Time of the last frame given to the game thread, guarded by this.*/
+    private long frameTime;
+
+    /**Time of the last frame returned by awaitFrame, used only by the game thread.*/
+    private long returnedTime;
+
+    /**True when stopped, the game thread doesn't wait any more. It's stopped until the first resume.*/
+    private volatile boolean stopped = true;
+
+    /**True while a callback is posted to the Choreographer, used only by the vsync thread.*/
+    private boolean posted;
+
+    /**Post the callback of the vsync if it's not posted, on the vsync thread.*/
+    private final Runnable post = new Runnable() {
+        @Override
+        public void run() {
+            /*The Choreographer belongs to the thread of its Looper.*/
+            if (choreographer == null)
+                choreographer = Choreographer.getInstance();
+            /*The paused time isn't a period of the vsync.*/
+            previousVsync = 0;
+            if (!posted && !stopped) {
+                posted = true;
+                choreographer.postFrameCallback(VsyncFrameScheduler.this);
+            }
+        }
+    };
+
+    /**Standard constructor, it listens to the vsync from the first resume.
+     *
+     * @param refreshRate the refresh rate of the screen, Display.getRefreshRate().
+     * @param targetFps the wanted rate of the frames, 0 for the rate of the screen.
+     */
+    VsyncFrameScheduler(float refreshRate, float targetFps) {
+        if (!(refreshRate > 0))
+            throw new IllegalArgumentException("refreshRate must be positive: " + refreshRate);
+        this.vsyncNanos = (long) (1e9 / refreshRate);
+        this.targetFps = targetFps;
+        thread.start();
+        handler = new Handler(thread.getLooper());
+    }
+
+    /**Called by the Choreographer on every vsync.
+     *
+     * @param frameTimeNanos the time of the vsync, on the clock of System.nanoTime().
+     */
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        posted = false;
+        if (stopped)
+            return;
+        posted = true;
+        choreographer.postFrameCallback(this);
+        /*Measure the vsync, the periods longer than 1.5 vsync are missed vsyncs and not a new rate.*/
+        if (previousVsync != 0) {
+            long period = frameTimeNanos - previousVsync;
+            if (period > 0 && period < vsyncNanos + (vsyncNanos >> 1))
+                vsyncNanos += (period - vsyncNanos) >> 3;
+        }
+        previousVsync = frameTimeNanos;
+        /*Skip the vsyncs which come before the next frame of the target rate.*/
+        if (++skipped < vsyncsPerFrame())
+            return;
+        skipped = 0;
+        synchronized (this) {
+            frameTime = frameTimeNanos;
+            notifyAll();
+        }
+    }
+
+    /**Number of vsyncs of one frame, for the target rate.*/
+    private int vsyncsPerFrame() {
+        if (targetFps <= 0)
+            return 1;
+        return Math.max(1, Math.round((float) (1e9 / targetFps / vsyncNanos)));
+    }
+
+    @Override
+    public synchronized long awaitFrame() throws InterruptedException {
+        while (!stopped && frameTime == returnedTime)
+            wait();
+        if (stopped)
+            return System.nanoTime();
+        returnedTime = frameTime;
+        return returnedTime;
+    }
+
+    @Override
+    public long getFrameNanos() {
+        return vsyncNanos * vsyncsPerFrame();
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    @Override
+    public void resume() {
+        stopped = false;
+        handler.post(post);
+    }
+
+    @Override
+    public void release() {
+        stop();
+        /*The callbacks already posted are dropped with the Looper.*/
+        thread.quitSafely();
+    }
+}
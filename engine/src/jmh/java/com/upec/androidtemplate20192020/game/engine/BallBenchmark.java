@@ -0,0 +1,92 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**Benchmarks of the ball: the whole update and every collision check alone.
+ * The checks which change the ball (paddle hit, edge bounce) first put the ball
+ * back in the same state, so every operation measures the same path.
+ * countBounce is a parameter, the higher it is the faster the ball moves.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BallBenchmark {
+
+    /**Number of bounces from the paddles, the speed of the ball is GameConfig.getBallSpeed() + countBounce.*/
+    @Param({"0", "50", "500"})
+    public int countBounce;
+
+    private World world;
+    private BallStore balls;
+    private Rectangle player;
+    private Rectangle bot;
+
+    /**Create the world and put the rectangles on their place.*/
+    @Setup
+    public void setUp() {
+        world = new World(BenchmarkWorlds.WIDTH, BenchmarkWorlds.HEIGHT, 10, 10);
+        world.update();
+        balls = world.getBalls();
+        player = world.getPlayer();
+        bot = world.getBot();
+        balls.setState(0, BenchmarkWorlds.WIDTH * 0.5f, BenchmarkWorlds.HEIGHT * 0.5f, 3, 7, countBounce);
+    }
+
+    /**The whole update of the ball, it moves freely and sometimes hits the paddles.*/
+    @Benchmark
+    public BallStore update() {
+        balls.update(player, bot);
+        return balls;
+    }
+
+    /**The ball hits the player's rectangle.*/
+    @Benchmark
+    public BallStore checkPaddleUp() {
+        balls.setState(0, player.centerX() + 40, player.centerY() - 10, 3, 10 + countBounce, countBounce);
+        balls.checkPaddleUp(0, player);
+        return balls;
+    }
+
+    /**The ball hits the bot's rectangle.*/
+    @Benchmark
+    public BallStore checkPaddleDown() {
+        balls.setState(0, bot.centerX() - 40, bot.centerY() + 10, 3, -10 - countBounce, countBounce);
+        balls.checkPaddleDown(0, bot);
+        return balls;
+    }
+
+    /**The ball misses the player's rectangle, the usual case of every tick.*/
+    @Benchmark
+    public BallStore checkPaddleMiss() {
+        balls.setState(0, BenchmarkWorlds.WIDTH * 0.5f, BenchmarkWorlds.HEIGHT * 0.5f, 3, 10 + countBounce, countBounce);
+        balls.checkPaddleUp(0, player);
+        balls.checkPaddleDown(0, bot);
+        return balls;
+    }
+
+    /**The ball bounces from the right edge.*/
+    @Benchmark
+    public BallStore edges() {
+        balls.setState(0, BenchmarkWorlds.WIDTH - 10, BenchmarkWorlds.HEIGHT * 0.5f, 10 + countBounce, 3, countBounce);
+        balls.edges(0);
+        return balls;
+    }
+}
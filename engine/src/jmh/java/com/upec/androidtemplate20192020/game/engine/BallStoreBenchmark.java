@@ -0,0 +1,72 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**Benchmarks of the party mode: one tick of many balls in the struct of arrays store.
+ * The time of a tick divided by the number of balls should stay the same
+ * from 1 to 10k balls, so the update is linear and reads the memory in order.
+ * The fixed-point physics must be at least as fast as the floats.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BallStoreBenchmark {
+
+    /**Number of balls in the world.*/
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int balls;
+
+    /**True for the fixed-point physics (World.setFixedPoint).*/
+    @Param({"false", "true"})
+    public boolean fixedPoint;
+
+    private World world;
+    private BallStore store;
+    private Rectangle player;
+    private Rectangle bot;
+
+    /**Create the world, every ball starts from the center with a random angle.
+     * Some ticks are done so the balls are spread on the screen.*/
+    @Setup
+    public void setUp() {
+        world = new World(BenchmarkWorlds.WIDTH, BenchmarkWorlds.HEIGHT, 10, 10, balls);
+        world.setFixedPoint(fixedPoint);
+        for (int i = 0; i < 100; i++)
+            world.update();
+        store = world.getBalls();
+        player = world.getPlayer();
+        bot = world.getBot();
+    }
+
+    /**One tick of all the balls against both paddles and the edges.*/
+    @Benchmark
+    public BallStore update() {
+        store.update(player, bot);
+        return store;
+    }
+
+    /**One tick of the world, with the bot looking for the nearest ball.*/
+    @Benchmark
+    public World tick() {
+        world.update();
+        return world;
+    }
+}
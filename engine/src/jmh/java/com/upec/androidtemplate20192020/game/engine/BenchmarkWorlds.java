@@ -0,0 +1,19 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**Common sizes of the worlds used by the benchmarks.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+final class BenchmarkWorlds {
+
+    /**Width of a full HD phone in portrait.*/
+    static final int WIDTH = 1080;
+
+    /**Height of a full HD phone in portrait.*/
+    static final int HEIGHT = 1920;
+
+    private BenchmarkWorlds() {
+    }
+}
@@ -0,0 +1,76 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**Benchmarks of the vector of speed of a bounce: StrictMath as the versions before,
+ * Math, and BounceTable. Every operation takes the next of some random angles of a bounce,
+ * so the angle isn't a constant for the JIT.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BounceTableBenchmark {
+
+    /**Degrees to radians, as BallStore.*/
+    private static final double DEGREES_TO_RADIANS = Math.PI / 180;
+
+    private final float[] angles = new float[1024];
+    private int next;
+
+    /**Random angles between -60 and 60 degrees.*/
+    @Setup
+    public void setUp() {
+        GameRandom random = new GameRandom(1972);
+        for (int i = 0; i < angles.length; i++)
+            angles[i] = (float) random.nextDouble(-BounceTable.MAX_ANGLE, BounceTable.MAX_ANGLE);
+    }
+
+    private float nextAngle() {
+        next = (next + 1) & (angles.length - 1);
+        return angles[next];
+    }
+
+    /**The bounce before the table.*/
+    @Benchmark
+    public float strictMath() {
+        float angle = nextAngle();
+        float xSpeed = (float) (20 * StrictMath.sin(angle * DEGREES_TO_RADIANS));
+        float ySpeed = (float) (20 * StrictMath.cos(angle * DEGREES_TO_RADIANS));
+        return xSpeed + ySpeed;
+    }
+
+    /**Math, not the same on every java version, for comparison.*/
+    @Benchmark
+    public float math() {
+        float angle = nextAngle();
+        float xSpeed = (float) (20 * Math.sin(angle * DEGREES_TO_RADIANS));
+        float ySpeed = (float) (20 * Math.cos(angle * DEGREES_TO_RADIANS));
+        return xSpeed + ySpeed;
+    }
+
+    /**The bounce with the table.*/
+    @Benchmark
+    public float table() {
+        float angle = nextAngle();
+        float xSpeed = 20 * BounceTable.sin(angle);
+        float ySpeed = 20 * BounceTable.cos(angle);
+        return xSpeed + ySpeed;
+    }
+}
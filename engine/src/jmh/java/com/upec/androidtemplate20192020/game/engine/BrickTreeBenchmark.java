@@ -0,0 +1,111 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**Benchmarks of the brick hit by a ball in one tick: the query of the BrickTree, the
+ * test of every brick as a level without the tree would do, and the removal of a brick.
+ * Every query is the next of some random movements of a ball over the bricks.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BrickTreeBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int bricks;
+
+    private Level level;
+    private BrickTree tree;
+
+    /**Starts and movements of the balls.*/
+    private final float[] x = new float[1024], y = new float[1024], dx = new float[1024], dy = new float[1024];
+    private int next;
+
+    /**Next brick to remove.*/
+    private int removed;
+
+    /**A square grid of bricks of 40x20 px, and balls moving on it.*/
+    @Setup
+    public void setUp() {
+        int columns = (int) Math.ceil(Math.sqrt(bricks));
+        int[] left = new int[bricks], top = new int[bricks], right = new int[bricks], bottom = new int[bricks];
+        int[] hits = new int[bricks];
+        for (int i = 0; i < bricks; i++) {
+            left[i] = (i % columns) * 44;
+            top[i] = (i / columns) * 24;
+            right[i] = left[i] + 40;
+            bottom[i] = top[i] + 20;
+            hits[i] = 1;
+        }
+        level = new Level(left, top, right, bottom, hits);
+        tree = new BrickTree(level);
+        GameRandom random = new GameRandom(1972);
+        for (int i = 0; i < x.length; i++) {
+            x[i] = random.nextInt(0, columns * 44);
+            y[i] = random.nextInt(0, (bricks / columns + 1) * 24);
+            dx[i] = random.nextInt(-30, 31);
+            dy[i] = random.nextInt(-30, 31);
+        }
+    }
+
+    /**The query of the tree.*/
+    @Benchmark
+    public int tree() {
+        next = (next + 1) & (x.length - 1);
+        return tree.sweep(x[next], y[next], World.BALL_RADIUS, dx[next], dy[next]);
+    }
+
+    /**Every brick is tested, the same hit as the tree.*/
+    @Benchmark
+    public int linearScan() {
+        next = (next + 1) & (x.length - 1);
+        float ballX = x[next], ballY = y[next], moveX = dx[next], moveY = dy[next];
+        int hit = -1;
+        float best = Float.POSITIVE_INFINITY;
+        for (int brick = 0; brick < bricks; brick++) {
+            float left = level.getLeft(brick), top = level.getTop(brick);
+            float right = level.getRight(brick), bottom = level.getBottom(brick);
+            float t = Collisions.sweepCircleRect(ballX, ballY, World.BALL_RADIUS, moveX, moveY,
+                    left, top, right, bottom);
+            if (t == Collisions.NO_HIT || t >= best)
+                continue;
+            float cx = ballX + moveX * t, cy = ballY + moveY * t;
+            float nx = cx - World.clamp(cx, left, right);
+            float ny = cy - World.clamp(cy, top, bottom);
+            if (nx * moveX + ny * moveY >= 0 && (nx != 0 || ny != 0))
+                continue;
+            best = t;
+            hit = brick;
+        }
+        return hit;
+    }
+
+    /**A broken brick, all the bricks come back after the last one.*/
+    @Benchmark
+    public int remove() {
+        tree.remove(removed);
+        if (++removed == bricks) {
+            removed = 0;
+            tree.reset();
+        }
+        return tree.getLiveCount();
+    }
+}
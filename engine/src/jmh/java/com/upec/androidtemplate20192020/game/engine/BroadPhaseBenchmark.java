@@ -0,0 +1,85 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**Benchmark of the uniform grid against brute force, to find all the pairs of
+ * bodies which touch. The bodies are spread at random on a full HD screen.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadPhaseBenchmark {
+
+    /**Radius of every body.*/
+    private static final float RADIUS = 6;
+
+    /**Number of bodies.*/
+    @Param({"100", "1000", "10000"})
+    public int bodies;
+
+    private float[] x, y, r;
+    private UniformGrid grid;
+    private int pairs;
+
+    /**Counts the pairs, so the work can't be removed by the JIT.*/
+    private final UniformGrid.PairListener counter = new UniformGrid.PairListener() {
+        @Override
+        public void onPair(int a, int b) {
+            pairs++;
+        }
+    };
+
+    /**Spread the bodies at random.*/
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        x = new float[bodies];
+        y = new float[bodies];
+        r = new float[bodies];
+        for (int i = 0; i < bodies; i++) {
+            x[i] = random.nextFloat() * BenchmarkWorlds.WIDTH;
+            y[i] = random.nextFloat() * BenchmarkWorlds.HEIGHT;
+            r[i] = RADIUS;
+        }
+        grid = new UniformGrid(BenchmarkWorlds.WIDTH, BenchmarkWorlds.HEIGHT, 2 * RADIUS, bodies);
+    }
+
+    /**Build the grid and find the pairs, as it's done every tick.*/
+    @Benchmark
+    public int grid() {
+        pairs = 0;
+        grid.build(x, y, bodies);
+        grid.queryPairs(x, y, r, counter);
+        return pairs;
+    }
+
+    /**Test every pair of bodies.*/
+    @Benchmark
+    public int bruteForce() {
+        pairs = 0;
+        for (int a = 0; a < bodies; a++)
+            for (int b = a + 1; b < bodies; b++)
+                if (Collisions.circleCircle(x[a], y[a], r[a], x[b], y[b], r[b]))
+                    counter.onPair(a, b);
+        return pairs;
+    }
+}
@@ -0,0 +1,118 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**Benchmark of the start of a game: building the world, or restarting a world built before.
+ * The cold benchmarks are the first call in a new JVM, with the classes loaded
+ * and the code interpreted, as on the first Play of the app.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConstructionBenchmark {
+
+    private final GameConfig config = GameConfig.DEFAULT.withScreen(BenchmarkWorlds.WIDTH, BenchmarkWorlds.HEIGHT);
+    private final GameConfig party = config.withBallCount(500);
+    private World world;
+    private World partyWorld;
+    private long seed;
+
+    /**Create the worlds which are restarted.*/
+    @Setup
+    public void setUp() {
+        world = new World(config, 1);
+        partyWorld = new World(party, 1);
+    }
+
+    /**A new world of one ball.*/
+    @Benchmark
+    public World newWorld() {
+        return new World(config, ++seed);
+    }
+
+    /**A world of one ball reused for a new game.*/
+    @Benchmark
+    public World restartWorld() {
+        world.restart(config, ++seed);
+        return world;
+    }
+
+    /**A new world of the party mode.*/
+    @Benchmark
+    public World newPartyWorld() {
+        return new World(party, ++seed);
+    }
+
+    /**A world of the party mode reused for a new game.*/
+    @Benchmark
+    public World restartPartyWorld() {
+        partyWorld.restart(party, ++seed);
+        return partyWorld;
+    }
+
+    /**The first world built in the JVM, with the loading of the classes.*/
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public World coldNewWorld() {
+        return new World(config, 1);
+    }
+
+    /**The first ticks of a world in the JVM, interpreted: the first frames of a game without warm-up.*/
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public World coldFirstTicks() {
+        World cold = new World(config, 1);
+        for (int i = 0; i < 60; i++)
+            cold.update();
+        return cold;
+    }
+
+    /**The first ticks of a world in the JVM after the warm-up of WorldPool.prepare,
+     * the warm-up itself runs while the menu is shown and isn't measured.*/
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public World warmFirstTicks(Prepared prepared) {
+        World warm = prepared.pool.take(config, 1);
+        for (int i = 0; i < 60; i++)
+            warm.update();
+        return warm;
+    }
+
+    /**A world prepared before the measure.*/
+    @State(Scope.Thread)
+    public static class Prepared {
+        final WorldPool pool = new WorldPool(WorldPool.WARM_UP_TICKS);
+
+        /**Build and warm up the world.*/
+        @Setup
+        public void setUp() {
+            pool.prepare(GameConfig.DEFAULT.withScreen(BenchmarkWorlds.WIDTH, BenchmarkWorlds.HEIGHT));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**Benchmarks of the bot's AI and of the player's rectangle update.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RectangleBenchmark {
+
+    private World world;
+    private BallStore balls;
+    private Rectangle player;
+    private Rectangle bot;
+
+    /**Create the world and put the rectangles on their place.*/
+    @Setup
+    public void setUp() {
+        world = new World(BenchmarkWorlds.WIDTH, BenchmarkWorlds.HEIGHT, 10, 10);
+        world.update();
+        balls = world.getBalls();
+        player = world.getPlayer();
+        bot = world.getBot();
+    }
+
+    /**The ball comes to the bot on the left after a bounce, so the bot predicts it again.*/
+    @Benchmark
+    public Rectangle rectangleAIPlan() {
+        balls.setState(0, 10, BenchmarkWorlds.HEIGHT * 0.5f, 7, -10, 0);
+        bot.rectangleAI(balls);
+        return bot;
+    }
+
+    /**The ball didn't change its direction, so the bot only moves to the target.*/
+    @Benchmark
+    public Rectangle rectangleAIFollow() {
+        bot.rectangleAI(balls);
+        return bot;
+    }
+
+    /**The ball goes to the player, so the bot goes back to the center.*/
+    @Benchmark
+    public Rectangle rectangleAIWait() {
+        balls.setState(0, 10, BenchmarkWorlds.HEIGHT * 0.5f, 0, 10, 0);
+        bot.rectangleAI(balls);
+        return bot;
+    }
+
+    /**The player's rectangle follows the touch.*/
+    @Benchmark
+    public Rectangle playerUpdate() {
+        player.update(BenchmarkWorlds.WIDTH / 3, true, balls);
+        return player;
+    }
+}
@@ -0,0 +1,66 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.concurrent.TimeUnit;
+
+/**Benchmark of playing again a replay of a 10 minutes game, without drawing it.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark {
+
+    /**10 minutes of ticks at 60 ticks per second.*/
+    private static final int TICKS = 10 * 60 * 60;
+
+    /**The player moves to the ball every moveEvery ticks.*/
+    @Param({"1", "4"})
+    public int moveEvery;
+
+    private byte[] replay;
+
+    /**Record the game.*/
+    @Setup
+    public void setUp() throws IOException {
+        World world = new World(BenchmarkWorlds.WIDTH, BenchmarkWorlds.HEIGHT, 10, 10, 1, Difficulty.MEDIUM, 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReplayRecorder recorder = new ReplayRecorder(world, Channels.newChannel(out));
+        for (int i = 0; i < TICKS; i++) {
+            if (i % moveEvery == 0)
+                world.setPlayerX((int) world.getBalls().getX(0));
+            recorder.record(world.getPlayerX());
+            world.update();
+        }
+        recorder.close();
+        replay = out.toByteArray();
+    }
+
+    /**Play the whole replay.*/
+    @Benchmark
+    public World play() throws IOException {
+        ReplayPlayer player = new ReplayPlayer(Channels.newChannel(new ByteArrayInputStream(replay)));
+        player.play();
+        return player.getWorld();
+    }
+}
@@ -0,0 +1,76 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**Benchmarks of the state of the world: saving it, putting it back and hashing it,
+ * what the rollback does on every tick played again and a replay on every tick.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateBenchmark {
+
+    /**Number of balls of the world.*/
+    @Param({"1", "500"})
+    public int ballCount;
+
+    private World world;
+    private WorldState state;
+    private StateHasher hasher;
+
+    /**Create the world and play it a bit, so the balls are spread.*/
+    @Setup
+    public void setUp() {
+        world = new World(GameConfig.DEFAULT.withScreen(BenchmarkWorlds.WIDTH, BenchmarkWorlds.HEIGHT)
+                .withBallCount(ballCount), 1972);
+        for (int i = 0; i < 600; i++)
+            world.update();
+        state = new WorldState(ballCount);
+        hasher = new StateHasher(ballCount);
+        world.save(state);
+    }
+
+    /**Copy the world in the state.*/
+    @Benchmark
+    public WorldState save() {
+        world.save(state);
+        return state;
+    }
+
+    /**Put the world back in the state.*/
+    @Benchmark
+    public World restore() {
+        world.restore(state);
+        return world;
+    }
+
+    /**Hash of the bytes of the state.*/
+    @Benchmark
+    public long hash() {
+        return state.hash();
+    }
+
+    /**Save and hash, the cost of the hash of a tick.*/
+    @Benchmark
+    public long hasherUpdate() {
+        return hasher.update(world);
+    }
+}
@@ -0,0 +1,46 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**Benchmark of a whole tick of the game, what PongView.update() does every tick.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldBenchmark {
+
+    private World world;
+    private int tick;
+
+    /**Create the world.*/
+    @Setup
+    public void setUp() {
+        world = new World(BenchmarkWorlds.WIDTH, BenchmarkWorlds.HEIGHT, 10, 10);
+    }
+
+    /**One tick of the game, the player moves from left to right.*/
+    @Benchmark
+    public World tick() {
+        tick++;
+        world.setPlayerX((tick * 7) % BenchmarkWorlds.WIDTH);
+        world.update();
+        return world;
+    }
+}
@@ -0,0 +1,133 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**The bricks of a level during a game (World.setLevel): the hits left of every brick
+ * and the BrickTree which finds the brick hit by a ball. A brick is broken by its hits
+ * and removed from the tree, the walls are never broken. When the last brick which
+ * can be broken is broken, all the bricks come back.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class Arena {
+
+    /**Hits left of a wall, it's never broken.*/
+    static final int WALL = -1;
+
+    /**The level of the bricks.*/
+    private final Level level;
+
+    /**The tree of the live bricks.*/
+    private final BrickTree tree;
+
+    /**Hits left of every brick, 0 if it's broken, WALL for a wall.*/
+    private final int[] hits;
+
+    /**Number of bricks broken.*/
+    private int broken;
+
+    /**Increased when a brick is broken or put back, so the drawing knows when they change.*/
+    private int version;
+
+    /**Standard constructor, the tree is built and all the bricks are there.
+     *
+     * @param level the level.
+     */
+    Arena(Level level) {
+        this.level = level;
+        tree = new BrickTree(level);
+        hits = new int[level.getCount()];
+        reset();
+    }
+
+    /**Put back all the bricks, for a new game.*/
+    void reset() {
+        for (int i = 0; i < hits.length; i++)
+            hits[i] = level.getHits(i) == 0 ? WALL : level.getHits(i);
+        tree.reset();
+        broken = 0;
+        version++;
+    }
+
+    /**Find the first brick hit by a ball during its movement, see BrickTree.sweep.
+     *
+     * @return the index of the brick, or -1; getImpact gives when it's hit.
+     */
+    int sweep(float x, float y, float r, float dx, float dy) {
+        return tree.sweep(x, y, r, dx, dy);
+    }
+
+    /**Standard getter of the fraction of the movement when the ball of the last sweep hits its brick.*/
+    float getImpact() {
+        return tree.getImpact();
+    }
+
+    /**A ball hit a brick, it's broken by its last hit.
+     *
+     * @param brick the index of the brick.
+     */
+    void hit(int brick) {
+        if (hits[brick] <= 0)
+            return;
+        if (--hits[brick] > 0)
+            return;
+        tree.remove(brick);
+        broken++;
+        version++;
+        if (broken == level.getBreakableCount())
+            reset();
+    }
+
+    /**Copy the hits of the bricks in a state of the world.
+     *
+     * @param state the state, for this number of bricks.
+     */
+    void save(WorldState state) {
+        state.putBricks(hits);
+    }
+
+    /**Put the bricks back as they were saved in a state.
+     *
+     * @param state the state, for this number of bricks.
+     */
+    void restore(WorldState state) {
+        state.getBricks(hits);
+        broken = 0;
+        for (int i = 0; i < hits.length; i++) {
+            if (hits[i] == 0)
+                broken++;
+        }
+        tree.setAlive(hits);
+        version++;
+    }
+
+    /**Standard getter of the level.*/
+    public Level getLevel() {
+        return level;
+    }
+
+    /**Standard getter which says if the brick i isn't broken.*/
+    public boolean isAlive(int i) {
+        return hits[i] != 0;
+    }
+
+    /**Standard getter of the hits left of the brick i, 0 if it's broken, -1 for a wall.*/
+    public int getHits(int i) {
+        return hits[i];
+    }
+
+    /**Standard getter of the number of bricks broken.*/
+    public int getBrokenCount() {
+        return broken;
+    }
+
+    /**Standard getter of the version of the bricks, it changes when a brick is broken or put back.*/
+    public int getVersion() {
+        return version;
+    }
+
+    /**Standard getter of the tree of the bricks.*/
+    BrickTree getTree() {
+        return tree;
+    }
+}
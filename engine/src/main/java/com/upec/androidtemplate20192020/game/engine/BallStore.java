@@ -0,0 +1,714 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**Class which simulates the balls.
+ * Every ball is described by his position in the world
+ * X and y, radius ,its acceleration on x-axis and y-axis,
+ * and bounce angle when it hits a paddle.
+ * The more the ball bounces one of the paddles the higher the speed gets.
+ * The balls are stored as struct of arrays: one primitive array for every
+ * property, indexed by the ball. So one loop updates all the balls reading the
+ * memory in order, which stays fast for the party mode with thousands of balls.
+ * It doesn't depend on android, the drawing is done by PongView.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.0
+ */
+public class BallStore {
+
+    /**Max. bounce's angle when the ball hits one of the paddle.*/
+    private static final int MAX_BOUNCE_ANGLE = BounceTable.MAX_ANGLE;
+
+    /**Max. number of bricks hit by a ball in one tick, so a ball stuck between bricks can't loop.*/
+    private static final int MAX_BRICK_HITS = 3;
+
+    /**Max. angle of the serve, in degrees.*/
+    private static final int MAX_SERVE_ANGLE = 45;
+
+    /**Degrees to radians, Math.toRadians() isn't computed the same way on every java version.*/
+    private static final double DEGREES_TO_RADIANS = Math.PI / 180;
+
+    /**The world in which the balls are moving.*/
+    private final World world;
+
+    /**Balls' x and y coordinates.*/
+    private final float[] x, y;
+
+    /**Balls' x and y coordinates on the previous tick.
+     * They are used to interpolate the drawing between two ticks.
+     */
+    private final float[] prevX, prevY;
+
+    /**Balls' radius.*/
+    private final float[] r;
+
+    /**Number of bounce of every ball from both paddles.*/
+    private final int[] countBounce;
+
+    /**speed of the balls on x-axis.*/
+    private final float[] xSpeed;
+
+    /**speed of the balls on y-axis.*/
+    private final float[] ySpeed;
+
+    /**Balls' coordinates, radius and speeds in Q16.16 (FixedPoint), for the fixed-point physics,
+     * null for the float physics. The float arrays are then copies of them, rounded,
+     * for the drawing, the bot and the broad phase.*/
+    private int[] fixedX, fixedY, fixedR, fixedXSpeed, fixedYSpeed;
+
+    /**Number of balls in the store.*/
+    private int count;
+
+    /**Number of times a ball changed its direction: bounces and resets.
+     * The bot predicts the balls again only when it changes.*/
+    private int events;
+
+    /**Resolves the pairs of balls found by the grid, built once to not allocate every tick.*/
+    private final UniformGrid.PairListener ballCollision = new UniformGrid.PairListener() {
+        @Override
+        public void onPair(int a, int b) {
+            if (fixedX != null)
+                collideFixed(a, b);
+            else
+                collide(a, b);
+        }
+    };
+
+    /**Standard constructor of the store, without balls.
+     *
+     * @param world the world in which the balls are moving.
+     * @param capacity max. number of balls.
+     */
+    BallStore(World world, int capacity) {
+        this.world = world;
+        x = new float[capacity];
+        y = new float[capacity];
+        prevX = new float[capacity];
+        prevY = new float[capacity];
+        r = new float[capacity];
+        countBounce = new int[capacity];
+        xSpeed = new float[capacity];
+        ySpeed = new float[capacity];
+    }
+
+    /**Add a ball on the center of the screen with a random angle.
+     *
+     * @param radius the radius of the ball.
+     * @return the index of the ball.
+     */
+    int add(float radius) {
+        if (count == x.length)
+            throw new IllegalStateException("The store is full: " + count + " balls");
+        int i = count++;
+        r[i] = radius;
+        if (fixedR != null)
+            fixedR[i] = FixedPoint.fromFloat(radius);
+        reset(i);
+        return i;
+    }
+
+    /**Move the balls by integer operations in Q16.16 instead of floats, see World.setFixedPoint.
+     * The balls must be put on the center again after, by restart.
+     *
+     * @param enabled true for the fixed-point physics.
+     */
+    void setFixedPoint(boolean enabled) {
+        if (!enabled) {
+            fixedX = fixedY = fixedR = fixedXSpeed = fixedYSpeed = null;
+            return;
+        }
+        if (fixedX != null)
+            return;
+        int capacity = x.length;
+        fixedX = new int[capacity];
+        fixedY = new int[capacity];
+        fixedR = new int[capacity];
+        fixedXSpeed = new int[capacity];
+        fixedYSpeed = new int[capacity];
+        for (int i = 0; i < count; i++)
+            fixedR[i] = FixedPoint.fromFloat(r[i]);
+    }
+
+    /**Standard getter which says if the balls move in fixed point.*/
+    boolean isFixedPoint() {
+        return fixedX != null;
+    }
+
+    /**Put all the balls on the center of the screen again, as when they were added.*/
+    void restart() {
+        events = 0;
+        for (int i = 0; i < count; i++)
+            reset(i);
+    }
+
+    /**Copy the balls in a state of the world, the radius doesn't change so it isn't copied.
+     *
+     * @param state the state, for this number of balls.
+     */
+    void save(WorldState state) {
+        if (state.getCount() != count)
+            throw new IllegalArgumentException("The state is for " + state.getCount() + " balls, not " + count);
+        if (fixedX != null)
+            state.putFixedBalls(fixedX, fixedY, prevX, prevY, fixedXSpeed, fixedYSpeed, countBounce);
+        else
+            state.putBalls(x, y, prevX, prevY, xSpeed, ySpeed, countBounce);
+        state.putInt(WorldState.EVENTS, events);
+    }
+
+    /**Put the balls back as they were saved in a state.
+     *
+     * @param state the state, for this number of balls.
+     */
+    void restore(WorldState state) {
+        if (state.getCount() != count)
+            throw new IllegalArgumentException("The state is for " + state.getCount() + " balls, not " + count);
+        if (fixedX != null) {
+            state.getFixedBalls(fixedX, fixedY, prevX, prevY, fixedXSpeed, fixedYSpeed, countBounce);
+            for (int i = 0; i < count; i++)
+                copyFixed(i);
+        } else {
+            state.getBalls(x, y, prevX, prevY, xSpeed, ySpeed, countBounce);
+        }
+        events = state.getInt(WorldState.EVENTS);
+    }
+
+    /**Simulates the moving of all the balls by one tick.
+     *
+     * @param player player's rectangle.
+     * @param bot bot's rectangle.
+     */
+    void update(Rectangle player, Rectangle bot){
+        if (fixedX != null) {
+            updateFixed(player, bot);
+            return;
+        }
+        Arena arena = world.getArena();
+        for (int i = 0; i < count; i++) {
+            /*Save the position of the previous tick.*/
+            prevX[i] = x[i];
+            prevY[i] = y[i];
+            /*Check if the ball bounces from the edges.*/
+            edges(i);
+            /*Check if the ball bounces from the player's rectangle
+             *or from the bot's rectangle during this tick.*/
+            float impact = checkPaddleUp(i, player);
+            if (impact == Collisions.NO_HIT)
+                impact = checkPaddleDown(i, bot);
+            /*Move the ball on the canvas by updating its coordinates
+             * by the speed on x-axis and y-axis, for the part of the tick
+             * left after the bounce.*/
+            float remaining = impact == Collisions.NO_HIT ? 1 : 1 - impact;
+            /*Without a paddle in this tick, the ball can bounce from the bricks on the rest of its way.*/
+            if (impact == Collisions.NO_HIT && arena != null)
+                remaining = checkBricks(i, arena);
+            x[i] += xSpeed[i] * remaining;
+            y[i] += ySpeed[i] * remaining;
+        }
+    }
+
+    /**Simulates the moving of all the balls by one tick in fixed point,
+     * the same steps as update with integer operations.
+     *
+     * @param player player's rectangle.
+     * @param bot bot's rectangle.
+     */
+    private void updateFixed(Rectangle player, Rectangle bot) {
+        for (int i = 0; i < count; i++) {
+            prevX[i] = x[i];
+            prevY[i] = y[i];
+            edgesFixed(i);
+            int impact = Collisions.NO_HIT_FIXED;
+            /*The ball coming down can be bounced by the player, the one coming up by the bot.*/
+            if (fixedYSpeed[i] > 0 && fixedY[i] <= FixedPoint.fromInt(player.centerY()))
+                impact = sweepPaddleFixed(i, player, -1);
+            if (impact == Collisions.NO_HIT_FIXED && fixedYSpeed[i] < 0
+                    && fixedY[i] >= FixedPoint.fromInt(bot.centerY()))
+                impact = sweepPaddleFixed(i, bot, 1);
+            int remaining = impact == Collisions.NO_HIT_FIXED ? FixedPoint.ONE : FixedPoint.ONE - impact;
+            fixedX[i] += FixedPoint.mul(fixedXSpeed[i], remaining);
+            fixedY[i] += FixedPoint.mul(fixedYSpeed[i], remaining);
+            copyFixed(i);
+        }
+    }
+
+    /**Copy the fixed point of a ball in its floats.
+     *
+     * @param i the index of the ball.
+     */
+    private void copyFixed(int i) {
+        x[i] = FixedPoint.toFloat(fixedX[i]);
+        y[i] = FixedPoint.toFloat(fixedY[i]);
+        xSpeed[i] = FixedPoint.toFloat(fixedXSpeed[i]);
+        ySpeed[i] = FixedPoint.toFloat(fixedYSpeed[i]);
+    }
+
+    /**Check if the ball bounces from the edges, in fixed point, as edges.
+     *
+     * @param i the index of the ball.
+     */
+    private void edgesFixed(int i) {
+        int width = FixedPoint.fromInt(world.getWidth());
+        if (fixedX[i] < fixedR[i] || fixedX[i] + fixedR[i] > width) {
+            fixedXSpeed[i] = -fixedXSpeed[i];
+            events++;
+        }
+        if (fixedY[i] < 0) {
+            reset(i);
+            world.incLeftScore();
+        }
+        if (fixedY[i] > FixedPoint.fromInt(world.getHeight())) {
+            reset(i);
+            world.incRightScore();
+        }
+        if (fixedX[i] < 0 || fixedX[i] > width)
+            reset(i);
+    }
+
+    /**Find when the ball touches the paddle during this tick and bounce it there, in fixed point.
+     *
+     * @param i the index of the ball.
+     * @param rect the paddle.
+     * @param direction the sign of the speed on y-axis after the bounce.
+     * @return the fraction of the tick when the ball was bounced, or Collisions.NO_HIT_FIXED.
+     */
+    private int sweepPaddleFixed(int i, Rectangle rect, int direction) {
+        int impact = Collisions.sweepCircleRectFixed(fixedX[i], fixedY[i], fixedR[i], fixedXSpeed[i], fixedYSpeed[i],
+                FixedPoint.fromInt(rect.getLeft()), FixedPoint.fromInt(rect.getTop()),
+                FixedPoint.fromInt(rect.getRight()), FixedPoint.fromInt(rect.getBottom()));
+        if (impact != Collisions.NO_HIT_FIXED) {
+            fixedX[i] += FixedPoint.mul(fixedXSpeed[i], impact);
+            fixedY[i] += FixedPoint.mul(fixedYSpeed[i], impact);
+            bounceFixed(i, rect, direction);
+        }
+        return impact;
+    }
+
+    /**Bounce the ball from the paddle in fixed point, with the same angles as bounce.
+     *
+     * @param i the index of the ball.
+     * @param rect the rectangle which bounced the ball.
+     * @param direction the sign of the speed on y-axis after the bounce.
+     */
+    private void bounceFixed(int i, Rectangle rect, int direction) {
+        countBounce[i]++;
+        events++;
+        /*The angle is the relative intersection, from -1 to 1, by the max. angle.*/
+        long relative = fixedX[i] - FixedPoint.fromInt(rect.centerX());
+        int halfWidth = FixedPoint.fromInt(rect.width()) / 2;
+        int maxAngle = FixedPoint.fromInt(MAX_BOUNCE_ANGLE);
+        int bounceAngle = (int) Math.max(-maxAngle, Math.min(maxAngle, relative * maxAngle / halfWidth));
+        int speed = world.getBallSpeed() + countBounce[i];
+        fixedXSpeed[i] = speed * BounceTable.sinFixed(bounceAngle);
+        fixedYSpeed[i] = speed * direction * BounceTable.cosFixed(bounceAngle);
+    }
+
+    /**Bounce two balls which touch in fixed point, as collide.
+     *
+     * @param a the index of the first ball.
+     * @param b the index of the second ball.
+     */
+    private void collideFixed(int a, int b) {
+        int dx = fixedX[b] - fixedX[a];
+        int dy = fixedY[b] - fixedY[a];
+        int distance = FixedPoint.sqrt((long) dx * dx + (long) dy * dy);
+        if (distance == 0)
+            return;
+        int nx = FixedPoint.div(dx, distance);
+        int ny = FixedPoint.div(dy, distance);
+        int approach = FixedPoint.mul(fixedXSpeed[a] - fixedXSpeed[b], nx)
+                + FixedPoint.mul(fixedYSpeed[a] - fixedYSpeed[b], ny);
+        if (approach <= 0)
+            return;
+        events++;
+        int speedX = FixedPoint.mul(approach, nx);
+        int speedY = FixedPoint.mul(approach, ny);
+        fixedXSpeed[a] -= speedX;
+        fixedYSpeed[a] -= speedY;
+        fixedXSpeed[b] += speedX;
+        fixedYSpeed[b] += speedY;
+        int overlap = (fixedR[a] + fixedR[b] - distance) / 2;
+        int pushX = FixedPoint.mul(nx, overlap);
+        int pushY = FixedPoint.mul(ny, overlap);
+        fixedX[a] -= pushX;
+        fixedY[a] -= pushY;
+        fixedX[b] += pushX;
+        fixedY[b] += pushY;
+        copyFixed(a);
+        copyFixed(b);
+    }
+
+    /**Bounce the balls between them, for the party mode.
+     *
+     * @param grid the broad phase, sized for the world and the balls.
+     */
+    void collideBalls(UniformGrid grid) {
+        grid.build(x, y, count);
+        grid.queryPairs(x, y, r, ballCollision);
+    }
+
+    /**Bounce two balls which touch, as two balls with the same mass.
+     *
+     * @param a the index of the first ball.
+     * @param b the index of the second ball.
+     */
+    private void collide(int a, int b) {
+        float dx = x[b] - x[a];
+        float dy = y[b] - y[a];
+        float distance = (float) Math.sqrt(dx * dx + dy * dy);
+        /*Balls reset on the same center have no normal, they go apart by themselves.*/
+        if (distance == 0)
+            return;
+        float nx = dx / distance;
+        float ny = dy / distance;
+        /*Speed of a towards b along the normal, if it's negative they already go apart.*/
+        float approach = (xSpeed[a] - xSpeed[b]) * nx + (ySpeed[a] - ySpeed[b]) * ny;
+        if (approach <= 0)
+            return;
+        /*With the same mass the balls exchange their speeds along the normal.*/
+        events++;
+        xSpeed[a] -= approach * nx;
+        ySpeed[a] -= approach * ny;
+        xSpeed[b] += approach * nx;
+        ySpeed[b] += approach * ny;
+        /*Push them apart so they don't stay stuck one in the other.*/
+        float overlap = (r[a] + r[b] - distance) * 0.5f;
+        x[a] -= nx * overlap;
+        y[a] -= ny * overlap;
+        x[b] += nx * overlap;
+        y[b] += ny * overlap;
+    }
+
+    /**Check if the ball bounces from the edges.
+     *
+     * @param i the index of the ball.
+     */
+    void edges(int i){
+        /*Check the left side or the right side.*/
+        if (x[i] < 0 + r[i] || x[i] + r[i] > world.getWidth()) {
+            xSpeed[i]*=-1;
+            events++;
+        }
+
+        /*If the ball reaches the top of the screen then reset ball
+         * and increment the player's ball.*/
+        if (y[i] < 0) {
+            reset(i);
+            world.incLeftScore();
+        }
+
+        /*If the ball reaches the bottom of the screen then reset ball
+         * and increment the player's ball.*/
+        if (y[i] > world.getHeight()) {
+            reset(i);
+            world.incRightScore();
+        }
+
+        /*If the ball goes outside of the canvas size then reset ball.*/
+        if(x[i] < 0 || x[i] > world.getWidth())
+            reset(i);
+    }
+
+    /**Reset the ball. Put in the center of screen and generate
+     * the angle of the ball.
+     *
+     * @param i the index of the ball.
+     */
+    private void reset(int i){
+        if (fixedX != null) {
+            resetFixed(i);
+            return;
+        }
+        /*Put the ball in the center of the screen.*/
+        x[i] = (float) (world.getWidth()*0.5);
+        y[i] = (float) (world.getHeight()*0.5);
+        /*Don't interpolate the jump to the center.*/
+        prevX[i] = x[i];
+        prevY[i] = y[i];
+
+        /*Generate the random angle of the ball and make the velocity
+         *using the cos and sin function.
+         */
+        if (world.hasExactAngles()) {
+            float angle = (float) world.getRandom().nextDouble((-Math.PI / 4), (Math.PI / 4));
+            ySpeed[i] = (float) (world.getBallSpeed() * StrictMath.cos(angle));
+            xSpeed[i] = (float) (world.getBallSpeed() * StrictMath.sin(angle));
+        } else {
+            float angle = (float) world.getRandom().nextDouble(-MAX_SERVE_ANGLE, MAX_SERVE_ANGLE);
+            ySpeed[i] = world.getBallSpeed() * BounceTable.cos(angle);
+            xSpeed[i] = world.getBallSpeed() * BounceTable.sin(angle);
+        }
+
+        /*Generate random number for the ball to be pushed
+         *either on top or bottom of the screen.*/
+        if(world.getRandom().nextDouble()<0.5)
+            ySpeed[i] *=-1;
+        /*Reset the number of ball's bounce.*/
+        countBounce[i] = 0;
+        events++;
+    }
+
+    /**Reset the ball in fixed point, as reset.
+     *
+     * @param i the index of the ball.
+     */
+    private void resetFixed(int i) {
+        fixedX[i] = FixedPoint.fromInt(world.getWidth()) / 2;
+        fixedY[i] = FixedPoint.fromInt(world.getHeight()) / 2;
+        /*The angle of the float serve, from the 24 high bits of the same random number.*/
+        int maxAngle = FixedPoint.fromInt(MAX_SERVE_ANGLE);
+        long bits = world.getRandom().nextLong() >>> 40;
+        int angle = -maxAngle + (int) ((bits * 2 * maxAngle) >> 24);
+        fixedYSpeed[i] = world.getBallSpeed() * BounceTable.cosFixed(angle);
+        fixedXSpeed[i] = world.getBallSpeed() * BounceTable.sinFixed(angle);
+        /*nextDouble() < 0.5 of the float serve: the highest bit is 0.*/
+        if (world.getRandom().nextLong() >= 0)
+            fixedYSpeed[i] = -fixedYSpeed[i];
+        countBounce[i] = 0;
+        events++;
+        copyFixed(i);
+        prevX[i] = x[i];
+        prevY[i] = y[i];
+    }
+
+    /**Function to check if ball is bounced by the player's rectangle during this tick.
+     * The whole path of the ball in the tick is tested (swept collision), so a
+     * fast ball can't go through the thin rectangle. If it's bounced, the ball is
+     * moved to the point where it touches the rectangle.
+     *
+     * @param i the index of the ball.
+     * @param rect the player's rectangle
+     * @return the fraction of the tick when the ball was bounced, or Collisions.NO_HIT.
+     */
+    float checkPaddleUp(int i, Rectangle rect) {
+        /*Only a ball coming down, and not already behind the paddle, can be bounced.*/
+        if (ySpeed[i] <= 0 || y[i] > rect.centerY())
+            return Collisions.NO_HIT;
+        return sweepPaddle(i, rect, -1);
+    }
+
+    /**Function to check if the ball is bounced by the bot's rectangle during this tick.
+     * The whole path of the ball in the tick is tested (swept collision), so a
+     * fast ball can't go through the thin rectangle. If it's bounced, the ball is
+     * moved to the point where it touches the rectangle.
+     *
+     * @param i the index of the ball.
+     * @param rect the bot's rectangle
+     * @return the fraction of the tick when the ball was bounced, or Collisions.NO_HIT.
+     */
+    float checkPaddleDown(int i, Rectangle rect){
+        /*Only a ball coming up, and not already behind the paddle, can be bounced.*/
+        if (ySpeed[i] >= 0 || y[i] < rect.centerY())
+            return Collisions.NO_HIT;
+        return sweepPaddle(i, rect, 1);
+    }
+
+    /**Find when the ball touches the paddle during this tick and bounce it there.
+     *
+     * @param i the index of the ball.
+     * @param rect the paddle.
+     * @param direction the sign of the speed on y-axis after the bounce.
+     * @return the fraction of the tick when the ball was bounced, or Collisions.NO_HIT.
+     */
+    private float sweepPaddle(int i, Rectangle rect, int direction) {
+        float impact = Collisions.sweepCircleRect(x[i], y[i], r[i], xSpeed[i], ySpeed[i],
+                rect.getLeft(), rect.getTop(), rect.getRight(), rect.getBottom());
+        if (impact != Collisions.NO_HIT) {
+            /*Move the ball where it touches the paddle.*/
+            x[i] += xSpeed[i] * impact;
+            y[i] += ySpeed[i] * impact;
+            bounce(i, rect, direction);
+        }
+        return impact;
+    }
+
+    /**Bounce the ball from the bricks it hits during this tick, one after the other,
+     * the ball is moved to every brick it touches.
+     *
+     * @param i the index of the ball.
+     * @param arena the bricks.
+     * @return the fraction of the tick left after the last bounce.
+     */
+    private float checkBricks(int i, Arena arena) {
+        float remaining = 1;
+        for (int hits = 0; hits < MAX_BRICK_HITS; hits++) {
+            int brick = arena.sweep(x[i], y[i], r[i], xSpeed[i] * remaining, ySpeed[i] * remaining);
+            if (brick < 0)
+                break;
+            /*The impact is a fraction of the rest of the tick.*/
+            float impact = arena.getImpact() * remaining;
+            x[i] += xSpeed[i] * impact;
+            y[i] += ySpeed[i] * impact;
+            remaining -= impact;
+            bounceBrick(i, arena.getLevel(), brick);
+            arena.hit(brick);
+        }
+        return remaining;
+    }
+
+    /**Bounce the ball from a brick which it touches: the speed is reflected on the side
+     * of the brick nearest to the center, on both axes at a corner, so the ball leaves it.
+     * The speed doesn't change, only the paddles accelerate the ball.
+     *
+     * @param i the index of the ball.
+     * @param level the level of the brick.
+     * @param brick the index of the brick.
+     */
+    private void bounceBrick(int i, Level level, int brick) {
+        events++;
+        /*From the nearest point of the brick to the center of the ball.*/
+        float nx = x[i] - World.clamp(x[i], level.getLeft(brick), level.getRight(brick));
+        float ny = y[i] - World.clamp(y[i], level.getTop(brick), level.getBottom(brick));
+        if (nx == 0 && ny == 0) {
+            /*The center is in the brick, the ball goes back.*/
+            xSpeed[i] = -xSpeed[i];
+            ySpeed[i] = -ySpeed[i];
+            return;
+        }
+        boolean side = Math.abs(nx) >= Math.abs(ny);
+        boolean topOrBottom = Math.abs(ny) >= Math.abs(nx);
+        if (side)
+            xSpeed[i] = Math.copySign(xSpeed[i], nx);
+        if (topOrBottom)
+            ySpeed[i] = Math.copySign(ySpeed[i], ny);
+        /*Near a corner the ball may still come closer, it's then reflected on the other axis too.*/
+        if (nx * xSpeed[i] + ny * ySpeed[i] < 0) {
+            if (!side)
+                xSpeed[i] = Math.copySign(xSpeed[i], nx);
+            if (!topOrBottom)
+                ySpeed[i] = Math.copySign(ySpeed[i], ny);
+        }
+    }
+
+    /**Bounce the ball from the paddle. Apart from changing the sign of velocity on
+     * y-axis,it also generates the angle of the reflection by the ball
+     * surface on the paddle's.
+     *
+     * @param i the index of the ball.
+     * @param rect the rectangle which bounced the ball.
+     * @param direction the sign of the speed on y-axis after the bounce.
+     */
+    private void bounce(int i, Rectangle rect, int direction) {
+        /*Increment the count of bounce.This is done for accelerating the speed
+         *with every bounce.*/
+        countBounce[i]++;
+        events++;
+
+        /*Calculate the relative intersect of the ball with paddle.
+         * For example if the paddle has 100px, and the ball hits one of the following:
+         *      1.If it's hit in the center then relative intersection is 0 px.
+         *      2.If it's hit in the left part of the paddle then it will have [-1..-50]px.
+         *      3.If it's hit in the right part of the paddle then it will have [1..50]px.
+         */
+        float relativeIntersectY = (x[i] - rect.centerX());
+
+        /*Normalize the relative value of relative intersection of the ball with paddle.
+         *For example if paddle has 100 px, and the ball hits one of the following:
+         *      1.If it's hit in the center then relative intersection is 0.
+         *      2.If it's hit in the left part of the paddle then it will have [-0..-1].
+         *      3.If it's hit in the right part of the paddle then it will have [0..1].
+         */
+        float normalizedRelativeIntersectionY = (float) (relativeIntersectY/(rect.width()*0.5));
+
+        /*Clamp this value between [-1..1]. */
+        normalizedRelativeIntersectionY = World.clamp(normalizedRelativeIntersectionY,-1,1);
+
+        /*Calculate the angle of the ball with which it will be bounced.
+         *It can take the value between [-60..60] degrees.*/
+        float bounceAngle = (normalizedRelativeIntersectionY) * MAX_BOUNCE_ANGLE;
+
+        /*Calculate the new speed on x-axis and y-axis using in dependence of count of the ball on paddle
+         *and of the angle, with sin and cos for the vector of speed.
+         *The table and StrictMath give the same result on every device, so the replays are the same.*/
+        int speed = world.getBallSpeed() + countBounce[i];
+        if (world.hasExactAngles()) {
+            xSpeed[i] = (float) (speed * StrictMath.sin(bounceAngle * DEGREES_TO_RADIANS));
+            ySpeed[i] = (float) (speed * direction * StrictMath.cos(bounceAngle * DEGREES_TO_RADIANS));
+        } else {
+            xSpeed[i] = speed * BounceTable.sin(bounceAngle);
+            ySpeed[i] = speed * direction * BounceTable.cos(bounceAngle);
+        }
+    }
+
+    /**Put the ball in the given state, used by the tests and benchmarks.
+     *
+     * @param i the index of the ball.
+     * @param x the x coordinate in the world.
+     * @param y the y coordinate in the world.
+     * @param xSpeed speed of the ball on x-axis.
+     * @param ySpeed speed of the ball on y-axis.
+     * @param countBounce number of bounces from the paddles.
+     */
+    void setState(int i, float x, float y, float xSpeed, float ySpeed, int countBounce) {
+        if (fixedX != null) {
+            /*The floats are rounded to the fixed point.*/
+            fixedX[i] = FixedPoint.fromFloat(x);
+            fixedY[i] = FixedPoint.fromFloat(y);
+            fixedXSpeed[i] = FixedPoint.fromFloat(xSpeed);
+            fixedYSpeed[i] = FixedPoint.fromFloat(ySpeed);
+            copyFixed(i);
+            x = this.x[i];
+            y = this.y[i];
+            xSpeed = this.xSpeed[i];
+            ySpeed = this.ySpeed[i];
+        }
+        this.x[i] = x;
+        this.y[i] = y;
+        this.prevX[i] = x;
+        this.prevY[i] = y;
+        this.xSpeed[i] = xSpeed;
+        this.ySpeed[i] = ySpeed;
+        this.countBounce[i] = countBounce;
+        events++;
+    }
+
+    /**Standard getter of the number of balls.*/
+    public int getCount() {
+        return count;
+    }
+
+    /**Standard getter of X of the ball i.*/
+    public float getX(int i) {
+        return x[i];
+    }
+
+    /**Standard getter of Y of the ball i.*/
+    public float getY(int i) {
+        return y[i];
+    }
+
+    /**Standard getter of X on the previous tick of the ball i.*/
+    public float getPrevX(int i) {
+        return prevX[i];
+    }
+
+    /**Standard getter of Y on the previous tick of the ball i.*/
+    public float getPrevY(int i) {
+        return prevY[i];
+    }
+
+    /**Standard getter of the radius of the ball i.*/
+    public float getR(int i) {
+        return r[i];
+    }
+
+    /**Standard getter of speed on x-axis of the ball i.*/
+    public float getxSpeed(int i) {
+        return xSpeed[i];
+    }
+
+    /**Standard getter of speed on y-axis of the ball i.*/
+    public float getySpeed(int i) {
+        return ySpeed[i];
+    }
+
+    /**Standard getter of the number of bounces from the paddles of the ball i.*/
+    public int getCountBounce(int i) {
+        return countBounce[i];
+    }
+
+    /**Standard getter of the number of bounces and resets of all the balls.*/
+    public int getEvents() {
+        return events;
+    }
+
+}
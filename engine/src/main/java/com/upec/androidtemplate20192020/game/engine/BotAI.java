@@ -0,0 +1,226 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**The brain of the bot: it predicts where the ball will cross the bot's rectangle.
+ * The path of the ball between two bounces is a line, so the intercept is found
+ * in closed form, bounce after bounce from the side edges.
+ * The prediction is done again only when a ball changed its direction
+ * (a bounce or a new ball), not every tick, and the bot waits and aims
+ * as badly as its Difficulty says.
+ * The same brain can play the player's rectangle, for the matches between bots.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+class BotAI {
+
+    /**The world in which the bot plays.*/
+    private final World world;
+
+    /**How well the bot plays.*/
+    private final Difficulty difficulty;
+
+    /**1 if the bot plays the player's rectangle (the balls come down to it), -1 for the bot's one.*/
+    private final int direction;
+
+    /**BallStore.getEvents() seen at the last prediction.*/
+    private int seenEvents = -1;
+
+    /**Center of the bot's rectangle on x-axis wanted by the bot.*/
+    private int targetX;
+
+    /**The ball followed by the bot, -1 if no ball is coming.*/
+    private int plannedBall = -1;
+
+    /**BallStore.getCountBounce() of the followed ball, a new value means a new shot.*/
+    private int plannedBounce;
+
+    /**Tick when the followed ball should come to the bot.*/
+    private float plannedArrival;
+
+    /**Ticks since the start of the game.*/
+    private int ticks;
+
+    /**Error of the aim for the current shot.*/
+    private int aimOffset;
+
+    /**Ticks left before the bot moves to targetX.*/
+    private int reaction;
+
+    /**Number of predictions done, for the tests.*/
+    private int plans;
+
+    /**Standard constructor.
+     *
+     * @param world the world in which the bot plays.
+     * @param difficulty how well the bot plays.
+     */
+    BotAI(World world, Difficulty difficulty) {
+        this(world, difficulty, false);
+    }
+
+    /**Constructor for a bot on any of the two rectangles.
+     *
+     * @param world the world in which the bot plays.
+     * @param difficulty how well the bot plays.
+     * @param player true if the bot plays the player's rectangle, at the bottom.
+     */
+    BotAI(World world, Difficulty difficulty, boolean player) {
+        this.world = world;
+        this.difficulty = difficulty;
+        this.direction = player ? 1 : -1;
+        targetX = world.getWidth() / 2;
+    }
+
+    /**Function which is called every tick, it gives where the bot wants to go.
+     *
+     * @param balls the balls of the world.
+     * @param bot the rectangle played by the bot.
+     * @return the center on x-axis wanted by the bot, or -1 if it doesn't move.
+     */
+    int update(BallStore balls, Rectangle bot) {
+        ticks++;
+        /*Predict again only if a ball changed its direction.*/
+        if (balls.getEvents() != seenEvents) {
+            seenEvents = balls.getEvents();
+            plan(balls, bot);
+        }
+        /*The bot needs some time to react.*/
+        if (reaction > 0) {
+            reaction--;
+            return -1;
+        }
+        return targetX;
+    }
+
+    /**Copy the brain in a state of the world, apart from the count of predictions.
+     *
+     * @param state the state.
+     */
+    void save(WorldState state) {
+        int offset = WorldState.BRAIN;
+        state.putInt(offset, seenEvents);
+        state.putInt(offset + 4, targetX);
+        state.putInt(offset + 8, plannedBall);
+        state.putInt(offset + 12, plannedBounce);
+        state.putFloat(offset + 16, plannedArrival);
+        state.putInt(offset + 20, ticks);
+        state.putInt(offset + 24, aimOffset);
+        state.putInt(offset + 28, reaction);
+    }
+
+    /**Write no brain in a state, for a bot played by a remote player.
+     *
+     * @param state the state.
+     */
+    static void clear(WorldState state) {
+        for (int offset = WorldState.BRAIN; offset < WorldState.BALL_COUNT; offset += 4)
+            state.putInt(offset, 0);
+    }
+
+    /**Put the brain back as it was saved in a state.
+     *
+     * @param state the state.
+     */
+    void restore(WorldState state) {
+        int offset = WorldState.BRAIN;
+        seenEvents = state.getInt(offset);
+        targetX = state.getInt(offset + 4);
+        plannedBall = state.getInt(offset + 8);
+        plannedBounce = state.getInt(offset + 12);
+        plannedArrival = state.getFloat(offset + 16);
+        ticks = state.getInt(offset + 20);
+        aimOffset = state.getInt(offset + 24);
+        reaction = state.getInt(offset + 28);
+    }
+
+    /**Find the ball which comes first to the bot and where it will cross it.
+     *
+     * @param balls the balls of the world.
+     * @param bot the bot's rectangle.
+     */
+    private void plan(BallStore balls, Rectangle bot) {
+        plans++;
+        /*The side of the bot's rectangle which faces the balls.*/
+        float face = direction > 0 ? Math.min(bot.getTop(), bot.getBottom()) : Math.max(bot.getTop(), bot.getBottom());
+        int target = -1;
+        float targetTime = Float.MAX_VALUE;
+        for (int i = 0; i < balls.getCount(); i++) {
+            /*Speed of the ball towards the bot.*/
+            float speed = balls.getySpeed(i) * direction;
+            if (speed <= 0)
+                continue;
+            float distance = direction > 0 ? face - balls.getY(i) - balls.getR(i)
+                    : balls.getY(i) - balls.getR(i) - face;
+            if (distance < 0)
+                continue;
+            float time = distance / speed;
+            if (time < targetTime) {
+                target = i;
+                targetTime = time;
+            }
+        }
+        if (target < 0) {
+            /*No ball is coming, the bot goes back to the center to wait,
+             *from there he reaches faster any side.*/
+            plannedBall = -1;
+            targetX = world.getWidth() / 2;
+            return;
+        }
+        /*A new shot (an other ball, a bounce from the player or a ball put back
+         *in the center which comes later): the bot needs time to react and aims again.
+         *A bounce from the side edges only makes the prediction better.*/
+        float arrival = ticks + targetTime;
+        if (target != plannedBall || balls.getCountBounce(target) != plannedBounce
+                || arrival > plannedArrival + 1) {
+            plannedBall = target;
+            plannedBounce = balls.getCountBounce(target);
+            reaction = difficulty.getReactionTicks();
+            int aimError = difficulty.getAimError();
+            aimOffset = aimError > 0 ? world.getRandom().nextInt(-aimError, aimError + 1) : 0;
+        }
+        plannedArrival = arrival;
+        float x = predictX(balls.getX(target), balls.getxSpeed(target), targetTime,
+                balls.getR(target), world.getWidth(), difficulty.getHorizon());
+        targetX = World.clamp((int) x + aimOffset, 0, world.getWidth());
+    }
+
+    /**Where the ball is on x-axis after some ticks, with the bounces from the side edges.
+     * Between two bounces the ball moves on a line, so the tick of the next bounce
+     * is found in closed form, as BallStore.edges() turns the ball back on the first
+     * tick it's over an edge. Only the bounces are iterated, not the ticks.
+     * If the ball bounces more times than horizon, the bot only sees it going
+     * to the edge of the next bounce.
+     *
+     * @param x the x coordinate of the ball.
+     * @param xSpeed the speed of the ball on x-axis.
+     * @param ticks the time, in ticks.
+     * @param r the radius of the ball.
+     * @param width the width of the world.
+     * @param horizon max. number of bounces which can be predicted.
+     * @return the x coordinate of the ball after the ticks.
+     */
+    static float predictX(float x, float xSpeed, float ticks, float r, float width, int horizon) {
+        float min = r;
+        float max = width - r;
+        for (int bounces = 0; xSpeed != 0; bounces++) {
+            /*Distance to the edge towards which the ball moves.*/
+            float distance = xSpeed > 0 ? max - x : x - min;
+            /*The first tick on which the ball is over the edge.*/
+            float ticksToEdge = Math.max(0, (float) Math.floor(distance / Math.abs(xSpeed)) + 1);
+            if (ticks < ticksToEdge)
+                break;
+            if (bounces == horizon)
+                return xSpeed > 0 ? max : min;
+            x += xSpeed * ticksToEdge;
+            ticks -= ticksToEdge;
+            xSpeed = -xSpeed;
+        }
+        return x + xSpeed * ticks;
+    }
+
+    /**Standard getter of the number of predictions, for the tests.*/
+    int getPlans() {
+        return plans;
+    }
+}
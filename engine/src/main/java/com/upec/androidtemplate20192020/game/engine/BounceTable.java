@@ -0,0 +1,111 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**Sines and cosines of the directions of the balls, precomputed once.
+ * A ball is only served between -45 and 45 degrees and bounced between -60 and 60,
+ * so a table of this range, every 1/8 of degree, linearly interpolated in float,
+ * replaces the sin and cos in double of every bounce and serve.
+ * The error of the interpolation is at most h*h/8 for a step of h radians:
+ * less than 6e-7, 7e-7 with the rounding of the floats, under the error of a float
+ * speed of some dozens of pixels.
+ * The table is computed by StrictMath and read with float operations only,
+ * so it gives the same result on every device, as the replays need.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+final class BounceTable {
+
+    /**Max. angle of the table, in degrees: the max. bounce's angle.*/
+    static final int MAX_ANGLE = 60;
+
+    /**Entries by degree.*/
+    static final int STEPS_PER_DEGREE = 8;
+
+    /**Max. error of a sine or a cosine of the table.*/
+    static final float MAX_ERROR = 7e-7f;
+
+    /**Index of the last interval of the table.*/
+    private static final int LAST = 2 * MAX_ANGLE * STEPS_PER_DEGREE - 1;
+
+    /**Sine and cosine of every step from -MAX_ANGLE to MAX_ANGLE, side by side,
+     * so both values of an angle are read from the same cache line.*/
+    private static final float[] SIN_COS = new float[2 * (LAST + 2)];
+
+    /**The same table in Q16.16 fixed point, for the fixed-point physics.*/
+    private static final int[] FIXED_SIN_COS = new int[SIN_COS.length];
+
+    static {
+        for (int k = 0; k <= LAST + 1; k++) {
+            double radians = (k / (double) STEPS_PER_DEGREE - MAX_ANGLE) * (Math.PI / 180);
+            double sin = StrictMath.sin(radians), cos = StrictMath.cos(radians);
+            SIN_COS[2 * k] = (float) sin;
+            SIN_COS[2 * k + 1] = (float) cos;
+            FIXED_SIN_COS[2 * k] = (int) StrictMath.round(sin * FixedPoint.ONE);
+            FIXED_SIN_COS[2 * k + 1] = (int) StrictMath.round(cos * FixedPoint.ONE);
+        }
+    }
+
+    private BounceTable() {
+    }
+
+    /**Sine of an angle of the table.
+     *
+     * @param degrees the angle, it's clamped between -MAX_ANGLE and MAX_ANGLE.
+     * @return the sine, at most MAX_ERROR from the exact one.
+     */
+    static float sin(float degrees) {
+        return interpolate(degrees, 0);
+    }
+
+    /**Cosine of an angle of the table.
+     *
+     * @param degrees the angle, it's clamped between -MAX_ANGLE and MAX_ANGLE.
+     * @return the cosine, at most MAX_ERROR from the exact one.
+     */
+    static float cos(float degrees) {
+        return interpolate(degrees, 1);
+    }
+
+    /**Sine of an angle of the table, in fixed point.
+     *
+     * @param degrees the angle in Q16.16, it's clamped between -MAX_ANGLE and MAX_ANGLE.
+     * @return the sine in Q16.16, 1/65536 is more than the error of the table.
+     */
+    static int sinFixed(int degrees) {
+        return interpolateFixed(degrees, 0);
+    }
+
+    /**Cosine of an angle of the table, in fixed point.
+     *
+     * @param degrees the angle in Q16.16, it's clamped between -MAX_ANGLE and MAX_ANGLE.
+     * @return the cosine in Q16.16.
+     */
+    static int cosFixed(int degrees) {
+        return interpolateFixed(degrees, 1);
+    }
+
+    /**Interpolate between the two steps around the angle, in fixed point.*/
+    private static int interpolateFixed(int degrees, int column) {
+        int max = FixedPoint.fromInt(MAX_ANGLE);
+        int step = (World.clamp(degrees, -max, max) + max) * STEPS_PER_DEGREE;
+        int k = Math.min(step >> FixedPoint.SHIFT, LAST);
+        int fraction = step - FixedPoint.fromInt(k);
+        int low = FIXED_SIN_COS[2 * k + column];
+        return low + FixedPoint.mul(FIXED_SIN_COS[2 * k + 2 + column] - low, fraction);
+    }
+
+    /**Interpolate between the two steps around the angle.
+     *
+     * @param degrees the angle.
+     * @param column 0 for the sine, 1 for the cosine.
+     */
+    private static float interpolate(float degrees, int column) {
+        float step = (World.clamp(degrees, -MAX_ANGLE, MAX_ANGLE) + MAX_ANGLE) * STEPS_PER_DEGREE;
+        /*The max. angle is at the end of the last interval.*/
+        int k = Math.min((int) step, LAST);
+        float fraction = step - k;
+        float low = SIN_COS[2 * k + column];
+        return low + (SIN_COS[2 * k + 2 + column] - low) * fraction;
+    }
+}
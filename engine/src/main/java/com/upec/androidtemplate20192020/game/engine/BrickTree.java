@@ -0,0 +1,289 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**Bounding volume hierarchy of the bricks of a level, for the collisions of the balls.
+ * It's built once for a level: every node is the box around its bricks, split in two
+ * halves on the longer side by the median of the centers, down to leaves of a few bricks.
+ * The boxes never change. A broken brick is only removed from the count of the live
+ * bricks of its leaf and of the nodes above it, so removing costs the depth of the tree,
+ * and the queries skip the nodes without live bricks.
+ * The nodes are in arrays in depth-first order (the left child follows its parent),
+ * so a query reads the memory mostly forward and doesn't allocate.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+final class BrickTree {
+
+    /**Max. number of bricks in a leaf.*/
+    static final int LEAF_SIZE = 4;
+
+    /**The level of the bricks.*/
+    private final Level level;
+
+    /**Boxes of the nodes.*/
+    private final float[] minX, minY, maxX, maxY;
+
+    /**Right child of every node, -1 for a leaf, the left child is the next node.*/
+    private final int[] rightChild;
+
+    /**Parent of every node, -1 for the root.*/
+    private final int[] parent;
+
+    /**Range of the bricks of every node in order, from start to end excluded.*/
+    private final int[] start, end;
+
+    /**Number of live bricks under every node.*/
+    private final int[] live;
+
+    /**The bricks sorted by their leaf.*/
+    private final int[] order;
+
+    /**Leaf of every brick.*/
+    private final int[] leafOf;
+
+    /**True for the bricks not removed.*/
+    private final boolean[] alive;
+
+    /**Centers of the bricks, only while the tree is built.*/
+    private float[] centerX, centerY;
+
+    /**Nodes to visit by a query.*/
+    private final int[] stack = new int[64];
+
+    /**Number of nodes.*/
+    private int nodes;
+
+    /**Fraction of the movement when the ball of the last sweep hits its brick.*/
+    private float impact;
+
+    /**Standard constructor, it builds the tree with all the bricks live.
+     *
+     * @param level the level.
+     */
+    BrickTree(Level level) {
+        this.level = level;
+        int count = level.getCount();
+        /*The leaves have at least 2 bricks, so there are less than 2 nodes by brick.*/
+        int capacity = Math.max(1, 2 * count);
+        minX = new float[capacity];
+        minY = new float[capacity];
+        maxX = new float[capacity];
+        maxY = new float[capacity];
+        rightChild = new int[capacity];
+        parent = new int[capacity];
+        start = new int[capacity];
+        end = new int[capacity];
+        live = new int[capacity];
+        order = new int[count];
+        leafOf = new int[count];
+        alive = new boolean[count];
+        centerX = new float[count];
+        centerY = new float[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+            centerX[i] = (level.getLeft(i) + level.getRight(i)) * 0.5f;
+            centerY[i] = (level.getTop(i) + level.getBottom(i)) * 0.5f;
+        }
+        build(-1, 0, count);
+        centerX = centerY = null;
+        reset();
+    }
+
+    /**Build the node of the bricks from start to end, and its children.
+     *
+     * @return the index of the node.
+     */
+    private int build(int parentNode, int from, int to) {
+        int node = nodes++;
+        parent[node] = parentNode;
+        start[node] = from;
+        end[node] = to;
+        float left = Float.POSITIVE_INFINITY, top = Float.POSITIVE_INFINITY;
+        float right = Float.NEGATIVE_INFINITY, bottom = Float.NEGATIVE_INFINITY;
+        float centerLeft = Float.POSITIVE_INFINITY, centerTop = Float.POSITIVE_INFINITY;
+        float centerRight = Float.NEGATIVE_INFINITY, centerBottom = Float.NEGATIVE_INFINITY;
+        for (int k = from; k < to; k++) {
+            int brick = order[k];
+            left = Math.min(left, level.getLeft(brick));
+            top = Math.min(top, level.getTop(brick));
+            right = Math.max(right, level.getRight(brick));
+            bottom = Math.max(bottom, level.getBottom(brick));
+            centerLeft = Math.min(centerLeft, centerX[brick]);
+            centerTop = Math.min(centerTop, centerY[brick]);
+            centerRight = Math.max(centerRight, centerX[brick]);
+            centerBottom = Math.max(centerBottom, centerY[brick]);
+        }
+        minX[node] = left;
+        minY[node] = top;
+        maxX[node] = right;
+        maxY[node] = bottom;
+        if (to - from <= LEAF_SIZE) {
+            rightChild[node] = -1;
+            for (int k = from; k < to; k++)
+                leafOf[order[k]] = node;
+            return node;
+        }
+        /*Split by the median of the centers on the longer side.*/
+        float[] centers = centerRight - centerLeft >= centerBottom - centerTop ? centerX : centerY;
+        int middle = (from + to) >>> 1;
+        select(centers, from, to - 1, middle);
+        build(node, from, middle);
+        rightChild[node] = build(node, middle, to);
+        return node;
+    }
+
+    /**Put the brick of rank k by center in order[k], the smaller before, the bigger after (quickselect).*/
+    private void select(float[] centers, int low, int high, int k) {
+        while (low < high) {
+            float pivot = centers[order[(low + high) >>> 1]];
+            int i = low, j = high;
+            while (i <= j) {
+                while (centers[order[i]] < pivot)
+                    i++;
+                while (centers[order[j]] > pivot)
+                    j--;
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j)
+                high = j;
+            else if (k >= i)
+                low = i;
+            else
+                return;
+        }
+    }
+
+    /**Put back all the bricks.*/
+    void reset() {
+        for (int i = 0; i < alive.length; i++)
+            alive[i] = true;
+        for (int node = 0; node < nodes; node++)
+            live[node] = end[node] - start[node];
+    }
+
+    /**Put back the bricks as given, to restore a state of the game.
+     * The counts of the nodes are computed again from the leaves, the children after their parent.
+     *
+     * @param hits the hits left of every brick, a brick is live if it isn't 0.
+     */
+    void setAlive(int[] hits) {
+        for (int i = 0; i < alive.length; i++)
+            alive[i] = hits[i] != 0;
+        for (int node = nodes - 1; node >= 0; node--) {
+            if (rightChild[node] < 0) {
+                int count = 0;
+                for (int k = start[node]; k < end[node]; k++) {
+                    if (alive[order[k]])
+                        count++;
+                }
+                live[node] = count;
+            } else {
+                live[node] = live[node + 1] + live[rightChild[node]];
+            }
+        }
+    }
+
+    /**Remove a broken brick, the boxes stay as they are.
+     *
+     * @param brick the index of the brick in the level.
+     */
+    void remove(int brick) {
+        if (!alive[brick])
+            return;
+        alive[brick] = false;
+        for (int node = leafOf[brick]; node >= 0; node = parent[node])
+            live[node]--;
+    }
+
+    /**Find the first live brick hit by a ball during its movement.
+     * A brick which the ball touches but leaves is not hit, so a ball which
+     * just bounced from a brick isn't bounced again by it.
+     *
+     * @param x x coordinate of the center at the start of the movement.
+     * @param y y coordinate of the center at the start of the movement.
+     * @param r radius of the ball.
+     * @param dx movement on x-axis.
+     * @param dy movement on y-axis.
+     * @return the index of the brick in the level, or -1; getImpact gives when it's hit.
+     */
+    int sweep(float x, float y, float r, float dx, float dy) {
+        int hit = -1;
+        float best = Float.POSITIVE_INFINITY;
+        if (nodes == 0)
+            return hit;
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (live[node] == 0)
+                continue;
+            float enter = Collisions.sweepCircleRect(x, y, r, dx, dy, minX[node], minY[node], maxX[node], maxY[node]);
+            if (enter == Collisions.NO_HIT || enter >= best)
+                continue;
+            if (rightChild[node] >= 0) {
+                stack[top++] = rightChild[node];
+                stack[top++] = node + 1;
+                continue;
+            }
+            for (int k = start[node]; k < end[node]; k++) {
+                int brick = order[k];
+                if (!alive[brick])
+                    continue;
+                float left = level.getLeft(brick), brickTop = level.getTop(brick);
+                float right = level.getRight(brick), bottom = level.getBottom(brick);
+                float t = Collisions.sweepCircleRect(x, y, r, dx, dy, left, brickTop, right, bottom);
+                if (t == Collisions.NO_HIT || t >= best)
+                    continue;
+                /*From the nearest point of the brick to the center, the ball must come closer.*/
+                float cx = x + dx * t, cy = y + dy * t;
+                float nx = cx - World.clamp(cx, left, right);
+                float ny = cy - World.clamp(cy, brickTop, bottom);
+                if (nx * dx + ny * dy >= 0 && (nx != 0 || ny != 0))
+                    continue;
+                best = t;
+                hit = brick;
+            }
+        }
+        impact = best;
+        return hit;
+    }
+
+    /**Standard getter of the fraction of the movement when the ball of the last sweep hits its brick.*/
+    float getImpact() {
+        return impact;
+    }
+
+    /**Standard getter which says if a brick isn't removed.*/
+    boolean isAlive(int brick) {
+        return alive[brick];
+    }
+
+    /**Standard getter of the number of live bricks.*/
+    int getLiveCount() {
+        return nodes == 0 ? 0 : live[0];
+    }
+
+    /**Standard getter of the number of nodes.*/
+    int getNodeCount() {
+        return nodes;
+    }
+
+    /**Depth of the tree, the longest path from the root to a leaf.*/
+    int getDepth() {
+        int depth = 0;
+        for (int node = 0; node < nodes; node++) {
+            int d = 0;
+            for (int n = node; n >= 0; n = parent[n])
+                d++;
+            depth = Math.max(depth, d);
+        }
+        return depth;
+    }
+}
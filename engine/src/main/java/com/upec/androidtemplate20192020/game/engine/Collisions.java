@@ -0,0 +1,175 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**Narrow phase of the collisions: exact tests between two shapes.
+ * The broad phase (UniformGrid) gives the pairs which can touch,
+ * these functions say if they really touch.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public final class Collisions {
+
+    /**Returned by sweepCircleRect when the circle doesn't hit the rectangle.*/
+    public static final float NO_HIT = -1;
+
+    /**Returned by sweepCircleRectFixed when the circle doesn't hit the rectangle.*/
+    static final int NO_HIT_FIXED = -1;
+
+    private Collisions() {
+    }
+
+    /**Test if two circles touch.
+     *
+     * @param x1 x coordinate of the center of the first circle.
+     * @param y1 y coordinate of the center of the first circle.
+     * @param r1 radius of the first circle.
+     * @param x2 x coordinate of the center of the second circle.
+     * @param y2 y coordinate of the center of the second circle.
+     * @param r2 radius of the second circle.
+     * @return true if the circles touch.
+     */
+    public static boolean circleCircle(float x1, float y1, float r1, float x2, float y2, float r2) {
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+        float radius = r1 + r2;
+        return dx * dx + dy * dy < radius * radius;
+    }
+
+    /**Test if a circle touches a rectangle.
+     * The sides can be given in any order, like the rectangles of the paddles
+     * which have the top lower than the bottom.
+     *
+     * @param x x coordinate of the center of the circle.
+     * @param y y coordinate of the center of the circle.
+     * @param r radius of the circle.
+     * @param left the left side of the rectangle.
+     * @param top the top side of the rectangle.
+     * @param right the right side of the rectangle.
+     * @param bottom the bottom side of the rectangle.
+     * @return true if the circle touches the rectangle.
+     */
+    public static boolean circleRect(float x, float y, float r, float left, float top, float right, float bottom) {
+        /*The point of the rectangle nearest to the center of the circle.*/
+        float nearestX = World.clamp(x, Math.min(left, right), Math.max(left, right));
+        float nearestY = World.clamp(y, Math.min(top, bottom), Math.max(top, bottom));
+        float dx = x - nearestX;
+        float dy = y - nearestY;
+        return dx * dx + dy * dy < r * r;
+    }
+
+    /**Time of impact of a moving circle with a rectangle (continuous collision).
+     * The circle moves from (x, y) to (x + dx, y + dy) during the tick, the rectangle is
+     * grown by the radius and the path of the center is clipped by it (slab method),
+     * so even a ball faster than the rectangle is thick can't pass through it.
+     * The corners of the grown rectangle are square, so a ball which only grazes
+     * a corner counts as a hit.
+     *
+     * @param x x coordinate of the center at the start of the tick.
+     * @param y y coordinate of the center at the start of the tick.
+     * @param r radius of the circle.
+     * @param dx movement of the center on x-axis during the tick.
+     * @param dy movement of the center on y-axis during the tick.
+     * @param left the left side of the rectangle.
+     * @param top the top side of the rectangle.
+     * @param right the right side of the rectangle.
+     * @param bottom the bottom side of the rectangle.
+     * @return the fraction of the tick [0..1] when the circle touches the rectangle,
+     * 0 if it already touches it, or NO_HIT.
+     */
+    public static float sweepCircleRect(float x, float y, float r, float dx, float dy,
+                                        float left, float top, float right, float bottom) {
+        float minX = Math.min(left, right) - r;
+        float maxX = Math.max(left, right) + r;
+        float minY = Math.min(top, bottom) - r;
+        float maxY = Math.max(top, bottom) + r;
+
+        /*Times when the center enters and exits the slab of every axis.*/
+        float enterX, exitX, enterY, exitY;
+        if (dx == 0) {
+            if (x < minX || x > maxX)
+                return NO_HIT;
+            enterX = Float.NEGATIVE_INFINITY;
+            exitX = Float.POSITIVE_INFINITY;
+        } else {
+            float t1 = (minX - x) / dx;
+            float t2 = (maxX - x) / dx;
+            enterX = Math.min(t1, t2);
+            exitX = Math.max(t1, t2);
+        }
+        if (dy == 0) {
+            if (y < minY || y > maxY)
+                return NO_HIT;
+            enterY = Float.NEGATIVE_INFINITY;
+            exitY = Float.POSITIVE_INFINITY;
+        } else {
+            float t1 = (minY - y) / dy;
+            float t2 = (maxY - y) / dy;
+            enterY = Math.min(t1, t2);
+            exitY = Math.max(t1, t2);
+        }
+
+        /*The center is in the rectangle when it's in both slabs.*/
+        float enter = Math.max(enterX, enterY);
+        float exit = Math.min(exitX, exitY);
+        if (enter > exit || exit < 0 || enter > 1)
+            return NO_HIT;
+        return Math.max(enter, 0);
+    }
+
+    /**Time of impact of a moving circle with a rectangle, as sweepCircleRect,
+     * in Q16.16 fixed point (FixedPoint) for the fixed-point physics.
+     * The times are computed in long, so a slow ball far from the rectangle doesn't overflow.
+     *
+     * @param x x coordinate of the center at the start of the tick.
+     * @param y y coordinate of the center at the start of the tick.
+     * @param r radius of the circle.
+     * @param dx movement of the center on x-axis during the tick.
+     * @param dy movement of the center on y-axis during the tick.
+     * @param left the left side of the rectangle.
+     * @param top the top side of the rectangle.
+     * @param right the right side of the rectangle.
+     * @param bottom the bottom side of the rectangle.
+     * @return the fraction of the tick [0..FixedPoint.ONE] when the circle touches the rectangle,
+     * or NO_HIT_FIXED.
+     */
+    static int sweepCircleRectFixed(int x, int y, int r, int dx, int dy,
+                                    int left, int top, int right, int bottom) {
+        int minX = Math.min(left, right) - r;
+        int maxX = Math.max(left, right) + r;
+        int minY = Math.min(top, bottom) - r;
+        int maxY = Math.max(top, bottom) + r;
+
+        /*Times when the center enters and exits the slab of every axis.*/
+        long enterX, exitX, enterY, exitY;
+        if (dx == 0) {
+            if (x < minX || x > maxX)
+                return NO_HIT_FIXED;
+            enterX = Long.MIN_VALUE;
+            exitX = Long.MAX_VALUE;
+        } else {
+            long t1 = ((long) (minX - x) << FixedPoint.SHIFT) / dx;
+            long t2 = ((long) (maxX - x) << FixedPoint.SHIFT) / dx;
+            enterX = Math.min(t1, t2);
+            exitX = Math.max(t1, t2);
+        }
+        if (dy == 0) {
+            if (y < minY || y > maxY)
+                return NO_HIT_FIXED;
+            enterY = Long.MIN_VALUE;
+            exitY = Long.MAX_VALUE;
+        } else {
+            long t1 = ((long) (minY - y) << FixedPoint.SHIFT) / dy;
+            long t2 = ((long) (maxY - y) << FixedPoint.SHIFT) / dy;
+            enterY = Math.min(t1, t2);
+            exitY = Math.max(t1, t2);
+        }
+
+        /*The center is in the rectangle when it's in both slabs.*/
+        long enter = Math.max(enterX, enterY);
+        long exit = Math.min(exitX, exitY);
+        if (enter > exit || exit < 0 || enter > FixedPoint.ONE)
+            return NO_HIT_FIXED;
+        return (int) Math.max(enter, 0);
+    }
+}
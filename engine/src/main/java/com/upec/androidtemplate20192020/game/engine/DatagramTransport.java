@@ -0,0 +1,87 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**Transport on UDP with a non-blocking DatagramChannel, connected to one peer.
+ * A connected channel only receives the packets of the peer, and reading it
+ * doesn't allocate the address of the sender.
+ * The socket API of the channel is used, its bind and getLocalAddress need android 7.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class DatagramTransport implements Transport {
+
+    /**The channel, bound to the local port.*/
+    private final DatagramChannel channel;
+
+    /**Constructor which binds the local port, the peer is given by connect.
+     *
+     * @param local the local address, port 0 for any free port.
+     * @throws IOException if the port can't be bound.
+     */
+    public DatagramTransport(InetSocketAddress local) throws IOException {
+        channel = DatagramChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.socket().bind(local);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**Standard constructor, connected to the peer.
+     *
+     * @param local the local address, port 0 for any free port.
+     * @param remote the address of the peer.
+     * @throws IOException if the port can't be bound.
+     */
+    public DatagramTransport(InetSocketAddress local, InetSocketAddress remote) throws IOException {
+        this(local);
+        connect(remote);
+    }
+
+    /**Send and receive only the packets of the peer.
+     *
+     * @param remote the address of the peer.
+     * @throws IOException if the channel can't be connected.
+     */
+    public void connect(InetSocketAddress remote) throws IOException {
+        channel.connect(remote);
+    }
+
+    /**Standard getter of the local port.*/
+    public int getLocalPort() {
+        return channel.socket().getLocalPort();
+    }
+
+    @Override
+    public void send(ByteBuffer packet) throws IOException {
+        try {
+            /*A full buffer of the socket drops the packet, like the network.*/
+            channel.write(packet);
+        } catch (PortUnreachableException e) {
+            /*The peer isn't listening yet, it gets the next packets.*/
+        }
+    }
+
+    @Override
+    public boolean receive(ByteBuffer packet) throws IOException {
+        try {
+            return channel.read(packet) > 0;
+        } catch (PortUnreachableException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
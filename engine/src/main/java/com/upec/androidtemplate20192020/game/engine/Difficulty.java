@@ -0,0 +1,59 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**The difficulties of the bot, chosen in ChooseDifficulty.
+ * Apart from the speed of the bot's rectangle, every difficulty says how
+ * long the bot waits before moving after the ball changed its direction,
+ * how far from the right place it aims and through how many
+ * bounces from the side edges it can predict the ball.
+ * The times are in ticks, the distances in pixels.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public enum Difficulty {
+
+    EASY(5, 20, 120, 0),
+    MEDIUM(10, 12, 60, 1),
+    HARD(15, 6, 25, 2),
+    NIGHTMARE(30, 0, 0, Integer.MAX_VALUE);
+
+    /**Speed of the bot's rectangle.*/
+    private final int botSpeed;
+
+    /**Ticks the bot waits before moving to the new target.*/
+    private final int reactionTicks;
+
+    /**Max. error of the target on x-axis.*/
+    private final int aimError;
+
+    /**Max. number of bounces from the side edges which the bot can predict.*/
+    private final int horizon;
+
+    Difficulty(int botSpeed, int reactionTicks, int aimError, int horizon) {
+        this.botSpeed = botSpeed;
+        this.reactionTicks = reactionTicks;
+        this.aimError = aimError;
+        this.horizon = horizon;
+    }
+
+    /**Standard getter of the speed of the bot's rectangle.*/
+    public int getBotSpeed() {
+        return botSpeed;
+    }
+
+    /**Standard getter of the reaction latency, in ticks.*/
+    public int getReactionTicks() {
+        return reactionTicks;
+    }
+
+    /**Standard getter of the max. aim error, in pixels.*/
+    public int getAimError() {
+        return aimError;
+    }
+
+    /**Standard getter of the planning horizon, in bounces from the side edges.*/
+    public int getHorizon() {
+        return horizon;
+    }
+}
@@ -0,0 +1,223 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**The parts of the screen which changed since the previous frame.
+ * Every moving entity (the rectangles, the balls) adds its bounds of the frame,
+ * merged with its bounds of the previous frame: the place where it was must be
+ * cleaned and the place where it is must be drawn. The rectangles which touch
+ * are merged, so the same pixel isn't drawn twice.
+ * When the region is too fragmented (more than MAX_RECTS rectangles) or too big
+ * (more than FULL_FRACTION of the screen), or when the background changed,
+ * the region is full and the whole frame is drawn again.
+ * It's used by the software canvas: only the region is locked and drawn.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class DirtyRegion {
+
+    /**Max. number of rectangles of a region which isn't full.*/
+    public static final int MAX_RECTS = 16;
+
+    /**Part of the screen over which the whole frame is drawn again.*/
+    public static final float FULL_FRACTION = 0.5f;
+
+    /**Pixels added around the bounds, for the antialiasing of the edges.*/
+    static final int MARGIN = 2;
+
+    /**Size of the screen.*/
+    private final int width, height;
+
+    /**Bounds of every entity on the previous frame: left, top, right, bottom.*/
+    private int[] previous = new int[0];
+
+    /**True for the entities which have bounds on the previous frame.*/
+    private boolean[] hasPrevious = new boolean[0];
+
+    /**The rectangles of the region: left, top, right, bottom.*/
+    private final int[] rects = new int[4 * MAX_RECTS];
+
+    /**Number of rectangles.*/
+    private int count;
+
+    /**Number of entities of the previous frame.*/
+    private int entities;
+
+    /**True if the whole frame must be drawn.*/
+    private boolean full;
+
+    /**Standard constructor.
+     *
+     * @param width the width of the screen.
+     * @param height the height of the screen.
+     */
+    public DirtyRegion(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**Start the region of a new frame, empty.
+     *
+     * @param entities number of entities which will be added.
+     */
+    public void begin(int entities) {
+        count = 0;
+        /*The removed entities must be cleaned, the new ones have no previous bounds.*/
+        full = entities != this.entities;
+        this.entities = entities;
+        if (4 * entities > previous.length) {
+            int[] grown = new int[4 * entities];
+            System.arraycopy(previous, 0, grown, 0, previous.length);
+            boolean[] grownHas = new boolean[entities];
+            System.arraycopy(hasPrevious, 0, grownHas, 0, hasPrevious.length);
+            previous = grown;
+            hasPrevious = grownHas;
+        }
+    }
+
+    /**Add the bounds of an entity on this frame, merged with its bounds on the previous frame.
+     * The sides can be given in any order, like the rectangles of the paddles.
+     *
+     * @param entity the index of the entity, the same on every frame.
+     * @param left the left side.
+     * @param top the top side.
+     * @param right the right side.
+     * @param bottom the bottom side.
+     */
+    public void add(int entity, float left, float top, float right, float bottom) {
+        int l = World.clamp((int) Math.floor(Math.min(left, right)) - MARGIN, 0, width);
+        int t = World.clamp((int) Math.floor(Math.min(top, bottom)) - MARGIN, 0, height);
+        int r = World.clamp((int) Math.ceil(Math.max(left, right)) + MARGIN, 0, width);
+        int b = World.clamp((int) Math.ceil(Math.max(top, bottom)) + MARGIN, 0, height);
+        int p = 4 * entity;
+        if (hasPrevious[entity]) {
+            /*The entity cleans where it was and draws where it is.*/
+            addRect(Math.min(l, previous[p]), Math.min(t, previous[p + 1]),
+                    Math.max(r, previous[p + 2]), Math.max(b, previous[p + 3]));
+        } else {
+            full = true;
+        }
+        previous[p] = l;
+        previous[p + 1] = t;
+        previous[p + 2] = r;
+        previous[p + 3] = b;
+        hasPrevious[entity] = true;
+    }
+
+    /**Draw the whole frame, for example when the background changed.*/
+    public void invalidateAll() {
+        full = true;
+    }
+
+    /**Forget the bounds of the previous frame, the next frame is drawn whole.*/
+    public void reset() {
+        java.util.Arrays.fill(hasPrevious, false);
+        full = true;
+    }
+
+    /**Add a rectangle, merged with all the rectangles which touch it.*/
+    private void addRect(int l, int t, int r, int b) {
+        if (full || l >= r || t >= b)
+            return;
+        for (int i = 0; i < count; i++) {
+            int q = 4 * i;
+            if (l <= rects[q + 2] && rects[q] <= r && t <= rects[q + 3] && rects[q + 1] <= b) {
+                /*Take the rectangle out and merge it, the bigger one can touch other ones.*/
+                l = Math.min(l, rects[q]);
+                t = Math.min(t, rects[q + 1]);
+                r = Math.max(r, rects[q + 2]);
+                b = Math.max(b, rects[q + 3]);
+                count--;
+                System.arraycopy(rects, 4 * count, rects, q, 4);
+                i = -1;
+            }
+        }
+        if (count == MAX_RECTS) {
+            /*Too fragmented, drawing everything costs less than so many locks of the canvas.*/
+            full = true;
+            return;
+        }
+        int q = 4 * count++;
+        rects[q] = l;
+        rects[q + 1] = t;
+        rects[q + 2] = r;
+        rects[q + 3] = b;
+    }
+
+    /**True if the whole frame must be drawn: the region is too fragmented, too big, or invalidated.*/
+    public boolean isFull() {
+        if (full)
+            return true;
+        long area = 0;
+        for (int i = 0; i < count; i++)
+            area += (long) (rects[4 * i + 2] - rects[4 * i]) * (rects[4 * i + 3] - rects[4 * i + 1]);
+        return area > FULL_FRACTION * width * height;
+    }
+
+    /**Standard getter of the number of rectangles.*/
+    public int getCount() {
+        return count;
+    }
+
+    /**Standard getter of the left side of a rectangle.*/
+    public int getLeft(int i) {
+        return rects[4 * i];
+    }
+
+    /**Standard getter of the top side of a rectangle.*/
+    public int getTop(int i) {
+        return rects[4 * i + 1];
+    }
+
+    /**Standard getter of the right side of a rectangle.*/
+    public int getRight(int i) {
+        return rects[4 * i + 2];
+    }
+
+    /**Standard getter of the bottom side of a rectangle.*/
+    public int getBottom(int i) {
+        return rects[4 * i + 3];
+    }
+
+    /**Left side of the bounds of all the rectangles, the part of the canvas to lock.*/
+    public int getBoundsLeft() {
+        int left = width;
+        for (int i = 0; i < count; i++)
+            left = Math.min(left, rects[4 * i]);
+        return left;
+    }
+
+    /**Top side of the bounds of all the rectangles.*/
+    public int getBoundsTop() {
+        int top = height;
+        for (int i = 0; i < count; i++)
+            top = Math.min(top, rects[4 * i + 1]);
+        return top;
+    }
+
+    /**Right side of the bounds of all the rectangles.*/
+    public int getBoundsRight() {
+        int right = 0;
+        for (int i = 0; i < count; i++)
+            right = Math.max(right, rects[4 * i + 2]);
+        return right;
+    }
+
+    /**Bottom side of the bounds of all the rectangles.*/
+    public int getBoundsBottom() {
+        int bottom = 0;
+        for (int i = 0; i < count; i++)
+            bottom = Math.max(bottom, rects[4 * i + 3]);
+        return bottom;
+    }
+
+    /**Standard getter of the width of the screen.*/
+    public int getWidth() {
+        return width;
+    }
+
+    /**Standard getter of the height of the screen.*/
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,71 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**Numbers in Q16.16 fixed point: an int of which the 16 low bits are the fraction,
+ * for the fixed-point physics (World.setFixedPoint). Only int and long operations
+ * are used, so the results are the same bits on every processor and every java,
+ * without depending on how the floats are rounded.
+ * A world of 32767 pixels fits in it, with a precision of 1/65536 of pixel.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+final class FixedPoint {
+
+    /**Bits of the fraction.*/
+    static final int SHIFT = 16;
+
+    /**1 in fixed point.*/
+    static final int ONE = 1 << SHIFT;
+
+    private FixedPoint() {
+    }
+
+    /**Fixed point of an int.*/
+    static int fromInt(int value) {
+        return value << SHIFT;
+    }
+
+    /**Fixed point of a float, rounded to the nearest.*/
+    static int fromFloat(float value) {
+        return Math.round(value * ONE);
+    }
+
+    /**Float of a fixed point, for the drawing and the bot.*/
+    static float toFloat(int value) {
+        return value * (1f / ONE);
+    }
+
+    /**Product of two fixed points, rounded down.*/
+    static int mul(int a, int b) {
+        return (int) (((long) a * b) >> SHIFT);
+    }
+
+    /**Quotient of two fixed points, rounded toward 0.*/
+    static int div(int a, int b) {
+        return (int) (((long) a << SHIFT) / b);
+    }
+
+    /**Square root of a square of fixed points (32 bits of fraction), rounded down,
+     * computed bit by bit.
+     *
+     * @param square the square, not negative.
+     * @return the root in fixed point.
+     */
+    static int sqrt(long square) {
+        long root = 0;
+        long bit = 1L << 62;
+        while (bit > square)
+            bit >>= 2;
+        while (bit != 0) {
+            if (square >= root + bit) {
+                square -= root + bit;
+                root = (root >> 1) + bit;
+            } else {
+                root >>= 1;
+            }
+            bit >>= 2;
+        }
+        return (int) root;
+    }
+}
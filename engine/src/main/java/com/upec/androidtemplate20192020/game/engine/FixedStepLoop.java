@@ -0,0 +1,97 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**Fixed timestep accumulator which decouples the simulation from rendering.
+ * Every frame the elapsed time is added to an accumulator and the simulation
+ * is stepped as many times as whole ticks fit in it, so the ball moves by the
+ * same amount per second whatever the frame rate is.
+ * The remainder of the accumulator is exposed as alpha, the fraction of a tick
+ * passed since the last step, which is used to interpolate the drawing.
+ * This class doesn't use any android API, so it can be run headless.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class FixedStepLoop {
+
+    /**The simulation which is stepped by the loop.*/
+    public interface Simulation {
+
+        /**Advance the simulation by exactly one tick.*/
+        void step();
+    }
+
+    /**Max. time of a frame which is put in the accumulator.
+     * If the device stalls (for example a slow frame or a debugger) the
+     * lost time is dropped instead of running hundreds of ticks at once.
+     */
+    static final long MAX_FRAME_NANOS = 250000000L;
+
+    /**Duration of one tick in ns.*/
+    private final long stepNanos;
+
+    /**Time which was not yet consumed by a tick in ns.*/
+    private long accumulator;
+
+    /**Number of ticks done from the start.*/
+    private long ticks;
+
+    /**Standard constructor.
+     *
+     * @param ticksPerSecond the rate of the simulation.
+     */
+    public FixedStepLoop(int ticksPerSecond) {
+        if (ticksPerSecond <= 0)
+            throw new IllegalArgumentException("ticksPerSecond must be positive: " + ticksPerSecond);
+        stepNanos = 1000000000L / ticksPerSecond;
+    }
+
+    /**Add the frame time in the accumulator and step the simulation
+     * for every whole tick which fits in it.
+     *
+     * @param elapsedNanos time passed from the previous frame in ns.
+     * @param simulation the simulation to step.
+     * @return the number of ticks done in this frame.
+     */
+    public int advance(long elapsedNanos, Simulation simulation) {
+        /*Ignore the clock going back and clamp the too long frames.*/
+        if (elapsedNanos > 0)
+            accumulator += Math.min(elapsedNanos, MAX_FRAME_NANOS);
+
+        int steps = 0;
+        while (accumulator >= stepNanos) {
+            /*The time of the tick is removed before the step, so the step
+             *can know how far it is from the end of the frame.*/
+            accumulator -= stepNanos;
+            simulation.step();
+            steps++;
+        }
+        ticks += steps;
+        return steps;
+    }
+
+    /**Fraction of the tick passed after the last step, between [0..1).
+     * It is used to interpolate the positions between the last two ticks.
+     */
+    public float alpha() {
+        return (float) accumulator / stepNanos;
+    }
+
+    /**Time not simulated yet in ns. During a step it's the time between the end of
+     * the tick being stepped and the end of the frame, less than getStepNanos()
+     * for the last tick of the frame.
+     */
+    public long getLagNanos() {
+        return accumulator;
+    }
+
+    /**Standard getter of the duration of a tick in ns.*/
+    public long getStepNanos() {
+        return stepNanos;
+    }
+
+    /**Standard getter of the ticks done from the start.*/
+    public long getTicks() {
+        return ticks;
+    }
+}
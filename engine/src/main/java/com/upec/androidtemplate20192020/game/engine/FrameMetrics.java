@@ -0,0 +1,120 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**Timing of the frames of the game loop, every stage of a frame has its histogram.
+ * The histograms have a fixed memory, so the metrics can stay on all the time,
+ * and they give the tail of the latencies (p95, p99, max) and not only an average.
+ * A frame is a jank when it takes more than JANK_FACTOR times the frame budget,
+ * so it missed at least one refresh of the screen.
+ * It's not thread safe: it's recorded and read by the render thread only, the other
+ * threads pass their timings to it (the update of a tick comes with its snapshot).
+ * Only getStableNanos can be read by any thread.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class FrameMetrics {
+
+    /**The stages of a frame which are measured.*/
+    public enum Stage {
+        /**A tick of the game logic, recorded once for every tick drawn.*/
+        UPDATE,
+        /**The drawing of the game on the canvas.*/
+        DRAW,
+        /**Locking the canvas and posting it to the screen.*/
+        LOCK_POST,
+        /**Time slept more than asked, when waiting for the next frame.*/
+        SLEEP_OVERSHOOT,
+        /**The whole frame, from the start of a frame to the start of the next one.*/
+        FRAME
+    }
+
+    /**A frame longer than this times the budget is a jank.*/
+    public static final double JANK_FACTOR = 1.5;
+
+    /**Number of frames in a row without jank after which the game is stable.*/
+    public static final int STABLE_FRAMES = 30;
+
+    /**Expected duration of a frame in ns.*/
+    private final long frameBudgetNanos;
+
+    /**One histogram for every stage.*/
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Stage.values().length];
+
+    /**Number of frames which were a jank.*/
+    private long jankCount;
+
+    /**Number of frames without jank since the last jank.*/
+    private int stableFrames;
+
+    /**Time of the first stable frame, 0 before it. It's read by other threads.*/
+    private volatile long stableNanos;
+
+    /**Standard constructor.
+     *
+     * @param frameBudgetNanos expected duration of a frame in ns, for example 1/60 s.
+     */
+    public FrameMetrics(long frameBudgetNanos) {
+        if (frameBudgetNanos <= 0)
+            throw new IllegalArgumentException("frameBudgetNanos must be positive: " + frameBudgetNanos);
+        this.frameBudgetNanos = frameBudgetNanos;
+        for (int i = 0; i < histograms.length; i++)
+            histograms[i] = new LatencyHistogram();
+    }
+
+    /**Count the duration of a stage of a frame.
+     *
+     * @param stage the stage.
+     * @param nanos the duration in ns.
+     */
+    public void record(Stage stage, long nanos) {
+        histograms[stage.ordinal()].record(nanos);
+        if (stage != Stage.FRAME)
+            return;
+        if (nanos > frameBudgetNanos * JANK_FACTOR) {
+            jankCount++;
+            stableFrames = 0;
+        } else if (++stableFrames == STABLE_FRAMES && stableNanos == 0) {
+            stableNanos = System.nanoTime();
+        }
+    }
+
+    /**Standard getter of the histogram of a stage.*/
+    public LatencyHistogram getHistogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    /**Standard getter of the number of frames which were a jank.*/
+    public long getJankCount() {
+        return jankCount;
+    }
+
+    /**Time of the first stable frame: the last of the first STABLE_FRAMES frames
+     * in a row without jank, on the clock of System.nanoTime(), 0 before it.*/
+    public long getStableNanos() {
+        return stableNanos;
+    }
+
+    /**Standard getter of the expected duration of a frame in ns.*/
+    public long getFrameBudgetNanos() {
+        return frameBudgetNanos;
+    }
+
+    /**Average number of frames by second, from the durations of the frames.
+     *
+     * @return the frames by second, or 0 if no frame was measured.
+     */
+    public double getAverageFps() {
+        LatencyHistogram frames = getHistogram(Stage.FRAME);
+        return frames.getTotal() == 0 ? 0 : frames.getCount() * 1e9 / frames.getTotal();
+    }
+
+    /**Forget all the measures.*/
+    public void reset() {
+        for (LatencyHistogram histogram : histograms)
+            histogram.reset();
+        jankCount = 0;
+        stableFrames = 0;
+        stableNanos = 0;
+    }
+}
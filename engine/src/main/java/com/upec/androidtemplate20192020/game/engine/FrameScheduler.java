@@ -0,0 +1,33 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**Paces the frames of the game loop: the thread waits here for the start of every frame.
+ * The implementations decide when a frame starts, for example on the vsync of the
+ * screen or on a timer, so the game loop doesn't depend on how the frames are paced.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public interface FrameScheduler {
+
+    /**Wait for the start of the next frame.
+     *
+     * @return the time at which the frame should have started, on the clock of System.nanoTime().
+     * @throws InterruptedException if the thread was interrupted while waiting.
+     */
+    long awaitFrame() throws InterruptedException;
+
+    /**Duration of a frame in ns, it can change if the scheduler adapts to the screen.*/
+    long getFrameNanos();
+
+    /**Stop the frames, the thread which waits is released at the latest after one frame,
+     * and awaitFrame returns at once until the scheduler is resumed.*/
+    void stop();
+
+    /**Pace the frames again after stop, called by the thread which waits.
+     * The paused time isn't caught up, the next frame starts at once or on the next vsync.*/
+    void resume();
+
+    /**Stop the scheduler and free what it uses, it can't be resumed.*/
+    void release();
+}
@@ -0,0 +1,205 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**The settings of a game: the size of the world, the speeds, the balls, the bot,
+ * the physics (floats or fixed point) and the level of the bricks.
+ * It's immutable, a change makes a new config, so it can be given from the UI thread
+ * to the game thread by one reference, and several games with their own configs
+ * can run in the same process (the matches of MatchSimulator, a split screen).
+ * Only the bot (difficulty and speed) can be changed during a game, by World.setConfig.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public final class GameConfig {
+
+    /**The default game: a 1080x1920 screen, one ball and the bot MEDIUM.*/
+    public static final GameConfig DEFAULT = new GameConfig(1080, 1920, 10,
+            Difficulty.MEDIUM.getBotSpeed(), 1, Difficulty.MEDIUM);
+
+    /**Size of the world, usually the screen's size.*/
+    private final int width, height;
+
+    /**Default speed of the ball.*/
+    private final int ballSpeed;
+
+    /**Speed of the bot's rectangle.*/
+    private final int botSpeed;
+
+    /**Number of balls.*/
+    private final int ballCount;
+
+    /**How well the bot plays, apart from his speed.*/
+    private final Difficulty difficulty;
+
+    /**True if the balls move in fixed point (World.setFixedPoint).*/
+    private final boolean fixedPoint;
+
+    /**The bricks of the arena (World.setLevel), null without bricks.*/
+    private final Level level;
+
+    /**Standard constructor.
+     *
+     * @param width the width of the world, usually the screen's width.
+     * @param height the height of the world, usually the screen's height.
+     * @param ballSpeed default speed of the ball.
+     * @param botSpeed speed of the bot's rectangle.
+     * @param ballCount number of balls.
+     * @param difficulty how well the bot plays, apart from his speed.
+     */
+    public GameConfig(int width, int height, int ballSpeed, int botSpeed, int ballCount, Difficulty difficulty) {
+        this(width, height, ballSpeed, botSpeed, ballCount, difficulty, false, null);
+    }
+
+    private GameConfig(int width, int height, int ballSpeed, int botSpeed, int ballCount, Difficulty difficulty,
+                       boolean fixedPoint, Level level) {
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("The size must be positive: " + width + "x" + height);
+        if (ballCount < 0)
+            throw new IllegalArgumentException("ballCount must not be negative: " + ballCount);
+        if (difficulty == null)
+            throw new IllegalArgumentException("difficulty must not be null");
+        if (fixedPoint && level != null)
+            throw new IllegalArgumentException("The bricks can't be played in fixed point");
+        this.width = width;
+        this.height = height;
+        this.ballSpeed = ballSpeed;
+        this.botSpeed = botSpeed;
+        this.ballCount = ballCount;
+        this.difficulty = difficulty;
+        this.fixedPoint = fixedPoint;
+        this.level = level;
+    }
+
+    /**The same config on an other screen.
+     *
+     * @param width the width of the world.
+     * @param height the height of the world.
+     * @return the new config.
+     */
+    public GameConfig withScreen(int width, int height) {
+        return new GameConfig(width, height, ballSpeed, botSpeed, ballCount, difficulty, fixedPoint, level);
+    }
+
+    /**The same config with an other bot, with the speed of his difficulty.
+     *
+     * @param difficulty how well the bot plays.
+     * @return the new config.
+     */
+    public GameConfig withDifficulty(Difficulty difficulty) {
+        return withDifficulty(difficulty, difficulty.getBotSpeed());
+    }
+
+    /**The same config with an other bot.
+     *
+     * @param difficulty how well the bot plays, apart from his speed.
+     * @param botSpeed speed of the bot's rectangle.
+     * @return the new config.
+     */
+    public GameConfig withDifficulty(Difficulty difficulty, int botSpeed) {
+        return new GameConfig(width, height, ballSpeed, botSpeed, ballCount, difficulty, fixedPoint, level);
+    }
+
+    /**The same config with an other number of balls.
+     *
+     * @param ballCount number of balls.
+     * @return the new config.
+     */
+    public GameConfig withBallCount(int ballCount) {
+        return new GameConfig(width, height, ballSpeed, botSpeed, ballCount, difficulty, fixedPoint, level);
+    }
+
+    /**The same config with the physics of the floats or of the fixed point.
+     *
+     * @param fixedPoint true for the fixed point.
+     * @return the new config.
+     * @throws IllegalArgumentException if the fixed point has a level.
+     */
+    public GameConfig withFixedPoint(boolean fixedPoint) {
+        return new GameConfig(width, height, ballSpeed, botSpeed, ballCount, difficulty, fixedPoint, level);
+    }
+
+    /**The same config with an other level.
+     *
+     * @param level the bricks of the arena, null without bricks.
+     * @return the new config.
+     * @throws IllegalArgumentException if the level is in fixed point.
+     */
+    public GameConfig withLevel(Level level) {
+        return new GameConfig(width, height, ballSpeed, botSpeed, ballCount, difficulty, fixedPoint, level);
+    }
+
+    /**True if a game of this config can go on with the other config:
+     * they differ only by the bot.
+     *
+     * @param other the other config.
+     * @return true if only the bot changes.
+     */
+    public boolean isSameGame(GameConfig other) {
+        return width == other.width && height == other.height
+                && ballSpeed == other.ballSpeed && ballCount == other.ballCount
+                && fixedPoint == other.fixedPoint && (level == null ? other.level == null : level.equals(other.level));
+    }
+
+    /**Standard getter of the width.*/
+    public int getWidth() {
+        return width;
+    }
+
+    /**Standard getter of the height.*/
+    public int getHeight() {
+        return height;
+    }
+
+    /**Width of the rectangles, based on the world's width.*/
+    public int getPaddleWidth() {
+        return (int) (width * 0.33);
+    }
+
+    /**Height of the rectangles, based on the world's height.*/
+    public int getPaddleHeight() {
+        return (int) (height * 0.025);
+    }
+
+    /**Standard getter of the radius of the balls.*/
+    public float getBallRadius() {
+        return World.BALL_RADIUS;
+    }
+
+    /**Standard getter of the default speed of the ball.*/
+    public int getBallSpeed() {
+        return ballSpeed;
+    }
+
+    /**Standard getter of the speed of the bot's rectangle.*/
+    public int getBotSpeed() {
+        return botSpeed;
+    }
+
+    /**Standard getter of the number of balls.*/
+    public int getBallCount() {
+        return ballCount;
+    }
+
+    /**Standard getter of the difficulty of the bot.*/
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**Standard getter which says if the balls move in fixed point.*/
+    public boolean isFixedPoint() {
+        return fixedPoint;
+    }
+
+    /**Standard getter of the level of the bricks, null without bricks.*/
+    public Level getLevel() {
+        return level;
+    }
+
+    @Override
+    public String toString() {
+        return width + "x" + height + ", ball " + ballSpeed + ", bot " + difficulty + "(" + botSpeed + "), "
+                + ballCount + (ballCount == 1 ? " ball" : " balls") + (fixedPoint ? ", fixed point" : "")
+                + (level != null ? ", " + level.getCount() + " bricks" : "");
+    }
+}
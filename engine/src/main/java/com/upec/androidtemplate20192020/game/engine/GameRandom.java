@@ -0,0 +1,79 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**Random numbers of the game, generated from a seed (SplitMix64).
+ * The same seed gives the same numbers on every device, so a game
+ * is reproduced from its seed and the input of the player.
+ * Unlike java.util.Random it's not thread safe, it's used only
+ * by the thread which updates the world.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class GameRandom {
+
+    /**The state, it moves by the golden gamma at every number.*/
+    private long state;
+
+    /**Standard constructor.
+     *
+     * @param seed the seed of the numbers.
+     */
+    public GameRandom(long seed) {
+        state = seed;
+    }
+
+    /**Start the numbers again from a seed, as a new GameRandom(seed).
+     *
+     * @param seed the seed of the numbers.
+     */
+    void setSeed(long seed) {
+        state = seed;
+    }
+
+    /**Standard getter of the state, setSeed(getState()) goes on with the same numbers.*/
+    long getState() {
+        return state;
+    }
+
+    /**Generate the next 64 random bits.
+     *
+     * @return a random long.
+     */
+    public long nextLong() {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**Generate a random double between [0..1).
+     *
+     * @return a random double.
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**Generate a random double between [origin..bound).
+     *
+     * @param origin the lowest value.
+     * @param bound the value after the highest.
+     * @return a random double.
+     */
+    public double nextDouble(double origin, double bound) {
+        return origin + nextDouble() * (bound - origin);
+    }
+
+    /**Generate a random int between [origin..bound).
+     *
+     * @param origin the lowest value.
+     * @param bound the value after the highest.
+     * @return a random int.
+     */
+    public int nextInt(int origin, int bound) {
+        if (origin >= bound)
+            throw new IllegalArgumentException("bound must be greater than origin: " + origin + " >= " + bound);
+        return origin + (int) ((nextLong() >>> 1) % ((long) bound - origin));
+    }
+}
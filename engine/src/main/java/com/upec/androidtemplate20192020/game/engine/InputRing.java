@@ -0,0 +1,114 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**Queue of the touches, from the UI thread to the thread which updates the game.
+ * It's a ring buffer for one producer and one consumer without locks:
+ * the slots are allocated once, the producer writes a slot then publishes it
+ * by moving the tail, the consumer reads the published slots then frees them by
+ * moving the head. A touch is written as two arrays (x and time), so a consumer
+ * never reads half of a touch, and adding or reading a touch doesn't allocate.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class InputRing {
+
+    /**The x coordinates of the touches.*/
+    private final int[] xs;
+
+    /**The times of the touches, in ns.*/
+    private final long[] times;
+
+    /**capacity - 1, the capacity is a power of two so the slot is index & mask.*/
+    private final int mask;
+
+    /**Index of the next touch to read, moved only by the consumer.*/
+    private final AtomicLong head = new AtomicLong();
+
+    /**Index of the next touch to write, moved only by the producer.*/
+    private final AtomicLong tail = new AtomicLong();
+
+    /**Last head seen by the producer, to not read the head at every touch.*/
+    private long cachedHead;
+
+    /**Last x added, the same x again is coalesced with it.*/
+    private int lastX = Integer.MIN_VALUE;
+
+    /**Number of touches lost because the ring was full.*/
+    private long dropped;
+
+    /**Standard constructor.
+     *
+     * @param capacity max. number of touches not read yet, a power of two.
+     */
+    public InputRing(int capacity) {
+        if (capacity <= 0 || (capacity & (capacity - 1)) != 0)
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        xs = new int[capacity];
+        times = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /**Add a touch, it's called only by the producer (the UI thread).
+     * A touch with the same x as the previous one changes nothing, so it's not added.
+     *
+     * @param x the x coordinate of the touch.
+     * @param timeNanos the time of the touch in ns, on the clock of System.nanoTime().
+     * @return false if the ring was full and the touch was lost.
+     */
+    public boolean offer(int x, long timeNanos) {
+        if (x == lastX)
+            return true;
+        long t = tail.get();
+        if (t - cachedHead > mask) {
+            cachedHead = head.get();
+            if (t - cachedHead > mask) {
+                dropped++;
+                return false;
+            }
+        }
+        int slot = (int) t & mask;
+        xs[slot] = x;
+        times[slot] = timeNanos;
+        lastX = x;
+        /*Publish the slot after it's written.*/
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**Read the touches until a time, it's called only by the consumer (the game thread).
+     * All the touches read are coalesced in the last of them, so when some ticks
+     * are updated in one frame every tick gets the touch of its own time.
+     *
+     * @param timeNanos the time of the tick, the touches after it stay in the ring.
+     * @param current the x to return if there is no touch.
+     * @return the x of the last touch read, or current.
+     */
+    public int drainUntil(long timeNanos, int current) {
+        long h = head.get();
+        long t = tail.get();
+        while (h < t && times[(int) h & mask] <= timeNanos) {
+            current = xs[(int) h & mask];
+            h++;
+        }
+        /*Free the slots after they're read.*/
+        head.lazySet(h);
+        return current;
+    }
+
+    /**Read all the touches, it's called only by the consumer (the game thread).
+     *
+     * @param current the x to return if there is no touch.
+     * @return the x of the last touch, or current.
+     */
+    public int drain(int current) {
+        return drainUntil(Long.MAX_VALUE, current);
+    }
+
+    /**Standard getter of the number of touches lost because the ring was full.*/
+    public long getDropped() {
+        return dropped;
+    }
+}
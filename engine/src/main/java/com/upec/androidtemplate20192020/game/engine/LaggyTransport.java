@@ -0,0 +1,134 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**Transport which makes another one as bad as a real network: the packets sent
+ * are delayed by a latency and a jitter and some of them are lost, so two games
+ * on one machine (over localhost) play as two devices far away.
+ * The time is given by setTime, so a test can play many seconds of network
+ * in some ms, and the losses come from a seed, so they're the same on every run.
+ * The packets are copied in buffers allocated once.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class LaggyTransport implements Transport {
+
+    /**Max. number of packets on the way, the next ones are lost.*/
+    private static final int CAPACITY = 256;
+
+    /**The transport which sends the packets when they're due.*/
+    private final Transport transport;
+
+    /**Time taken by a packet to come to the peer, and the max. random time added to it, in ns.*/
+    private final long latencyNanos, jitterNanos;
+
+    /**Part of the packets which are lost, between [0..1].*/
+    private double loss;
+
+    /**Chooses the lost packets and the jitter.*/
+    private final GameRandom random;
+
+    /**The packets on the way, and when they are due, Long.MAX_VALUE for a free slot.*/
+    private final ByteBuffer[] packets = new ByteBuffer[CAPACITY];
+    private final long[] due = new long[CAPACITY];
+
+    /**Current time, in ns.*/
+    private long timeNanos;
+
+    /**Number of packets lost.*/
+    private long lost;
+
+    /**Standard constructor.
+     *
+     * @param transport the transport which sends the packets when they're due.
+     * @param latencyNanos time taken by a packet to come to the peer, half of the round trip.
+     * @param jitterNanos max. random time added to the latency.
+     * @param loss part of the packets which are lost, between [0..1].
+     * @param maxPacket size of the biggest packet.
+     * @param seed the seed of the losses and the jitter.
+     */
+    public LaggyTransport(Transport transport, long latencyNanos, long jitterNanos, double loss,
+                          int maxPacket, long seed) {
+        if (latencyNanos < 0 || jitterNanos < 0)
+            throw new IllegalArgumentException("The latency must not be negative: " + latencyNanos + ", " + jitterNanos);
+        this.transport = transport;
+        this.latencyNanos = latencyNanos;
+        this.jitterNanos = jitterNanos;
+        this.random = new GameRandom(seed);
+        setLoss(loss);
+        for (int i = 0; i < CAPACITY; i++) {
+            packets[i] = ByteBuffer.allocate(maxPacket);
+            due[i] = Long.MAX_VALUE;
+        }
+    }
+
+    /**Change the part of the packets which are lost, for example 1 to cut the link.
+     *
+     * @param loss part of the packets which are lost, between [0..1].
+     */
+    public void setLoss(double loss) {
+        if (loss < 0 || loss > 1)
+            throw new IllegalArgumentException("loss must be between 0 and 1: " + loss);
+        this.loss = loss;
+    }
+
+    /**Move the time, the packets due until then are sent.
+     *
+     * @param timeNanos the current time, in ns.
+     * @throws IOException if the link is broken.
+     */
+    public void setTime(long timeNanos) throws IOException {
+        this.timeNanos = timeNanos;
+        flush();
+    }
+
+    @Override
+    public void send(ByteBuffer packet) throws IOException {
+        flush();
+        if (loss > 0 && random.nextDouble() < loss) {
+            lost++;
+            return;
+        }
+        for (int i = 0; i < CAPACITY; i++) {
+            if (due[i] != Long.MAX_VALUE)
+                continue;
+            ByteBuffer copy = packets[i];
+            copy.clear();
+            copy.put(packet);
+            copy.flip();
+            due[i] = timeNanos + latencyNanos + (jitterNanos > 0 ? (long) (random.nextDouble() * jitterNanos) : 0);
+            return;
+        }
+        /*Too many packets on the way, as a full queue of a router.*/
+        lost++;
+    }
+
+    @Override
+    public boolean receive(ByteBuffer packet) throws IOException {
+        flush();
+        return transport.receive(packet);
+    }
+
+    /**Send the packets which are due, with the jitter they can pass each other.*/
+    private void flush() throws IOException {
+        for (int i = 0; i < CAPACITY; i++) {
+            if (due[i] <= timeNanos) {
+                transport.send(packets[i]);
+                due[i] = Long.MAX_VALUE;
+            }
+        }
+    }
+
+    /**Standard getter of the number of packets lost.*/
+    public long getLost() {
+        return lost;
+    }
+
+    @Override
+    public void close() throws IOException {
+        transport.close();
+    }
+}
@@ -0,0 +1,118 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import java.util.Arrays;
+
+/**Histogram of durations in ns with a fixed memory, in the style of HdrHistogram.
+ * The buckets are log-linear: the values below 64 ns have their own bucket,
+ * above every power of two is cut in 32 buckets, so every value is counted
+ * with an error below 1/32 (3%) whatever its size, until about one minute.
+ * Recording is a few shifts and an increment, it never allocates.
+ * It's not thread safe: a histogram is recorded and read by one thread only,
+ * the longs aren't even read whole by another thread on a 32 bits CPU.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class LatencyHistogram {
+
+    /**Number of bits of a value kept by the buckets.*/
+    private static final int SUB_BUCKET_BITS = 6;
+
+    /**Number of buckets of every power of two.*/
+    private static final int HALF_SUB_BUCKETS = 1 << (SUB_BUCKET_BITS - 1);
+
+    /**Highest power of two of the values which keep their precision, 2^36 ns is ~69 s.*/
+    private static final int MAX_MAGNITUDE = 36;
+
+    /**Number of values in every bucket.*/
+    private final long[] counts = new long[(MAX_MAGNITUDE - SUB_BUCKET_BITS + 3) * HALF_SUB_BUCKETS];
+
+    /**Number of values.*/
+    private long count;
+
+    /**Sum of the values, for the mean.*/
+    private long total;
+
+    /**Highest value, exact.*/
+    private long max;
+
+    /**Count a value.
+     *
+     * @param nanos the duration in ns, the negative values are counted as 0.
+     */
+    public void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        counts[index(nanos)]++;
+        count++;
+        total += nanos;
+        if (nanos > max)
+            max = nanos;
+    }
+
+    /**The value under which are a percentage of the values.
+     * It's the highest value of its bucket, so it's never lower than the exact value.
+     *
+     * @param percentile the percentage between [0..100], for example 99 for p99.
+     * @return the value in ns, or 0 if there is no value.
+     */
+    public long percentile(double percentile) {
+        if (count == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            /*The last bucket has all the values too high, the max is the best guess.*/
+            if (seen >= rank)
+                return i == counts.length - 1 ? max : Math.min(highestValue(i), max);
+        }
+        return max;
+    }
+
+    /**Forget all the values.*/
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+
+    /**Standard getter of the number of values.*/
+    public long getCount() {
+        return count;
+    }
+
+    /**Standard getter of the sum of the values in ns.*/
+    public long getTotal() {
+        return total;
+    }
+
+    /**Standard getter of the highest value in ns.*/
+    public long getMax() {
+        return max;
+    }
+
+    /**Mean of the values in ns, or 0 if there is no value.*/
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**Bucket of a value: the value shifted to keep its SUB_BUCKET_BITS highest bits.*/
+    private int index(long value) {
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = Math.max(0, Math.min(magnitude, MAX_MAGNITUDE) - SUB_BUCKET_BITS + 1);
+        /*The values too high to keep their precision are all in the last bucket.*/
+        return shift * HALF_SUB_BUCKETS + (int) Math.min(value >> shift, 2 * HALF_SUB_BUCKETS - 1);
+    }
+
+    /**Highest value counted in a bucket.*/
+    private static long highestValue(int index) {
+        if (index < 2 * HALF_SUB_BUCKETS)
+            return index;
+        int shift = index / HALF_SUB_BUCKETS - 1;
+        long lowest = (long) (index - shift * HALF_SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
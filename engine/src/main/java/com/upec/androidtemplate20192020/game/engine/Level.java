@@ -0,0 +1,194 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**The bricks of an arena, read from a level file. It never changes, the bricks
+ * broken during a game are kept by the Arena, so a level is shared by all its games.
+ * A level file is a text with a brick by line, in pixels of a world of WIDTH x HEIGHT
+ * (a 1080x1920 screen), scale puts it on the world of the game:
+ * <pre>
+ * # a comment, the empty lines are ignored too
+ * left top right bottom hits
+ * </pre>
+ * hits is the number of hits which break the brick, 0 for a wall which never breaks.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public final class Level {
+
+    /**Size of the world of the level files, in pixels.*/
+    public static final int WIDTH = 1080, HEIGHT = 1920;
+
+    /**Sides of the bricks, the top is above the bottom on the screen (top < bottom).*/
+    private final int[] left, top, right, bottom;
+
+    /**Number of hits which break every brick, 0 for a wall.*/
+    private final int[] hits;
+
+    /**Number of bricks which can be broken.*/
+    private final int breakable;
+
+    /**Standard constructor, the arrays are copied.
+     *
+     * @param left the left sides of the bricks.
+     * @param top the top sides of the bricks.
+     * @param right the right sides of the bricks.
+     * @param bottom the bottom sides of the bricks.
+     * @param hits the number of hits which break every brick, 0 for a wall.
+     */
+    public Level(int[] left, int[] top, int[] right, int[] bottom, int[] hits) {
+        int count = left.length;
+        if (top.length != count || right.length != count || bottom.length != count || hits.length != count)
+            throw new IllegalArgumentException("The arrays of the bricks don't have the same length");
+        int breakable = 0;
+        for (int i = 0; i < count; i++) {
+            if (left[i] < 0 || top[i] < 0 || left[i] >= right[i] || top[i] >= bottom[i])
+                throw new IllegalArgumentException("Brick " + i + " is empty or out of the world");
+            if (hits[i] < 0)
+                throw new IllegalArgumentException("Brick " + i + " has negative hits: " + hits[i]);
+            if (hits[i] > 0)
+                breakable++;
+        }
+        this.left = left.clone();
+        this.top = top.clone();
+        this.right = right.clone();
+        this.bottom = bottom.clone();
+        this.hits = hits.clone();
+        this.breakable = breakable;
+    }
+
+    /**Read a level file.
+     *
+     * @param reader the text of the level, it isn't closed.
+     * @return the level.
+     * @throws IOException if the reader can't be read or it's not a level.
+     */
+    public static Level read(Reader reader) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        int[][] bricks = new int[5][64];
+        int count = 0;
+        int number = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            number++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+            String[] fields = line.split("\\s+");
+            if (fields.length != 5)
+                throw new IOException("Line " + number + ": a brick is left top right bottom hits");
+            if (count == bricks[0].length) {
+                for (int f = 0; f < 5; f++)
+                    bricks[f] = Arrays.copyOf(bricks[f], 2 * count);
+            }
+            try {
+                for (int f = 0; f < 5; f++)
+                    bricks[f][count] = Integer.parseInt(fields[f]);
+            } catch (NumberFormatException e) {
+                throw new IOException("Line " + number + ": not a number", e);
+            }
+            count++;
+        }
+        for (int f = 0; f < 5; f++)
+            bricks[f] = Arrays.copyOf(bricks[f], count);
+        try {
+            return new Level(bricks[0], bricks[1], bricks[2], bricks[3], bricks[4]);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**The same level on a world of an other size, the bricks are scaled from WIDTH x HEIGHT.
+     * A brick keeps at least one pixel on both sides.
+     *
+     * @param width the width of the world.
+     * @param height the height of the world.
+     * @return the scaled level, this one on a world of WIDTH x HEIGHT.
+     */
+    public Level scale(int width, int height) {
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("The size must be positive: " + width + "x" + height);
+        if (width == WIDTH && height == HEIGHT)
+            return this;
+        int count = getCount();
+        int[] left = new int[count], top = new int[count], right = new int[count], bottom = new int[count];
+        for (int i = 0; i < count; i++) {
+            left[i] = (int) ((long) this.left[i] * width / WIDTH);
+            top[i] = (int) ((long) this.top[i] * height / HEIGHT);
+            right[i] = Math.max(left[i] + 1, (int) ((long) this.right[i] * width / WIDTH));
+            bottom[i] = Math.max(top[i] + 1, (int) ((long) this.bottom[i] * height / HEIGHT));
+        }
+        return new Level(left, top, right, bottom, hits);
+    }
+
+    /**True if all the bricks are in a world of this size.
+     *
+     * @param width the width of the world.
+     * @param height the height of the world.
+     * @return false if a brick is out of the world, even in part.
+     */
+    public boolean isInside(int width, int height) {
+        for (int i = 0; i < getCount(); i++) {
+            if (right[i] > width || bottom[i] > height)
+                return false;
+        }
+        return true;
+    }
+
+    /**Standard getter of the number of bricks.*/
+    public int getCount() {
+        return left.length;
+    }
+
+    /**Standard getter of the number of bricks which can be broken.*/
+    public int getBreakableCount() {
+        return breakable;
+    }
+
+    /**Standard getter of the left side of the brick i.*/
+    public int getLeft(int i) {
+        return left[i];
+    }
+
+    /**Standard getter of the top side of the brick i.*/
+    public int getTop(int i) {
+        return top[i];
+    }
+
+    /**Standard getter of the right side of the brick i.*/
+    public int getRight(int i) {
+        return right[i];
+    }
+
+    /**Standard getter of the bottom side of the brick i.*/
+    public int getBottom(int i) {
+        return bottom[i];
+    }
+
+    /**Standard getter of the hits which break the brick i, 0 for a wall.*/
+    public int getHits(int i) {
+        return hits[i];
+    }
+
+    /**True if the other level has the same bricks, so a world built for it can play this one.*/
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+        if (!(other instanceof Level))
+            return false;
+        Level level = (Level) other;
+        return Arrays.equals(left, level.left) && Arrays.equals(top, level.top) && Arrays.equals(right, level.right)
+                && Arrays.equals(bottom, level.bottom) && Arrays.equals(hits, level.hits);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * (31 * Arrays.hashCode(left) + Arrays.hashCode(top)) + Arrays.hashCode(right))
+                + Arrays.hashCode(bottom)) + Arrays.hashCode(hits);
+    }
+}
@@ -0,0 +1,241 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**Plays many matches without screen, on all the cores, to tune the difficulties with data.
+ * Every match is a World of its own, created from a seed, so the matches don't share
+ * anything and the same seeds give the same stats on any number of threads.
+ * The bot plays against an other bot on the player's rectangle,
+ * or against a scripted player which follows the ball.
+ * A match is one game, to WINNING_SCORE points, or MAX_MATCH_TICKS if nobody wins.
+ * Run it with gradlew :engine:simulateMatches.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class MatchSimulator {
+
+    /**Max. duration of a match: 10 minutes of game.*/
+    public static final int MAX_MATCH_TICKS = 60 * 60 * 10;
+
+    /**Number of matches played by one task without splitting it.*/
+    private static final int BATCH = 256;
+
+    /**The bots and the speeds of a match.*/
+    public static final class Setting {
+
+        /**How well the bot plays.*/
+        private final Difficulty botDifficulty;
+
+        /**Speed of the bot's rectangle.*/
+        private final int botSpeed;
+
+        /**How well the bot on the player's rectangle plays, null for the scripted player.*/
+        private final Difficulty playerDifficulty;
+
+        /**Speed of the player's rectangle.*/
+        private final int playerSpeed;
+
+        /**Default speed of the ball.*/
+        private final int ballSpeed;
+
+        /**Standard constructor.
+         *
+         * @param botDifficulty how well the bot plays.
+         * @param botSpeed speed of the bot's rectangle.
+         * @param playerDifficulty how well the bot on the player's rectangle plays,
+         *                         null for a scripted player which follows the ball.
+         * @param playerSpeed speed of the player's rectangle.
+         * @param ballSpeed default speed of the ball.
+         */
+        public Setting(Difficulty botDifficulty, int botSpeed, Difficulty playerDifficulty,
+                       int playerSpeed, int ballSpeed) {
+            if (botDifficulty == null)
+                throw new IllegalArgumentException("botDifficulty must not be null");
+            this.botDifficulty = botDifficulty;
+            this.botSpeed = botSpeed;
+            this.playerDifficulty = playerDifficulty;
+            this.playerSpeed = playerSpeed;
+            this.ballSpeed = ballSpeed;
+        }
+
+        /**Standard getter of how well the bot plays.*/
+        public Difficulty getBotDifficulty() {
+            return botDifficulty;
+        }
+
+        /**Standard getter of the speed of the bot's rectangle.*/
+        public int getBotSpeed() {
+            return botSpeed;
+        }
+
+        /**Standard getter of how well the player plays, null for the scripted player.*/
+        public Difficulty getPlayerDifficulty() {
+            return playerDifficulty;
+        }
+
+        /**Standard getter of the speed of the player's rectangle.*/
+        public int getPlayerSpeed() {
+            return playerSpeed;
+        }
+
+        /**Standard getter of the default speed of the ball.*/
+        public int getBallSpeed() {
+            return ballSpeed;
+        }
+
+        @Override
+        public String toString() {
+            return botDifficulty + "(" + botSpeed + ") vs "
+                    + (playerDifficulty == null ? "FOLLOWER" : playerDifficulty.toString()) + "(" + playerSpeed + ")";
+        }
+    }
+
+    /**Matches of one setting, split in halves until they are small enough.*/
+    private final class MatchTask extends RecursiveTask<MatchStats> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Setting setting;
+        private final long firstSeed;
+        private final int count;
+
+        MatchTask(Setting setting, long firstSeed, int count) {
+            this.setting = setting;
+            this.firstSeed = firstSeed;
+            this.count = count;
+        }
+
+        @Override
+        protected MatchStats compute() {
+            if (count <= BATCH) {
+                MatchStats stats = new MatchStats();
+                for (int i = 0; i < count; i++)
+                    play(setting, firstSeed + i, stats);
+                return stats;
+            }
+            int half = count / 2;
+            MatchTask first = new MatchTask(setting, firstSeed, half);
+            first.fork();
+            MatchStats second = new MatchTask(setting, firstSeed + half, count - half).compute();
+            return first.join().add(second);
+        }
+    }
+
+    /**The size of the world of the matches.*/
+    private final int width, height;
+
+    /**The threads which play the matches.*/
+    private final ForkJoinPool pool;
+
+    /**Constructor on all the cores, with the common pool.
+     *
+     * @param width the width of the world.
+     * @param height the height of the world.
+     */
+    public MatchSimulator(int width, int height) {
+        this(width, height, ForkJoinPool.commonPool());
+    }
+
+    /**Standard constructor.
+     *
+     * @param width the width of the world.
+     * @param height the height of the world.
+     * @param pool the threads which play the matches.
+     */
+    public MatchSimulator(int width, int height, ForkJoinPool pool) {
+        this.width = width;
+        this.height = height;
+        this.pool = pool;
+    }
+
+    /**Play matches in parallel, the seeds of the matches are firstSeed, firstSeed + 1...
+     *
+     * @param setting the bots and the speeds.
+     * @param matches the number of matches.
+     * @param firstSeed the seed of the first match.
+     * @return the stats of all the matches.
+     */
+    public MatchStats simulate(Setting setting, int matches, long firstSeed) {
+        if (matches < 0)
+            throw new IllegalArgumentException("matches must not be negative: " + matches);
+        return pool.invoke(new MatchTask(setting, firstSeed, matches));
+    }
+
+    /**Play one match, on the thread which calls it.
+     *
+     * @param setting the bots and the speeds.
+     * @param seed the seed of the match.
+     * @param stats receives the result of the match and its points.
+     */
+    public void play(Setting setting, long seed, MatchStats stats) {
+        World world = new World(width, height, setting.getBallSpeed(), setting.getBotSpeed(), 1,
+                setting.getBotDifficulty(), seed);
+        BallStore balls = world.getBalls();
+        Rectangle player = world.getPlayer();
+        BotAI playerAI = setting.getPlayerDifficulty() == null ? null
+                : new BotAI(world, setting.getPlayerDifficulty(), true);
+        int speed = setting.getPlayerSpeed();
+        int ticks = 0;
+        while (ticks < MAX_MATCH_TICKS && world.getLeftWins() + world.getRightWins() == 0) {
+            int leftScore = world.getLeftScore();
+            int rightScore = world.getRightScore();
+            int countBounce = balls.getCountBounce(0);
+            world.update();
+            ticks++;
+            /*A point, the score is reset when a game is won.*/
+            if (world.getLeftScore() != leftScore || world.getRightScore() != rightScore)
+                stats.recordPoint(countBounce);
+
+            /*The player moves after seeing the tick, so he plays the next one, like a human.*/
+            int targetX = playerAI != null ? playerAI.update(balls, player) : (int) balls.getX(0);
+            if (targetX >= 0)
+                world.setPlayerX(player.centerX() + World.clamp(targetX - player.centerX(), -speed, speed));
+        }
+        stats.recordMatch(world.getRightWins() > 0, world.getLeftWins() > 0, ticks);
+    }
+
+    /**The settings of the difficulties of the game: every bot with its speed against
+     * the scripted player and against the bot MEDIUM.
+     *
+     * @param playerSpeed the speed of the scripted player.
+     * @param ballSpeed the default speed of the ball.
+     * @return the settings.
+     */
+    public static List<Setting> difficultySettings(int playerSpeed, int ballSpeed) {
+        List<Setting> settings = new ArrayList<>();
+        for (Difficulty difficulty : Difficulty.values()) {
+            settings.add(new Setting(difficulty, difficulty.getBotSpeed(), null, playerSpeed, ballSpeed));
+            settings.add(new Setting(difficulty, difficulty.getBotSpeed(), Difficulty.MEDIUM,
+                    Difficulty.MEDIUM.getBotSpeed(), ballSpeed));
+        }
+        return settings;
+    }
+
+    /**Print the stats of the difficulties of the game.
+     *
+     * @param args the number of matches of every setting, 100000 for default.
+     */
+    public static void main(String[] args) {
+        int matches = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        MatchSimulator simulator = new MatchSimulator(1080, 1920);
+        System.out.println(String.format(Locale.US, "%d matches by setting on %d threads",
+                matches, simulator.pool.getParallelism()));
+        System.out.println(String.format(Locale.US, "%-28s %8s %8s %8s %8s %6s %6s %6s %8s",
+                "setting", "bot win", "player", "draw", "rally", "p50", "p90", "p99", "ms"));
+        for (Setting setting : difficultySettings(15, 10)) {
+            long start = System.nanoTime();
+            MatchStats stats = simulator.simulate(setting, matches, 1);
+            System.out.println(String.format(Locale.US, "%-28s %7.1f%% %7.1f%% %7.1f%% %8.2f %6d %6d %6d %8d",
+                    setting, stats.getBotWinRate() * 100, stats.getPlayerWinRate() * 100,
+                    100.0 * stats.getDraws() / Math.max(1, stats.getMatches()), stats.getAverageRally(),
+                    stats.bouncePercentile(50), stats.bouncePercentile(90), stats.bouncePercentile(99),
+                    (System.nanoTime() - start) / 1000000));
+        }
+    }
+}
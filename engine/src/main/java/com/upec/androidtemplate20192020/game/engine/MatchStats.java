@@ -0,0 +1,150 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**Results of many matches of one MatchSimulator.Setting: who won,
+ * how long the rallies were and the distribution of the bounces of the ball
+ * on the paddles (BallStore.getCountBounce()) when a point was scored.
+ * The stats of the matches played in parallel are merged with add.
+ * It's not thread safe, every task has its own stats.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class MatchStats {
+
+    /**Number of buckets of the bounces, the last one counts all the longer rallies.*/
+    public static final int BOUNCE_BUCKETS = 256;
+
+    /**Number of matches played.*/
+    private long matches;
+
+    /**Matches won by the bot, by the player, and not finished in time.*/
+    private long botWins, playerWins, draws;
+
+    /**Number of points scored.*/
+    private long points;
+
+    /**Sum of the bounces of all the points.*/
+    private long bounces;
+
+    /**Number of ticks played.*/
+    private long ticks;
+
+    /**Number of points for every number of bounces.*/
+    private final long[] bounceCounts = new long[BOUNCE_BUCKETS];
+
+    /**Count a match.
+     *
+     * @param botWon true if the bot won.
+     * @param playerWon true if the player won.
+     * @param ticks duration of the match in ticks.
+     */
+    void recordMatch(boolean botWon, boolean playerWon, long ticks) {
+        matches++;
+        if (botWon)
+            botWins++;
+        else if (playerWon)
+            playerWins++;
+        else
+            draws++;
+        this.ticks += ticks;
+    }
+
+    /**Count a point.
+     *
+     * @param countBounce the bounces of the ball on the paddles before the point.
+     */
+    void recordPoint(int countBounce) {
+        points++;
+        bounces += countBounce;
+        bounceCounts[Math.min(countBounce, BOUNCE_BUCKETS - 1)]++;
+    }
+
+    /**Add the stats of other matches to these ones.
+     *
+     * @param other the stats to add.
+     * @return these stats.
+     */
+    public MatchStats add(MatchStats other) {
+        matches += other.matches;
+        botWins += other.botWins;
+        playerWins += other.playerWins;
+        draws += other.draws;
+        points += other.points;
+        bounces += other.bounces;
+        ticks += other.ticks;
+        for (int i = 0; i < BOUNCE_BUCKETS; i++)
+            bounceCounts[i] += other.bounceCounts[i];
+        return this;
+    }
+
+    /**Fraction of the matches won by the bot, between [0..1].*/
+    public double getBotWinRate() {
+        return matches == 0 ? 0 : (double) botWins / matches;
+    }
+
+    /**Fraction of the matches won by the player, between [0..1].*/
+    public double getPlayerWinRate() {
+        return matches == 0 ? 0 : (double) playerWins / matches;
+    }
+
+    /**Average number of bounces on the paddles of a point.*/
+    public double getAverageRally() {
+        return points == 0 ? 0 : (double) bounces / points;
+    }
+
+    /**Number of bounces on the paddles of the point at this percentile.
+     *
+     * @param percentile the percentile, between [0..100].
+     * @return the number of bounces, BOUNCE_BUCKETS - 1 if it's more.
+     */
+    public int bouncePercentile(double percentile) {
+        long rank = (long) Math.ceil(percentile / 100 * points);
+        long seen = 0;
+        for (int i = 0; i < BOUNCE_BUCKETS; i++) {
+            seen += bounceCounts[i];
+            if (seen >= rank && seen > 0)
+                return i;
+        }
+        return 0;
+    }
+
+    /**Number of points which had these bounces on the paddles.
+     *
+     * @param countBounce the number of bounces, the last bucket counts the longer rallies.
+     * @return the number of points.
+     */
+    public long getBounceCount(int countBounce) {
+        return bounceCounts[Math.min(countBounce, BOUNCE_BUCKETS - 1)];
+    }
+
+    /**Standard getter of the number of matches.*/
+    public long getMatches() {
+        return matches;
+    }
+
+    /**Standard getter of the matches won by the bot.*/
+    public long getBotWins() {
+        return botWins;
+    }
+
+    /**Standard getter of the matches won by the player.*/
+    public long getPlayerWins() {
+        return playerWins;
+    }
+
+    /**Standard getter of the matches not finished in time.*/
+    public long getDraws() {
+        return draws;
+    }
+
+    /**Standard getter of the number of points.*/
+    public long getPoints() {
+        return points;
+    }
+
+    /**Standard getter of the number of ticks played.*/
+    public long getTicks() {
+        return ticks;
+    }
+}
@@ -0,0 +1,102 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**Frame scheduler on a timer, with a precision of a few microseconds.
+ * The deadlines of the frames are fixed (start + n * period), so the waiting
+ * errors don't add up. The thread is parked until a bit before the deadline,
+ * the time which the system needs to wake it up, and then it spins until the
+ * deadline. It doesn't need the screen, so it paces the game on the JVM too.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class ParkingFrameScheduler implements FrameScheduler {
+
+    /**Default time spun before the deadline, it's more than the usual wake up delay of parkNanos.*/
+    public static final long DEFAULT_SPIN_NANOS = 1000000L;
+
+    /**Duration of a frame in ns.*/
+    private final long frameNanos;
+
+    /**Time spun before the deadline in ns.*/
+    private final long spinNanos;
+
+    /**Deadline of the next frame, 0 before the first frame.*/
+    private long deadline;
+
+    /**True when stopped, the thread doesn't wait any more.*/
+    private volatile boolean stopped;
+
+    /**Constructor with the default spin time.
+     *
+     * @param framesPerSecond the rate of the frames.
+     */
+    public ParkingFrameScheduler(float framesPerSecond) {
+        this(framesPerSecond, DEFAULT_SPIN_NANOS);
+    }
+
+    /**Standard constructor.
+     *
+     * @param framesPerSecond the rate of the frames.
+     * @param spinNanos time spun before every deadline in ns, 0 to only park.
+     */
+    public ParkingFrameScheduler(float framesPerSecond, long spinNanos) {
+        if (!(framesPerSecond > 0))
+            throw new IllegalArgumentException("framesPerSecond must be positive: " + framesPerSecond);
+        if (spinNanos < 0)
+            throw new IllegalArgumentException("spinNanos must not be negative: " + spinNanos);
+        this.frameNanos = (long) (1e9 / framesPerSecond);
+        this.spinNanos = spinNanos;
+    }
+
+    @Override
+    public long awaitFrame() throws InterruptedException {
+        long now = System.nanoTime();
+        if (deadline == 0) {
+            /*The first frame starts now.*/
+            deadline = now;
+            return deadline;
+        }
+        deadline += frameNanos;
+        /*If a frame was longer than a period the missed deadlines are dropped,
+         *else the next frames would come without waiting to catch up.*/
+        if (now - deadline > frameNanos)
+            deadline = now;
+        /*Park until the spin time before the deadline.*/
+        long remaining;
+        while (!stopped && (remaining = deadline - System.nanoTime()) > spinNanos) {
+            LockSupport.parkNanos(this, remaining - spinNanos);
+            if (Thread.interrupted())
+                throw new InterruptedException();
+        }
+        /*Spin until the deadline.*/
+        while (!stopped && deadline - System.nanoTime() > 0) {
+            /*Spinning, the system can wake up the thread on time only this way.*/
+        }
+        return deadline;
+    }
+
+    @Override
+    public long getFrameNanos() {
+        return frameNanos;
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+    }
+
+    @Override
+    public void resume() {
+        /*The first frame after the pause starts now.*/
+        deadline = 0;
+        stopped = false;
+    }
+
+    @Override
+    public void release() {
+        stop();
+    }
+}
@@ -0,0 +1,138 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**Long-lived worker of a game loop, which is paused and resumed instead of being created again.
+ * The thread is started once, paused; resumeLoop runs the step over and over, pauseLoop parks
+ * the thread between two steps and returns when it's parked, so nothing is drawn on a
+ * surface which is destroyed. Pausing and resuming don't allocate anything and a resume
+ * only unparks the thread, so the loop goes on from where it was in constant time.
+ * The loop ends with shutdown.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public abstract class PausableThread extends Thread {
+
+    /**States of the loop.*/
+    private static final int PAUSED = 0, RUNNING = 1, PAUSING = 2, SHUTDOWN = 3;
+
+    /**State of the loop, it's paused before the first resume.*/
+    private final AtomicInteger state = new AtomicInteger(PAUSED);
+
+    /**Thread waiting in pauseLoop for the worker to park.*/
+    private volatile Thread pausing;
+
+    /**Standard constructor, the thread must be started, it waits for resumeLoop.
+     *
+     * @param name the name of the thread.
+     */
+    protected PausableThread(String name) {
+        super(name);
+    }
+
+    /**One iteration of the loop, usually one frame. It must return soon after wake is called.
+     *
+     * @throws InterruptedException if the thread is interrupted, it ends the loop.
+     */
+    protected abstract void step() throws InterruptedException;
+
+    /**Called on the worker before the first step after a resume,
+     * for example to restart the clocks so the paused time isn't caught up.*/
+    protected void onResume() {
+    }
+
+    /**Called by the thread which pauses or shuts down the loop,
+     * to release the worker if it waits in step.*/
+    protected void wake() {
+    }
+
+    /**Called on the worker when the loop ends.*/
+    protected void onShutdown() {
+    }
+
+    /**True while the loop runs, a step can stop early when it's false.*/
+    protected boolean isRunning() {
+        return state.get() == RUNNING;
+    }
+
+    /**True while the loop is paused, or pausing.*/
+    public boolean isPaused() {
+        int current = state.get();
+        return current == PAUSED || current == PAUSING;
+    }
+
+    /**Run the loop again, from where it was paused. It does nothing if it already runs.*/
+    public void resumeLoop() {
+        if (state.compareAndSet(PAUSED, RUNNING))
+            LockSupport.unpark(this);
+    }
+
+    /**Pause the loop, it returns when the worker is parked: no step runs until the next resume.
+     * It must not be called by the worker.*/
+    public void pauseLoop() {
+        pausing = Thread.currentThread();
+        if (!state.compareAndSet(RUNNING, PAUSING))
+            return;
+        wake();
+        /*The worker unparks this thread after the step.*/
+        while (state.get() == PAUSING)
+            LockSupport.park(this);
+    }
+
+    /**End the loop and wait for the worker, it can't be resumed.
+     *
+     * @throws InterruptedException if this thread is interrupted while waiting.
+     */
+    public void shutdown() throws InterruptedException {
+        state.set(SHUTDOWN);
+        wake();
+        LockSupport.unpark(this);
+        /*A thread which was never started has nothing to end.*/
+        if (getState() != State.NEW)
+            join();
+    }
+
+    @Override
+    public final void run() {
+        /*True if the previous iteration was a step, so a resume is seen once.*/
+        boolean stepping = false;
+        try {
+            while (true) {
+                int current = state.get();
+                if (current == RUNNING) {
+                    if (!stepping) {
+                        stepping = true;
+                        onResume();
+                    }
+                    step();
+                } else if (current == PAUSING) {
+                    stepping = false;
+                    if (state.compareAndSet(PAUSING, PAUSED)) {
+                        Thread waiting = pausing;
+                        if (waiting != null)
+                            LockSupport.unpark(waiting);
+                    }
+                } else if (current == PAUSED) {
+                    stepping = false;
+                    LockSupport.park(this);
+                    if (Thread.interrupted())
+                        throw new InterruptedException();
+                } else {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            /*Interrupted, the loop ends.*/
+        } finally {
+            state.set(SHUTDOWN);
+            /*A pause waiting for this thread mustn't wait forever.*/
+            Thread waiting = pausing;
+            if (waiting != null)
+                LockSupport.unpark(waiting);
+            onShutdown();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import java.util.Arrays;
+
+/**Renderer which draws nothing and counts the calls, by kind and by style.
+ * It lets the drawing of the game be tested and benchmarked on the JVM:
+ * how many calls a frame costs, how often the layer is rendered again
+ * and how many frames are drawn only in their dirty region.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class RecordingRenderer implements Renderer {
+
+    /**Number of calls by style.*/
+    private final int[] styleCalls = new int[Style.values().length];
+
+    /**Number of calls by kind.*/
+    private int frames, partialFrames, fills, layers, layerRenders, rects, circles, texts, numbers;
+
+    /**True if the layer must be rendered on the next drawLayer.*/
+    private boolean layerInvalid = true;
+
+    @Override
+    public boolean beginFrame(DirtyRegion dirty) {
+        frames++;
+        if (dirty != null && !dirty.isFull())
+            partialFrames++;
+        return true;
+    }
+
+    @Override
+    public void fill(Style style) {
+        fills++;
+        styleCalls[style.ordinal()]++;
+    }
+
+    @Override
+    public void drawLayer(Layer layer) {
+        layers++;
+        if (layerInvalid) {
+            layerInvalid = false;
+            layerRenders++;
+            layer.draw(this);
+        }
+    }
+
+    @Override
+    public void invalidateLayer() {
+        layerInvalid = true;
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Style style) {
+        rects++;
+        styleCalls[style.ordinal()]++;
+    }
+
+    @Override
+    public void drawCircle(float x, float y, float radius, Style style) {
+        circles++;
+        styleCalls[style.ordinal()]++;
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Style style) {
+        texts++;
+        styleCalls[style.ordinal()]++;
+    }
+
+    @Override
+    public void drawNumber(int value, float x, float y, Style style) {
+        numbers++;
+        styleCalls[style.ordinal()]++;
+    }
+
+    @Override
+    public void endFrame() {
+    }
+
+    /**Set all the counters to 0, the layer stays rendered.*/
+    public void reset() {
+        frames = partialFrames = fills = layers = layerRenders = rects = circles = texts = numbers = 0;
+        Arrays.fill(styleCalls, 0);
+    }
+
+    /**Number of draw calls, the drawing of the pre-rendered layer is one call.*/
+    public int getDrawCalls() {
+        return fills + layers + rects + circles + texts + numbers;
+    }
+
+    /**Standard getter of the number of calls of a style.*/
+    public int getCalls(Style style) {
+        return styleCalls[style.ordinal()];
+    }
+
+    /**Standard getter of the number of frames.*/
+    public int getFrames() {
+        return frames;
+    }
+
+    /**Standard getter of the number of frames drawn only in their dirty region.*/
+    public int getPartialFrames() {
+        return partialFrames;
+    }
+
+    /**Standard getter of the number of times the layer was rendered.*/
+    public int getLayerRenders() {
+        return layerRenders;
+    }
+
+    /**Standard getter of the number of rectangles.*/
+    public int getRects() {
+        return rects;
+    }
+
+    /**Standard getter of the number of circles.*/
+    public int getCircles() {
+        return circles;
+    }
+
+    /**Standard getter of the number of texts.*/
+    public int getTexts() {
+        return texts;
+    }
+
+    /**Standard getter of the number of numbers.*/
+    public int getNumbers() {
+        return numbers;
+    }
+}
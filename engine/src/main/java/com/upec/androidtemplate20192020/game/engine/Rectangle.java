@@ -0,0 +1,152 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**Class which simulates the rectangle.
+ * Rectangle is described by his position in the world,
+ * with the same coordinates as android.graphics.Rect,
+ * and it's acceleration on x-axis for bot.
+ * It doesn't depend on android, the drawing is done by PongView.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.0
+ *
+ */
+public class Rectangle {
+
+    /**The world in which the rectangle is moving.*/
+    private final World world;
+
+    /**Coordinates of the rectangle, the same as in android.graphics.Rect.*/
+    private int left, top, right, bottom;
+
+    /**Standard constructor.
+     *
+     * @param world the world in which the rectangle is moving.
+     * @param left the left side of the rectangle.
+     * @param top the top side of the rectangle.
+     * @param right the right side of the rectangle.
+     * @param bottom the bottom side of the rectangle.
+     */
+    Rectangle(World world, int left, int top, int right, int bottom) {
+        this.world = world;
+        set(left, top, right, bottom);
+    }
+
+    /**Function for update the position of rectangle in the world.
+     *
+     * @param x Center of the rectangle on x-axis, wanted by the player.
+     * @param isPlayer a boolean param which says if it's a player.
+     * @param balls The balls to test the collision with the rectangles.
+     */
+    void update(int x, boolean isPlayer, BallStore balls) {
+        /*If it's bot then calculate the movement of the bot.*/
+       if (!isPlayer)
+           rectangleAI(balls);
+       /*Otherwise just constrain the player's rectangle in the
+        *size of the screen.*/
+       else
+           constrain(x, true);
+    }
+
+    /**Function for update the position of the bot's rectangle played by a remote player,
+     * it's constrained on the bot's line like the player's rectangle on his.
+     *
+     * @param x Center of the rectangle on x-axis, wanted by the remote player.
+     */
+    void updateRemote(int x) {
+        constrain(x, false);
+    }
+
+    /**Function to constrain the rectangle in the world's size.
+     * It sets the y coordinates of the center to a constant, and the x can
+     * flow from 0 + width()/2 to world's width - width()/2.
+     *
+     * @param x Center of the rectangle on x-axis.
+     * @param isPlayer a boolean param which says if it's a player.
+     */
+    private void constrain(int x, boolean isPlayer){
+        int halfWidth = width()/2;
+        int halfHeight = height()/2;
+        /*Constrain the paddle to not overcome the screen size.*/
+        x = World.clamp(x, halfWidth, world.getWidth() - halfWidth);
+        /*Constrain the bot on the top of the screen,
+         *and the player on the bottom of the screen.*/
+        int y = isPlayer ? world.getHeight() - 100 : 100;
+        /*Update the rectangle constrained to not overcome the screen's size.*/
+        set(x - halfWidth, y - halfHeight, x + halfWidth, y + halfHeight);
+    }
+
+    /**Function which simulates the Bot playing.
+     *
+     * @param balls Rectangle will be moved in dependence of the balls' position.
+     */
+    void rectangleAI(BallStore balls){
+        /*The bot moves the rectangle to where he predicts the next ball
+         *will come, as fast and as well as the difficulty allows him.
+         *Otherwise,he is just waiting.
+         *A strategy to win the bot is to speed up the ball and
+         * the bot will be unable to reach the ball in time.
+         */
+        /*The rectangle is put on the bot's line on every update, before predicting where
+         *the ball crosses it. It only moves it on the first update, when the rectangle is
+         *still on the center of the screen, after it's already on its line.*/
+        constrain(centerX(), false);
+        int targetX = world.getBotAI().update(balls, this);
+        if (targetX >= 0) {
+            /*Move by the bot's speed to the target, without passing it.*/
+            int step = World.clamp(targetX - centerX(), -world.getBotSpeed(), world.getBotSpeed());
+            set(left + step, top, right + step, bottom);
+        }
+        /*Constrain the bot to not go over the screen's limits.*/
+        constrain(centerX(), false);
+    }
+
+    /**Set the coordinates of the rectangle.*/
+    void set(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    /**Standard getter of the left side.*/
+    public int getLeft() {
+        return left;
+    }
+
+    /**Standard getter of the top side.*/
+    public int getTop() {
+        return top;
+    }
+
+    /**Standard getter of the right side.*/
+    public int getRight() {
+        return right;
+    }
+
+    /**Standard getter of the bottom side.*/
+    public int getBottom() {
+        return bottom;
+    }
+
+    /**Center of the rectangle on x-axis, as android.graphics.Rect.centerX().*/
+    public int centerX() {
+        return (left + right) >> 1;
+    }
+
+    /**Center of the rectangle on y-axis, as android.graphics.Rect.centerY().*/
+    public int centerY() {
+        return (top + bottom) >> 1;
+    }
+
+    /**Width of the rectangle, as android.graphics.Rect.width().*/
+    public int width() {
+        return right - left;
+    }
+
+    /**Height of the rectangle, as android.graphics.Rect.height().*/
+    public int height() {
+        return bottom - top;
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**Where a frame of the game is drawn, the backend decides how.
+ * The android backend draws on the canvas of the surface (on the GPU when it can),
+ * the RecordingRenderer only counts the calls, so the drawing can be tested on the JVM.
+ * The things which rarely change (the background, the scores) are drawn in a Layer,
+ * which the backend keeps pre-rendered and draws again only when it's invalidated.
+ * A frame can be drawn only in its DirtyRegion: the backend keeps the pixels out of
+ * the region from the previous frame, and draws the layer only in the region.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public interface Renderer {
+
+    /**The styles of the drawing, every backend has its color and its size of text for them.*/
+    enum Style {
+        /**The background of the game.*/
+        BACKGROUND,
+        /**The player's rectangle.*/
+        PLAYER,
+        /**The bot's rectangle.*/
+        BOT,
+        /**The balls.*/
+        BALL,
+        /**The bricks of the arena.*/
+        BRICK,
+        /**The scores.*/
+        SCORE,
+        /**The overlay of the frame metrics.*/
+        METRICS
+    }
+
+    /**The part of the frame kept pre-rendered by the backend.*/
+    interface Layer {
+
+        /**Draw the layer, it's called only when the backend has to render it again.
+         *
+         * @param renderer where the layer is drawn.
+         */
+        void draw(Renderer renderer);
+    }
+
+    /**Start a frame.
+     *
+     * @param dirty the parts which changed since the previous frame, all the frame
+     *              is drawn if it's null or full. A backend can draw all the frame anyway.
+     * @return false if the frame can't be drawn now, for example without surface.
+     */
+    boolean beginFrame(DirtyRegion dirty);
+
+    /**Fill all the frame.
+     *
+     * @param style the style of the color.
+     */
+    void fill(Style style);
+
+    /**Draw the pre-rendered layer, rendered again before if it was invalidated.
+     *
+     * @param layer draws the layer when it must be rendered.
+     */
+    void drawLayer(Layer layer);
+
+    /**The layer has changed, it's rendered again on the next drawLayer.*/
+    void invalidateLayer();
+
+    /**Draw a rectangle, the sides can be given in any order.
+     *
+     * @param left the left side.
+     * @param top the top side.
+     * @param right the right side.
+     * @param bottom the bottom side.
+     * @param style the style of the color.
+     */
+    void drawRect(float left, float top, float right, float bottom, Style style);
+
+    /**Draw a circle.
+     *
+     * @param x x coordinate of the center.
+     * @param y y coordinate of the center.
+     * @param radius the radius.
+     * @param style the style of the color.
+     */
+    void drawCircle(float x, float y, float radius, Style style);
+
+    /**Draw a text.
+     *
+     * @param text the text.
+     * @param x x coordinate of the start of the text.
+     * @param y y coordinate of the baseline of the text.
+     * @param style the style of the color and of the size.
+     */
+    void drawText(String text, float x, float y, Style style);
+
+    /**Draw a number with the glyphs of the digits, without building its text.
+     *
+     * @param value the number, not negative.
+     * @param x x coordinate of the start of the number.
+     * @param y y coordinate of the baseline of the number.
+     * @param style the style of the color and of the size.
+     */
+    void drawNumber(int value, float x, float y, Style style);
+
+    /**End the frame and show it.*/
+    void endFrame();
+}
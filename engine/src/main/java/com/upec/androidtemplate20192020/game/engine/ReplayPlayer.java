@@ -0,0 +1,214 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**Plays again a game recorded by ReplayRecorder, without drawing it.
+ * The world is created from the settings and the seed of the replay,
+ * then it's updated with the recorded input as fast as possible.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class ReplayPlayer {
+
+    /**Size of the buffer, it's filled from the channel when it's empty.*/
+    private static final int BUFFER_SIZE = 8192;
+
+    /**Where the replay is read, usually a file.*/
+    private final ReadableByteChannel channel;
+
+    /**Buffer of the bytes read and not used yet.*/
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**Version of the format of the replay.*/
+    private final byte version;
+
+    /**The world created from the replay.*/
+    private final World world;
+
+    /**Hash of the states of the world, on the ticks of ReplayRecorder.*/
+    private final StateHasher hasher;
+
+    /**Number of ticks played.*/
+    private int ticks;
+
+    /**Standard constructor, it reads the settings and creates the world.
+     *
+     * @param channel where the replay is read.
+     * @throws IOException if the channel can't be read or it's not a replay.
+     */
+    public ReplayPlayer(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        buffer.flip();
+        if (getInt() != ReplayRecorder.MAGIC)
+            throw new IOException("Not a replay");
+        version = getByte();
+        if (version < 1 || version > ReplayRecorder.VERSION)
+            throw new IOException("Unknown version of replay: " + version);
+        byte flags = getByte();
+        int width = getVarint();
+        int height = getVarint();
+        int ballSpeed = getVarint();
+        int botSpeed = getVarint();
+        int ballCount = getVarint();
+        Difficulty difficulty = getDifficulty();
+        long seed = getLong();
+        world = new World(width, height, ballSpeed, botSpeed, ballCount, difficulty, seed);
+        world.setBallCollisions((flags & ReplayRecorder.FLAG_BALL_COLLISIONS) != 0);
+        world.setExactAngles(version < 4 || (flags & ReplayRecorder.FLAG_EXACT_ANGLES) != 0);
+        if ((flags & ReplayRecorder.FLAG_FIXED_POINT) != 0)
+            world.setFixedPoint(true);
+        int playerX = getVarint();
+        if ((flags & ReplayRecorder.FLAG_ARENA) != 0) {
+            if (world.isFixedPoint())
+                throw new IOException("The bricks can't be played in fixed point");
+            try {
+                world.setLevel(getLevel());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Malformed level: " + e.getMessage(), e);
+            }
+        }
+        /*The player starts where he was after the restart of setLevel.*/
+        world.setPlayerX(playerX);
+        /*The field of the fixed point was added to the state by the version 5, with the flag.*/
+        hasher = new StateHasher(ballCount, world.getBrickCount(), version < 5 && !world.isFixedPoint());
+    }
+
+    /**Read the bricks of a level.*/
+    private Level getLevel() throws IOException {
+        int count = getVarint();
+        if (count < 0)
+            throw new IOException("Malformed level: " + count + " bricks");
+        int[] left = new int[count], top = new int[count], right = new int[count], bottom = new int[count];
+        int[] hits = new int[count];
+        for (int i = 0; i < count; i++) {
+            left[i] = getVarint();
+            top[i] = getVarint();
+            right[i] = getVarint();
+            bottom[i] = getVarint();
+            hits[i] = getVarint();
+        }
+        try {
+            return new Level(left, top, right, bottom, hits);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed level: " + e.getMessage(), e);
+        }
+    }
+
+    /**Play all the replay, the channel isn't closed.
+     *
+     * @return the number of ticks played.
+     * @throws IOException if the channel can't be read, or the replay doesn't play the recorded game.
+     */
+    public int play() throws IOException {
+        /*A replay stopped without closing the recorder has no last record,
+         *it's played until its last complete record.*/
+        while (fill(1)) {
+            int recordTicks = getVarint();
+            int zigzag = getVarint();
+            for (int i = 0; i < recordTicks; i++) {
+                /*The versions until 5 hashed every tick.*/
+                if (version < 6 || (ticks + i) % ReplayRecorder.HASH_INTERVAL == 0)
+                    hasher.update(world);
+                world.update();
+            }
+            ticks += recordTicks;
+            /*The input changes after the ticks of the record.*/
+            if (zigzag != 0) {
+                world.setPlayerX(world.getPlayerX() + ((zigzag >>> 1) ^ -(zigzag & 1)));
+                continue;
+            }
+            /*No change of the input: an event, the version 1 has only the end.*/
+            if (version == 1)
+                continue;
+            int event = getVarint();
+            if (event == ReplayRecorder.BOT) {
+                Difficulty difficulty = getDifficulty();
+                world.setConfig(world.getConfig().withDifficulty(difficulty, getVarint()));
+            } else if (event == ReplayRecorder.END) {
+                /*The game must be the recorded one, on every java and every device.*/
+                long hash = version >= 6 ? hasher.update(world) : hasher.getHash();
+                if (version >= 3 && getLong() != hash)
+                    throw new IOException("The replay doesn't play the recorded game of " + ticks + " ticks");
+            } else {
+                throw new IOException("Unknown event: " + event);
+            }
+        }
+        return ticks;
+    }
+
+    /**Standard getter of the world of the replay.*/
+    public World getWorld() {
+        return world;
+    }
+
+    /**Standard getter of the hash of the game played until now.*/
+    public long getHash() {
+        return hasher.getHash();
+    }
+
+    /**Standard getter of the number of ticks played.*/
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**Read a difficulty written as its ordinal.*/
+    private Difficulty getDifficulty() throws IOException {
+        int difficulty = getVarint();
+        if (difficulty >= Difficulty.values().length)
+            throw new IOException("Unknown difficulty: " + difficulty);
+        return Difficulty.values()[difficulty];
+    }
+
+    /**Read an unsigned int written on 1 to 5 bytes, 7 bits by byte.*/
+    private int getVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = getByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private byte getByte() throws IOException {
+        if (!fill(1))
+            throw new EOFException("Truncated replay");
+        return buffer.get();
+    }
+
+    private int getInt() throws IOException {
+        if (!fill(4))
+            throw new EOFException("Truncated replay");
+        return buffer.getInt();
+    }
+
+    private long getLong() throws IOException {
+        if (!fill(8))
+            throw new EOFException("Truncated replay");
+        return buffer.getLong();
+    }
+
+    /**Read from the channel until the buffer has at least the bytes needed.
+     *
+     * @return false if the channel ended before.
+     */
+    private boolean fill(int needed) throws IOException {
+        if (buffer.remaining() >= needed)
+            return true;
+        buffer.compact();
+        while (buffer.position() < needed) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+}
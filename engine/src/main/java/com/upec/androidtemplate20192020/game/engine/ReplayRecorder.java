@@ -0,0 +1,208 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**Records a game in a compact binary file, to be played again by ReplayPlayer.
+ * The game is deterministic, so only its settings, the seed and the input of the
+ * player are written. The input is written only when it changes: the number of
+ * ticks without change and the difference from the previous input, both as
+ * varints (7 bits by byte), the difference zigzag encoded.
+ * A player who doesn't move costs nothing, one who moves costs 2-3 bytes by tick.
+ *
+ * The format, all the numbers are varints apart from the magic and the seed:
+ * <pre>
+ * int magic "PONG", byte version, byte flags,
+ * width, height, ballSpeed, botSpeed, ballCount, difficulty, long seed, playerX,
+ * with FLAG_ARENA the level: the number of bricks, then left, top, right, bottom, hits of every brick,
+ * then the records: ticks, zigzag(difference of playerX),
+ * or ticks, 0, event: the end of the replay (END, then the long hash of the game),
+ * or a change of the bot during the game (BOT, then difficulty, botSpeed).
+ * </pre>
+ * The hash is the StateHasher of the world before every HASH_INTERVAL ticks and at the end,
+ * ReplayPlayer checks that the replay plays the same game bit by bit: the hash rolls all the
+ * states before it, so a tick played otherwise changes every state hashed after it.
+ * The versions until 5 hashed the world before every tick, and not at the end.
+ * The version 1 had no events, its last record was ticks, 0. The version 2 had no hash.
+ * The versions until 3 computed the directions of the balls by StrictMath, they're
+ * played with World.setExactAngles. The version 5 added the level, and the field FIXED_POINT
+ * in the states hashed: the states of the older versions are hashed without it.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class ReplayRecorder implements Closeable {
+
+    /**First bytes of a replay: "PONG".*/
+    static final int MAGIC = 0x504F4E47;
+
+    /**Version of the format.*/
+    static final byte VERSION = 6;
+
+    /**Number of ticks between two states hashed, one second of the game.
+     * A state of the party mode is some kB, so it isn't hashed on every tick.*/
+    static final int HASH_INTERVAL = 60;
+
+    /**Event of the end of the replay.*/
+    static final int END = 0;
+
+    /**Event of the change of the bot.*/
+    static final int BOT = 1;
+
+    /**Flag of the balls which bounce between them.*/
+    static final byte FLAG_BALL_COLLISIONS = 1;
+
+    /**Flag of the directions of the balls computed by StrictMath (World.setExactAngles).*/
+    static final byte FLAG_EXACT_ANGLES = 2;
+
+    /**Flag of the fixed-point physics (World.setFixedPoint).*/
+    static final byte FLAG_FIXED_POINT = 4;
+
+    /**Flag of the bricks of a level (World.setLevel).*/
+    static final byte FLAG_ARENA = 8;
+
+    /**Size of the buffer, it's written in the channel when it's full.*/
+    private static final int BUFFER_SIZE = 4096;
+
+    /**Where the replay is written, usually a file.*/
+    private final WritableByteChannel channel;
+
+    /**Buffer of the bytes not written yet.*/
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**The world which is recorded.*/
+    private final World world;
+
+    /**Hash of the states of the world before every HASH_INTERVAL ticks.*/
+    private final StateHasher hasher;
+
+    /**Number of ticks recorded.*/
+    private int tick;
+
+    /**The input of the previous tick.*/
+    private int playerX;
+
+    /**Number of ticks since the input changed.*/
+    private int ticks;
+
+    /**Standard constructor, it writes the settings of the world which was just created.
+     *
+     * @param world the world to record, before its first update.
+     * @param channel where the replay is written.
+     * @throws IOException if the channel can't be written.
+     */
+    public ReplayRecorder(World world, WritableByteChannel channel) throws IOException {
+        this.channel = channel;
+        this.world = world;
+        hasher = new StateHasher(world.getBalls().getCount(), world.getBrickCount());
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.put((byte) ((world.hasBallCollisions() ? FLAG_BALL_COLLISIONS : 0)
+                | (world.hasExactAngles() ? FLAG_EXACT_ANGLES : 0)
+                | (world.isFixedPoint() ? FLAG_FIXED_POINT : 0)
+                | (world.getArena() != null ? FLAG_ARENA : 0)));
+        putVarint(world.getWidth());
+        putVarint(world.getHeight());
+        putVarint(world.getBallSpeed());
+        putVarint(world.getBotSpeed());
+        putVarint(world.getBalls().getCount());
+        putVarint(world.getDifficulty().ordinal());
+        buffer.putLong(world.getSeed());
+        playerX = world.getPlayerX();
+        putVarint(playerX);
+        if (world.getArena() != null)
+            putLevel(world.getArena().getLevel());
+    }
+
+    /**Write the bricks of a level, they can be more than the buffer.*/
+    private void putLevel(Level level) throws IOException {
+        putVarint(level.getCount());
+        for (int i = 0; i < level.getCount(); i++) {
+            /*5 varints of 5 bytes at most.*/
+            if (buffer.remaining() < 25)
+                flush();
+            putVarint(level.getLeft(i));
+            putVarint(level.getTop(i));
+            putVarint(level.getRight(i));
+            putVarint(level.getBottom(i));
+            putVarint(level.getHits(i));
+        }
+    }
+
+    /**Record the input of a tick, it's called before every update of the world,
+     * after the input and the bot of the tick are given to the world.
+     *
+     * @param playerX the center of the player's rectangle wanted by the player.
+     * @throws IOException if the channel can't be written.
+     */
+    public void record(int playerX) throws IOException {
+        if (tick++ % HASH_INTERVAL == 0)
+            hasher.update(world);
+        if (playerX != this.playerX) {
+            putRecord(ticks, playerX - this.playerX);
+            this.playerX = playerX;
+            ticks = 0;
+        }
+        ticks++;
+    }
+
+    /**Record the change of the bot, it's called before the update on which it's done.
+     *
+     * @param config the new settings of the world.
+     * @throws IOException if the channel can't be written.
+     */
+    public void recordConfig(GameConfig config) throws IOException {
+        putRecord(ticks, 0);
+        putVarint(BOT);
+        putVarint(config.getDifficulty().ordinal());
+        putVarint(config.getBotSpeed());
+        ticks = 0;
+    }
+
+    /**Write the last ticks and the hash with the state of the end, and close the channel.
+     *
+     * @throws IOException if the channel can't be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            putRecord(ticks, 0);
+            putVarint(END);
+            buffer.putLong(hasher.update(world));
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**Write a record, the ticks before the change and the change.*/
+    private void putRecord(int ticks, int difference) throws IOException {
+        /*A record has at most 2 varints of 5 bytes, an event 3 more, the hash 8.*/
+        if (buffer.remaining() < 25)
+            flush();
+        putVarint(ticks);
+        /*Zigzag: the small negative numbers become small positive numbers.*/
+        putVarint((difference << 1) ^ (difference >> 31));
+    }
+
+    /**Write an unsigned int on 1 to 5 bytes, 7 bits by byte,
+     * the highest bit says if an other byte follows.*/
+    private void putVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**Write all the buffer in the channel.*/
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,391 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**A game between two players on two devices, with rollback (as GGPO).
+ * Both devices play the same World from the same seed: the host plays the player's
+ * rectangle, the guest plays the bot's rectangle. The local input is played on the
+ * tick it's given, without any delay; the input of the peer is predicted (the peer
+ * keeps its last input) until its packet arrives. When the packet says the peer did
+ * something else, the world goes back to the state saved on that tick and plays
+ * again the ticks until now with the right input, in the same call, so the world
+ * drawn is corrected on the next frame and the latency of the network isn't felt.
+ *
+ * Every tick a packet is sent with all the local inputs which the peer hasn't
+ * acknowledged, so a lost packet is repaired by the next one without resending.
+ * A device never plays more than maxRollback ticks past the last input of the peer,
+ * it waits for it (a stall), and the device which is ahead of the other skips a tick
+ * from time to time, so both play at the same time.
+ * The devices send the hash of their last state which has all the inputs of both players
+ * (it won't be played again), and check it with their own: a different hash is a desync,
+ * the games aren't the same anymore (for example a device computes another float).
+ *
+ * The packet, big endian:
+ * <pre>
+ * int magic "PNET", int game (the seed and the settings, the packets of another game
+ * are ignored), int frame (the next tick of the sender), int ack (the last tick of the
+ * receiver's input which the sender has), int checked (a tick of which the state has all
+ * the inputs), long hash (the hash of the state of that tick, before it's played),
+ * int first (the tick of the first input), byte count, then count ints: the inputs of
+ * the ticks first..first+count-1.
+ * </pre>
+ * The session is used by one thread, it doesn't allocate after it's built.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class RollbackSession implements Closeable {
+
+    /**Default max. number of ticks played without the input of the peer: 133 ms,
+     * more than the time of a packet at 100 ms of round trip.*/
+    public static final int DEFAULT_MAX_ROLLBACK = 8;
+
+    /**First bytes of a packet: "PNET".*/
+    static final int MAGIC = 0x504E4554;
+
+    /**Max. number of inputs in a packet.*/
+    static final int MAX_INPUTS = 64;
+
+    /**Size of the header of a packet.*/
+    static final int HEADER = 4 * 6 + 8 + 1;
+
+    /**Size of the biggest packet.*/
+    public static final int MAX_PACKET = HEADER + 4 * MAX_INPUTS;
+
+    /**Number of ticks of inputs kept, a power of two.*/
+    private static final int HISTORY = 256;
+
+    /**Min. number of ticks between two skips of the device which is ahead.*/
+    private static final int SYNC_INTERVAL = 30;
+
+    /**The game, the same on both devices.*/
+    private final World world;
+
+    /**True if the local player plays the player's rectangle, else the bot's one.*/
+    private final boolean host;
+
+    /**The link to the peer.*/
+    private final Transport transport;
+
+    /**Max. number of ticks played without the input of the peer.*/
+    private final int maxRollback;
+
+    /**Id of the game, in the packets.*/
+    private final int game;
+
+    /**States of the world at the start of the last ticks, by tick % states.length.*/
+    private final WorldState[] states;
+
+    /**Inputs by tick & (HISTORY - 1): the local ones, the peer's ones which arrived,
+     * and the peer's ones used by the ticks played (predicted or not).*/
+    private final int[] localInputs = new int[HISTORY];
+    private final int[] remoteInputs = new int[HISTORY];
+    private final int[] usedInputs = new int[HISTORY];
+
+    /**Hashes of the states at the start of the ticks which have all the inputs, by tick & (HISTORY - 1).*/
+    private final long[] hashes = new long[HISTORY];
+
+    /**The last tick hashed, the state of all the ticks until it has all the inputs.*/
+    private int hashedFrame = -1;
+
+    /**A hash of the peer for a tick not hashed yet, and its tick, -1 if there's none.*/
+    private long remoteHash;
+    private int remoteHashFrame = -1;
+
+    /**The first tick of which the peer has another state, -1 if there's none,
+     * and the last tick checked with the peer.*/
+    private int desyncFrame = -1, checkedFrame = -1;
+
+    /**The packet sent or received.*/
+    private final ByteBuffer packet = ByteBuffer.allocate(MAX_PACKET);
+
+    /**The next tick to play.*/
+    private int frame;
+
+    /**The last tick of which the input of the peer arrived, all the previous ones too.*/
+    private int remoteFrame = -1;
+
+    /**The last tick of which the peer has the local input.*/
+    private int remoteAck = -1;
+
+    /**How far the peer is ahead of the local inputs, as it said in its last packet.*/
+    private int remoteAdvantage;
+
+    /**The last frame of the peer received.*/
+    private int remoteLatest = -1;
+
+    /**The first tick played with a wrong prediction, Integer.MAX_VALUE if there's none.*/
+    private int firstMismatch = Integer.MAX_VALUE;
+
+    /**Ticks left to skip so the peer catches up, and the tick of the next check.*/
+    private int waitFrames, nextSync;
+
+    /**Counts for the tests and the metrics.*/
+    private int rollbacks, replayedTicks, maxDepth, stalls, rejected;
+
+    /**Standard constructor, it makes the bot's rectangle played by the peer.
+     *
+     * @param world the world, just created from the same seed and settings as the peer's.
+     * @param host true if the local player plays the player's rectangle, false for the bot's one.
+     * @param transport the link to the peer.
+     * @param maxRollback max. number of ticks played without the input of the peer, [1..MAX_INPUTS/4].
+     */
+    public RollbackSession(World world, boolean host, Transport transport, int maxRollback) {
+        if (maxRollback < 1 || maxRollback > MAX_INPUTS / 4)
+            throw new IllegalArgumentException("maxRollback must be between 1 and " + MAX_INPUTS / 4 + ": " + maxRollback);
+        this.world = world;
+        this.host = host;
+        this.transport = transport;
+        this.maxRollback = maxRollback;
+        world.setRemoteBot(true);
+        states = new WorldState[maxRollback + 1];
+        for (int i = 0; i < states.length; i++)
+            states[i] = new WorldState(world.getBalls().getCount(), world.getBrickCount());
+        game = gameId(world);
+    }
+
+    /**Id of the game of a world: both devices must play the same seed and settings.*/
+    static int gameId(World world) {
+        long id = world.getSeed();
+        id = id * 31 + world.getWidth();
+        id = id * 31 + world.getHeight();
+        id = id * 31 + world.getBallSpeed();
+        id = id * 31 + world.getBalls().getCount();
+        return (int) (id ^ (id >>> 32));
+    }
+
+    /**Play the next tick with the local input, it's called every tick of the game.
+     * The packets which arrived are read first, and the ticks predicted wrong are
+     * played again. The tick isn't played if the peer is too far behind.
+     *
+     * @param localX center of the local player's rectangle on x-axis.
+     * @return true if the tick was played, false if the game waits for the peer.
+     * @throws IOException if the link is broken.
+     */
+    public boolean advance(int localX) throws IOException {
+        poll();
+        if (frame - remoteFrame > maxRollback || mustWait()) {
+            stalls++;
+            send();
+            return false;
+        }
+        localInputs[frame & (HISTORY - 1)] = localX;
+        tick();
+        hashConfirmed();
+        send();
+        return true;
+    }
+
+    /**Read the packets and send the local inputs without playing a tick,
+     * while the game doesn't play (for example while it waits), so the peer goes on.
+     *
+     * @throws IOException if the link is broken.
+     */
+    public void sync() throws IOException {
+        poll();
+        send();
+    }
+
+    /**Read the packets which arrived, then go back to the first tick predicted wrong and play again until now.*/
+    private void poll() throws IOException {
+        while (true) {
+            packet.clear();
+            if (!transport.receive(packet))
+                break;
+            packet.flip();
+            read();
+        }
+        if (firstMismatch < frame) {
+            int now = frame;
+            rollbacks++;
+            maxDepth = Math.max(maxDepth, now - firstMismatch);
+            world.restore(states[firstMismatch % states.length]);
+            frame = firstMismatch;
+            while (frame < now) {
+                tick();
+                replayedTicks++;
+            }
+        }
+        firstMismatch = Integer.MAX_VALUE;
+        hashConfirmed();
+    }
+
+    /**Hash the states which have all the inputs now, they won't be played again.
+     * The state of a tick is saved when it's played, and stays in the ring
+     * as the game is never more than maxRollback ticks past the peer's input.*/
+    private void hashConfirmed() {
+        int last = Math.min(remoteFrame + 1, frame - 1);
+        while (hashedFrame < last) {
+            hashedFrame++;
+            hashes[hashedFrame & (HISTORY - 1)] = states[hashedFrame % states.length].hash();
+            if (hashedFrame == remoteHashFrame) {
+                check(remoteHashFrame, remoteHash);
+                remoteHashFrame = -1;
+            }
+        }
+    }
+
+    /**Compare the hash of the peer for a tick with the local one.*/
+    private void check(int tick, long hash) {
+        if (hashes[tick & (HISTORY - 1)] != hash) {
+            if (desyncFrame < 0 || tick < desyncFrame)
+                desyncFrame = tick;
+        } else {
+            checkedFrame = Math.max(checkedFrame, tick);
+        }
+    }
+
+    /**Read a packet of the peer, it keeps the inputs which follow the last one which arrived.*/
+    private void read() {
+        if (packet.remaining() < HEADER || packet.getInt() != MAGIC || packet.getInt() != game) {
+            rejected++;
+            return;
+        }
+        int senderFrame = packet.getInt();
+        int ack = packet.getInt();
+        int hashFrame = packet.getInt();
+        long hash = packet.getLong();
+        int first = packet.getInt();
+        int count = packet.get() & 0xFF;
+        if (count > MAX_INPUTS || packet.remaining() < 4 * count) {
+            rejected++;
+            return;
+        }
+        remoteAck = Math.max(remoteAck, ack);
+        /*The packets can come in another order, only the latest says where the peer is.*/
+        if (senderFrame > remoteLatest) {
+            remoteLatest = senderFrame;
+            remoteAdvantage = senderFrame - (ack + 1);
+        }
+        for (int i = 0; i < count; i++) {
+            int f = first + i;
+            int x = packet.getInt();
+            /*The inputs which already arrived, or after a gap.*/
+            if (f != remoteFrame + 1)
+                continue;
+            int slot = f & (HISTORY - 1);
+            remoteInputs[slot] = x;
+            remoteFrame = f;
+            if (f < frame && usedInputs[slot] != x && f < firstMismatch)
+                firstMismatch = f;
+        }
+        /*The hash of the peer is checked now, or when this tick is hashed here too.*/
+        if (hashFrame >= 0 && hashFrame <= hashedFrame && hashedFrame - hashFrame < HISTORY)
+            check(hashFrame, hash);
+        else if (hashFrame > hashedFrame && (remoteHashFrame < 0 || hashFrame < remoteHashFrame)) {
+            remoteHashFrame = hashFrame;
+            remoteHash = hash;
+        }
+    }
+
+    /**True if this device is ahead of the peer and skips a tick, so they play at the same time.
+     * Both devices are as far ahead of the inputs of the other when they are in time:
+     * the difference is twice the number of ticks which this device is ahead.*/
+    private boolean mustWait() {
+        if (waitFrames > 0) {
+            waitFrames--;
+            return true;
+        }
+        if (frame < nextSync || remoteLatest < 0)
+            return false;
+        int ahead = (frame - (remoteFrame + 1) - remoteAdvantage) / 2;
+        if (ahead < 1)
+            return false;
+        waitFrames = ahead - 1;
+        nextSync = frame + SYNC_INTERVAL;
+        return true;
+    }
+
+    /**Play the tick frame, with the peer's input which arrived or the predicted one.*/
+    private void tick() {
+        int slot = frame & (HISTORY - 1);
+        world.save(states[frame % states.length]);
+        /*The peer keeps doing what it did on its last input which arrived.*/
+        int remoteX = frame <= remoteFrame ? remoteInputs[slot]
+                : remoteFrame >= 0 ? remoteInputs[remoteFrame & (HISTORY - 1)]
+                : host ? world.getBotX() : world.getPlayerX();
+        usedInputs[slot] = remoteX;
+        int localX = localInputs[slot];
+        world.setPlayerX(host ? localX : remoteX);
+        world.setBotX(host ? remoteX : localX);
+        world.update();
+        frame++;
+    }
+
+    /**Send the local inputs which the peer hasn't acknowledged.*/
+    private void send() throws IOException {
+        int first = Math.max(remoteAck + 1, frame - MAX_INPUTS);
+        packet.clear();
+        packet.putInt(MAGIC);
+        packet.putInt(game);
+        packet.putInt(frame);
+        packet.putInt(remoteFrame);
+        packet.putInt(hashedFrame);
+        packet.putLong(hashedFrame >= 0 ? hashes[hashedFrame & (HISTORY - 1)] : 0);
+        packet.putInt(first);
+        packet.put((byte) (frame - first));
+        for (int f = first; f < frame; f++)
+            packet.putInt(localInputs[f & (HISTORY - 1)]);
+        packet.flip();
+        transport.send(packet);
+    }
+
+    /**Standard getter of the next tick to play.*/
+    public int getFrame() {
+        return frame;
+    }
+
+    /**Standard getter of the last tick of which the input of the peer arrived.*/
+    public int getRemoteFrame() {
+        return remoteFrame;
+    }
+
+    /**Standard getter of the first tick of which the peer has another state, -1 if the games are the same.*/
+    public int getDesyncFrame() {
+        return desyncFrame;
+    }
+
+    /**Standard getter of the last tick of which the state was checked with the peer.*/
+    public int getCheckedFrame() {
+        return checkedFrame;
+    }
+
+    /**Standard getter of the number of times the world went back.*/
+    public int getRollbacks() {
+        return rollbacks;
+    }
+
+    /**Standard getter of the number of ticks played again.*/
+    public int getReplayedTicks() {
+        return replayedTicks;
+    }
+
+    /**Standard getter of the max. number of ticks played again at once.*/
+    public int getMaxRollbackDepth() {
+        return maxDepth;
+    }
+
+    /**Standard getter of the number of ticks not played to wait for the peer.*/
+    public int getStalls() {
+        return stalls;
+    }
+
+    /**Standard getter of the number of packets ignored, of another game or broken.*/
+    public int getRejected() {
+        return rejected;
+    }
+
+    /**Standard getter of the world of the game.*/
+    public World getWorld() {
+        return world;
+    }
+
+    /**Close the link to the peer.*/
+    @Override
+    public void close() throws IOException {
+        transport.close();
+    }
+}
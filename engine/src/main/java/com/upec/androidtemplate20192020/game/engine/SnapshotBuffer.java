@@ -0,0 +1,71 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**Triple buffer of the snapshots between the simulation thread and the render thread.
+ * The writer fills its back snapshot and swaps it with the middle one, the reader
+ * swaps the middle snapshot with its front one when a new one was published.
+ * The swaps are one atomic getAndSet, so neither thread ever waits for the other:
+ * a slow draw doesn't stop the physics and the physics don't hold the surface.
+ * Only one thread can write and only one thread can read.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class SnapshotBuffer {
+
+    /**Bit set in middle when the middle snapshot wasn't read yet.*/
+    private static final int FRESH = 4;
+
+    /**Bits of the index of the snapshot.*/
+    private static final int INDEX = 3;
+
+    /**The three snapshots.*/
+    private final WorldSnapshot[] snapshots = new WorldSnapshot[3];
+
+    /**Index of the snapshot exchanged by the threads, with the FRESH bit.*/
+    private final AtomicInteger middle = new AtomicInteger(1);
+
+    /**Index of the snapshot filled by the writer.*/
+    private int back = 0;
+
+    /**Index of the snapshot drawn by the reader.*/
+    private int front = 2;
+
+    /**Standard constructor.
+     *
+     * @param capacity the number of balls of the snapshots.
+     */
+    public SnapshotBuffer(int capacity) {
+        for (int i = 0; i < snapshots.length; i++)
+            snapshots[i] = new WorldSnapshot(capacity);
+    }
+
+    /**Snapshot to fill, only by the writer.
+     *
+     * @return the back snapshot, it isn't read by the other thread.
+     */
+    public WorldSnapshot getBack() {
+        return snapshots[back];
+    }
+
+    /**Publish the back snapshot, only by the writer.
+     * The previous middle snapshot becomes the back one, if the reader didn't
+     * take it, it's overwritten: the reader only wants the latest one.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX;
+    }
+
+    /**Latest published snapshot, only by the reader.
+     * It stays the same until the next call, even if the writer publishes more.
+     *
+     * @return the latest snapshot, empty (tick 0) before the first publish.
+     */
+    public WorldSnapshot acquire() {
+        if ((middle.get() & FRESH) != 0)
+            front = middle.getAndSet(front) & INDEX;
+        return snapshots[front];
+    }
+}
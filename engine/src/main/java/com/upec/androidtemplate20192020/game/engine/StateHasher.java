@@ -0,0 +1,76 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**Rolling 64-bit hash of a game: the hash of the state of every tick is added to the hash
+ * of the previous ticks, so two runs of a game have the same hash on a tick only if they
+ * were the same on all the ticks until it. It's used to check that a replay or a game
+ * played on another device or on another java is the same game, bit by bit.
+ * The state is saved in a WorldState allocated once, so a tick costs a copy and a hash.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class StateHasher {
+
+    /**The state of the tick being hashed.*/
+    private final WorldState state;
+
+    /**True if the field FIXED_POINT isn't hashed (WorldState.hashWithoutFixedPoint).*/
+    private final boolean withoutFixedPoint;
+
+    /**Hash of the ticks until now.*/
+    private long hash;
+
+    /**Number of ticks hashed.*/
+    private int ticks;
+
+    /**Standard constructor, for a world without an arena.
+     *
+     * @param ballCount the number of balls of the world which is hashed.
+     */
+    public StateHasher(int ballCount) {
+        this(ballCount, 0);
+    }
+
+    /**Standard constructor.
+     *
+     * @param ballCount the number of balls of the world which is hashed.
+     * @param brickCount the number of bricks of its arena, 0 without an arena.
+     */
+    public StateHasher(int ballCount, int brickCount) {
+        this(ballCount, brickCount, false);
+    }
+
+    /**Constructor of the hasher of a replay.
+     *
+     * @param ballCount the number of balls of the world which is hashed.
+     * @param brickCount the number of bricks of its arena, 0 without an arena.
+     * @param withoutFixedPoint true to hash the states as the replays before the version 5.
+     */
+    StateHasher(int ballCount, int brickCount, boolean withoutFixedPoint) {
+        state = new WorldState(ballCount, brickCount);
+        this.withoutFixedPoint = withoutFixedPoint;
+    }
+
+    /**Add the state of the world on this tick to the hash.
+     *
+     * @param world the world.
+     * @return the hash of all the ticks until this one.
+     */
+    public long update(World world) {
+        world.save(state);
+        hash = WorldState.roll(hash, withoutFixedPoint ? state.hashWithoutFixedPoint() : state.hash());
+        ticks++;
+        return hash;
+    }
+
+    /**Standard getter of the hash of the ticks until now, 0 before the first one.*/
+    public long getHash() {
+        return hash;
+    }
+
+    /**Standard getter of the number of ticks hashed.*/
+    public int getTicks() {
+        return ticks;
+    }
+}
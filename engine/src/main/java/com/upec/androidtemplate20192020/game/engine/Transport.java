@@ -0,0 +1,31 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**The link between two devices, on which RollbackSession sends its packets.
+ * Like UDP the packets may be lost, come late or in another order, and
+ * nothing blocks: a game thread calls it on every tick.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public interface Transport extends Closeable {
+
+    /**Send a packet, the bytes between the position and the limit of the buffer.
+     *
+     * @param packet the packet.
+     * @throws IOException if the link is broken.
+     */
+    void send(ByteBuffer packet) throws IOException;
+
+    /**Receive the next packet which arrived, written from the position of the buffer.
+     *
+     * @param packet the buffer of the packet, at least as big as the biggest packet.
+     * @return false if no packet arrived.
+     * @throws IOException if the link is broken.
+     */
+    boolean receive(ByteBuffer packet) throws IOException;
+}
@@ -0,0 +1,207 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import java.util.Arrays;
+
+/**Broad phase of the collisions: a uniform grid over the world.
+ * Every body (a circle) is put in the cell of its center, the cells are sorted
+ * with a counting sort, so building the grid is linear and doesn't allocate.
+ * The size of a cell must be at least the diameter of the biggest body,
+ * then two bodies which touch are always in the same or in neighbour cells,
+ * and only those are tested with the narrow phase of Collisions.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class UniformGrid {
+
+    /**Receives the pairs of bodies which touch.*/
+    public interface PairListener {
+
+        /**Called once for every pair of bodies which touch, with a less than b.
+         *
+         * @param a index of the first body.
+         * @param b index of the second body.
+         */
+        void onPair(int a, int b);
+    }
+
+    /**Receives the bodies which can touch a rectangle.*/
+    public interface QueryListener {
+
+        /**Called once for every body near the rectangle.
+         *
+         * @param body index of the body.
+         */
+        void onBody(int body);
+    }
+
+    /**Size of a cell, in pixels.*/
+    private final float cellSize;
+
+    /**1/cellSize, to not divide for every body.*/
+    private final float inverseCellSize;
+
+    /**Number of cells on x-axis and y-axis.*/
+    private final int columns, rows;
+
+    /**Index in cellBodies of the first body of every cell, cellStart[cells] is the number of bodies.*/
+    private final int[] cellStart;
+
+    /**Next free place of every cell while the grid is built.*/
+    private final int[] cellFill;
+
+    /**Bodies sorted by their cell.*/
+    private final int[] cellBodies;
+
+    /**Cell of every body.*/
+    private final int[] bodyCell;
+
+    /**Number of bodies in the grid.*/
+    private int count;
+
+    /**Standard constructor.
+     *
+     * @param width the width of the world, usually GameConfig.getWidth().
+     * @param height the height of the world, usually GameConfig.getHeight().
+     * @param cellSize the size of a cell, at least the diameter of the biggest body.
+     * @param capacity max. number of bodies.
+     */
+    public UniformGrid(float width, float height, float cellSize, int capacity) {
+        if (cellSize <= 0)
+            throw new IllegalArgumentException("cellSize must be positive: " + cellSize);
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1 / cellSize;
+        columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        cellStart = new int[columns * rows + 1];
+        cellFill = new int[columns * rows];
+        cellBodies = new int[capacity];
+        bodyCell = new int[capacity];
+    }
+
+    /**Put the bodies in the grid, it's done every tick since the bodies move.
+     *
+     * @param x the x coordinates of the centers.
+     * @param y the y coordinates of the centers.
+     * @param count number of bodies.
+     */
+    public void build(float[] x, float[] y, int count) {
+        if (count > cellBodies.length)
+            throw new IllegalArgumentException("Too many bodies: " + count + " > " + cellBodies.length);
+        this.count = count;
+        /*Count the bodies of every cell.*/
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < count; i++) {
+            int cell = cell(column(x[i]), row(y[i]));
+            bodyCell[i] = cell;
+            cellStart[cell + 1]++;
+        }
+        /*The first body of a cell is after all the bodies of the previous cells.*/
+        for (int cell = 1; cell < cellStart.length; cell++)
+            cellStart[cell] += cellStart[cell - 1];
+        /*Put the bodies in their cells.*/
+        System.arraycopy(cellStart, 0, cellFill, 0, cellFill.length);
+        for (int i = 0; i < count; i++)
+            cellBodies[cellFill[bodyCell[i]]++] = i;
+    }
+
+    /**Find all the pairs of bodies which touch.
+     * Every cell is tested with itself and with the neighbours on the right and below,
+     * so every pair is found only once.
+     *
+     * @param x the x coordinates of the centers, the same as in build.
+     * @param y the y coordinates of the centers, the same as in build.
+     * @param r the radius of the bodies.
+     * @param listener receives the pairs.
+     */
+    public void queryPairs(float[] x, float[] y, float[] r, PairListener listener) {
+        /*Walk the bodies in the order of their cells, so the empty cells cost nothing.*/
+        for (int i = 0; i < count; i++) {
+            int a = cellBodies[i];
+            int cell = bodyCell[a];
+            int column = cell % columns;
+            int row = cell / columns;
+            /*The bodies after a in the same cell.*/
+            pairs(a, i + 1, cellStart[cell + 1], x, y, r, listener);
+            /*The neighbour on the right and the three neighbours below.*/
+            if (column + 1 < columns)
+                pairsWithCell(a, cell + 1, x, y, r, listener);
+            if (row + 1 < rows) {
+                if (column > 0)
+                    pairsWithCell(a, cell + columns - 1, x, y, r, listener);
+                pairsWithCell(a, cell + columns, x, y, r, listener);
+                if (column + 1 < columns)
+                    pairsWithCell(a, cell + columns + 1, x, y, r, listener);
+            }
+        }
+    }
+
+    /**Find the bodies which can touch the rectangle, for example an obstacle.
+     * The listener still has to test them with Collisions.circleRect.
+     *
+     * @param left the left side of the rectangle.
+     * @param top the top side of the rectangle.
+     * @param right the right side of the rectangle.
+     * @param bottom the bottom side of the rectangle.
+     * @param listener receives the bodies.
+     */
+    public void query(float left, float top, float right, float bottom, QueryListener listener) {
+        /*A body which touches the rectangle has the center at most half a cell away.*/
+        float margin = cellSize * 0.5f;
+        int firstColumn = column(Math.min(left, right) - margin);
+        int lastColumn = column(Math.max(left, right) + margin);
+        int firstRow = row(Math.min(top, bottom) - margin);
+        int lastRow = row(Math.max(top, bottom) + margin);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = cell(column, row);
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++)
+                    listener.onBody(cellBodies[i]);
+            }
+        }
+    }
+
+    /**Test the body a with the bodies [from..to) of cellBodies.*/
+    private void pairs(int a, int from, int to, float[] x, float[] y, float[] r, PairListener listener) {
+        for (int j = from; j < to; j++) {
+            int b = cellBodies[j];
+            if (Collisions.circleCircle(x[a], y[a], r[a], x[b], y[b], r[b])) {
+                if (a < b)
+                    listener.onPair(a, b);
+                else
+                    listener.onPair(b, a);
+            }
+        }
+    }
+
+    /**Test the body a with all the bodies of the cell.*/
+    private void pairsWithCell(int a, int cell, float[] x, float[] y, float[] r, PairListener listener) {
+        pairs(a, cellStart[cell], cellStart[cell + 1], x, y, r, listener);
+    }
+
+    /**Column of the x coordinate, the bodies outside of the world are put on the border.*/
+    private int column(float x) {
+        return World.clamp((int) (x * inverseCellSize), 0, columns - 1);
+    }
+
+    /**Row of the y coordinate, the bodies outside of the world are put on the border.*/
+    private int row(float y) {
+        return World.clamp((int) (y * inverseCellSize), 0, rows - 1);
+    }
+
+    /**Index of the cell.*/
+    private int cell(int column, int row) {
+        return row * columns + column;
+    }
+
+    /**Standard getter of the number of columns.*/
+    public int getColumns() {
+        return columns;
+    }
+
+    /**Standard getter of the number of rows.*/
+    public int getRows() {
+        return rows;
+    }
+}
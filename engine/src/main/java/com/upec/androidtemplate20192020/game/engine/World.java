@@ -0,0 +1,576 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**A class which stores the state of one game of pong and
+ * simulates it tick by tick: the player's and bot's rectangles,
+ * the balls and the score.
+ * It doesn't depend on android, so it can be run and benchmarked
+ * on a plain JVM. PongView only gives the input and draws the world.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ *
+ */
+public class World {
+
+    /**The score at which the game is reset.*/
+    public static final int WINNING_SCORE = 5;
+
+    /**Ball's radius.*/
+    static final float BALL_RADIUS = 35;
+
+    /**The difficulties by ordinal, values() copies the array on every call.*/
+    private static final Difficulty[] DIFFICULTIES = Difficulty.values();
+
+    /**World's width.*/
+    private final int width;
+
+    /**World's height.*/
+    private final int height;
+
+    /**Default speed of the ball.*/
+    private final int ballSpeed;
+
+    /**The settings of the game, only the bot can change during the game.*/
+    private GameConfig config;
+
+    /**Player's rectangle.*/
+    private final Rectangle player;
+
+    /**Bot's rectangle.*/
+    private final Rectangle bot;
+
+    /**The brain of the bot.*/
+    private BotAI botAI;
+
+    /**Balls which are bounced from the paddle and the screen's edges.*/
+    private final BallStore balls;
+
+    /**Seed of the random numbers of the game.*/
+    private long seed;
+
+    /**Random numbers of the game: the angles of the balls and the aim of the bot.*/
+    private final GameRandom random;
+
+    /**Broad phase of the collisions between the balls, null if the balls don't collide.*/
+    private UniformGrid grid;
+
+    /**The bricks of the level, null without a level.*/
+    private Arena arena;
+
+    /**True if the directions of the balls are computed by StrictMath instead of BounceTable,
+     * as the replays recorded before the table.*/
+    private boolean exactAngles;
+
+    /**Center of the player's rectangle on x-axis, wanted by the player.*/
+    private int playerX;
+
+    /**True if the bot's rectangle is played by a remote player instead of the bot's brain.*/
+    private boolean remoteBot;
+
+    /**Center of the bot's rectangle on x-axis, wanted by the remote player.*/
+    private int botX;
+
+    /**Player's score.*/
+    private int leftScore;
+
+    /**Bot's score.*/
+    private int rightScore;
+
+    /**Number of games won by the player and by the bot.*/
+    private int leftWins, rightWins;
+
+    /**Standard constructor which creates the game with one ball.
+     *
+     * @param width the width of the world, usually the screen's width.
+     * @param height the height of the world, usually the screen's height.
+     * @param ballSpeed default speed of the ball.
+     * @param botSpeed speed of the bot's rectangle.
+     */
+    public World(int width, int height, int ballSpeed, int botSpeed) {
+        this(width, height, ballSpeed, botSpeed, 1);
+    }
+
+    /**Constructor which creates the game with many balls, for the party mode.
+     *
+     * @param width the width of the world, usually the screen's width.
+     * @param height the height of the world, usually the screen's height.
+     * @param ballSpeed default speed of the ball.
+     * @param botSpeed speed of the bot's rectangle.
+     * @param ballCount number of balls.
+     */
+    public World(int width, int height, int ballSpeed, int botSpeed, int ballCount) {
+        this(width, height, ballSpeed, botSpeed, ballCount, Difficulty.MEDIUM);
+    }
+
+    /**Constructor which creates the game with the bot of a difficulty.
+     *
+     * @param width the width of the world, usually the screen's width.
+     * @param height the height of the world, usually the screen's height.
+     * @param ballSpeed default speed of the ball.
+     * @param botSpeed speed of the bot's rectangle.
+     * @param ballCount number of balls.
+     * @param difficulty how well the bot plays, apart from his speed.
+     */
+    public World(int width, int height, int ballSpeed, int botSpeed, int ballCount, Difficulty difficulty) {
+        this(width, height, ballSpeed, botSpeed, ballCount, difficulty, System.nanoTime());
+    }
+
+    /**Constructor which creates the game from a seed, the same seed and the same
+     * input of the player give the same game, it's used by the replays.
+     *
+     * @param width the width of the world, usually the screen's width.
+     * @param height the height of the world, usually the screen's height.
+     * @param ballSpeed default speed of the ball.
+     * @param botSpeed speed of the bot's rectangle.
+     * @param ballCount number of balls.
+     * @param difficulty how well the bot plays, apart from his speed.
+     * @param seed the seed of the random numbers.
+     */
+    public World(int width, int height, int ballSpeed, int botSpeed, int ballCount, Difficulty difficulty, long seed) {
+        this(new GameConfig(width, height, ballSpeed, botSpeed, ballCount, difficulty), seed);
+    }
+
+    /**Constructor which creates the game of a config.
+     *
+     * @param config the settings of the game.
+     */
+    public World(GameConfig config) {
+        this(config, System.nanoTime());
+    }
+
+    /**Constructor which creates the game of a config from a seed.
+     *
+     * @param config the settings of the game.
+     * @param seed the seed of the random numbers.
+     * @throws IllegalArgumentException if a brick of the level is out of the world.
+     */
+    public World(GameConfig config, long seed) {
+        this.config = config;
+        this.width = config.getWidth();
+        this.height = config.getHeight();
+        this.ballSpeed = config.getBallSpeed();
+        int ballCount = config.getBallCount();
+        this.seed = seed;
+        random = new GameRandom(seed);
+
+        /*Create both rectangles on the center of the screen, the player's
+         *is put at the bottom and the bot's at the top on the first update.*/
+        player = new Rectangle(this, 0, 0, 0, 0);
+        bot = new Rectangle(this, 0, 0, 0, 0);
+        placeRectangles();
+
+        botAI = new BotAI(this, config.getDifficulty());
+
+        /*The player starts from the center of the screen.*/
+        playerX = width / 2;
+        botX = width / 2;
+
+        /*The balls which will be bounced from the edges and the paddle.*/
+        balls = new BallStore(this, ballCount);
+        for (int i = 0; i < ballCount; i++)
+            balls.add(BALL_RADIUS);
+
+        /*The physics and the bricks of the config, the balls are served again as by setFixedPoint and setLevel.*/
+        if (config.isFixedPoint() || config.getLevel() != null) {
+            balls.setFixedPoint(config.isFixedPoint());
+            if (config.getLevel() != null)
+                arena = newArena(config.getLevel());
+            restart(config, seed);
+        }
+    }
+
+    /**Start a new game in this world, as a new World(config, seed) but without allocating
+     * the rectangles and the balls again, so a world built before can be reused.
+     * The collisions between the balls and the exact angles stay as they were, the fixed point
+     * and the level are the same as in the config, the broken bricks come back.
+     *
+     * @param config the settings of the new game, only the bot can differ.
+     * @param seed the seed of the random numbers.
+     */
+    public void restart(GameConfig config, long seed) {
+        if (!this.config.isSameGame(config))
+            throw new IllegalArgumentException("The world can't be reused for this game: " + config);
+        this.config = config;
+        this.seed = seed;
+        random.setSeed(seed);
+        placeRectangles();
+        botAI = new BotAI(this, config.getDifficulty());
+        playerX = width / 2;
+        remoteBot = false;
+        botX = width / 2;
+        leftScore = rightScore = 0;
+        leftWins = rightWins = 0;
+        balls.restart();
+        if (arena != null)
+            arena.reset();
+    }
+
+    /**Put both rectangles on the center of the screen, with their width and height
+     * based on the world's size.*/
+    private void placeRectangles() {
+        int recW = config.getPaddleWidth();
+        int recH = config.getPaddleHeight();
+        player.set(width / 2 - recW / 2, height / 2 + recH / 2, width / 2 + recW / 2, height / 2 - recH / 2);
+        bot.set(width / 2 - recW / 2, height / 2 + recH / 2, width / 2 + recW / 2, height / 2 - recH / 2);
+    }
+
+    /**Update function which is called every tick.
+     * It moves all the objects and resets the score when
+     * one of them reached WINNING_SCORE.
+     */
+    public void update() {
+        /*Update the player's rectangle position.*/
+        player.update(playerX, true, balls);
+
+        /*Update the bot's position, played by his brain or by a remote player.*/
+        if (remoteBot)
+            bot.updateRemote(botX);
+        else
+            bot.update(0, false, balls);
+
+        /*Update the balls' position, they bounce from the paddles and the bricks.*/
+        balls.update(player, bot);
+
+        /*Bounce the balls between them.*/
+        if (grid != null)
+            balls.collideBalls(grid);
+
+        /*Reset game if any of the score reached WINNING_SCORE points,
+         *with many balls it can be passed in one tick.*/
+        if (leftScore >= WINNING_SCORE || rightScore >= WINNING_SCORE) {
+            if (leftScore >= WINNING_SCORE)
+                leftWins++;
+            if (rightScore >= WINNING_SCORE)
+                rightWins++;
+            resetScore();
+        }
+    }
+
+    /**Set where the player wants his rectangle.
+     *
+     * @param x Center of the player's rectangle on x-axis.
+     */
+    public void setPlayerX(int x) {
+        playerX = x;
+    }
+
+    /**Let a remote player play the bot's rectangle, for the games between two players.
+     * The bot's brain doesn't play while it's remote.
+     *
+     * @param remote true if the rectangle is played by setBotX.
+     */
+    public void setRemoteBot(boolean remote) {
+        remoteBot = remote;
+    }
+
+    /**Set where the remote player wants the bot's rectangle.
+     *
+     * @param x Center of the bot's rectangle on x-axis.
+     */
+    public void setBotX(int x) {
+        botX = x;
+    }
+
+    /**Copy the whole game in a state, so it can go back to this tick with restore,
+     * or compare it with the same game on another device by its hash.
+     *
+     * @param state the state, for the number of balls and bricks of this world.
+     */
+    public void save(WorldState state) {
+        if (state.getBrickCount() != getBrickCount())
+            throw new IllegalArgumentException("The state is for " + state.getBrickCount() + " bricks, not "
+                    + getBrickCount());
+        state.putLong(WorldState.RANDOM, random.getState());
+        putRectangle(state, WorldState.PLAYER, player);
+        putRectangle(state, WorldState.BOT, bot);
+        state.putInt(WorldState.PLAYER_X, playerX);
+        state.putInt(WorldState.BOT_X, botX);
+        state.putInt(WorldState.REMOTE_BOT, remoteBot ? 1 : 0);
+        state.putInt(WorldState.FIXED_POINT, balls.isFixedPoint() ? 1 : 0);
+        state.putInt(WorldState.LEFT_SCORE, leftScore);
+        state.putInt(WorldState.RIGHT_SCORE, rightScore);
+        state.putInt(WorldState.LEFT_WINS, leftWins);
+        state.putInt(WorldState.RIGHT_WINS, rightWins);
+        /*The bot played by a remote player has no brain, each device has its own settings of the bot.*/
+        state.putInt(WorldState.DIFFICULTY, remoteBot ? 0 : config.getDifficulty().ordinal());
+        state.putInt(WorldState.BOT_SPEED, remoteBot ? 0 : config.getBotSpeed());
+        if (remoteBot)
+            BotAI.clear(state);
+        else
+            botAI.save(state);
+        balls.save(state);
+        if (arena != null)
+            arena.save(state);
+    }
+
+    /**Put the game back in a state saved by this world, or by a world of the same game.
+     *
+     * @param state the state, of the same number of balls and bricks and the same physics.
+     */
+    public void restore(WorldState state) {
+        if ((state.getInt(WorldState.FIXED_POINT) != 0) != balls.isFixedPoint())
+            throw new IllegalArgumentException("The state isn't of the physics of this world");
+        if (state.getBrickCount() != getBrickCount())
+            throw new IllegalArgumentException("The state is for " + state.getBrickCount() + " bricks, not "
+                    + getBrickCount());
+        random.setSeed(state.getLong(WorldState.RANDOM));
+        getRectangle(state, WorldState.PLAYER, player);
+        getRectangle(state, WorldState.BOT, bot);
+        playerX = state.getInt(WorldState.PLAYER_X);
+        botX = state.getInt(WorldState.BOT_X);
+        remoteBot = state.getInt(WorldState.REMOTE_BOT) != 0;
+        leftScore = state.getInt(WorldState.LEFT_SCORE);
+        rightScore = state.getInt(WorldState.RIGHT_SCORE);
+        leftWins = state.getInt(WorldState.LEFT_WINS);
+        rightWins = state.getInt(WorldState.RIGHT_WINS);
+        if (!remoteBot) {
+            /*The bot may have been changed since the state was saved.*/
+            Difficulty difficulty = DIFFICULTIES[state.getInt(WorldState.DIFFICULTY)];
+            int botSpeed = state.getInt(WorldState.BOT_SPEED);
+            if (difficulty != config.getDifficulty() || botSpeed != config.getBotSpeed())
+                setConfig(config.withDifficulty(difficulty, botSpeed));
+            botAI.restore(state);
+        }
+        balls.restore(state);
+        if (arena != null)
+            arena.restore(state);
+    }
+
+    private static void putRectangle(WorldState state, int offset, Rectangle rectangle) {
+        state.putInt(offset, rectangle.getLeft());
+        state.putInt(offset + 4, rectangle.getTop());
+        state.putInt(offset + 8, rectangle.getRight());
+        state.putInt(offset + 12, rectangle.getBottom());
+    }
+
+    private static void getRectangle(WorldState state, int offset, Rectangle rectangle) {
+        rectangle.set(state.getInt(offset), state.getInt(offset + 4),
+                state.getInt(offset + 8), state.getInt(offset + 12));
+    }
+
+    /**Change the bot during the game, it's called between two updates,
+     * on the thread of the game.
+     *
+     * @param config the new settings, only the bot can change.
+     */
+    public void setConfig(GameConfig config) {
+        if (!this.config.isSameGame(config))
+            throw new IllegalArgumentException("Only the bot can change during the game: " + config);
+        /*The new bot starts with a new brain, he plans the ball again.*/
+        if (config.getDifficulty() != this.config.getDifficulty())
+            botAI = new BotAI(this, config.getDifficulty());
+        this.config = config;
+    }
+
+    /**Make the balls bounce between them, for the party mode.
+     * The grid is sized from the world, with cells as big as a ball.
+     *
+     * @param enabled true if the balls collide.
+     */
+    public void setBallCollisions(boolean enabled) {
+        grid = enabled ? new UniformGrid(width, height, 2 * BALL_RADIUS, balls.getCount()) : null;
+    }
+
+    /**Standard getter which says if the balls bounce between them.*/
+    public boolean hasBallCollisions() {
+        return grid != null;
+    }
+
+    /**Compute the directions of the balls by StrictMath, as the versions before BounceTable,
+     * to play again their replays. It's slower and the games aren't the same as with the table,
+     * so the game is restarted with its seed: the balls are served again.
+     *
+     * @param enabled true for StrictMath, false for the table.
+     */
+    public void setExactAngles(boolean enabled) {
+        exactAngles = enabled;
+        restart(config, seed);
+    }
+
+    /**Move the balls in Q16.16 fixed point (FixedPoint) instead of floats: the positions and
+     * the speeds are ints, the bounces and the serves use the fixed-point BounceTable and the
+     * collisions are computed by integer operations, so the balls move the same bits on every
+     * processor and every java, as the games between two devices need.
+     * The floats of the balls are then rounded copies, for the drawing and the bot.
+     * The game is restarted with its seed, as setExactAngles, which doesn't count then.
+     * It's kept in the config (GameConfig.withFixedPoint), a world built from it is already so.
+     *
+     * @param enabled true for the fixed-point physics, false for the floats.
+     * @throws IllegalStateException if there is a level, see setLevel.
+     */
+    public void setFixedPoint(boolean enabled) {
+        if (enabled && arena != null)
+            throw new IllegalStateException("The bricks can't be played in fixed point");
+        balls.setFixedPoint(enabled);
+        config = config.withFixedPoint(enabled);
+        restart(config, seed);
+    }
+
+    /**Play on the bricks of a level: the balls bounce from them and break them, the walls of
+     * the level are never broken. The bricks are found by the BrickTree of the level, built
+     * here once, so a tick costs the depth of the tree by ball even with thousands of bricks.
+     * The game is restarted with its seed, as setExactAngles.
+     * The bricks are only in the physics of the floats, so not in the games between two devices.
+     * The level is kept in the config (GameConfig.withLevel), a world built from it has its bricks.
+     *
+     * @param level the level, or null to play without bricks.
+     * @throws IllegalStateException if the balls move in fixed point.
+     * @throws IllegalArgumentException if a brick is out of the world, see Level.scale.
+     */
+    public void setLevel(Level level) {
+        if (level != null && balls.isFixedPoint())
+            throw new IllegalStateException("The bricks can't be played in fixed point");
+        arena = level == null ? null : newArena(level);
+        config = config.withLevel(level);
+        restart(config, seed);
+    }
+
+    /**The arena of a level, all its bricks must be in the world.*/
+    private Arena newArena(Level level) {
+        if (!level.isInside(width, height))
+            throw new IllegalArgumentException("The bricks are out of the world of " + width + "x" + height);
+        return new Arena(level);
+    }
+
+    /**Standard getter of the bricks of the level, null without a level.*/
+    public Arena getArena() {
+        return arena;
+    }
+
+    /**Standard getter of the number of bricks of the level, 0 without a level, for the WorldState.*/
+    public int getBrickCount() {
+        return arena == null ? 0 : arena.getLevel().getCount();
+    }
+
+    /**Standard getter which says if the balls move in fixed point.*/
+    public boolean isFixedPoint() {
+        return balls.isFixedPoint();
+    }
+
+    /**Standard getter which says if the directions of the balls are computed by StrictMath.*/
+    public boolean hasExactAngles() {
+        return exactAngles;
+    }
+
+    /**Increment the player's score.*/
+    void incLeftScore() {
+        leftScore++;
+    }
+
+    /**Increment the bot's score.*/
+    void incRightScore() {
+        rightScore++;
+    }
+
+    /**Reset the score to 0 for both paddles.*/
+    public void resetScore() {
+        leftScore = 0;
+        rightScore = 0;
+    }
+
+    /**Standard getter of the settings of the game.*/
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    /**Standard getter of the width.*/
+    public int getWidth() {
+        return width;
+    }
+
+    /**Standard getter of the height.*/
+    public int getHeight() {
+        return height;
+    }
+
+    /**Standard getter of the default speed of the ball.*/
+    public int getBallSpeed() {
+        return ballSpeed;
+    }
+
+    /**Standard getter of the speed of the bot's rectangle.*/
+    public int getBotSpeed() {
+        return config.getBotSpeed();
+    }
+
+    /**Standard getter of the difficulty of the bot.*/
+    public Difficulty getDifficulty() {
+        return config.getDifficulty();
+    }
+
+    /**Standard getter of the seed of the random numbers.*/
+    public long getSeed() {
+        return seed;
+    }
+
+    /**Standard getter of the random numbers of the game.*/
+    GameRandom getRandom() {
+        return random;
+    }
+
+    /**Standard getter of the center of the player's rectangle wanted by the player.*/
+    public int getPlayerX() {
+        return playerX;
+    }
+
+    /**Standard getter of the center of the bot's rectangle wanted by the remote player.*/
+    public int getBotX() {
+        return botX;
+    }
+
+    /**Standard getter which says if the bot's rectangle is played by a remote player.*/
+    public boolean isRemoteBot() {
+        return remoteBot;
+    }
+
+    /**Standard getter of the player's rectangle.*/
+    public Rectangle getPlayer() {
+        return player;
+    }
+
+    /**Standard getter of the bot's rectangle.*/
+    public Rectangle getBot() {
+        return bot;
+    }
+
+    /**Standard getter of the brain of the bot.*/
+    BotAI getBotAI() {
+        return botAI;
+    }
+
+    /**Standard getter of the balls.*/
+    public BallStore getBalls() {
+        return balls;
+    }
+
+    /**Standard getter of the player's score.*/
+    public int getLeftScore() {
+        return leftScore;
+    }
+
+    /**Standard getter of the bot's score.*/
+    public int getRightScore() {
+        return rightScore;
+    }
+
+    /**Standard getter of the number of games won by the player.*/
+    public int getLeftWins() {
+        return leftWins;
+    }
+
+    /**Standard getter of the number of games won by the bot.*/
+    public int getRightWins() {
+        return rightWins;
+    }
+
+    /**Clamp the value between [min..max].*/
+    static int clamp(int value, int min, int max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+
+    /**Clamp the value between [min..max].*/
+    static float clamp(float value, float min, float max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+}
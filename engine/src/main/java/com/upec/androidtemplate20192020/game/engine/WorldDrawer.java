@@ -0,0 +1,133 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**Draws the snapshots of the world with a Renderer, on any backend.
+ * The background, the scores and the bricks are the pre-rendered layer, it's invalidated
+ * only when a score changes or a brick is broken, so a usual frame is the layer,
+ * the two rectangles and the balls. The moving objects are interpolated between the last two ticks.
+ * Before the frame, track gives the DirtyRegion of the frame: where the rectangles
+ * and the balls were on the previous frame and where they are now,
+ * all the frame when the layer changes.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class WorldDrawer {
+
+    /**Size of the world.*/
+    private final int width, height;
+
+    /**Score drawn in the layer.*/
+    private int leftScoreShown = -1, rightScoreShown = -1;
+
+    /**Score of the previous tracked frame.*/
+    private int leftScoreTracked = -1, rightScoreTracked = -1;
+
+    /**Bricks drawn in the layer, and of the previous tracked frame.*/
+    private Level levelShown, levelTracked;
+    private int brickVersionShown, brickVersionTracked;
+
+    /**The snapshot being drawn, the layer draws its bricks.*/
+    private WorldSnapshot drawn;
+
+    /**The parts which changed since the previous frame.*/
+    private final DirtyRegion region;
+
+    /**The background, the scores and the bricks, built once to not allocate every frame.*/
+    private final Renderer.Layer layer = new Renderer.Layer() {
+        @Override
+        public void draw(Renderer renderer) {
+            renderer.fill(Renderer.Style.BACKGROUND);
+            /*Set the score on the center of the screen.*/
+            renderer.drawNumber(leftScoreShown, (float) (width * 0.33), (float) (height * 0.5), Renderer.Style.SCORE);
+            renderer.drawNumber(rightScoreShown, (float) (width * 0.66), (float) (height * 0.5), Renderer.Style.SCORE);
+            Level level = drawn.getLevel();
+            if (level == null)
+                return;
+            for (int i = 0; i < level.getCount(); i++) {
+                if (drawn.isBrickAlive(i))
+                    renderer.drawRect(level.getLeft(i), level.getTop(i), level.getRight(i), level.getBottom(i),
+                            Renderer.Style.BRICK);
+            }
+        }
+    };
+
+    /**Standard constructor.
+     *
+     * @param width the width of the world.
+     * @param height the height of the world.
+     */
+    public WorldDrawer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.region = new DirtyRegion(width, height);
+    }
+
+    /**Compute the parts of the next frame which changed since the previous one,
+     * it's called before beginFrame of the renderer with the same snapshot and alpha as draw.
+     *
+     * @param snapshot the latest tick of the game.
+     * @param alpha fraction of the tick passed after the snapshot, between [0..1].
+     * @return the dirty region, reused by the next frame.
+     */
+    public DirtyRegion track(WorldSnapshot snapshot, float alpha) {
+        /*The two rectangles, then the balls.*/
+        region.begin(2 + snapshot.getCount());
+        if (leftScoreTracked != snapshot.getLeftScore() || rightScoreTracked != snapshot.getRightScore()
+                || levelTracked != snapshot.getLevel() || brickVersionTracked != snapshot.getBrickVersion()) {
+            /*The layer changes, it's drawn whole.*/
+            leftScoreTracked = snapshot.getLeftScore();
+            rightScoreTracked = snapshot.getRightScore();
+            levelTracked = snapshot.getLevel();
+            brickVersionTracked = snapshot.getBrickVersion();
+            region.invalidateAll();
+        }
+        region.add(0, snapshot.getPlayerLeft(), snapshot.getPlayerTop(),
+                snapshot.getPlayerRight(), snapshot.getPlayerBottom());
+        region.add(1, snapshot.getBotLeft(), snapshot.getBotTop(),
+                snapshot.getBotRight(), snapshot.getBotBottom());
+        for (int i = 0; i < snapshot.getCount(); i++) {
+            float x = snapshot.getPrevX(i) + (snapshot.getX(i) - snapshot.getPrevX(i)) * alpha;
+            float y = snapshot.getPrevY(i) + (snapshot.getY(i) - snapshot.getPrevY(i)) * alpha;
+            float r = snapshot.getR(i);
+            region.add(2 + i, x - r, y - r, x + r, y + r);
+        }
+        return region;
+    }
+
+    /**Draw a frame of the game, between beginFrame and endFrame of the renderer.
+     *
+     * @param renderer where the frame is drawn.
+     * @param snapshot the latest tick of the game.
+     * @param alpha fraction of the tick passed after the snapshot, between [0..1].
+     */
+    public void draw(Renderer renderer, WorldSnapshot snapshot, float alpha) {
+        /*The background, the scores and the bricks, rendered again only if they changed.*/
+        if (leftScoreShown != snapshot.getLeftScore() || rightScoreShown != snapshot.getRightScore()
+                || levelShown != snapshot.getLevel() || brickVersionShown != snapshot.getBrickVersion()) {
+            leftScoreShown = snapshot.getLeftScore();
+            rightScoreShown = snapshot.getRightScore();
+            levelShown = snapshot.getLevel();
+            brickVersionShown = snapshot.getBrickVersion();
+            renderer.invalidateLayer();
+        }
+        drawn = snapshot;
+        renderer.drawLayer(layer);
+        drawn = null;
+
+        /*Draw the player's rectangle.*/
+        renderer.drawRect(snapshot.getPlayerLeft(), snapshot.getPlayerTop(),
+                snapshot.getPlayerRight(), snapshot.getPlayerBottom(), Renderer.Style.PLAYER);
+
+        /*Draw the bot's rectangle.*/
+        renderer.drawRect(snapshot.getBotLeft(), snapshot.getBotTop(),
+                snapshot.getBotRight(), snapshot.getBotBottom(), Renderer.Style.BOT);
+
+        /*Draw the balls between the previous and the current tick.*/
+        for (int i = 0; i < snapshot.getCount(); i++) {
+            renderer.drawCircle(snapshot.getPrevX(i) + (snapshot.getX(i) - snapshot.getPrevX(i)) * alpha,
+                    snapshot.getPrevY(i) + (snapshot.getY(i) - snapshot.getPrevY(i)) * alpha,
+                    snapshot.getR(i), Renderer.Style.BALL);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**A World built before the game, while the menu is shown, and reused between the games.
+ * prepare builds the world on a background thread and plays some ticks on it, with the
+ * snapshots and the drawing of the frames, so the hot loop of the engine is already
+ * compiled by the JIT when the first frame of the game is drawn.
+ * take restarts the prepared world for the game, or builds one if none is ready,
+ * and give keeps the world of the finished game for the next one.
+ * cancel stops the warm-up in progress, so it doesn't take the processor from the game.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class WorldPool {
+
+    /**Default number of ticks played to warm up the engine, for one ball.*/
+    public static final int WARM_UP_TICKS = 20000;
+
+    /**Number of ticks played to warm up the engine, divided by the number of balls.*/
+    private final int warmUpTicks;
+
+    /**The world ready for the next game, null if there's none.*/
+    private final AtomicReference<World> ready = new AtomicReference<>();
+
+    /**Increased by cancel, the warm-ups started before stop.*/
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**Standard constructor.
+     *
+     * @param warmUpTicks number of ticks played to warm up the engine, for one ball.
+     */
+    public WorldPool(int warmUpTicks) {
+        if (warmUpTicks < 0)
+            throw new IllegalArgumentException("warmUpTicks must not be negative: " + warmUpTicks);
+        this.warmUpTicks = warmUpTicks;
+    }
+
+    /**Build and warm up a world for the game of this config, if none is ready for it.
+     * It takes some time, it's called on a background thread.
+     *
+     * @param config the settings of the next game.
+     */
+    public void prepare(GameConfig config) {
+        prepare(config, getGeneration());
+    }
+
+    /**Build and warm up a world, as prepare, unless cancel is called after getGeneration gave
+     * the generation. The generation is read when the warm-up is asked, so a cancel between
+     * the request and the start of its thread stops it too.
+     *
+     * @param config the settings of the next game.
+     * @param generation the generation when the warm-up was asked.
+     * @return true if a world is ready, false if it was cancelled.
+     */
+    public boolean prepare(GameConfig config, int generation) {
+        if (isReady(config))
+            return true;
+        World world = new World(config, 0);
+        if (!warmUp(world, Math.max(1, warmUpTicks / Math.max(1, config.getBallCount())), generation))
+            return false;
+        ready.set(world);
+        return true;
+    }
+
+    /**Stop the warm-ups in progress, the world they built is dropped.
+     * It's called when the game starts, so they don't run with its first frames.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    /**Standard getter of the generation of the warm-ups, it changes on every cancel.*/
+    public int getGeneration() {
+        return generation.get();
+    }
+
+    /**True if a world is ready for the game of this config.
+     *
+     * @param config the settings of the next game.
+     * @return true if take will reuse a world.
+     */
+    public boolean isReady(GameConfig config) {
+        World world = ready.get();
+        return world != null && world.getConfig().isSameGame(config);
+    }
+
+    /**The world of a new game: the ready world restarted, or a new world.
+     *
+     * @param config the settings of the game.
+     * @param seed the seed of the random numbers.
+     * @return the world, as a new World(config, seed).
+     */
+    public World take(GameConfig config, long seed) {
+        World world = ready.getAndSet(null);
+        if (world == null || !world.getConfig().isSameGame(config))
+            return new World(config, seed);
+        world.restart(config, seed);
+        return world;
+    }
+
+    /**Keep the world of a finished game for the next one, nothing else must use it.
+     *
+     * @param world the world.
+     */
+    public void give(World world) {
+        ready.set(world);
+    }
+
+    /**Play some ticks as the game does: the update, the snapshot given between the
+     * threads, and the dirty region and the drawing of the frame.
+     *
+     * @param world the world which is played.
+     * @param ticks the number of ticks.
+     * @param generation the generation of the warm-up, it stops when it changes.
+     * @return false if it was cancelled.
+     */
+    private boolean warmUp(World world, int ticks, int generation) {
+        SnapshotBuffer snapshots = new SnapshotBuffer(world.getBalls().getCount());
+        WorldDrawer drawer = new WorldDrawer(world.getWidth(), world.getHeight());
+        RecordingRenderer renderer = new RecordingRenderer();
+        for (int tick = 1; tick <= ticks; tick++) {
+            if (this.generation.get() != generation)
+                return false;
+            /*The player follows the first ball, so the bounces are played too.*/
+            if (world.getBalls().getCount() > 0)
+                world.setPlayerX((int) world.getBalls().getX(0));
+            world.update();
+            snapshots.getBack().copy(world, tick, tick);
+            snapshots.publish();
+            WorldSnapshot snapshot = snapshots.acquire();
+            if (renderer.beginFrame(drawer.track(snapshot, 0.5f))) {
+                drawer.draw(renderer, snapshot, 0.5f);
+                renderer.endFrame();
+            }
+        }
+        return this.generation.get() == generation;
+    }
+}
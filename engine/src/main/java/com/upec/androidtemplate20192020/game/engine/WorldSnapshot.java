@@ -0,0 +1,233 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+/**Copy of what is drawn of the world after one tick: the paddles, the balls,
+ * the bricks and the scores. The simulation thread copies the world in a snapshot and
+ * publishes it with SnapshotBuffer, the render thread draws the snapshot,
+ * so it never reads the world while it's updated.
+ * The snapshots are reused, so the copy doesn't allocate, the live bricks are
+ * copied only when a brick was broken or put back.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class WorldSnapshot {
+
+    /**Coordinates of the paddles, the same as in Rectangle.*/
+    private int playerLeft, playerTop, playerRight, playerBottom;
+    private int botLeft, botTop, botRight, botBottom;
+
+    /**Balls' coordinates on the tick and on the previous tick, and radius.*/
+    private float[] x, y, prevX, prevY, r;
+
+    /**Number of balls.*/
+    private int count;
+
+    /**The level of the bricks, null without an arena.*/
+    private Level level;
+
+    /**The arena copied and its version, to copy the bricks only when they change.*/
+    private Arena arena;
+    private int brickVersion;
+
+    /**True for the bricks not broken.*/
+    private boolean[] alive = new boolean[0];
+
+    /**Scores of the player and of the bot.*/
+    private int leftScore, rightScore;
+
+    /**Number of the tick, it's increased by the simulation.*/
+    private long tick;
+
+    /**Time of the tick on the clock of System.nanoTime().*/
+    private long tickNanos;
+
+    /**Duration of the update of the tick in ns, for FrameMetrics.*/
+    private long updateNanos;
+
+    /**Standard constructor.
+     *
+     * @param capacity the number of balls, the arrays grow if the world has more.
+     */
+    public WorldSnapshot(int capacity) {
+        allocate(capacity);
+    }
+
+    /**Copy the world in the snapshot.
+     *
+     * @param world the world, after its update.
+     * @param tick the number of the tick.
+     * @param tickNanos the time of the tick.
+     */
+    public void copy(World world, long tick, long tickNanos) {
+        Rectangle player = world.getPlayer();
+        playerLeft = player.getLeft();
+        playerTop = player.getTop();
+        playerRight = player.getRight();
+        playerBottom = player.getBottom();
+        Rectangle bot = world.getBot();
+        botLeft = bot.getLeft();
+        botTop = bot.getTop();
+        botRight = bot.getRight();
+        botBottom = bot.getBottom();
+
+        BallStore balls = world.getBalls();
+        count = balls.getCount();
+        if (count > x.length)
+            allocate(count);
+        for (int i = 0; i < count; i++) {
+            x[i] = balls.getX(i);
+            y[i] = balls.getY(i);
+            prevX[i] = balls.getPrevX(i);
+            prevY[i] = balls.getPrevY(i);
+            r[i] = balls.getR(i);
+        }
+
+        copyBricks(world.getArena());
+
+        leftScore = world.getLeftScore();
+        rightScore = world.getRightScore();
+        this.tick = tick;
+        this.tickNanos = tickNanos;
+    }
+
+    /**Copy the live bricks, if they changed since the previous copy in this snapshot.*/
+    private void copyBricks(Arena arena) {
+        if (arena == this.arena && (arena == null || arena.getVersion() == brickVersion))
+            return;
+        this.arena = arena;
+        level = arena == null ? null : arena.getLevel();
+        if (arena == null)
+            return;
+        brickVersion = arena.getVersion();
+        int count = level.getCount();
+        if (count > alive.length)
+            alive = new boolean[count];
+        for (int i = 0; i < count; i++)
+            alive[i] = arena.isAlive(i);
+    }
+
+    /**Allocate the arrays of the balls.*/
+    private void allocate(int capacity) {
+        x = new float[capacity];
+        y = new float[capacity];
+        prevX = new float[capacity];
+        prevY = new float[capacity];
+        r = new float[capacity];
+    }
+
+    /**Standard getter of the left side of the player's paddle.*/
+    public int getPlayerLeft() {
+        return playerLeft;
+    }
+
+    /**Standard getter of the top side of the player's paddle.*/
+    public int getPlayerTop() {
+        return playerTop;
+    }
+
+    /**Standard getter of the right side of the player's paddle.*/
+    public int getPlayerRight() {
+        return playerRight;
+    }
+
+    /**Standard getter of the bottom side of the player's paddle.*/
+    public int getPlayerBottom() {
+        return playerBottom;
+    }
+
+    /**Standard getter of the left side of the bot's paddle.*/
+    public int getBotLeft() {
+        return botLeft;
+    }
+
+    /**Standard getter of the top side of the bot's paddle.*/
+    public int getBotTop() {
+        return botTop;
+    }
+
+    /**Standard getter of the right side of the bot's paddle.*/
+    public int getBotRight() {
+        return botRight;
+    }
+
+    /**Standard getter of the bottom side of the bot's paddle.*/
+    public int getBotBottom() {
+        return botBottom;
+    }
+
+    /**Standard getter of the number of balls.*/
+    public int getCount() {
+        return count;
+    }
+
+    /**Standard getter of the x coordinate of a ball.*/
+    public float getX(int i) {
+        return x[i];
+    }
+
+    /**Standard getter of the y coordinate of a ball.*/
+    public float getY(int i) {
+        return y[i];
+    }
+
+    /**Standard getter of the x coordinate of a ball on the previous tick.*/
+    public float getPrevX(int i) {
+        return prevX[i];
+    }
+
+    /**Standard getter of the y coordinate of a ball on the previous tick.*/
+    public float getPrevY(int i) {
+        return prevY[i];
+    }
+
+    /**Standard getter of the radius of a ball.*/
+    public float getR(int i) {
+        return r[i];
+    }
+
+    /**Standard getter of the level of the bricks, null without an arena.*/
+    public Level getLevel() {
+        return level;
+    }
+
+    /**Standard getter of the version of the bricks (Arena.getVersion), it changes when they change.*/
+    public int getBrickVersion() {
+        return brickVersion;
+    }
+
+    /**Standard getter which says if the brick i isn't broken.*/
+    public boolean isBrickAlive(int i) {
+        return alive[i];
+    }
+
+    /**Standard getter of the player's score.*/
+    public int getLeftScore() {
+        return leftScore;
+    }
+
+    /**Standard getter of the bot's score.*/
+    public int getRightScore() {
+        return rightScore;
+    }
+
+    /**Standard getter of the number of the tick, 0 if nothing was copied.*/
+    public long getTick() {
+        return tick;
+    }
+
+    /**Standard getter of the time of the tick.*/
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**Standard getter of the duration of the update of the tick in ns.*/
+    public long getUpdateNanos() {
+        return updateNanos;
+    }
+
+    /**Standard setter of the duration of the update of the tick in ns, after the copy.*/
+    public void setUpdateNanos(long updateNanos) {
+        this.updateNanos = updateNanos;
+    }
+}
@@ -0,0 +1,375 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**The whole state of a game on one tick, saved by World.save and put back by World.restore,
+ * in a compact binary form of a fixed size: a world restored from a state plays the next
+ * ticks exactly as the saved world, so a game can go back some ticks and play them again
+ * with other inputs (the rollback of RollbackSession).
+ * Unlike WorldSnapshot, which has only what is drawn, it has everything: the rectangles,
+ * the inputs, the score, the bot and his brain, the random numbers and the balls.
+ *
+ * The bytes are little endian (the order of ARM and x86, so it's a plain copy there),
+ * the same on every device, so two devices compare their states by hash:
+ * <pre>
+ * long random, int player's left, top, right, bottom, bot's left, top, right, bottom,
+ * playerX, botX, remoteBot, fixedPoint, leftScore, rightScore, leftWins, rightWins,
+ * difficulty, botSpeed, the brain: seenEvents, targetX, plannedBall, plannedBounce,
+ * float plannedArrival, int ticks, aimOffset, reaction (the bot and his brain are zeros
+ * when the bot is played by a remote player), then the balls: int count, events,
+ * float x[count], y[count], prevX[count], prevY[count], xSpeed[count], ySpeed[count],
+ * int countBounce[count].
+ * </pre>
+ * With the fixed-point physics (World.setFixedPoint), x, y, xSpeed and ySpeed are the ints
+ * in Q16.16 of the balls, not their floats.
+ * The buffer and its views on the balls are allocated once, saving and restoring are
+ * bulk copies of the arrays, so they don't allocate.
+ * @author Ceban Cristian
+ * @author cristiceban4444@gmail.com
+ * @version 1.4
+ * @since 1.4
+ */
+public class WorldState {
+
+    /**Offsets of the fields in the bytes.*/
+    static final int RANDOM = 0, PLAYER = 8, BOT = PLAYER + 16, PLAYER_X = BOT + 16, BOT_X = PLAYER_X + 4,
+            REMOTE_BOT = BOT_X + 4, FIXED_POINT = REMOTE_BOT + 4, LEFT_SCORE = FIXED_POINT + 4,
+            RIGHT_SCORE = LEFT_SCORE + 4,
+            LEFT_WINS = RIGHT_SCORE + 4, RIGHT_WINS = LEFT_WINS + 4, DIFFICULTY = RIGHT_WINS + 4,
+            BOT_SPEED = DIFFICULTY + 4, BRAIN = BOT_SPEED + 4, BALL_COUNT = BRAIN + 4 * 8,
+            EVENTS = BALL_COUNT + 4, BALLS = EVENTS + 4;
+
+    /**Bytes of one ball: 6 floats and an int.*/
+    static final int BALL_BYTES = 7 * 4;
+
+    /**Primes of the hash (xxHash64).*/
+    private static final long PRIME1 = 0x9E3779B185EBCA87L, PRIME2 = 0xC2B2AE3D27D4EB4FL,
+            PRIME3 = 0x165667B19E3779F9L;
+
+    /**The bytes of the state.*/
+    private final ByteBuffer bytes;
+
+    /**Number of balls.*/
+    private final int count;
+
+    /**Number of bricks of the arena, 0 without an arena.*/
+    private final int brickCount;
+
+    /**Views of the bytes on the arrays of the balls.*/
+    private final FloatBuffer x, y, prevX, prevY, xSpeed, ySpeed;
+    private final IntBuffer countBounce;
+
+    /**Views of the same bytes as ints, for the fixed-point physics.*/
+    private final IntBuffer fixedX, fixedY, fixedXSpeed, fixedYSpeed;
+
+    /**View of the hits left of the bricks, after the balls.*/
+    private final IntBuffer bricks;
+
+    /**The bytes without FIXED_POINT for hashWithoutFixedPoint, allocated on its first call.*/
+    private ByteBuffer withoutFixedPoint;
+
+    /**Standard constructor, for a world without an arena.
+     *
+     * @param ballCount the number of balls of the world.
+     */
+    public WorldState(int ballCount) {
+        this(ballCount, 0);
+    }
+
+    /**Standard constructor.
+     *
+     * @param ballCount the number of balls of the world.
+     * @param brickCount the number of bricks of its arena (World.getBrickCount), 0 without an arena.
+     */
+    public WorldState(int ballCount, int brickCount) {
+        if (ballCount < 0)
+            throw new IllegalArgumentException("ballCount must not be negative: " + ballCount);
+        if (brickCount < 0)
+            throw new IllegalArgumentException("brickCount must not be negative: " + brickCount);
+        count = ballCount;
+        this.brickCount = brickCount;
+        bytes = ByteBuffer.allocate(size(ballCount, brickCount)).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.putInt(BALL_COUNT, ballCount);
+        int offset = BALLS;
+        x = floats(offset);
+        y = floats(offset += 4 * count);
+        prevX = floats(offset += 4 * count);
+        prevY = floats(offset += 4 * count);
+        xSpeed = floats(offset += 4 * count);
+        ySpeed = floats(offset += 4 * count);
+        countBounce = view(offset + 4 * count).asIntBuffer();
+        fixedX = view(BALLS).asIntBuffer();
+        fixedY = view(BALLS + 4 * count).asIntBuffer();
+        fixedXSpeed = view(BALLS + 16 * count).asIntBuffer();
+        fixedYSpeed = view(BALLS + 20 * count).asIntBuffer();
+        ByteBuffer view = bytes.duplicate();
+        view.position(size(ballCount));
+        bricks = view.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    /**Size in bytes of the state of a world.
+     *
+     * @param ballCount the number of balls of the world.
+     * @return the size, the same for every tick.
+     */
+    public static int size(int ballCount) {
+        return size(ballCount, 0);
+    }
+
+    /**Size in bytes of the state of a world with an arena.
+     *
+     * @param ballCount the number of balls of the world.
+     * @param brickCount the number of bricks of its arena.
+     * @return the size, the same for every tick.
+     */
+    public static int size(int ballCount, int brickCount) {
+        return BALLS + BALL_BYTES * ballCount + 4 * brickCount;
+    }
+
+    /**A view of the bytes of one array of the balls.*/
+    private ByteBuffer view(int offset) {
+        ByteBuffer view = bytes.duplicate();
+        view.position(offset);
+        view.limit(offset + 4 * count);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private FloatBuffer floats(int offset) {
+        return view(offset).asFloatBuffer();
+    }
+
+    /**Copy the arrays of the balls in the state.*/
+    void putBalls(float[] x, float[] y, float[] prevX, float[] prevY, float[] xSpeed, float[] ySpeed,
+                  int[] countBounce) {
+        put(this.x, x);
+        put(this.y, y);
+        put(this.prevX, prevX);
+        put(this.prevY, prevY);
+        put(this.xSpeed, xSpeed);
+        put(this.ySpeed, ySpeed);
+        put(this.countBounce, countBounce);
+    }
+
+    /**Copy the balls of the state in the arrays.*/
+    void getBalls(float[] x, float[] y, float[] prevX, float[] prevY, float[] xSpeed, float[] ySpeed,
+                  int[] countBounce) {
+        get(this.x, x);
+        get(this.y, y);
+        get(this.prevX, prevX);
+        get(this.prevY, prevY);
+        get(this.xSpeed, xSpeed);
+        get(this.ySpeed, ySpeed);
+        get(this.countBounce, countBounce);
+    }
+
+    /**Copy the arrays of the balls of the fixed-point physics in the state.*/
+    void putFixedBalls(int[] x, int[] y, float[] prevX, float[] prevY, int[] xSpeed, int[] ySpeed,
+                       int[] countBounce) {
+        put(fixedX, x);
+        put(fixedY, y);
+        put(this.prevX, prevX);
+        put(this.prevY, prevY);
+        put(fixedXSpeed, xSpeed);
+        put(fixedYSpeed, ySpeed);
+        put(this.countBounce, countBounce);
+    }
+
+    /**Copy the balls of the state in the arrays of the fixed-point physics.*/
+    void getFixedBalls(int[] x, int[] y, float[] prevX, float[] prevY, int[] xSpeed, int[] ySpeed,
+                       int[] countBounce) {
+        get(fixedX, x);
+        get(fixedY, y);
+        get(this.prevX, prevX);
+        get(this.prevY, prevY);
+        get(fixedXSpeed, xSpeed);
+        get(fixedYSpeed, ySpeed);
+        get(this.countBounce, countBounce);
+    }
+
+    /**Copy the hits left of the bricks in the state.*/
+    void putBricks(int[] hits) {
+        bricks.clear();
+        bricks.put(hits, 0, brickCount);
+    }
+
+    /**Copy the hits left of the bricks of the state in the array.*/
+    void getBricks(int[] hits) {
+        bricks.clear();
+        bricks.get(hits, 0, brickCount);
+    }
+
+    private void put(IntBuffer view, int[] values) {
+        view.clear();
+        view.put(values, 0, count);
+    }
+
+    private void get(IntBuffer view, int[] values) {
+        view.clear();
+        view.get(values, 0, count);
+    }
+
+    private void put(FloatBuffer view, float[] values) {
+        view.clear();
+        view.put(values, 0, count);
+    }
+
+    private void get(FloatBuffer view, float[] values) {
+        view.clear();
+        view.get(values, 0, count);
+    }
+
+    /**Write an int of the state.*/
+    void putInt(int offset, int value) {
+        bytes.putInt(offset, value);
+    }
+
+    /**Read an int of the state.*/
+    int getInt(int offset) {
+        return bytes.getInt(offset);
+    }
+
+    void putLong(int offset, long value) {
+        bytes.putLong(offset, value);
+    }
+
+    long getLong(int offset) {
+        return bytes.getLong(offset);
+    }
+
+    void putFloat(int offset, float value) {
+        bytes.putFloat(offset, value);
+    }
+
+    float getFloat(int offset) {
+        return bytes.getFloat(offset);
+    }
+
+    /**64-bit hash of the bytes, the same on every device for the same state.
+     * It's xxHash64 without its last bytes: 4 lanes of 8 bytes are mixed apart,
+     * so the multiplications of a lane don't wait for the other lanes.
+     *
+     * @return the hash of the state.
+     */
+    public long hash() {
+        return hash(bytes);
+    }
+
+    /**Hash of the state in the layout before FIXED_POINT, which moved all the fields after it.
+     * The replays of the versions 3 and 4 without fixed point were hashed so.
+     *
+     * @return the hash of the state without the field FIXED_POINT.
+     */
+    long hashWithoutFixedPoint() {
+        if (withoutFixedPoint == null)
+            withoutFixedPoint = ByteBuffer.allocate(bytes.capacity() - 4).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer source = bytes.duplicate();
+        withoutFixedPoint.clear();
+        source.limit(FIXED_POINT);
+        withoutFixedPoint.put(source);
+        source.limit(source.capacity()).position(FIXED_POINT + 4);
+        withoutFixedPoint.put(source);
+        return hash(withoutFixedPoint);
+    }
+
+    /**Hash of all the bytes of a buffer.*/
+    private static long hash(ByteBuffer bytes) {
+        int size = bytes.capacity();
+        long lane1 = PRIME1 + PRIME2, lane2 = PRIME2, lane3 = 0, lane4 = -PRIME1;
+        int i = 0;
+        for (; i + 32 <= size; i += 32) {
+            lane1 = round(lane1, bytes.getLong(i));
+            lane2 = round(lane2, bytes.getLong(i + 8));
+            lane3 = round(lane3, bytes.getLong(i + 16));
+            lane4 = round(lane4, bytes.getLong(i + 24));
+        }
+        long hash = Long.rotateLeft(lane1, 1) + Long.rotateLeft(lane2, 7) + Long.rotateLeft(lane3, 12)
+                + Long.rotateLeft(lane4, 18) + size;
+        for (; i + 8 <= size; i += 8)
+            hash = Long.rotateLeft(hash ^ round(0, bytes.getLong(i)), 27) * PRIME1 + PRIME3;
+        /*The size is a multiple of 4.*/
+        if (i < size)
+            hash = Long.rotateLeft(hash ^ ((bytes.getInt(i) & 0xFFFFFFFFL) * PRIME1), 23) * PRIME2 + PRIME3;
+        return mix(hash);
+    }
+
+    /**Mix 8 bytes in a lane.*/
+    private static long round(long lane, long value) {
+        return Long.rotateLeft(lane + value * PRIME2, 31) * PRIME1;
+    }
+
+    /**Add the hash of a tick to the hash of all the previous ticks, the order of the ticks counts.
+     *
+     * @param hash the hash of the previous ticks, 0 for the first one.
+     * @param tickHash the hash of the state of the tick.
+     * @return the hash of all the ticks.
+     */
+    public static long roll(long hash, long tickHash) {
+        return mix(Long.rotateLeft(hash, 17) * PRIME1 + tickHash);
+    }
+
+    /**Avalanche of the bits, so every bit of the input changes half of the bits of the hash.*/
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= PRIME2;
+        hash ^= hash >>> 29;
+        hash *= PRIME3;
+        return hash ^ (hash >>> 32);
+    }
+
+    /**The bytes of the state, read only, from 0 to size(getCount(), getBrickCount()).
+     * They can be sent or written in a file and copied back with copyFrom.
+     *
+     * @return a view of the bytes.
+     */
+    public ByteBuffer asReadOnlyBuffer() {
+        return bytes.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**Copy the bytes of a state, from the position to the limit of the buffer.
+     * The number of balls is in the bytes, the number of bricks is given by their size.
+     *
+     * @param source the bytes of one state of the same number of balls and bricks,
+     *               size(getCount(), getBrickCount()) bytes as asReadOnlyBuffer gives them.
+     * @throws IllegalArgumentException if the state has another number of balls or of bricks.
+     */
+    public void copyFrom(ByteBuffer source) {
+        int remaining = source.remaining();
+        if (remaining < BALLS)
+            throw new IllegalArgumentException("Not a state: " + remaining + " bytes");
+        ByteBuffer slice = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (slice.getInt(slice.position() + BALL_COUNT) != count)
+            throw new IllegalArgumentException("The state isn't for " + count + " balls");
+        int brickBytes = remaining - size(count);
+        if (brickBytes < 0 || brickBytes % 4 != 0)
+            throw new IllegalArgumentException("Not a state of " + count + " balls: " + remaining + " bytes");
+        if (brickBytes / 4 != brickCount)
+            throw new IllegalArgumentException("The state is for " + brickBytes / 4 + " bricks, not " + brickCount);
+        bytes.clear();
+        bytes.put(slice);
+        bytes.clear();
+    }
+
+    /**Standard getter of the number of balls.*/
+    public int getCount() {
+        return count;
+    }
+
+    /**Standard getter of the number of bricks.*/
+    public int getBrickCount() {
+        return brickCount;
+    }
+
+    /**True if the other state has the same bytes, it's the same game on the same tick.*/
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof WorldState && bytes.equals(((WorldState) other).bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return bytes.hashCode();
+    }
+}
@@ -0,0 +1,79 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the steady state of the game loop doesn't allocate, using the
+ * allocation counter of the current thread.
+ */
+public class AllocationTest {
+
+    private static final int WARM_UP_TICKS = 200000;
+    private static final int TICKS = 100000;
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(sunBean.isThreadAllocatedMemorySupported());
+        sunBean.setThreadAllocatedMemoryEnabled(true);
+        return sunBean;
+    }
+
+    /** Bytes allocated by the counter itself, measured with nothing in between. */
+    private static long counterOverhead(com.sun.management.ThreadMXBean bean, long threadId) {
+        long before = bean.getThreadAllocatedBytes(threadId);
+        long after = bean.getThreadAllocatedBytes(threadId);
+        return after - before;
+    }
+
+    private static void run(World world, InputRing input, FixedStepLoop loop, FixedStepLoop.Simulation simulation, int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            /*Two touches by tick, like the history of a MotionEvent.*/
+            input.offer((i * 13) % world.getWidth(), i);
+            input.offer((i * 13 + 5) % world.getWidth(), i);
+            loop.advance(loop.getStepNanos(), simulation);
+        }
+    }
+
+    @Test
+    public void steadyStateTickDoesNotAllocate() {
+        com.sun.management.ThreadMXBean bean = threadBean();
+        long threadId = Thread.currentThread().getId();
+        final World world = new World(1080, 1920, 10, 10);
+        final InputRing input = new InputRing(64);
+        final SnapshotBuffer snapshots = new SnapshotBuffer(1);
+        FixedStepLoop loop = new FixedStepLoop(60);
+        FixedStepLoop.Simulation simulation = new FixedStepLoop.Simulation() {
+            @Override
+            public void step() {
+                world.setPlayerX(input.drain(world.getPlayerX()));
+                world.update();
+                /*Publish the tick and read it back, as the two threads of the game do.*/
+                WorldSnapshot snapshot = snapshots.getBack();
+                snapshot.copy(world, snapshot.getTick() + 1, 0);
+                snapshots.publish();
+                snapshots.acquire();
+            }
+        };
+
+        run(world, input, loop, simulation, WARM_UP_TICKS);
+
+        /*The JVM itself can allocate a few bytes on this thread (for example when
+         *the JIT replaces a method), so the best of some rounds is kept.*/
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long overhead = counterOverhead(bean, threadId);
+            long before = bean.getThreadAllocatedBytes(threadId);
+            run(world, input, loop, simulation, TICKS);
+            allocated = Math.min(allocated, bean.getThreadAllocatedBytes(threadId) - before - overhead);
+        }
+
+        assertEquals("bytes allocated in " + TICKS + " ticks", 0, allocated);
+    }
+}
@@ -0,0 +1,223 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of the bricks of a level in the game: the bounces, the broken bricks,
+ * the states, the replays and the drawing.
+ */
+public class ArenaTest {
+
+    private static final GameConfig CONFIG = GameConfig.DEFAULT.withScreen(1080, 1920);
+
+    /**A brick above the center, a brick of 2 hits on the left and a wall on the right.*/
+    private static final Level LEVEL = new Level(
+            new int[]{440, 100, 900},
+            new int[]{600, 600, 600},
+            new int[]{640, 300, 1000},
+            new int[]{660, 660, 660},
+            new int[]{1, 2, 0});
+
+    /**A world with the level, the ball going up to the brick 0 from below.*/
+    private static World worldToTheBrick() {
+        World world = new World(CONFIG, 3);
+        world.setLevel(LEVEL);
+        world.update();
+        world.getBalls().setState(0, 540, 800, 0, -20, 0);
+        return world;
+    }
+
+    @Test
+    public void ballBouncesFromTheBrickAndBreaksIt() {
+        World world = worldToTheBrick();
+        Arena arena = world.getArena();
+        int version = arena.getVersion();
+        for (int tick = 0; tick < 6; tick++)
+            world.update();
+        BallStore balls = world.getBalls();
+        assertTrue(balls.getySpeed(0) > 0);
+        assertEquals(0, balls.getxSpeed(0), 0);
+        assertTrue(balls.getY(0) >= 660 + World.BALL_RADIUS);
+        assertFalse(arena.isAlive(0));
+        assertEquals(1, arena.getBrokenCount());
+        assertNotEquals(version, arena.getVersion());
+        assertEquals(-1, arena.getTree().sweep(540, 800, World.BALL_RADIUS, 0, -200));
+    }
+
+    @Test
+    public void ballBouncesFromTheSideOfABrick() {
+        World world = new World(CONFIG, 3);
+        world.setLevel(LEVEL);
+        world.update();
+        /*It comes from the left to the left side of the brick 0, the 2 hits of the brick 1 are above.*/
+        world.getBalls().setState(0, 380, 630, 20, 0, 0);
+        for (int tick = 0; tick < 3; tick++)
+            world.update();
+        assertTrue(world.getBalls().getxSpeed(0) < 0);
+        assertEquals(0, world.getBalls().getySpeed(0), 0);
+        assertFalse(world.getArena().isAlive(0));
+    }
+
+    @Test
+    public void wallsAreNeverBrokenAndBricksComeBack() {
+        World world = new World(CONFIG, 3);
+        world.setLevel(LEVEL);
+        Arena arena = world.getArena();
+        for (int i = 0; i < 10; i++)
+            arena.hit(2);
+        assertEquals(Arena.WALL, arena.getHits(2));
+        arena.hit(1);
+        assertEquals(1, arena.getHits(1));
+        arena.hit(0);
+        assertEquals(1, arena.getBrokenCount());
+        /*The last brick which can be broken: all of them come back.*/
+        arena.hit(1);
+        assertEquals(0, arena.getBrokenCount());
+        assertTrue(arena.isAlive(0));
+        assertEquals(2, arena.getHits(1));
+        assertEquals(3, arena.getTree().getLiveCount());
+    }
+
+    @Test
+    public void paddleBouncesAreTheSameWithBricks() {
+        World plain = new World(CONFIG, 3);
+        World bricks = new World(CONFIG, 3);
+        bricks.setLevel(LEVEL);
+        plain.update();
+        bricks.update();
+        float top = plain.getPlayer().getTop();
+        for (World world : new World[]{plain, bricks})
+            world.getBalls().setState(0, 500, top - 200, 4, 20, 0);
+        for (int tick = 0; tick < 15; tick++) {
+            plain.update();
+            bricks.update();
+        }
+        assertEquals(1, bricks.getBalls().getCountBounce(0));
+        assertEquals(plain.getBalls().getX(0), bricks.getBalls().getX(0), 0);
+        assertEquals(plain.getBalls().getY(0), bricks.getBalls().getY(0), 0);
+        assertEquals(plain.getBalls().getxSpeed(0), bricks.getBalls().getxSpeed(0), 0);
+        assertEquals(plain.getBalls().getySpeed(0), bricks.getBalls().getySpeed(0), 0);
+    }
+
+    @Test
+    public void restoredStatePlaysTheSameTicks() {
+        World world = new World(CONFIG.withBallCount(20), 4);
+        world.setLevel(BrickTreeTest.grid(24, 30));
+        for (int tick = 0; tick < 1000; tick++)
+            world.update();
+        assertTrue(world.getArena().getBrokenCount() > 0);
+        int count = world.getBrickCount();
+        WorldState state = new WorldState(20, count), after = new WorldState(20, count);
+        WorldState again = new WorldState(20, count);
+        world.save(state);
+        for (int tick = 0; tick < 1000; tick++)
+            world.update();
+        world.save(after);
+        world.restore(state);
+        for (int tick = 0; tick < 1000; tick++)
+            world.update();
+        world.save(again);
+        assertEquals(after, again);
+        assertEquals(after.hash(), again.hash());
+        assertEquals(WorldState.size(20) + 4 * count, WorldState.size(20, count));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stateWithoutTheBricksIsRejected() {
+        World world = new World(CONFIG, 1);
+        world.setLevel(LEVEL);
+        world.restore(new WorldState(1));
+    }
+
+    @Test
+    public void bricksOutOfTheWorldAreRejected() {
+        World world = new World(CONFIG.withScreen(720, 1280), 1);
+        try {
+            world.setLevel(LEVEL);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertNull(world.getArena());
+        }
+        world.setLevel(LEVEL.scale(720, 1280));
+        assertEquals(3, world.getBrickCount());
+        try {
+            new World(CONFIG.withScreen(720, 1280).withLevel(LEVEL), 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test
+    public void bricksAreNotInFixedPoint() {
+        World world = new World(CONFIG, 1);
+        world.setFixedPoint(true);
+        try {
+            world.setLevel(LEVEL);
+            fail();
+        } catch (IllegalStateException e) {
+            assertNull(world.getArena());
+        }
+        world.setFixedPoint(false);
+        world.setLevel(LEVEL);
+        try {
+            world.setFixedPoint(true);
+            fail();
+        } catch (IllegalStateException e) {
+            assertFalse(world.isFixedPoint());
+        }
+    }
+
+    @Test
+    public void replayPlaysTheBricks() throws IOException {
+        World world = new World(CONFIG.withBallCount(5), 9);
+        world.setLevel(BrickTreeTest.grid(24, 30));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReplayRecorder recorder = new ReplayRecorder(world, Channels.newChannel(out));
+        for (int tick = 0; tick < 3000; tick++) {
+            world.setPlayerX((tick * 37) % 1400 - 160);
+            recorder.record(world.getPlayerX());
+            world.update();
+        }
+        recorder.close();
+        ReplayPlayer player = new ReplayPlayer(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+        assertEquals(3000, player.play());
+        Arena arena = player.getWorld().getArena();
+        assertEquals(24 * 30, arena.getLevel().getCount());
+        assertEquals(world.getArena().getBrokenCount(), arena.getBrokenCount());
+        assertEquals(world.getBalls().getX(0), player.getWorld().getBalls().getX(0), 0);
+    }
+
+    @Test
+    public void bricksAreInTheLayer() {
+        World world = worldToTheBrick();
+        WorldSnapshot snapshot = new WorldSnapshot(1);
+        WorldDrawer drawer = new WorldDrawer(1080, 1920);
+        RecordingRenderer renderer = new RecordingRenderer();
+        snapshot.copy(world, 1, 0);
+        drawer.track(snapshot, 0);
+        drawer.draw(renderer, snapshot, 0);
+        assertEquals(3, renderer.getCalls(Renderer.Style.BRICK));
+        /*Nothing broken, the layer isn't rendered again.*/
+        renderer.reset();
+        world.update();
+        snapshot.copy(world, 2, 0);
+        assertFalse(drawer.track(snapshot, 0).isFull());
+        drawer.draw(renderer, snapshot, 0);
+        assertEquals(0, renderer.getLayerRenders());
+        for (int tick = 3; tick < 8; tick++)
+            world.update();
+        snapshot.copy(world, 8, 0);
+        assertTrue(drawer.track(snapshot, 0).isFull());
+        drawer.draw(renderer, snapshot, 0);
+        assertEquals(1, renderer.getLayerRenders());
+        assertEquals(2, renderer.getCalls(Renderer.Style.BRICK));
+    }
+}
@@ -0,0 +1,100 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of the prediction of the bot against the simulated ball.
+ */
+public class BotAITest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+
+    @Test
+    public void predictionBouncesFromTheSides() {
+        /*The ball bounces between 35 and 1045.*/
+        assertEquals(540, BotAI.predictX(540, 0, 100, 35, WIDTH, 0), 1e-3);
+        assertEquals(640, BotAI.predictX(540, 10, 10, 35, WIDTH, 0), 1e-3);
+        /*The ball is over the edge on the 6th tick, it's turned back for the 4 ticks left.*/
+        assertEquals(985, BotAI.predictX(945, 20, 10, 35, WIDTH, 1), 1e-3);
+        assertEquals(95, BotAI.predictX(135, -20, 10, 35, WIDTH, 1), 1e-3);
+        /*Over the horizon the bot only sees the ball going to the next edge.*/
+        assertEquals(1045, BotAI.predictX(945, 20, 10, 35, WIDTH, 0), 1e-3);
+        assertEquals(35, BotAI.predictX(135, -20, 10, 35, WIDTH, 0), 1e-3);
+        assertEquals(35, BotAI.predictX(135, 20, 100, 35, WIDTH, 1), 1e-3);
+    }
+
+    @Test
+    public void predictionMatchesTheSimulatedBall() {
+        World world = new World(WIDTH, HEIGHT, 10, 0, 1, Difficulty.NIGHTMARE);
+        world.update();
+        BallStore balls = world.getBalls();
+        Rectangle bot = world.getBot();
+        float face = Math.max(bot.getTop(), bot.getBottom());
+        for (int shot = 0; shot < 50; shot++) {
+            /*Shots to the bot with many bounces from the side edges.*/
+            float xSpeed = -30 + shot * 1.2f;
+            float startX = 300 + shot * 10;
+            balls.setState(0, startX, HEIGHT - 300, xSpeed, -10, 0);
+            /*Stop just before the ball touches the bot, he would bounce it.*/
+            int ticks = 0;
+            while (balls.getY(0) - balls.getR(0) + balls.getySpeed(0) > face) {
+                balls.update(world.getPlayer(), bot);
+                ticks++;
+            }
+            float predicted = BotAI.predictX(startX, xSpeed, ticks, balls.getR(0), WIDTH, Integer.MAX_VALUE);
+            assertEquals(predicted, balls.getX(0), 1e-2);
+        }
+    }
+
+    @Test
+    public void predictsOnlyWhenTheBallChangesDirection() {
+        World world = new World(WIDTH, HEIGHT, 10, 10, 1, Difficulty.NIGHTMARE);
+        world.update();
+        BallStore balls = world.getBalls();
+        BotAI ai = world.getBotAI();
+        balls.setState(0, WIDTH * 0.5f, HEIGHT - 300, 0, -10, 0);
+        int plans = ai.getPlans();
+        for (int i = 0; i < 100; i++)
+            world.update();
+        /*The ball went straight for 100 ticks, so one prediction was enough.*/
+        assertEquals(plans + 1, ai.getPlans());
+    }
+
+    @Test
+    public void botWaitsHisReactionTime() {
+        World world = new World(WIDTH, HEIGHT, 10, 10, 1, Difficulty.EASY);
+        world.update();
+        BallStore balls = world.getBalls();
+        Rectangle bot = world.getBot();
+        /*A straight ball far on the left, more than the aim error.*/
+        balls.setState(0, 100, HEIGHT - 300, 0, -10, 0);
+        int centerX = bot.centerX();
+        for (int i = 0; i < Difficulty.EASY.getReactionTicks(); i++) {
+            world.update();
+            assertEquals(centerX, bot.centerX());
+        }
+        world.update();
+        assertEquals(centerX - 10, bot.centerX());
+    }
+
+    @Test
+    public void nightmareBotMissesOnlyVeryFastBalls() {
+        World world = new World(WIDTH, HEIGHT, 10, Difficulty.NIGHTMARE.getBotSpeed(), 1, Difficulty.NIGHTMARE);
+        BallStore balls = world.getBalls();
+        /*The player follows the ball, so only the bot can miss.
+         *The bot which only chased the ball missed it from ~40 bounces.*/
+        int countBounce = 0;
+        int score = 0;
+        for (int i = 0; i < 50000; i++) {
+            world.setPlayerX((int) balls.getX(0));
+            world.update();
+            if (world.getLeftScore() > score)
+                assertTrue("missed at " + countBounce + " bounces", countBounce >= 100);
+            score = world.getLeftScore();
+            countBounce = balls.getCountBounce(0);
+        }
+    }
+}
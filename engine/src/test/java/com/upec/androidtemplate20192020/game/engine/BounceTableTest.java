@@ -0,0 +1,63 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the table of the directions of the balls to StrictMath.
+ */
+public class BounceTableTest {
+
+    /*Max. error of the direction, in degrees.*/
+    private static final double MAX_ANGLE_ERROR = 1e-4;
+
+    @Test
+    public void sinAndCosAreCloseToStrictMath() {
+        double maxSin = 0, maxCos = 0, maxAngle = 0, maxLength = 0;
+        /*Many angles between the steps, and the steps themselves.*/
+        for (int k = -BounceTable.MAX_ANGLE * 1000; k <= BounceTable.MAX_ANGLE * 1000; k++) {
+            float degrees = k / 1000f;
+            double radians = degrees * (Math.PI / 180);
+            float sin = BounceTable.sin(degrees), cos = BounceTable.cos(degrees);
+            maxSin = Math.max(maxSin, Math.abs(sin - StrictMath.sin(radians)));
+            maxCos = Math.max(maxCos, Math.abs(cos - StrictMath.cos(radians)));
+            maxAngle = Math.max(maxAngle, Math.abs(Math.toDegrees(StrictMath.atan2(sin, cos)) - degrees));
+            maxLength = Math.max(maxLength, Math.abs(Math.sqrt(sin * sin + cos * cos) - 1));
+        }
+        assertTrue("sin " + maxSin, maxSin <= BounceTable.MAX_ERROR);
+        assertTrue("cos " + maxCos, maxCos <= BounceTable.MAX_ERROR);
+        assertTrue("angle " + maxAngle, maxAngle <= MAX_ANGLE_ERROR);
+        /*The speed of the ball stays the same, within a float of some dozens of pixels.*/
+        assertTrue("length " + maxLength, maxLength <= 2 * BounceTable.MAX_ERROR);
+    }
+
+    @Test
+    public void anglesOutOfTheTableAreClamped() {
+        assertEquals(BounceTable.sin(BounceTable.MAX_ANGLE), BounceTable.sin(90), 0);
+        assertEquals(BounceTable.cos(-BounceTable.MAX_ANGLE), BounceTable.cos(-1000), 0);
+        assertEquals(StrictMath.sin(Math.PI / 3), BounceTable.sin(BounceTable.MAX_ANGLE), BounceTable.MAX_ERROR);
+        assertEquals(0, BounceTable.sin(0), 0);
+        assertEquals(1, BounceTable.cos(0), 0);
+        /*The table is odd and even as sin and cos, apart from the rounding.*/
+        for (float degrees = 0; degrees <= BounceTable.MAX_ANGLE; degrees += 0.37f) {
+            assertEquals(-BounceTable.sin(degrees), BounceTable.sin(-degrees), BounceTable.MAX_ERROR);
+            assertEquals(BounceTable.cos(degrees), BounceTable.cos(-degrees), BounceTable.MAX_ERROR);
+        }
+    }
+
+    @Test
+    public void tableAndStrictMathPlayCloseGames() {
+        /*The first bounces are almost the same, the games only part after many ticks.*/
+        World table = new World(1080, 1920, 10, 10, 1, Difficulty.HARD, 3);
+        World exact = new World(1080, 1920, 10, 10, 1, Difficulty.HARD, 3);
+        exact.setExactAngles(true);
+        for (int i = 0; i < 120; i++) {
+            table.update();
+            exact.update();
+        }
+        assertEquals(exact.getBalls().getX(0), table.getBalls().getX(0), 0.01);
+        assertEquals(exact.getBalls().getY(0), table.getBalls().getY(0), 0.01);
+        assertEquals(exact.getBalls().getxSpeed(0), table.getBalls().getxSpeed(0), 1e-4);
+    }
+}
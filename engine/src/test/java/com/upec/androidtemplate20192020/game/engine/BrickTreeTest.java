@@ -0,0 +1,190 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of the level files and of the tree of the bricks, compared to a search of every brick.
+ */
+public class BrickTreeTest {
+
+    /**A grid of bricks of 40x20 px with gaps of 4 px, a wall every 7 bricks.*/
+    static Level grid(int columns, int rows) {
+        int count = columns * rows;
+        int[] left = new int[count], top = new int[count], right = new int[count], bottom = new int[count];
+        int[] hits = new int[count];
+        for (int i = 0; i < count; i++) {
+            left[i] = 4 + (i % columns) * 44;
+            top[i] = 4 + (i / columns) * 24;
+            right[i] = left[i] + 40;
+            bottom[i] = top[i] + 20;
+            hits[i] = i % 7 == 0 ? 0 : 1;
+        }
+        return new Level(left, top, right, bottom, hits);
+    }
+
+    /**The first live brick hit, by testing all of them, as BrickTree.sweep.*/
+    private static float bruteForce(Level level, BrickTree tree, float x, float y, float r, float dx, float dy) {
+        float best = Float.POSITIVE_INFINITY;
+        for (int brick = 0; brick < level.getCount(); brick++) {
+            float t = impact(level, tree, brick, x, y, r, dx, dy);
+            if (t != Collisions.NO_HIT)
+                best = Math.min(best, t);
+        }
+        return best;
+    }
+
+    /**When the ball hits a brick, or NO_HIT if it isn't live or the ball leaves it.*/
+    private static float impact(Level level, BrickTree tree, int brick, float x, float y, float r, float dx, float dy) {
+        if (!tree.isAlive(brick))
+            return Collisions.NO_HIT;
+        float t = Collisions.sweepCircleRect(x, y, r, dx, dy,
+                level.getLeft(brick), level.getTop(brick), level.getRight(brick), level.getBottom(brick));
+        if (t == Collisions.NO_HIT)
+            return t;
+        float cx = x + dx * t, cy = y + dy * t;
+        float nx = cx - World.clamp(cx, level.getLeft(brick), level.getRight(brick));
+        float ny = cy - World.clamp(cy, level.getTop(brick), level.getBottom(brick));
+        return nx * dx + ny * dy >= 0 && (nx != 0 || ny != 0) ? Collisions.NO_HIT : t;
+    }
+
+    @Test
+    public void levelIsRead() throws IOException {
+        Level level = Level.read(new StringReader("# two bricks and a wall\n"
+                + "10 20 110 60 1\n"
+                + "\n"
+                + "  120 20 220 60 3  \n"
+                + "0 900 80 960 0\n"));
+        assertEquals(3, level.getCount());
+        assertEquals(2, level.getBreakableCount());
+        assertEquals(120, level.getLeft(1));
+        assertEquals(20, level.getTop(1));
+        assertEquals(220, level.getRight(1));
+        assertEquals(60, level.getBottom(1));
+        assertEquals(3, level.getHits(1));
+        assertEquals(0, level.getHits(2));
+    }
+
+    @Test
+    public void badLevelsAreRejected() {
+        String[] levels = {"10 20 110 60\n", "10 20 110 sixty 1\n", "110 20 10 60 1\n", "10 20 110 60 -1\n",
+                "-10 20 110 60 1\n"};
+        for (String text : levels) {
+            try {
+                Level.read(new StringReader(text));
+                fail("Read: " + text);
+            } catch (IOException e) {
+                assertNotNull(e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void levelIsScaledToTheWorld() {
+        Level level = new Level(new int[]{0, 540}, new int[]{960, 0}, new int[]{1080, 541}, new int[]{1920, 1},
+                new int[]{1, 0});
+        assertSame(level, level.scale(Level.WIDTH, Level.HEIGHT));
+        Level small = level.scale(720, 1280);
+        assertEquals(0, small.getLeft(0));
+        assertEquals(640, small.getTop(0));
+        assertEquals(720, small.getRight(0));
+        assertEquals(1280, small.getBottom(0));
+        assertEquals(1, small.getHits(0));
+        /*A brick of one pixel keeps one pixel.*/
+        assertEquals(360, small.getLeft(1));
+        assertEquals(361, small.getRight(1));
+        assertEquals(1, small.getBottom(1));
+        assertEquals(0, small.getHits(1));
+        assertTrue(small.isInside(720, 1280));
+        assertFalse(level.isInside(720, 1280));
+        assertTrue(level.scale(1440, 3120).isInside(1440, 3120));
+    }
+
+    @Test
+    public void emptyLevelHasNoHit() {
+        BrickTree tree = new BrickTree(new Level(new int[0], new int[0], new int[0], new int[0], new int[0]));
+        assertEquals(-1, tree.sweep(10, 10, 35, 100, 100));
+        assertEquals(0, tree.getLiveCount());
+    }
+
+    @Test
+    public void sweepFindsTheSameBrickAsTheSearchOfAll() {
+        Level level = grid(40, 25);
+        BrickTree tree = new BrickTree(level);
+        GameRandom random = new GameRandom(5);
+        for (int i = 0; i < 20000; i++) {
+            /*A brick is broken from time to time.*/
+            if (i % 40 == 0)
+                tree.remove(random.nextInt(0, level.getCount()));
+            float x = random.nextInt(0, 1800), y = random.nextInt(0, 620);
+            float dx = random.nextInt(-60, 61), dy = random.nextInt(-60, 61);
+            float expected = bruteForce(level, tree, x, y, 35, dx, dy);
+            int brick = tree.sweep(x, y, 35, dx, dy);
+            if (expected == Float.POSITIVE_INFINITY) {
+                assertEquals(-1, brick);
+            } else {
+                /*Two bricks can be hit at the same time, any of them is the first.*/
+                assertTrue(brick >= 0);
+                assertEquals(expected, tree.getImpact(), 0);
+                assertEquals(expected, impact(level, tree, brick, x, y, 35, dx, dy), 0);
+            }
+        }
+    }
+
+    @Test
+    public void removalUpdatesTheCountsOnly() {
+        Level level = grid(100, 100);
+        BrickTree tree = new BrickTree(level);
+        assertEquals(10000, tree.getLiveCount());
+        assertTrue(tree.getNodeCount() < 2 * level.getCount());
+        /*Median splits: the depth is about log2 of the leaves.*/
+        assertTrue("depth " + tree.getDepth(), tree.getDepth() <= 14);
+        for (int i = 0; i < level.getCount(); i += 2)
+            tree.remove(i);
+        tree.remove(0);
+        assertEquals(5000, tree.getLiveCount());
+        assertFalse(tree.isAlive(0));
+        assertTrue(tree.isAlive(1));
+        /*A ball on a removed brick goes through it.*/
+        float x = (level.getLeft(0) + level.getRight(0)) * 0.5f;
+        assertNotEquals(0, tree.sweep(x, level.getTop(0) - 20, 10, 0, 30));
+        tree.reset();
+        assertEquals(10000, tree.getLiveCount());
+        assertEquals(0, tree.sweep(x, level.getTop(0) - 20, 10, 0, 30));
+    }
+
+    @Test
+    public void setAliveGivesTheSameCounts() {
+        Level level = grid(30, 30);
+        BrickTree tree = new BrickTree(level);
+        BrickTree removed = new BrickTree(level);
+        int[] hits = new int[level.getCount()];
+        GameRandom random = new GameRandom(8);
+        for (int i = 0; i < hits.length; i++) {
+            hits[i] = random.nextInt(0, 3) - 1;
+            if (hits[i] == 0)
+                removed.remove(i);
+        }
+        tree.setAlive(hits);
+        assertEquals(removed.getLiveCount(), tree.getLiveCount());
+        for (int i = 0; i < 2000; i++) {
+            float x = random.nextInt(0, 1400), y = random.nextInt(0, 760);
+            float dx = random.nextInt(-60, 61), dy = random.nextInt(-60, 61);
+            assertEquals(removed.sweep(x, y, 35, dx, dy), tree.sweep(x, y, 35, dx, dy));
+        }
+    }
+
+    @Test
+    public void ballLeavingABrickIsNotHit() {
+        Level level = new Level(new int[]{100}, new int[]{100}, new int[]{200}, new int[]{140}, new int[]{1});
+        BrickTree tree = new BrickTree(level);
+        /*It touches the bottom of the brick and goes down.*/
+        assertEquals(-1, tree.sweep(150, 175, 35, 5, 20));
+        assertEquals(0, tree.sweep(150, 175, 35, 5, -20));
+        assertEquals(0, tree.getImpact(), 0);
+    }
+}
@@ -0,0 +1,185 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the dirty rectangles computed from the bounds of the entities, without screen.
+ */
+public class DirtyRegionTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int M = DirtyRegion.MARGIN;
+
+    private static void assertRect(DirtyRegion region, int i, int left, int top, int right, int bottom) {
+        assertEquals(left, region.getLeft(i));
+        assertEquals(top, region.getTop(i));
+        assertEquals(right, region.getRight(i));
+        assertEquals(bottom, region.getBottom(i));
+    }
+
+    @Test
+    public void entityMergesItsPreviousAndCurrentBounds() {
+        DirtyRegion region = new DirtyRegion(WIDTH, HEIGHT);
+        region.begin(1);
+        region.add(0, 100, 100, 130, 130);
+        /*Nothing was drawn before, the first frame is whole.*/
+        assertTrue(region.isFull());
+
+        region.begin(1);
+        region.add(0, 110, 95, 140, 125);
+        assertFalse(region.isFull());
+        assertEquals(1, region.getCount());
+        assertRect(region, 0, 100 - M, 95 - M, 140 + M, 130 + M);
+
+        /*Only the bounds of the last frame are cleaned.*/
+        region.begin(1);
+        region.add(0, 110, 95, 140, 125);
+        assertRect(region, 0, 110 - M, 95 - M, 140 + M, 125 + M);
+    }
+
+    @Test
+    public void farEntitiesGiveSeparateRectangles() {
+        DirtyRegion region = new DirtyRegion(WIDTH, HEIGHT);
+        for (int frame = 0; frame < 2; frame++) {
+            region.begin(2);
+            /*The sides in any order, like the paddles.*/
+            region.add(0, 400, 1820 + frame, 680, 1800 + frame);
+            region.add(1, 500, 500 + frame, 530, 530 + frame);
+        }
+        assertFalse(region.isFull());
+        assertEquals(2, region.getCount());
+        assertRect(region, 0, 400 - M, 1800 - M, 680 + M, 1821 + M);
+        assertRect(region, 1, 500 - M, 500 - M, 530 + M, 531 + M);
+        assertEquals(400 - M, region.getBoundsLeft());
+        assertEquals(500 - M, region.getBoundsTop());
+        assertEquals(680 + M, region.getBoundsRight());
+        assertEquals(1821 + M, region.getBoundsBottom());
+    }
+
+    @Test
+    public void touchingRectanglesAreMergedInChain() {
+        DirtyRegion region = new DirtyRegion(WIDTH, HEIGHT);
+        for (int frame = 0; frame < 2; frame++) {
+            region.begin(3);
+            region.add(0, 100, 100, 120, 120);
+            region.add(1, 200, 100, 220, 120);
+            /*Touches both, so the three are one rectangle.*/
+            region.add(2, 115, 110, 205, 112);
+        }
+        assertEquals(1, region.getCount());
+        assertRect(region, 0, 100 - M, 100 - M, 220 + M, 120 + M);
+    }
+
+    @Test
+    public void boundsAreClampedToTheScreen() {
+        DirtyRegion region = new DirtyRegion(WIDTH, HEIGHT);
+        for (int frame = 0; frame < 2; frame++) {
+            region.begin(1);
+            region.add(0, -10, HEIGHT - 10, 20, HEIGHT + 10);
+        }
+        assertRect(region, 0, 0, HEIGHT - 10 - M, 20 + M, HEIGHT);
+    }
+
+    @Test
+    public void fragmentedRegionIsFull() {
+        DirtyRegion region = new DirtyRegion(WIDTH, HEIGHT);
+        int entities = DirtyRegion.MAX_RECTS + 1;
+        for (int frame = 0; frame < 2; frame++) {
+            region.begin(entities - 1);
+            for (int i = 0; i < entities - 1; i++)
+                region.add(i, 10, 100 * i, 20, 100 * i + 10);
+        }
+        assertFalse(region.isFull());
+        assertEquals(DirtyRegion.MAX_RECTS, region.getCount());
+
+        for (int frame = 0; frame < 2; frame++) {
+            region.begin(entities);
+            for (int i = 0; i < entities; i++)
+                region.add(i, 10, 100 * i, 20, 100 * i + 10);
+        }
+        assertTrue(region.isFull());
+    }
+
+    @Test
+    public void bigRegionIsFull() {
+        DirtyRegion region = new DirtyRegion(WIDTH, HEIGHT);
+        for (int frame = 0; frame < 2; frame++) {
+            region.begin(1);
+            region.add(0, 0, 0, WIDTH, HEIGHT * DirtyRegion.FULL_FRACTION - 2 * M - 1);
+        }
+        assertFalse(region.isFull());
+        region.begin(1);
+        region.add(0, 0, 0, WIDTH, HEIGHT * DirtyRegion.FULL_FRACTION + 1);
+        assertTrue(region.isFull());
+    }
+
+    @Test
+    public void invalidatedOrChangedEntitiesAreFull() {
+        DirtyRegion region = new DirtyRegion(WIDTH, HEIGHT);
+        for (int frame = 0; frame < 2; frame++) {
+            region.begin(2);
+            region.add(0, 10, 10, 20, 20);
+            region.add(1, 50, 50, 60, 60);
+        }
+        assertFalse(region.isFull());
+        region.invalidateAll();
+        assertTrue(region.isFull());
+
+        /*An entity removed must be cleaned.*/
+        region.begin(1);
+        region.add(0, 10, 10, 20, 20);
+        assertTrue(region.isFull());
+        region.begin(1);
+        region.add(0, 10, 10, 20, 20);
+        assertFalse(region.isFull());
+
+        region.reset();
+        region.begin(1);
+        region.add(0, 10, 10, 20, 20);
+        assertTrue(region.isFull());
+    }
+
+    /*Every pixel of an entity on the previous or the current frame is in the region, out of the screen isn't drawn.*/
+    private static void assertCovers(DirtyRegion region, float left, float top, float right, float bottom) {
+        left = Math.max(0, left);
+        top = Math.max(0, top);
+        right = Math.min(WIDTH, right);
+        bottom = Math.min(HEIGHT, bottom);
+        for (int i = 0; i < region.getCount(); i++) {
+            if (region.getLeft(i) <= Math.floor(left) && Math.ceil(right) <= region.getRight(i)
+                    && region.getTop(i) <= Math.floor(top) && Math.ceil(bottom) <= region.getBottom(i))
+                return;
+        }
+        fail("[" + left + ", " + top + ", " + right + ", " + bottom + "] isn't in the region");
+    }
+
+    @Test
+    public void regionOfTheGameCoversTheMovingObjects() {
+        World world = new World(WIDTH, HEIGHT, 10, 10, 1, Difficulty.MEDIUM, 4);
+        WorldSnapshot snapshot = new WorldSnapshot(1);
+        WorldDrawer drawer = new WorldDrawer(WIDTH, HEIGHT);
+        float[] previous = null;
+        int partial = 0;
+        for (int tick = 1; tick <= 5000; tick++) {
+            world.update();
+            snapshot.copy(world, tick, 0);
+            DirtyRegion region = drawer.track(snapshot, 0.5f);
+            float x = snapshot.getPrevX(0) + (snapshot.getX(0) - snapshot.getPrevX(0)) * 0.5f;
+            float y = snapshot.getPrevY(0) + (snapshot.getY(0) - snapshot.getPrevY(0)) * 0.5f;
+            float r = snapshot.getR(0);
+            if (!region.isFull()) {
+                partial++;
+                assertCovers(region, x - r, y - r, x + r, y + r);
+                assertCovers(region, previous[0], previous[1], previous[2], previous[3]);
+                assertCovers(region, snapshot.getBotLeft(), Math.min(snapshot.getBotTop(), snapshot.getBotBottom()),
+                        snapshot.getBotRight(), Math.max(snapshot.getBotTop(), snapshot.getBotBottom()));
+            }
+            previous = new float[]{x - r, y - r, x + r, y + r};
+        }
+        /*The whole frame is drawn only when a score changes.*/
+        assertTrue(partial > 4500);
+    }
+}
@@ -0,0 +1,182 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import static org.junit.Assert.*;
+
+/**
+ * Golden traces of the fixed-point physics: the hash of every tick of some games,
+ * computed once. The physics uses only integer operations, so any java on any
+ * processor must give these bits; a change of the physics changes them.
+ */
+public class FixedPointTest {
+
+    private static final GameConfig CONFIG = GameConfig.DEFAULT.withScreen(1080, 1920);
+
+    /*Hash of the ticks, left and right score, left and right wins, every 6000 ticks of a game against the bot.*/
+    private static final long[][] BOT_GAME = {
+            {0xF8127B9D1FC92B7AL, 0, 0, 0, 2},
+            {0x888B236D5F4D3432L, 0, 1, 0, 4},
+            {0xDF791B3BAE8FD60DL, 0, 4, 0, 6},
+            {0x5E65E96C53E5BA3CL, 0, 0, 0, 9},
+            {0x0CD53B35D5F0B275L, 0, 1, 0, 11},
+            {0x457AC03679F58E4BL, 0, 3, 0, 13},
+    };
+
+    /*The same every 600 ticks of the party mode, 200 balls which collide.*/
+    private static final long[][] PARTY_GAME = {
+            {0xCE18222BF2065CA5L, 1, 0, 37, 6},
+            {0x988877D4BFECC432L, 1, 1, 76, 11},
+            {0x706303E70A96A6FFL, 3, 1, 109, 17},
+            {0x0516FC66E192C838L, 3, 2, 148, 18},
+            {0x694B41B4026A61B9L, 1, 1, 185, 22},
+            {0x54C0D4C90E349741L, 1, 1, 222, 26},
+    };
+
+    /*The player moves on the whole screen and further, to hit the balls in every way.*/
+    private static int input(int tick) {
+        return (tick * 37) % 1400 - 160;
+    }
+
+    private static void assertGoldenTrace(World world, long[][] golden, int every) {
+        world.setFixedPoint(true);
+        StateHasher hasher = new StateHasher(world.getBalls().getCount());
+        for (int tick = 1; tick <= golden.length * every; tick++) {
+            world.setPlayerX(input(tick - 1));
+            hasher.update(world);
+            world.update();
+            if (tick % every == 0) {
+                long[] expected = golden[tick / every - 1];
+                String at = "tick " + tick;
+                assertEquals(at, expected[0], hasher.getHash());
+                assertEquals(at, expected[1], world.getLeftScore());
+                assertEquals(at, expected[2], world.getRightScore());
+                assertEquals(at, expected[3], world.getLeftWins());
+                assertEquals(at, expected[4], world.getRightWins());
+            }
+        }
+    }
+
+    @Test
+    public void gameAgainstTheBotFollowsTheGoldenTrace() {
+        assertGoldenTrace(new World(CONFIG, 1972), BOT_GAME, 6000);
+    }
+
+    @Test
+    public void partyFollowsTheGoldenTrace() {
+        World world = new World(CONFIG.withBallCount(200), 7);
+        world.setBallCollisions(true);
+        assertGoldenTrace(world, PARTY_GAME, 600);
+    }
+
+    @Test
+    public void fixedPointIsCloseToTheFloats() {
+        /*The serve and the bounces have the same angles, the balls part only by the rounding.*/
+        World floats = new World(CONFIG, 1972);
+        World fixed = new World(CONFIG, 1972);
+        fixed.setFixedPoint(true);
+        for (int tick = 0; tick < 240; tick++) {
+            floats.setPlayerX(input(tick));
+            fixed.setPlayerX(input(tick));
+            floats.update();
+            fixed.update();
+            assertEquals(floats.getBalls().getX(0), fixed.getBalls().getX(0), 0.5);
+            assertEquals(floats.getBalls().getY(0), fixed.getBalls().getY(0), 0.5);
+        }
+        assertTrue(fixed.getBalls().getCountBounce(0) > 0);
+    }
+
+    @Test
+    public void operationsAreExact() {
+        GameRandom random = new GameRandom(3);
+        for (int i = 0; i < 100000; i++) {
+            int a = random.nextInt(-FixedPoint.fromInt(2000), FixedPoint.fromInt(2000));
+            int b = random.nextInt(FixedPoint.ONE / 4, FixedPoint.fromInt(10));
+            assertEquals(Math.floor((double) a * b / FixedPoint.ONE), FixedPoint.mul(a, b), 0);
+            assertEquals((long) ((double) a * FixedPoint.ONE / b), FixedPoint.div(a, b));
+            long square = (long) a * a + (long) b * b;
+            long root = FixedPoint.sqrt(square);
+            assertTrue(root * root <= square && (root + 1) * (root + 1) > square);
+        }
+        assertEquals(FixedPoint.fromInt(3), FixedPoint.sqrt((long) FixedPoint.fromInt(9) << FixedPoint.SHIFT));
+        assertEquals(1.5f, FixedPoint.toFloat(FixedPoint.fromFloat(1.5f)), 0);
+    }
+
+    @Test
+    public void tableInFixedPointIsCloseToTheFloats() {
+        for (int k = -BounceTable.MAX_ANGLE * 100; k <= BounceTable.MAX_ANGLE * 100; k++) {
+            float degrees = k / 100f;
+            int fixed = FixedPoint.fromFloat(degrees);
+            assertEquals(BounceTable.sin(degrees), FixedPoint.toFloat(BounceTable.sinFixed(fixed)), 3f / FixedPoint.ONE);
+            assertEquals(BounceTable.cos(degrees), FixedPoint.toFloat(BounceTable.cosFixed(fixed)), 3f / FixedPoint.ONE);
+        }
+    }
+
+    @Test
+    public void sweepIsTheSameAsTheFloats() {
+        GameRandom random = new GameRandom(11);
+        for (int i = 0; i < 10000; i++) {
+            int x = random.nextInt(0, 1080), y = random.nextInt(1700, 1900);
+            int dx = random.nextInt(-60, 60), dy = random.nextInt(-60, 60);
+            float impact = Collisions.sweepCircleRect(x, y, 35, dx, dy, 400, 1850, 600, 1790);
+            int fixed = Collisions.sweepCircleRectFixed(FixedPoint.fromInt(x), FixedPoint.fromInt(y),
+                    FixedPoint.fromInt(35), FixedPoint.fromInt(dx), FixedPoint.fromInt(dy),
+                    FixedPoint.fromInt(400), FixedPoint.fromInt(1850), FixedPoint.fromInt(600), FixedPoint.fromInt(1790));
+            if (impact == Collisions.NO_HIT)
+                assertEquals(Collisions.NO_HIT_FIXED, fixed);
+            else
+                assertEquals(impact, FixedPoint.toFloat(fixed), 1e-4);
+        }
+    }
+
+    @Test
+    public void restoredStatePlaysTheSameTicks() {
+        World world = new World(CONFIG.withBallCount(20), 4);
+        world.setFixedPoint(true);
+        world.setBallCollisions(true);
+        for (int tick = 0; tick < 1000; tick++)
+            world.update();
+        WorldState state = new WorldState(20), after = new WorldState(20), again = new WorldState(20);
+        world.save(state);
+        for (int tick = 0; tick < 1000; tick++)
+            world.update();
+        world.save(after);
+        world.restore(state);
+        for (int tick = 0; tick < 1000; tick++)
+            world.update();
+        world.save(again);
+        assertEquals(after, again);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stateOfTheFloatsIsRejected() {
+        WorldState state = new WorldState(1);
+        new World(CONFIG, 1).save(state);
+        World fixed = new World(CONFIG, 1);
+        fixed.setFixedPoint(true);
+        fixed.restore(state);
+    }
+
+    @Test
+    public void replayPlaysTheFixedPoint() throws IOException {
+        World world = new World(CONFIG, 9);
+        world.setFixedPoint(true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReplayRecorder recorder = new ReplayRecorder(world, Channels.newChannel(out));
+        for (int tick = 0; tick < 3000; tick++) {
+            world.setPlayerX(input(tick));
+            recorder.record(world.getPlayerX());
+            world.update();
+        }
+        recorder.close();
+        ReplayPlayer player = new ReplayPlayer(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+        assertEquals(3000, player.play());
+        assertTrue(player.getWorld().isFixedPoint());
+        assertEquals(world.getBalls().getX(0), player.getWorld().getBalls().getX(0), 0);
+    }
+}
@@ -0,0 +1,88 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Headless tests of the fixed timestep loop: the simulation must end in the
+ * same state whatever the render rate is.
+ */
+public class FixedStepLoopTest {
+
+    private static final int TICKS_PER_SECOND = 120;
+    private static final int TICKS = 10000;
+
+    /** A ball bouncing between two walls, integrated once per tick. */
+    private static class BouncingBall implements FixedStepLoop.Simulation {
+        float x = 17, y = 3, xSpeed = 7.3f, ySpeed = -4.1f;
+        int steps;
+
+        @Override
+        public void step() {
+            if (x < 0 || x > 1080) xSpeed = -xSpeed;
+            if (y < 0 || y > 1920) ySpeed = -ySpeed;
+            x += xSpeed;
+            y += ySpeed;
+            steps++;
+        }
+    }
+
+    /** Run TICKS ticks feeding frames of the given durations in a loop. */
+    private static BouncingBall run(long[] frameNanos) {
+        FixedStepLoop loop = new FixedStepLoop(TICKS_PER_SECOND);
+        BouncingBall ball = new BouncingBall();
+        long remaining = TICKS * loop.getStepNanos();
+        for (int i = 0; remaining > 0; i++) {
+            long frame = Math.min(frameNanos[i % frameNanos.length], remaining);
+            loop.advance(frame, ball);
+            remaining -= frame;
+            float alpha = loop.alpha();
+            assertTrue(alpha >= 0 && alpha < 1);
+        }
+        assertEquals(TICKS, loop.getTicks());
+        return ball;
+    }
+
+    private static long[] rate(int fps) {
+        return new long[]{1000000000L / fps};
+    }
+
+    @Test
+    public void sameStateAtAnyRenderRate() {
+        BouncingBall expected = run(rate(TICKS_PER_SECOND));
+        assertEquals(TICKS, expected.steps);
+
+        Random random = new Random(42);
+        long[] jittery = new long[997];
+        for (int i = 0; i < jittery.length; i++)
+            jittery[i] = 1000000L + random.nextInt(60000000);
+
+        long[][] renders = {rate(24), rate(30), rate(60), rate(90), rate(144), rate(1000), jittery};
+        for (long[] render : renders) {
+            BouncingBall actual = run(render);
+            assertEquals(expected.steps, actual.steps);
+            assertEquals(Float.floatToIntBits(expected.x), Float.floatToIntBits(actual.x));
+            assertEquals(Float.floatToIntBits(expected.y), Float.floatToIntBits(actual.y));
+        }
+    }
+
+    @Test
+    public void longFrameIsClamped() {
+        FixedStepLoop loop = new FixedStepLoop(TICKS_PER_SECOND);
+        BouncingBall ball = new BouncingBall();
+        int steps = loop.advance(10000000000L, ball);
+        assertEquals(FixedStepLoop.MAX_FRAME_NANOS / loop.getStepNanos(), steps);
+    }
+
+    @Test
+    public void negativeFrameIsIgnored() {
+        FixedStepLoop loop = new FixedStepLoop(TICKS_PER_SECOND);
+        BouncingBall ball = new BouncingBall();
+        assertEquals(0, loop.advance(-5000000L, ball));
+        assertEquals(0, ball.steps);
+        assertEquals(0, loop.alpha(), 0);
+    }
+}
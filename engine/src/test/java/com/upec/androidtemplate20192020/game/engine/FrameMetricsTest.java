@@ -0,0 +1,103 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of the histograms of the frame timing against the exact percentiles.
+ */
+public class FrameMetricsTest {
+
+    private static final long FRAME_NANOS = 1000000000L / 60;
+
+    @Test
+    public void percentilesAreWithinThePrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(1);
+        long[] values = new long[100000];
+        for (int i = 0; i < values.length; i++) {
+            /*Mostly ~16 ms with a long tail, like the frames.*/
+            values[i] = (long) (FRAME_NANOS * Math.exp(random.nextGaussian() * 0.3));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double percentile : new double[] {50, 95, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long measured = histogram.percentile(percentile);
+            assertTrue("p" + percentile + " " + measured + " < " + exact, measured >= exact);
+            assertEquals("p" + percentile, exact, measured, exact / 32.0);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(values[values.length - 1], histogram.percentile(100));
+        assertEquals(values.length, histogram.getCount());
+    }
+
+    @Test
+    public void smallAndHugeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(99));
+        histogram.record(-5);
+        histogram.record(3);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.percentile(10));
+        assertEquals(3, histogram.percentile(50));
+        assertEquals(Long.MAX_VALUE, histogram.percentile(100));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    public void jankIsAFrameWhichMissedTheScreen() {
+        FrameMetrics metrics = new FrameMetrics(FRAME_NANOS);
+        metrics.record(FrameMetrics.Stage.FRAME, FRAME_NANOS);
+        metrics.record(FrameMetrics.Stage.FRAME, FRAME_NANOS + 1000000);
+        metrics.record(FrameMetrics.Stage.FRAME, FRAME_NANOS * 2);
+        metrics.record(FrameMetrics.Stage.DRAW, FRAME_NANOS * 3);
+        assertEquals(1, metrics.getJankCount());
+        assertEquals(3, metrics.getHistogram(FrameMetrics.Stage.FRAME).getCount());
+        assertEquals(1, metrics.getHistogram(FrameMetrics.Stage.DRAW).getCount());
+    }
+
+    @Test
+    public void averageFpsOfVeryShortFrames() {
+        FrameMetrics metrics = new FrameMetrics(FRAME_NANOS);
+        assertEquals(0, metrics.getAverageFps(), 0);
+        /*The old integer average divided by zero below 1 ms.*/
+        for (int i = 0; i < 60; i++)
+            metrics.record(FrameMetrics.Stage.FRAME, 500000);
+        assertEquals(2000, metrics.getAverageFps(), 1e-6);
+        metrics.reset();
+        assertEquals(0, metrics.getAverageFps(), 0);
+    }
+
+    @Test
+    public void stableAfterFramesInARowWithoutJank() {
+        FrameMetrics metrics = new FrameMetrics(FRAME_NANOS);
+        /*The first frames of a cold start are long.*/
+        for (int i = 0; i < FrameMetrics.STABLE_FRAMES - 1; i++)
+            metrics.record(FrameMetrics.Stage.FRAME, FRAME_NANOS);
+        metrics.record(FrameMetrics.Stage.FRAME, 3 * FRAME_NANOS);
+        metrics.record(FrameMetrics.Stage.DRAW, 3 * FRAME_NANOS);
+        for (int i = 0; i < FrameMetrics.STABLE_FRAMES - 1; i++)
+            metrics.record(FrameMetrics.Stage.FRAME, FRAME_NANOS);
+        assertEquals(0, metrics.getStableNanos());
+
+        long before = System.nanoTime();
+        metrics.record(FrameMetrics.Stage.FRAME, FRAME_NANOS);
+        long stable = metrics.getStableNanos();
+        assertTrue(stable >= before);
+
+        /*Only the first stable frame is kept.*/
+        metrics.record(FrameMetrics.Stage.FRAME, 3 * FRAME_NANOS);
+        for (int i = 0; i < 2 * FrameMetrics.STABLE_FRAMES; i++)
+            metrics.record(FrameMetrics.Stage.FRAME, FRAME_NANOS);
+        assertEquals(stable, metrics.getStableNanos());
+        metrics.reset();
+        assertEquals(0, metrics.getStableNanos());
+    }
+}
@@ -0,0 +1,87 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Measures the pacing of the timer frame scheduler on the JVM.
+ */
+public class FrameSchedulerTest {
+
+    private static final int FRAMES = 120;
+
+    @Test
+    public void deadlinesDoNotDrift() throws InterruptedException {
+        ParkingFrameScheduler scheduler = new ParkingFrameScheduler(120);
+        long first = scheduler.awaitFrame();
+        long previous = first;
+        for (int i = 0; i < FRAMES; i++) {
+            long deadline = scheduler.awaitFrame();
+            assertEquals(scheduler.getFrameNanos(), deadline - previous);
+            previous = deadline;
+        }
+        /*The deadlines are fixed, so 120 frames at 120 Hz are 1 s whatever the wake ups were.*/
+        assertEquals(FRAMES * scheduler.getFrameNanos(), previous - first);
+        assertTrue(System.nanoTime() >= previous);
+    }
+
+    @Test
+    public void jitterOfTheWakeUps() throws InterruptedException {
+        ParkingFrameScheduler scheduler = new ParkingFrameScheduler(120);
+        LatencyHistogram jitter = new LatencyHistogram();
+        scheduler.awaitFrame();
+        for (int i = 0; i < FRAMES; i++) {
+            long deadline = scheduler.awaitFrame();
+            long late = System.nanoTime() - deadline;
+            assertTrue("woke up before the deadline", late >= 0);
+            jitter.record(late);
+        }
+        /*The spin tail wakes up within microseconds, a sleep in ms is late by ~0.1-1 ms.
+         *Only the median is checked, the tail depends on the load of the machine.*/
+        String report = "jitter p50 " + jitter.percentile(50) + " p99 " + jitter.percentile(99)
+                + " max " + jitter.getMax() + " ns";
+        assertTrue(report, jitter.percentile(50) < 200000);
+    }
+
+    @Test
+    public void longFrameDoesNotMakeABurst() throws InterruptedException {
+        ParkingFrameScheduler scheduler = new ParkingFrameScheduler(120);
+        scheduler.awaitFrame();
+        /*A frame of ~6 periods, the next frame starts now and not 6 frames behind.*/
+        Thread.sleep(50);
+        long deadline = scheduler.awaitFrame();
+        long next = scheduler.awaitFrame();
+        assertTrue(System.nanoTime() - deadline < 50000000L);
+        assertEquals(scheduler.getFrameNanos(), next - deadline);
+    }
+
+    @Test
+    public void stoppedSchedulerDoesNotWait() throws InterruptedException {
+        ParkingFrameScheduler scheduler = new ParkingFrameScheduler(1);
+        scheduler.awaitFrame();
+        scheduler.stop();
+        long start = System.nanoTime();
+        scheduler.awaitFrame();
+        assertTrue(System.nanoTime() - start < 500000000L);
+    }
+
+    @Test
+    public void resumedSchedulerPacesAgain() throws InterruptedException {
+        ParkingFrameScheduler scheduler = new ParkingFrameScheduler(100);
+        scheduler.awaitFrame();
+        scheduler.stop();
+        scheduler.awaitFrame();
+        scheduler.resume();
+        /*The first frame after the pause starts at once, the next one a period later.*/
+        long first = scheduler.awaitFrame();
+        assertTrue(System.nanoTime() - first < scheduler.getFrameNanos());
+        long next = scheduler.awaitFrame();
+        assertEquals(scheduler.getFrameNanos(), next - first);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rateIsPositive() {
+        new ParkingFrameScheduler(0);
+    }
+}
@@ -0,0 +1,93 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of the touch queue between the UI thread and the game thread.
+ */
+public class InputRingTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityIsAPowerOfTwo() {
+        new InputRing(100);
+    }
+
+    @Test
+    public void drainReturnsTheLastTouch() {
+        InputRing ring = new InputRing(8);
+        assertEquals(7, ring.drain(7));
+        ring.offer(10, 1);
+        ring.offer(20, 2);
+        ring.offer(30, 3);
+        assertEquals(30, ring.drain(0));
+        assertEquals(30, ring.drain(30));
+    }
+
+    @Test
+    public void drainUntilKeepsTheLaterTouches() {
+        InputRing ring = new InputRing(8);
+        ring.offer(10, 100);
+        ring.offer(20, 200);
+        ring.offer(30, 300);
+        /*Two ticks in one frame get each the touch of their own time.*/
+        assertEquals(0, ring.drainUntil(50, 0));
+        assertEquals(20, ring.drainUntil(250, 0));
+        assertEquals(30, ring.drainUntil(350, 20));
+    }
+
+    @Test
+    public void sameTouchIsCoalesced() {
+        InputRing ring = new InputRing(2);
+        assertTrue(ring.offer(10, 1));
+        assertTrue(ring.offer(10, 2));
+        assertTrue(ring.offer(11, 3));
+        assertEquals(0, ring.getDropped());
+    }
+
+    @Test
+    public void fullRingDropsTheTouch() {
+        InputRing ring = new InputRing(2);
+        assertTrue(ring.offer(1, 1));
+        assertTrue(ring.offer(2, 2));
+        assertFalse(ring.offer(3, 3));
+        assertEquals(1, ring.getDropped());
+        assertEquals(2, ring.drain(0));
+        /*The slots are free again.*/
+        assertTrue(ring.offer(4, 4));
+        assertEquals(4, ring.drain(0));
+    }
+
+    @Test
+    public void touchesCrossTheThreadsInOrder() throws InterruptedException {
+        final int touches = 500000;
+        final InputRing ring = new InputRing(64);
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int x = 1; x <= touches; x++) {
+                    /*The x and the time go together, a torn touch would break it.*/
+                    while (!ring.offer(x, x * 3L))
+                        Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        int last = 0;
+        long time = 0;
+        while (last < touches) {
+            time += 3 * 1000;
+            int x = ring.drainUntil(time, last);
+            assertTrue(x >= last);
+            assertTrue("touch after its time", x * 3L <= time);
+            /*Like the game thread between two ticks, let the producer run.*/
+            if (x == last)
+                Thread.yield();
+            last = x;
+        }
+        producer.join();
+        assertEquals(touches, last);
+        assertEquals(last, ring.drain(last));
+    }
+}
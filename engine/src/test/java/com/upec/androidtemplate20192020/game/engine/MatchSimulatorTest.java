@@ -0,0 +1,87 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of the batch simulator of the matches between the bot and a player.
+ */
+public class MatchSimulatorTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+
+    private static final MatchSimulator.Setting EASY_VS_FOLLOWER =
+            new MatchSimulator.Setting(Difficulty.EASY, 5, null, 15, 10);
+
+    @Test
+    public void sameSeedsGiveTheSameStatsOnAnyNumberOfThreads() {
+        ForkJoinPool one = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        try {
+            /*More than one batch, so the matches are split between the threads.*/
+            MatchStats sequential = new MatchSimulator(WIDTH, HEIGHT, one).simulate(EASY_VS_FOLLOWER, 300, 1);
+            MatchStats parallel = new MatchSimulator(WIDTH, HEIGHT, four).simulate(EASY_VS_FOLLOWER, 300, 1);
+            assertEquals(sequential.getBotWins(), parallel.getBotWins());
+            assertEquals(sequential.getPlayerWins(), parallel.getPlayerWins());
+            assertEquals(sequential.getPoints(), parallel.getPoints());
+            assertEquals(sequential.getTicks(), parallel.getTicks());
+            for (int i = 0; i < MatchStats.BOUNCE_BUCKETS; i++)
+                assertEquals(sequential.getBounceCount(i), parallel.getBounceCount(i));
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+    }
+
+    @Test
+    public void statsAddUp() {
+        MatchStats stats = new MatchSimulator(WIDTH, HEIGHT).simulate(EASY_VS_FOLLOWER, 100, 7);
+        assertEquals(100, stats.getMatches());
+        assertEquals(stats.getMatches(), stats.getBotWins() + stats.getPlayerWins() + stats.getDraws());
+        /*A won match has at least WINNING_SCORE points.*/
+        assertTrue(stats.getPoints() >= World.WINNING_SCORE * (stats.getBotWins() + stats.getPlayerWins()));
+        long points = 0;
+        long bounces = 0;
+        for (int i = 0; i < MatchStats.BOUNCE_BUCKETS; i++) {
+            points += stats.getBounceCount(i);
+            bounces += i * stats.getBounceCount(i);
+        }
+        assertEquals(stats.getPoints(), points);
+        assertEquals(stats.getAverageRally(), (double) bounces / points, 1e-9);
+        assertTrue(stats.bouncePercentile(50) <= stats.bouncePercentile(99));
+    }
+
+    @Test
+    public void matchEndsWithTheGame() {
+        MatchSimulator simulator = new MatchSimulator(WIDTH, HEIGHT);
+        MatchStats stats = new MatchStats();
+        simulator.play(EASY_VS_FOLLOWER, 3, stats);
+        assertEquals(1, stats.getMatches());
+        assertTrue(stats.getTicks() <= MatchSimulator.MAX_MATCH_TICKS);
+        if (stats.getDraws() == 0)
+            assertTrue(stats.getPoints() >= World.WINNING_SCORE && stats.getPoints() < 2 * World.WINNING_SCORE);
+    }
+
+    @Test
+    public void sameBotsOnBothSidesWinAsOften() {
+        /*The bot on the player's rectangle plays as the bot: the stats are symmetric.*/
+        MatchStats stats = new MatchSimulator(WIDTH, HEIGHT).simulate(
+                new MatchSimulator.Setting(Difficulty.EASY, 5, Difficulty.EASY, 5, 10), 200, 1);
+        assertEquals(stats.getBotWinRate(), stats.getPlayerWinRate(), 0.15);
+        assertTrue(stats.getBotWins() > 0);
+        assertTrue(stats.getPlayerWins() > 0);
+    }
+
+    @Test
+    public void harderBotWinsMore() {
+        MatchSimulator simulator = new MatchSimulator(WIDTH, HEIGHT);
+        MatchStats easy = simulator.simulate(new MatchSimulator.Setting(Difficulty.EASY, 5, null, 15, 10), 100, 1);
+        MatchStats medium = simulator.simulate(new MatchSimulator.Setting(Difficulty.MEDIUM, 10, null, 15, 10), 100, 1);
+        assertTrue(medium.getBotWinRate() > easy.getBotWinRate());
+        assertTrue(medium.getAverageRally() > easy.getAverageRally());
+    }
+}
@@ -0,0 +1,187 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pauses and resumes the worker of a game loop many times, like a game put in
+ * background and rotated, checking that it never hangs, leaks or allocates.
+ */
+public class PausableThreadTest {
+
+    /** A loop at 1000 frames by second, paced like the game threads. */
+    private static final class Worker extends PausableThread {
+        final FrameScheduler scheduler = new ParkingFrameScheduler(1000, 0);
+        volatile int steps, resumes, shutdowns;
+        volatile boolean inStep;
+        volatile long resumeNanos;
+
+        Worker() {
+            super("worker");
+        }
+
+        @Override
+        protected void onResume() {
+            scheduler.resume();
+            resumes++;
+        }
+
+        @Override
+        protected void wake() {
+            scheduler.stop();
+        }
+
+        @Override
+        protected void step() throws InterruptedException {
+            if (steps == 0 || resumeNanos == 0)
+                resumeNanos = System.nanoTime();
+            inStep = true;
+            scheduler.awaitFrame();
+            steps++;
+            inStep = false;
+        }
+
+        @Override
+        protected void onShutdown() {
+            scheduler.release();
+            shutdowns++;
+        }
+    }
+
+    private static int workers() {
+        int workers = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet())
+            if (thread.getName().equals("worker"))
+                workers++;
+        return workers;
+    }
+
+    private static void awaitStep(Worker worker) {
+        int steps = worker.steps;
+        while (worker.steps == steps)
+            Thread.yield();
+    }
+
+    @Test(timeout = 10000)
+    public void pausedWorkerDoesNotStep() throws InterruptedException {
+        Worker worker = new Worker();
+        worker.start();
+        Thread.sleep(20);
+        assertEquals(0, worker.steps);
+        assertTrue(worker.isPaused());
+
+        worker.resumeLoop();
+        awaitStep(worker);
+        assertFalse(worker.isPaused());
+        worker.pauseLoop();
+        int steps = worker.steps;
+        Thread.sleep(50);
+        assertEquals(steps, worker.steps);
+        assertEquals(1, worker.resumes);
+
+        worker.shutdown();
+        assertFalse(worker.isAlive());
+        assertEquals(1, worker.shutdowns);
+    }
+
+    @Test(timeout = 60000)
+    public void repeatedPauseAndResumeDoNotHangOrLeak() throws InterruptedException {
+        Worker worker = new Worker();
+        worker.start();
+        int cycles = 2000;
+        for (int i = 0; i < cycles; i++) {
+            worker.resumeLoop();
+            /*Resumed twice, like a surface created while the game runs.*/
+            worker.resumeLoop();
+            awaitStep(worker);
+            worker.pauseLoop();
+            /*No step runs once the pause returned.*/
+            assertFalse(worker.inStep);
+            worker.pauseLoop();
+        }
+        assertEquals(cycles, worker.resumes);
+        /*Only the one worker, never a new thread.*/
+        assertEquals(1, workers());
+        worker.shutdown();
+        assertFalse(worker.isAlive());
+        assertEquals(1, worker.shutdowns);
+        assertEquals(0, workers());
+    }
+
+    @Test(timeout = 60000)
+    public void pauseAndResumeDoNotAllocate() throws InterruptedException {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(sunBean.isThreadAllocatedMemorySupported());
+        sunBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+        Worker worker = new Worker();
+        worker.start();
+        for (int i = 0; i < 2000; i++) {
+            worker.resumeLoop();
+            awaitStep(worker);
+            worker.pauseLoop();
+        }
+        long overhead = sunBean.getThreadAllocatedBytes(threadId);
+        overhead = sunBean.getThreadAllocatedBytes(threadId) - overhead;
+        long before = sunBean.getThreadAllocatedBytes(threadId);
+        long workerBefore = sunBean.getThreadAllocatedBytes(worker.getId());
+        for (int i = 0; i < 1000; i++) {
+            worker.resumeLoop();
+            awaitStep(worker);
+            worker.pauseLoop();
+        }
+        long workerAllocated = sunBean.getThreadAllocatedBytes(worker.getId()) - workerBefore;
+        long allocated = sunBean.getThreadAllocatedBytes(threadId) - before - overhead;
+        worker.shutdown();
+        assertEquals(0, allocated);
+        /*The count of another thread is approximate and the JVM can allocate once on it
+         *(a deoptimization), but an allocation by pause would be at least 16 bytes each time.*/
+        assertTrue("worker allocated " + workerAllocated, workerAllocated < 1000);
+    }
+
+    @Test(timeout = 60000)
+    public void resumeTakesLessThanAFrame() throws InterruptedException {
+        Worker worker = new Worker();
+        worker.start();
+        long[] latencies = new long[200];
+        for (int i = 0; i < latencies.length; i++) {
+            worker.resumeNanos = 0;
+            long start = System.nanoTime();
+            worker.resumeLoop();
+            awaitStep(worker);
+            latencies[i] = worker.resumeNanos - start;
+            worker.pauseLoop();
+        }
+        worker.shutdown();
+        Arrays.sort(latencies);
+        /*A frame at 60 FPS.*/
+        assertTrue("p50 " + latencies[latencies.length / 2], latencies[latencies.length / 2] < 16666666L);
+        assertTrue("p90 " + latencies[latencies.length * 9 / 10], latencies[latencies.length * 9 / 10] < 16666666L);
+    }
+
+    @Test(timeout = 10000)
+    public void shutdownEndsARunningOrANeverStartedWorker() throws InterruptedException {
+        Worker running = new Worker();
+        running.start();
+        running.resumeLoop();
+        awaitStep(running);
+        running.shutdown();
+        assertFalse(running.isAlive());
+        assertEquals(1, running.shutdowns);
+        /*A pause after the end doesn't wait.*/
+        running.pauseLoop();
+        running.resumeLoop();
+        assertFalse(running.isAlive());
+
+        Worker notStarted = new Worker();
+        notStarted.shutdown();
+        assertEquals(0, notStarted.steps);
+    }
+}
@@ -0,0 +1,266 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of the seeded game and of the replays recorded and played again.
+ */
+public class ReplayTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+
+    /**10 minutes of ticks at 60 ticks per second.*/
+    private static final int TEN_MINUTES = 10 * 60 * 60;
+
+    /**Record a game in which the player moves to the ball every few ticks, like a finger.*/
+    private static byte[] record(World world, int ticks, int moveEvery) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReplayRecorder recorder = new ReplayRecorder(world, Channels.newChannel(out));
+        for (int i = 0; i < ticks; i++) {
+            if (moveEvery > 0 && i % moveEvery == 0)
+                world.setPlayerX((int) world.getBalls().getX(0));
+            recorder.record(world.getPlayerX());
+            world.update();
+        }
+        recorder.close();
+        return out.toByteArray();
+    }
+
+    private static ReplayPlayer play(byte[] replay) throws IOException {
+        ReplayPlayer player = new ReplayPlayer(Channels.newChannel(new ByteArrayInputStream(replay)));
+        player.play();
+        return player;
+    }
+
+    private static void assertSameGame(World expected, World actual) {
+        assertEquals(expected.getLeftScore(), actual.getLeftScore());
+        assertEquals(expected.getRightScore(), actual.getRightScore());
+        assertEquals(expected.getPlayer().centerX(), actual.getPlayer().centerX());
+        assertEquals(expected.getBot().centerX(), actual.getBot().centerX());
+        BallStore a = expected.getBalls();
+        BallStore b = actual.getBalls();
+        assertEquals(a.getCount(), b.getCount());
+        for (int i = 0; i < a.getCount(); i++) {
+            assertEquals(a.getX(i), b.getX(i), 0);
+            assertEquals(a.getY(i), b.getY(i), 0);
+            assertEquals(a.getxSpeed(i), b.getxSpeed(i), 0);
+            assertEquals(a.getySpeed(i), b.getySpeed(i), 0);
+            assertEquals(a.getCountBounce(i), b.getCountBounce(i));
+        }
+    }
+
+    @Test
+    public void sameSeedGivesTheSameGame() {
+        World a = new World(WIDTH, HEIGHT, 10, 15, 1, Difficulty.HARD, 42);
+        World b = new World(WIDTH, HEIGHT, 10, 15, 1, Difficulty.HARD, 42);
+        for (int i = 0; i < 10000; i++) {
+            a.setPlayerX((int) a.getBalls().getX(0));
+            b.setPlayerX((int) b.getBalls().getX(0));
+            a.update();
+            b.update();
+        }
+        assertSameGame(a, b);
+    }
+
+    @Test
+    public void replayPlaysTheSameGame() throws IOException {
+        World world = new World(WIDTH, HEIGHT, 10, 10, 1, Difficulty.MEDIUM, 7);
+        byte[] replay = record(world, TEN_MINUTES, 3);
+        ReplayPlayer player = play(replay);
+        assertEquals(TEN_MINUTES, player.getTicks());
+        assertSameGame(world, player.getWorld());
+    }
+
+    @Test
+    public void partyModeReplayPlaysTheSameGame() throws IOException {
+        World world = new World(WIDTH, HEIGHT, 10, 30, 200, Difficulty.NIGHTMARE, 11);
+        world.setBallCollisions(true);
+        byte[] replay = record(world, 2000, 1);
+        ReplayPlayer player = play(replay);
+        assertTrue(player.getWorld().hasBallCollisions());
+        assertSameGame(world, player.getWorld());
+    }
+
+    @Test
+    public void botChangedDuringTheGameIsReplayed() throws IOException {
+        World world = new World(WIDTH, HEIGHT, 10, 10, 1, Difficulty.MEDIUM, 9);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReplayRecorder recorder = new ReplayRecorder(world, Channels.newChannel(out));
+        for (int i = 0; i < TEN_MINUTES; i++) {
+            /*The bot is changed twice, as from the menu during the game.*/
+            if (i == 1000 || i == 20000) {
+                GameConfig config = world.getConfig().withDifficulty(i == 1000 ? Difficulty.NIGHTMARE : Difficulty.EASY);
+                world.setConfig(config);
+                recorder.recordConfig(config);
+            }
+            if (i % 3 == 0)
+                world.setPlayerX((int) world.getBalls().getX(0));
+            recorder.record(world.getPlayerX());
+            world.update();
+        }
+        recorder.close();
+        ReplayPlayer player = play(out.toByteArray());
+        assertEquals(TEN_MINUTES, player.getTicks());
+        assertEquals(Difficulty.EASY, player.getWorld().getDifficulty());
+        assertEquals(Difficulty.EASY.getBotSpeed(), player.getWorld().getBotSpeed());
+        assertSameGame(world, player.getWorld());
+    }
+
+    @Test
+    public void firstVersionIsStillPlayed() throws IOException {
+        /*The versions until 3 computed the directions of the balls by StrictMath, without flag.*/
+        World world = new World(WIDTH, HEIGHT, 10, 10, 1, Difficulty.HARD, 5);
+        world.setExactAngles(true);
+        byte[] replay = record(world, 5000, 2);
+        replay[5] = 0;
+        /*The version 1 was the same without the event of the end and the hash.*/
+        byte[] first = java.util.Arrays.copyOf(replay, replay.length - 1 - 8);
+        first[4] = 1;
+        assertSameGame(world, play(first).getWorld());
+        /*The version 2 was the same without the hash.*/
+        byte[] second = java.util.Arrays.copyOf(replay, replay.length - 8);
+        second[4] = 2;
+        assertSameGame(world, play(second).getWorld());
+    }
+
+    /**Play a replay recorded by an older version of the game, in the resources.*/
+    private static ReplayPlayer playRecorded(String name) throws IOException {
+        InputStream in = ReplayTest.class.getResourceAsStream(name);
+        assertNotNull(name, in);
+        try {
+            ReplayPlayer player = new ReplayPlayer(Channels.newChannel(in));
+            player.play();
+            return player;
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void recordedOlderVersionsAreStillPlayed() throws IOException {
+        /*The same game of 600 ticks, 3 balls which collide, the bot changed on the tick 300,
+         *recorded by the versions 3 and 4: their hash is checked at the end.*/
+        ReplayPlayer third = playRecorded("version3.replay");
+        ReplayPlayer fourth = playRecorded("version4.replay");
+        assertTrue(third.getWorld().hasExactAngles());
+        assertFalse(fourth.getWorld().hasExactAngles());
+        for (ReplayPlayer player : new ReplayPlayer[]{third, fourth}) {
+            assertEquals(600, player.getTicks());
+            assertEquals(2, player.getWorld().getLeftScore());
+            assertEquals(3, player.getWorld().getRightScore());
+            assertEquals(Difficulty.EASY, player.getWorld().getDifficulty());
+        }
+    }
+
+    @Test
+    public void arenaOfTheVersion5IsStillPlayed() throws IOException {
+        /*3 balls on 6 rows of bricks for 600 ticks, the version 5 hashed every tick.*/
+        ReplayPlayer player = playRecorded("version5.replay");
+        assertEquals(600, player.getTicks());
+        assertEquals(144, player.getWorld().getBrickCount());
+        assertEquals(5, player.getWorld().getArena().getBrokenCount());
+        assertEquals(2, player.getWorld().getRightScore());
+    }
+
+    @Test
+    public void stateIsHashedEveryIntervalAndAtTheEnd() throws IOException {
+        World world = new World(WIDTH, HEIGHT, 10, 10, 3, Difficulty.HARD, 8);
+        World again = new World(WIDTH, HEIGHT, 10, 10, 3, Difficulty.HARD, 8);
+        byte[] replay = record(world, 1000, 5);
+        /*The hash of the END, the last 8 bytes.*/
+        long hash = java.nio.ByteBuffer.wrap(replay, replay.length - 8, 8).getLong();
+        StateHasher hasher = new StateHasher(3);
+        for (int tick = 0; tick < 1000; tick++) {
+            if (tick % 5 == 0)
+                again.setPlayerX((int) again.getBalls().getX(0));
+            if (tick % ReplayRecorder.HASH_INTERVAL == 0)
+                hasher.update(again);
+            again.update();
+        }
+        assertEquals(hasher.update(again), hash);
+        assertEquals(1000 / ReplayRecorder.HASH_INTERVAL + 2, hasher.getTicks());
+        assertEquals(hash, play(replay).getHash());
+    }
+
+    @Test
+    public void exactAnglesAreReplayed() throws IOException {
+        World world = new World(WIDTH, HEIGHT, 10, 10, 1, Difficulty.MEDIUM, 11);
+        world.setExactAngles(true);
+        ReplayPlayer player = play(record(world, 5000, 3));
+        assertTrue(player.getWorld().hasExactAngles());
+        assertSameGame(world, player.getWorld());
+        /*The table gives another game, which the hash tells.*/
+        World table = new World(WIDTH, HEIGHT, 10, 10, 1, Difficulty.MEDIUM, 11);
+        byte[] replay = record(table, 5000, 3);
+        assertFalse(play(replay).getWorld().hasExactAngles());
+        replay[5] = ReplayRecorder.FLAG_EXACT_ANGLES;
+        try {
+            play(replay);
+            fail("The replay was played with StrictMath");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("5000"));
+        }
+    }
+
+    @Test
+    public void replayWhichPlaysAnotherGameIsRejected() throws IOException {
+        World world = new World(WIDTH, HEIGHT, 10, 10, 1, Difficulty.MEDIUM, 7);
+        byte[] replay = record(world, 5000, 3);
+        ReplayPlayer player = play(replay);
+        assertNotEquals(0, player.getHash());
+        /*The last bit of the hash is changed, as a game played differently.*/
+        replay[replay.length - 1] ^= 1;
+        try {
+            play(replay);
+            fail("The replay was played");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("5000"));
+        }
+    }
+
+    @Test
+    public void replayIsSmall() throws IOException {
+        /*A player who doesn't move costs only the header.*/
+        byte[] idle = record(new World(WIDTH, HEIGHT, 10, 10, 1, Difficulty.EASY, 1), TEN_MINUTES, 0);
+        assertTrue(idle.length + " bytes", idle.length < 40);
+        /*A player who moves every 4 ticks costs tens of bytes by second.*/
+        byte[] moving = record(new World(WIDTH, HEIGHT, 10, 10, 1, Difficulty.EASY, 1), TEN_MINUTES, 4);
+        assertTrue(moving.length + " bytes", moving.length / 600 < 60);
+    }
+
+    @Test
+    public void tenMinutesReplayInLessThanASecond() throws IOException {
+        byte[] replay = record(new World(WIDTH, HEIGHT, 10, 10, 1, Difficulty.MEDIUM, 3), TEN_MINUTES, 1);
+        /*Warm up the JIT, then measure.*/
+        play(replay);
+        long start = System.nanoTime();
+        play(replay);
+        assertTrue(System.nanoTime() - start < 1000000000L);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsWhatIsNotAReplay() throws IOException {
+        play("not a replay at all".getBytes("UTF-8"));
+    }
+
+    @Test
+    public void randomNumbersAreInTheirBounds() {
+        GameRandom random = new GameRandom(5);
+        for (int i = 0; i < 100000; i++) {
+            double d = random.nextDouble(-1, 1);
+            assertTrue(d >= -1 && d < 1);
+            int n = random.nextInt(-3, 4);
+            assertTrue(n >= -3 && n < 4);
+        }
+        assertEquals(new GameRandom(5).nextLong(), new GameRandom(5).nextLong());
+    }
+}
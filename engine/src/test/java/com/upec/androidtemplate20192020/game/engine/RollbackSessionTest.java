@@ -0,0 +1,207 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import static org.junit.Assert.*;
+
+/**
+ * Plays a game between two sessions on one machine, over UDP on localhost, with a
+ * network as bad as a real one (latency, jitter and losses), on a virtual clock.
+ * Both worlds must end as a world which had all the inputs in time.
+ */
+public class RollbackSessionTest {
+
+    private static final GameConfig CONFIG = GameConfig.DEFAULT.withScreen(1080, 1920);
+    private static final long SEED = 1972;
+    private static final long TICK_NANOS = 1000000000L / 60;
+
+    private RollbackSession host, guest;
+    private LaggyTransport hostLink, guestLink;
+    private long timeNanos;
+
+    /*Both sessions over localhost, every packet is delayed by half the round trip.*/
+    private void connect(long seed, long roundTripNanos, double loss) throws IOException {
+        InetAddress localhost = InetAddress.getLoopbackAddress();
+        DatagramTransport a = new DatagramTransport(new InetSocketAddress(localhost, 0));
+        DatagramTransport b = new DatagramTransport(new InetSocketAddress(localhost, 0));
+        a.connect(new InetSocketAddress(localhost, b.getLocalPort()));
+        b.connect(new InetSocketAddress(localhost, a.getLocalPort()));
+        hostLink = new LaggyTransport(a, roundTripNanos / 2, 10000000L, loss, RollbackSession.MAX_PACKET, 1);
+        guestLink = new LaggyTransport(b, roundTripNanos / 2, 10000000L, loss, RollbackSession.MAX_PACKET, 2);
+        host = new RollbackSession(new World(CONFIG, SEED), true, hostLink, RollbackSession.DEFAULT_MAX_ROLLBACK);
+        guest = new RollbackSession(new World(CONFIG, seed), false, guestLink, RollbackSession.DEFAULT_MAX_ROLLBACK);
+    }
+
+    @After
+    public void close() throws IOException {
+        if (host != null)
+            host.close();
+        if (guest != null)
+            guest.close();
+    }
+
+    /*The inputs of the players, by tick, they stop moving after the game.*/
+    private static int hostInput(int tick, int ticks) {
+        tick = Math.min(tick, ticks);
+        return (int) (540 + 500 * Math.sin(tick / 23.0));
+    }
+
+    private static int guestInput(int tick, int ticks) {
+        tick = Math.min(tick, ticks);
+        return (tick * 37) % 1400 - 160;
+    }
+
+    /*Moves the clock by a tick, the packets due are sent.*/
+    private void tickClock() throws IOException {
+        timeNanos += TICK_NANOS;
+        hostLink.setTime(timeNanos);
+        guestLink.setTime(timeNanos);
+    }
+
+    /*Plays the ticks on both devices, each player sees his rectangle on the tick of his input.*/
+    private void play(int ticks, int lastMove) throws IOException {
+        for (int i = 0; i < ticks; i++) {
+            tickClock();
+            int x = hostInput(host.getFrame(), lastMove);
+            if (host.advance(x))
+                assertEquals(paddleCenter(x), host.getWorld().getPlayer().centerX());
+            x = guestInput(guest.getFrame(), lastMove);
+            if (guest.advance(x))
+                assertEquals(paddleCenter(x), guest.getWorld().getBot().centerX());
+        }
+    }
+
+    /*Lets the last packets come and the device behind catch up, so both worlds are confirmed.*/
+    private void settle(int lastMove) throws IOException {
+        for (int i = 0; i < 60; i++) {
+            tickClock();
+            if (host.getFrame() < guest.getFrame())
+                host.advance(hostInput(host.getFrame(), lastMove));
+            else
+                host.sync();
+            if (guest.getFrame() < host.getFrame())
+                guest.advance(guestInput(guest.getFrame(), lastMove));
+            else
+                guest.sync();
+        }
+        /*The peer can be a tick ahead, its last input isn't played yet.*/
+        assertTrue(host.getRemoteFrame() >= host.getFrame() - 1);
+        assertTrue(guest.getRemoteFrame() >= guest.getFrame() - 1);
+    }
+
+    private static int paddleCenter(int x) {
+        int half = CONFIG.getPaddleWidth() / 2;
+        return World.clamp(x, half, CONFIG.getWidth() - half);
+    }
+
+    /*The world of both players with all the inputs in time, until a tick.*/
+    private static void assertSameAsWithoutNetwork(RollbackSession session, int lastMove) {
+        World reference = new World(CONFIG, SEED);
+        reference.setRemoteBot(true);
+        for (int tick = 0; tick < session.getFrame(); tick++) {
+            reference.setPlayerX(hostInput(tick, lastMove));
+            reference.setBotX(guestInput(tick, lastMove));
+            reference.update();
+        }
+        WorldState expected = new WorldState(1), actual = new WorldState(1);
+        reference.save(expected);
+        session.getWorld().save(actual);
+        assertEquals(expected, actual);
+        assertEquals(expected.hash(), actual.hash());
+    }
+
+    @Test(timeout = 30000)
+    public void peersAgreeAt100msOfRoundTripWithLosses() throws IOException {
+        connect(SEED, 100000000L, 0.05);
+        play(3600, 3000);
+        settle(3000);
+        assertTrue(host.getFrame() > 3500);
+        assertTrue(guest.getFrame() > 3500);
+        assertSameAsWithoutNetwork(host, 3000);
+        assertSameAsWithoutNetwork(guest, 3000);
+
+        /*The wrong predictions were played again, never more than the max.*/
+        assertTrue(host.getRollbacks() > 0);
+        assertTrue(guest.getRollbacks() > 0);
+        assertTrue(host.getMaxRollbackDepth() <= RollbackSession.DEFAULT_MAX_ROLLBACK);
+        /*At 100 ms the inputs come in time, the game almost never waits.*/
+        assertTrue("host stalls " + host.getStalls(), host.getStalls() < 3600 / 50);
+        assertTrue("guest stalls " + guest.getStalls(), guest.getStalls() < 3600 / 50);
+        assertTrue(hostLink.getLost() > 0);
+        /*The hashes of the states were checked, they're the same.*/
+        assertEquals(-1, host.getDesyncFrame());
+        assertEquals(-1, guest.getDesyncFrame());
+        assertTrue(host.getCheckedFrame() > 3000);
+        assertTrue(guest.getCheckedFrame() > 3000);
+    }
+
+    @Test(timeout = 30000)
+    public void desyncIsDetected() throws IOException {
+        connect(SEED, 100000000L, 0.05);
+        play(300, 300);
+        settle(300);
+        assertEquals(-1, host.getDesyncFrame());
+        /*The guest computes the ball a bit differently, as another float on another device.
+         *The inputs don't change anymore, so no rollback puts the ball back.*/
+        BallStore balls = guest.getWorld().getBalls();
+        balls.setState(0, balls.getX(0) + 0.001f, balls.getY(0), balls.getxSpeed(0), balls.getySpeed(0),
+                balls.getCountBounce(0));
+        int changed = guest.getFrame();
+        play(60, 300);
+        assertTrue(host.getDesyncFrame() > 0);
+        assertTrue(host.getDesyncFrame() <= changed + 1);
+        assertTrue(guest.getDesyncFrame() > 0);
+    }
+
+    @Test(timeout = 30000)
+    public void cutLinkStallsThenRecovers() throws IOException {
+        connect(SEED, 60000000L, 0);
+        play(300, 2000);
+        int hostFrame = host.getFrame(), guestFrame = guest.getFrame();
+        hostLink.setLoss(1);
+        guestLink.setLoss(1);
+        play(120, 2000);
+        /*Without the peer a device plays only max. rollback ticks ahead.*/
+        assertTrue(host.getFrame() - hostFrame <= RollbackSession.DEFAULT_MAX_ROLLBACK + 4);
+        assertTrue(guest.getFrame() - guestFrame <= RollbackSession.DEFAULT_MAX_ROLLBACK + 4);
+        hostLink.setLoss(0);
+        guestLink.setLoss(0);
+        play(600, 600);
+        settle(600);
+        assertSameAsWithoutNetwork(host, 600);
+        assertSameAsWithoutNetwork(guest, 600);
+    }
+
+    @Test(timeout = 30000)
+    public void latePeerIsWaitedFor() throws IOException {
+        connect(SEED, 40000000L, 0);
+        /*The host starts 10 ticks before the guest.*/
+        for (int i = 0; i < 10; i++) {
+            tickClock();
+            host.advance(hostInput(host.getFrame(), 1000));
+        }
+        play(600, 1000);
+        assertTrue(host.getStalls() > 0);
+        assertTrue(host.getFrame() - guest.getFrame() <= 2);
+        assertTrue(guest.getFrame() - host.getFrame() <= 2);
+        play(600, 1000);
+        settle(1000);
+        assertSameAsWithoutNetwork(host, 1000);
+        assertSameAsWithoutNetwork(guest, 1000);
+    }
+
+    @Test(timeout = 30000)
+    public void packetsOfAnotherGameAreIgnored() throws IOException {
+        connect(SEED + 1, 20000000L, 0);
+        play(60, 60);
+        assertTrue(host.getRejected() > 0);
+        assertEquals(-1, host.getRemoteFrame());
+        assertEquals(-1, guest.getRemoteFrame());
+        assertEquals(RollbackSession.DEFAULT_MAX_ROLLBACK, host.getFrame());
+    }
+}
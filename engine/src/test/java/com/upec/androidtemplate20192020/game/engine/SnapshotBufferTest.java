@@ -0,0 +1,125 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of the triple buffer of the snapshots between the simulation and the render threads.
+ */
+public class SnapshotBufferTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+
+    @Test
+    public void snapshotCopiesTheWorld() {
+        World world = new World(WIDTH, HEIGHT, 10, 10, 3, Difficulty.MEDIUM, 42);
+        world.update();
+        WorldSnapshot snapshot = new WorldSnapshot(1);
+        snapshot.copy(world, 7, 1234);
+        assertEquals(7, snapshot.getTick());
+        assertEquals(1234, snapshot.getTickNanos());
+        assertEquals(world.getPlayer().getLeft(), snapshot.getPlayerLeft());
+        assertEquals(world.getPlayer().getBottom(), snapshot.getPlayerBottom());
+        assertEquals(world.getBot().getRight(), snapshot.getBotRight());
+        assertEquals(world.getBot().getTop(), snapshot.getBotTop());
+        /*The arrays grow to the number of balls.*/
+        BallStore balls = world.getBalls();
+        assertEquals(3, snapshot.getCount());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(balls.getX(i), snapshot.getX(i), 0);
+            assertEquals(balls.getPrevY(i), snapshot.getPrevY(i), 0);
+            assertEquals(balls.getR(i), snapshot.getR(i), 0);
+        }
+    }
+
+    @Test
+    public void readerGetsTheLatestSnapshot() {
+        SnapshotBuffer buffer = new SnapshotBuffer(1);
+        World world = new World(WIDTH, HEIGHT, 10, 10);
+        assertEquals(0, buffer.acquire().getTick());
+        for (int tick = 1; tick <= 3; tick++) {
+            world.update();
+            buffer.getBack().copy(world, tick, 0);
+            buffer.publish();
+        }
+        /*The ticks 1 and 2 were never read, they are overwritten.*/
+        WorldSnapshot snapshot = buffer.acquire();
+        assertEquals(3, snapshot.getTick());
+        /*Nothing new, the same snapshot.*/
+        assertSame(snapshot, buffer.acquire());
+        assertNotSame(snapshot, buffer.getBack());
+    }
+
+    @Test
+    public void writerNeverTouchesTheSnapshotOfTheReader() {
+        SnapshotBuffer buffer = new SnapshotBuffer(1);
+        World world = new World(WIDTH, HEIGHT, 10, 10);
+        for (int tick = 1; tick <= 100; tick++) {
+            WorldSnapshot front = buffer.acquire();
+            for (int i = 0; i < tick % 4; i++) {
+                assertNotSame(front, buffer.getBack());
+                buffer.getBack().copy(world, tick, 0);
+                buffer.publish();
+            }
+        }
+    }
+
+    @Test
+    public void snapshotsCrossTheThreadsWhole() throws Throwable {
+        final int ticks = 20000;
+        final int balls = 200;
+        final SnapshotBuffer buffer = new SnapshotBuffer(balls);
+        /*Sum of the x of the balls of every tick, written before the tick is published.*/
+        final double[] sums = new double[ticks + 1];
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread simulation = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    World world = new World(WIDTH, HEIGHT, 10, 10, balls, Difficulty.MEDIUM, 7);
+                    for (int tick = 1; tick <= ticks; tick++) {
+                        world.update();
+                        double sum = 0;
+                        for (int i = 0; i < balls; i++)
+                            sum += world.getBalls().getX(i);
+                        sums[tick] = sum;
+                        buffer.getBack().copy(world, tick, 0);
+                        buffer.publish();
+                        if (tick % 16 == 0)
+                            Thread.yield();
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            }
+        });
+        simulation.start();
+
+        long last = 0;
+        int read = 0;
+        while (last < ticks && failure.get() == null) {
+            WorldSnapshot snapshot = buffer.acquire();
+            long tick = snapshot.getTick();
+            assertTrue("tick " + tick + " after " + last, tick >= last);
+            if (tick > last) {
+                /*The snapshot is whole: the writer didn't write it while it's read.*/
+                double sum = 0;
+                for (int i = 0; i < snapshot.getCount(); i++)
+                    sum += snapshot.getX(i);
+                assertEquals("tick " + tick, sums[(int) tick], sum, 0);
+                assertEquals(tick, snapshot.getTick());
+                read++;
+            }
+            last = tick;
+            Thread.yield();
+        }
+        simulation.join();
+        if (failure.get() != null)
+            throw failure.get();
+        assertTrue(read > 0);
+    }
+}
@@ -0,0 +1,84 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of the swept collision of the ball with the paddles.
+ */
+public class SweptCollisionTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+
+    @Test
+    public void timeOfImpact() {
+        /*A circle of radius 10 moving down by 100 towards a rectangle 50 below it.*/
+        assertEquals(0.4f, Collisions.sweepCircleRect(0, 0, 10, 0, 100, -20, 50, 20, 60), 1e-6);
+        /*The sides of the rectangle can be inverted, like the paddles.*/
+        assertEquals(0.4f, Collisions.sweepCircleRect(0, 0, 10, 0, 100, -20, 60, 20, 50), 1e-6);
+        /*Already touching.*/
+        assertEquals(0, Collisions.sweepCircleRect(0, 55, 10, 0, 100, -20, 50, 20, 60), 0);
+        /*Too short, moving away, or passing on the side.*/
+        assertEquals(Collisions.NO_HIT, Collisions.sweepCircleRect(0, 0, 10, 0, 30, -20, 50, 20, 60), 0);
+        assertEquals(Collisions.NO_HIT, Collisions.sweepCircleRect(0, 0, 10, 0, -100, -20, 50, 20, 60), 0);
+        assertEquals(Collisions.NO_HIT, Collisions.sweepCircleRect(100, 0, 10, 0, 100, -20, 50, 20, 60), 0);
+        /*Much faster than the rectangle is thick, it still hits.*/
+        assertEquals(0.004f, Collisions.sweepCircleRect(0, 0, 10, 0, 10000, -20, 50, 20, 60), 1e-6);
+    }
+
+    @Test
+    public void fastBallDoesNotTunnelThroughThePlayer() {
+        World world = new World(WIDTH, HEIGHT, 10, 10);
+        world.update();
+        Rectangle player = world.getPlayer();
+        BallStore balls = world.getBalls();
+        /*The ball moves in one tick much more than the paddle is thick.*/
+        int countBounce = 500;
+        float speed = world.getBallSpeed() + countBounce;
+        float startY = player.centerY() - speed * 0.5f;
+        balls.setState(0, player.centerX(), startY, 0, speed, countBounce);
+        balls.update(player, world.getBot());
+
+        assertEquals(countBounce + 1, balls.getCountBounce(0));
+        assertTrue(balls.getySpeed(0) < 0);
+        /*The ball touched the top of the paddle and went back up for the rest of the tick.*/
+        float face = Math.min(player.getTop(), player.getBottom()) - balls.getR(0);
+        float impact = (face - startY) / speed;
+        assertEquals(face + balls.getySpeed(0) * (1 - impact), balls.getY(0), 1e-2);
+        assertEquals(0, world.getLeftScore() + world.getRightScore());
+    }
+
+    @Test
+    public void fastBallDoesNotTunnelThroughTheBot() {
+        World world = new World(WIDTH, HEIGHT, 10, 10);
+        world.update();
+        Rectangle bot = world.getBot();
+        BallStore balls = world.getBalls();
+        int countBounce = 500;
+        float speed = world.getBallSpeed() + countBounce;
+        balls.setState(0, bot.centerX(), bot.centerY() + speed * 0.5f, 0, -speed, countBounce);
+        balls.update(world.getPlayer(), bot);
+
+        assertEquals(countBounce + 1, balls.getCountBounce(0));
+        assertTrue(balls.getySpeed(0) > 0);
+        assertTrue(balls.getY(0) > Math.max(bot.getTop(), bot.getBottom()) + balls.getR(0));
+    }
+
+    @Test
+    public void longRallyAtHighSpeedKeepsBouncing() {
+        /*The nightmare bot aims without error, so he sends the ball back straight.*/
+        World world = new World(WIDTH, HEIGHT, 10, 10, 1, Difficulty.NIGHTMARE);
+        world.setPlayerX(WIDTH / 2);
+        world.update();
+        BallStore balls = world.getBalls();
+        /*The ball goes straight between the two paddles in the middle, every bounce
+         *speeds it up until it moves in one tick 20 times more than a paddle is thick.*/
+        balls.setState(0, WIDTH * 0.5f, HEIGHT * 0.5f, 0, world.getBallSpeed(), 0);
+        for (int i = 0; i < 100000 && balls.getCountBounce(0) < 1000; i++)
+            world.update();
+        assertEquals(1000, balls.getCountBounce(0));
+        assertEquals(0, world.getLeftScore() + world.getRightScore());
+    }
+}
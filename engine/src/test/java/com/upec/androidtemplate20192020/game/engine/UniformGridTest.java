@@ -0,0 +1,112 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of the broad phase against brute force, and of the narrow phase.
+ */
+public class UniformGridTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+
+    private static Set<Long> gridPairs(UniformGrid grid, float[] x, float[] y, float[] r, int count) {
+        final Set<Long> pairs = new HashSet<>();
+        grid.build(x, y, count);
+        grid.queryPairs(x, y, r, new UniformGrid.PairListener() {
+            @Override
+            public void onPair(int a, int b) {
+                assertTrue(a < b);
+                assertTrue("pair found twice", pairs.add(((long) a << 32) | b));
+            }
+        });
+        return pairs;
+    }
+
+    private static Set<Long> brutePairs(float[] x, float[] y, float[] r, int count) {
+        Set<Long> pairs = new HashSet<>();
+        for (int a = 0; a < count; a++)
+            for (int b = a + 1; b < count; b++)
+                if (Collisions.circleCircle(x[a], y[a], r[a], x[b], y[b], r[b]))
+                    pairs.add(((long) a << 32) | b);
+        return pairs;
+    }
+
+    @Test
+    public void findsTheSamePairsAsBruteForce() {
+        Random random = new Random(7);
+        int count = 2000;
+        float maxRadius = 20;
+        float[] x = new float[count], y = new float[count], r = new float[count];
+        for (int i = 0; i < count; i++) {
+            /*Some bodies are outside of the world.*/
+            x[i] = random.nextFloat() * (WIDTH + 200) - 100;
+            y[i] = random.nextFloat() * (HEIGHT + 200) - 100;
+            r[i] = 1 + random.nextFloat() * (maxRadius - 1);
+        }
+        UniformGrid grid = new UniformGrid(WIDTH, HEIGHT, 2 * maxRadius, count);
+        Set<Long> expected = brutePairs(x, y, r, count);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, gridPairs(grid, x, y, r, count));
+    }
+
+    @Test
+    public void queryFindsTheBodiesTouchingARectangle() {
+        Random random = new Random(11);
+        int count = 1000;
+        float radius = 10;
+        final float[] x = new float[count], y = new float[count], r = new float[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = random.nextFloat() * WIDTH;
+            y[i] = random.nextFloat() * HEIGHT;
+            r[i] = radius;
+        }
+        UniformGrid grid = new UniformGrid(WIDTH, HEIGHT, 2 * radius, count);
+        grid.build(x, y, count);
+        /*A rectangle given with the top lower than the bottom, like the paddles.*/
+        final float left = 300, top = 640, right = 700, bottom = 600;
+        final Set<Integer> found = new HashSet<>();
+        grid.query(left, top, right, bottom, new UniformGrid.QueryListener() {
+            @Override
+            public void onBody(int body) {
+                if (Collisions.circleRect(x[body], y[body], r[body], left, top, right, bottom))
+                    found.add(body);
+            }
+        });
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < count; i++)
+            if (Collisions.circleRect(x[i], y[i], r[i], left, top, right, bottom))
+                expected.add(i);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, found);
+    }
+
+    @Test
+    public void narrowPhase() {
+        assertTrue(Collisions.circleCircle(0, 0, 5, 9, 0, 5));
+        assertFalse(Collisions.circleCircle(0, 0, 5, 10, 0, 5));
+        assertTrue(Collisions.circleRect(50, 50, 5, 0, 0, 100, 100));
+        assertTrue(Collisions.circleRect(-4, 50, 5, 0, 0, 100, 100));
+        assertFalse(Collisions.circleRect(-4, -4, 5, 0, 0, 100, 100));
+        assertTrue(Collisions.circleRect(-3, -3, 5, 0, 0, 100, 100));
+    }
+
+    @Test
+    public void collidingBallsExchangeTheirSpeeds() {
+        World world = new World(WIDTH, HEIGHT, 10, 10, 2);
+        world.setBallCollisions(true);
+        BallStore balls = world.getBalls();
+        balls.setState(0, 500, 960, 5, 0, 0);
+        balls.setState(1, 560, 960, -5, 0, 0);
+        world.update();
+        assertEquals(-5, balls.getxSpeed(0), 1e-4);
+        assertEquals(5, balls.getxSpeed(1), 1e-4);
+        assertTrue(balls.getX(1) - balls.getX(0) >= 2 * World.BALL_RADIUS - 1e-3);
+    }
+}
@@ -0,0 +1,88 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Counts the draw calls of the frames with the recording renderer.
+ */
+public class WorldDrawerTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+
+    private static void frame(RecordingRenderer renderer, WorldDrawer drawer, WorldSnapshot snapshot) {
+        assertTrue(renderer.beginFrame(drawer.track(snapshot, 0.5f)));
+        drawer.draw(renderer, snapshot, 0.5f);
+        renderer.endFrame();
+    }
+
+    @Test
+    public void frameIsTheLayerTheRectanglesAndTheBalls() {
+        World world = new World(WIDTH, HEIGHT, 10, 10, 1, Difficulty.MEDIUM, 1);
+        WorldSnapshot snapshot = new WorldSnapshot(1);
+        WorldDrawer drawer = new WorldDrawer(WIDTH, HEIGHT);
+        RecordingRenderer renderer = new RecordingRenderer();
+        world.update();
+        snapshot.copy(world, 1, 0);
+
+        /*The first frame renders the layer: the background and the two scores.*/
+        frame(renderer, drawer, snapshot);
+        assertEquals(1, renderer.getLayerRenders());
+        assertEquals(2, renderer.getNumbers());
+        assertEquals(1, renderer.getCalls(Renderer.Style.BACKGROUND));
+
+        /*Then a frame is only the layer, 2 rectangles and the ball.*/
+        renderer.reset();
+        for (int i = 0; i < 100; i++)
+            frame(renderer, drawer, snapshot);
+        assertEquals(0, renderer.getLayerRenders());
+        assertEquals(0, renderer.getNumbers());
+        assertEquals(100 * 4, renderer.getDrawCalls());
+        assertEquals(100, renderer.getCalls(Renderer.Style.PLAYER));
+        assertEquals(100, renderer.getCalls(Renderer.Style.BOT));
+        assertEquals(100, renderer.getCalls(Renderer.Style.BALL));
+        /*Nothing moved, so only the objects are drawn again.*/
+        assertEquals(100, renderer.getPartialFrames());
+    }
+
+    @Test
+    public void layerIsRenderedAgainOnlyWhenTheScoreChanges() {
+        World world = new World(WIDTH, HEIGHT, 10, 30, 1, Difficulty.EASY, 2);
+        WorldSnapshot snapshot = new WorldSnapshot(1);
+        WorldDrawer drawer = new WorldDrawer(WIDTH, HEIGHT);
+        RecordingRenderer renderer = new RecordingRenderer();
+        int changes = 0;
+        int left = -1, right = -1;
+        for (int tick = 1; tick <= 20000; tick++) {
+            world.update();
+            snapshot.copy(world, tick, 0);
+            if (world.getLeftScore() != left || world.getRightScore() != right) {
+                left = world.getLeftScore();
+                right = world.getRightScore();
+                changes++;
+            }
+            frame(renderer, drawer, snapshot);
+        }
+        assertTrue(changes > 1);
+        assertEquals(changes, renderer.getLayerRenders());
+        assertEquals(2 * changes, renderer.getNumbers());
+        assertEquals(0, renderer.getTexts());
+    }
+
+    @Test
+    public void partyModeFrameHasACircleByBall() {
+        World world = new World(WIDTH, HEIGHT, 10, 10, 500, Difficulty.MEDIUM, 3);
+        WorldSnapshot snapshot = new WorldSnapshot(500);
+        WorldDrawer drawer = new WorldDrawer(WIDTH, HEIGHT);
+        RecordingRenderer renderer = new RecordingRenderer();
+        world.update();
+        snapshot.copy(world, 1, 0);
+        frame(renderer, drawer, snapshot);
+        renderer.reset();
+        frame(renderer, drawer, snapshot);
+        assertEquals(500, renderer.getCircles());
+        assertEquals(1 + 2 + 500, renderer.getDrawCalls());
+    }
+}
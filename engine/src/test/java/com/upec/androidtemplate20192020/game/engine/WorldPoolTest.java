@@ -0,0 +1,140 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the prepared worlds are reused only for their game, restarted like new worlds.
+ */
+public class WorldPoolTest {
+
+    private static final GameConfig CONFIG = GameConfig.DEFAULT.withScreen(1080, 1920);
+
+    @Test
+    public void preparedWorldIsReusedForTheGame() {
+        WorldPool pool = new WorldPool(1000);
+        assertFalse(pool.isReady(CONFIG));
+        pool.prepare(CONFIG);
+        assertTrue(pool.isReady(CONFIG));
+        /*The bot can change in the menu after the world was prepared.*/
+        assertTrue(pool.isReady(CONFIG.withDifficulty(Difficulty.EASY)));
+        assertFalse(pool.isReady(CONFIG.withBallCount(2)));
+
+        World world = pool.take(CONFIG.withDifficulty(Difficulty.EASY), 7);
+        assertFalse(pool.isReady(CONFIG));
+        assertEquals(7, world.getSeed());
+        assertEquals(Difficulty.EASY, world.getDifficulty());
+        assertEquals(0, world.getLeftScore() + world.getRightScore());
+
+        /*It plays as a new world of the same seed.*/
+        World fresh = new World(CONFIG.withDifficulty(Difficulty.EASY), 7);
+        for (int i = 0; i < 5000; i++) {
+            world.update();
+            fresh.update();
+            assertEquals(fresh.getBalls().getX(0), world.getBalls().getX(0), 0);
+            assertEquals(fresh.getBalls().getY(0), world.getBalls().getY(0), 0);
+            assertEquals(fresh.getBot().getLeft(), world.getBot().getLeft());
+        }
+    }
+
+    @Test
+    public void worldOfAFinishedGameIsReused() {
+        WorldPool pool = new WorldPool(0);
+        World first = pool.take(CONFIG, 1);
+        pool.give(first);
+        assertSame(first, pool.take(CONFIG, 2));
+        /*An other game has its own world.*/
+        pool.give(first);
+        World party = pool.take(CONFIG.withBallCount(10), 3);
+        assertNotSame(first, party);
+        assertEquals(10, party.getBalls().getCount());
+    }
+
+    @Test
+    public void preparedWorldIsKeptForTheSameGame() {
+        WorldPool pool = new WorldPool(100);
+        pool.prepare(CONFIG);
+        World world = pool.take(CONFIG, 1);
+        pool.give(world);
+        pool.prepare(CONFIG);
+        assertSame(world, pool.take(CONFIG, 1));
+    }
+
+    @Test
+    public void preparedWorldHasTheFixedPointAndTheBricksOfTheConfig() {
+        WorldPool pool = new WorldPool(100);
+        GameConfig arena = CONFIG.withLevel(BrickTreeTest.grid(24, 10));
+        GameConfig fixed = CONFIG.withFixedPoint(true);
+        pool.prepare(arena);
+        assertFalse(pool.isReady(CONFIG));
+        assertFalse(pool.isReady(fixed));
+        /*A level read again is the same level.*/
+        assertTrue(pool.isReady(CONFIG.withLevel(BrickTreeTest.grid(24, 10))));
+        World world = pool.take(arena, 4);
+        assertEquals(240, world.getBrickCount());
+        assertEquals(0, world.getArena().getBrokenCount());
+        pool.prepare(fixed);
+        World fixedWorld = pool.take(fixed, 4);
+        assertTrue(fixedWorld.isFixedPoint());
+        assertNull(fixedWorld.getArena());
+
+        /*A world of the config plays as a world changed by setLevel and setFixedPoint.*/
+        World changed = new World(CONFIG, 4);
+        changed.setLevel(arena.getLevel());
+        World fixedChanged = new World(CONFIG, 4);
+        fixedChanged.setFixedPoint(true);
+        assertTrue(changed.getConfig().isSameGame(arena));
+        assertTrue(fixedChanged.getConfig().isSameGame(fixed));
+        for (int i = 0; i < 2000; i++) {
+            world.update();
+            changed.update();
+            fixedWorld.update();
+            fixedChanged.update();
+        }
+        WorldState state = new WorldState(1, 240), other = new WorldState(1, 240);
+        world.save(state);
+        changed.save(other);
+        assertEquals(state, other);
+        WorldState fixedState = new WorldState(1), fixedOther = new WorldState(1);
+        fixedWorld.save(fixedState);
+        fixedChanged.save(fixedOther);
+        assertEquals(fixedState, fixedOther);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bricksAreNotInTheFixedPointConfig() {
+        CONFIG.withLevel(BrickTreeTest.grid(2, 2)).withFixedPoint(true);
+    }
+
+    @Test
+    public void cancelledWarmUpIsDropped() {
+        WorldPool pool = new WorldPool(100);
+        int generation = pool.getGeneration();
+        /*The game started between the request and the warm-up.*/
+        pool.cancel();
+        assertFalse(pool.prepare(CONFIG, generation));
+        assertFalse(pool.isReady(CONFIG));
+        assertTrue(pool.prepare(CONFIG, pool.getGeneration()));
+        assertTrue(pool.isReady(CONFIG));
+    }
+
+    @Test(timeout = 10000)
+    public void cancelStopsTheWarmUpInProgress() throws InterruptedException {
+        final WorldPool pool = new WorldPool(Integer.MAX_VALUE);
+        final int generation = pool.getGeneration();
+        final boolean[] prepared = {true};
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                prepared[0] = pool.prepare(CONFIG, generation);
+            }
+        });
+        thread.start();
+        Thread.sleep(50);
+        pool.cancel();
+        thread.join();
+        assertFalse(prepared[0]);
+        assertFalse(pool.isReady(CONFIG));
+    }
+}
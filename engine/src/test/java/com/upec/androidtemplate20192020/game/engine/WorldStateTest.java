@@ -0,0 +1,164 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Saves the whole world in its binary state, restores it and hashes it.
+ */
+public class WorldStateTest {
+
+    private static final GameConfig CONFIG = GameConfig.DEFAULT.withScreen(1080, 1920);
+
+    /*Plays the world with a player which follows the first ball.*/
+    private static void play(World world, int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            world.setPlayerX((int) world.getBalls().getX(0) + i % 40);
+            world.update();
+        }
+    }
+
+    private static WorldState save(World world) {
+        WorldState state = new WorldState(world.getBalls().getCount(), world.getBrickCount());
+        world.save(state);
+        return state;
+    }
+
+    @Test
+    public void stateHasAFixedSize() {
+        assertEquals(WorldState.size(1), save(new World(CONFIG, 1)).asReadOnlyBuffer().remaining());
+        assertEquals(WorldState.size(1) + 499 * WorldState.BALL_BYTES,
+                save(new World(CONFIG.withBallCount(500), 1)).asReadOnlyBuffer().remaining());
+        /*Some ints for the game and 28 bytes by ball.*/
+        assertEquals(WorldState.BALLS + 28, WorldState.size(1));
+    }
+
+    @Test
+    public void restoredWorldWithTheBotPlaysTheSameGame() {
+        World world = new World(CONFIG.withBallCount(3).withDifficulty(Difficulty.HARD), 5);
+        play(world, 4000);
+        WorldState state = save(world);
+        play(world, 3000);
+        WorldState after = save(world);
+
+        /*Another world of the same game goes on from the state, with the brain of the bot.*/
+        World other = new World(CONFIG.withBallCount(3), 99);
+        other.restore(state);
+        assertEquals(Difficulty.HARD, other.getDifficulty());
+        play(other, 3000);
+        assertEquals(after, save(other));
+        assertEquals(after.hash(), save(other).hash());
+    }
+
+    @Test
+    public void hashChangesWithTheTick() {
+        World world = new World(CONFIG, 3);
+        long hash = save(world).hash();
+        assertEquals(hash, save(new World(CONFIG, 3)).hash());
+        assertNotEquals(hash, save(new World(CONFIG, 4)).hash());
+        world.update();
+        assertNotEquals(hash, save(world).hash());
+        /*Only the x wanted by the player is different.*/
+        World moved = new World(CONFIG, 3);
+        moved.setPlayerX(moved.getPlayerX() + 1);
+        assertNotEquals(hash, save(moved).hash());
+    }
+
+    @Test
+    public void rollingHashIsTheSameOnlyForTheSameTicks() {
+        StateHasher a = new StateHasher(2), b = new StateHasher(2);
+        World first = new World(CONFIG.withBallCount(2), 8), second = new World(CONFIG.withBallCount(2), 8);
+        for (int i = 0; i < 2000; i++) {
+            first.update();
+            second.update();
+            assertEquals(a.update(first), b.update(second));
+        }
+        /*One tick different, then the same again: the hash stays different.*/
+        second.setPlayerX(second.getPlayerX() + 100);
+        first.update();
+        second.update();
+        assertNotEquals(a.update(first), b.update(second));
+        WorldState state = save(first);
+        second.restore(state);
+        assertEquals(state, save(second));
+        assertNotEquals(a.update(first), b.update(second));
+        assertEquals(2002, a.getTicks());
+    }
+
+    @Test
+    public void bytesAreCopiedBetweenStates() {
+        World world = new World(CONFIG.withBallCount(4), 12);
+        play(world, 500);
+        WorldState state = save(world);
+        ByteBuffer bytes = ByteBuffer.allocate(WorldState.size(4) + 3);
+        bytes.position(3);
+        bytes.put(state.asReadOnlyBuffer());
+        bytes.position(3);
+        WorldState copy = new WorldState(4);
+        copy.copyFrom(bytes);
+        assertEquals(state, copy);
+        assertEquals(state.hash(), copy.hash());
+    }
+
+    @Test
+    public void stateOfAnotherNumberOfBricksIsRejected() {
+        World world = new World(CONFIG.withLevel(BrickTreeTest.grid(10, 2)), 3);
+        WorldState state = save(world);
+        assertEquals(20, state.getBrickCount());
+        for (WorldState other : new WorldState[]{new WorldState(1), new WorldState(1, 19), new WorldState(1, 21)}) {
+            try {
+                other.copyFrom(state.asReadOnlyBuffer());
+                fail("Copied in " + other.getBrickCount() + " bricks");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("20 bricks"));
+            }
+        }
+        WorldState same = new WorldState(1, 20);
+        same.copyFrom(state.asReadOnlyBuffer());
+        assertEquals(state, same);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stateOfAnotherNumberOfBallsIsRejected() {
+        new World(CONFIG.withBallCount(2), 1).restore(save(new World(CONFIG, 1)));
+    }
+
+    @Test
+    public void saveRestoreAndHashDoNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(sunBean.isThreadAllocatedMemorySupported());
+        sunBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+        World world = new World(CONFIG.withBallCount(100), 2);
+        WorldState state = new WorldState(100);
+        StateHasher hasher = new StateHasher(100);
+        long sum = 0;
+        long fewest = Long.MAX_VALUE;
+        /*The first round warms up the JIT. A deoptimization can run some code of a round in
+         *the interpreter, which allocates a few objects once, so the best round is checked:
+         *an allocation of the ticks would be in all of them.*/
+        for (int round = 0; round < 4 && fewest != 0; round++) {
+            long overhead = sunBean.getThreadAllocatedBytes(threadId);
+            overhead = sunBean.getThreadAllocatedBytes(threadId) - overhead;
+            long before = sunBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < 20000; i++) {
+                world.update();
+                world.save(state);
+                sum += state.hash() + hasher.update(world);
+                world.restore(state);
+            }
+            long allocated = sunBean.getThreadAllocatedBytes(threadId) - before - overhead;
+            if (round > 0)
+                fewest = Math.min(fewest, allocated);
+        }
+        assertEquals(0, fewest);
+        assertNotEquals(0, sum);
+    }
+}
@@ -0,0 +1,187 @@
+package com.upec.androidtemplate20192020.game.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Headless tests of the game world on the JVM.
+ */
+public class WorldTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+
+    @Test
+    public void rectanglesAreConstrainedInTheScreen() {
+        World world = new World(WIDTH, HEIGHT, 10, 10);
+        world.setPlayerX(-500);
+        world.update();
+        Rectangle player = world.getPlayer();
+        assertEquals(player.width() / 2, player.centerX());
+        assertEquals(HEIGHT - 100, player.centerY());
+        assertEquals(100, world.getBot().centerY());
+
+        world.setPlayerX(WIDTH + 500);
+        world.update();
+        assertEquals(WIDTH - player.width() / 2, player.centerX());
+    }
+
+    @Test
+    public void ballStaysInTheScreen() {
+        World world = new World(WIDTH, HEIGHT, 10, 10);
+        for (int i = 0; i < 100000; i++) {
+            world.setPlayerX(i % WIDTH);
+            world.update();
+            BallStore balls = world.getBalls();
+            assertTrue(balls.getX(0) >= -balls.getR(0) - Math.abs(balls.getxSpeed(0)));
+            assertTrue(balls.getX(0) <= WIDTH + balls.getR(0) + Math.abs(balls.getxSpeed(0)));
+            assertTrue(world.getLeftScore() < World.WINNING_SCORE);
+            assertTrue(world.getRightScore() < World.WINNING_SCORE);
+        }
+    }
+
+    @Test
+    public void missedBallGivesAPoint() {
+        World world = new World(WIDTH, HEIGHT, 10, 0);
+        /*The bot doesn't move and the player runs away from the ball,
+         *so one of them misses the ball.*/
+        for (int i = 0; i < 10000 && world.getLeftScore() + world.getRightScore() == 0; i++) {
+            world.setPlayerX(world.getBalls().getX(0) < WIDTH / 2 ? WIDTH : 0);
+            world.update();
+        }
+        assertEquals(1, world.getLeftScore() + world.getRightScore());
+        assertEquals(0, world.getBalls().getCountBounce(0));
+    }
+
+    @Test
+    public void paddleBounceSpeedsUpTheBall() {
+        World world = new World(WIDTH, HEIGHT, 10, 10);
+        int bounces = 0;
+        for (int i = 0; i < 10000 && bounces == 0; i++) {
+            /*Follow the ball so the player always bounces it.*/
+            world.setPlayerX((int) world.getBalls().getX(0));
+            world.update();
+            bounces = world.getBalls().getCountBounce(0);
+        }
+        assertEquals(1, bounces);
+        BallStore balls = world.getBalls();
+        float speed = (float) Math.hypot(balls.getxSpeed(0), balls.getySpeed(0));
+        assertEquals(world.getBallSpeed() + 1, speed, 1e-3);
+    }
+
+    @Test
+    public void partyModeUpdatesAllTheBalls() {
+        World world = new World(WIDTH, HEIGHT, 10, 10, 1000);
+        BallStore balls = world.getBalls();
+        assertEquals(1000, balls.getCount());
+        world.update();
+        for (int i = 0; i < balls.getCount(); i++) {
+            /*Every ball starts from the center and moves by its own speed.*/
+            assertEquals(WIDTH * 0.5f, balls.getPrevX(i), 0);
+            assertEquals(balls.getPrevX(i) + balls.getxSpeed(i), balls.getX(i), 1e-3);
+            assertEquals(balls.getPrevY(i) + balls.getySpeed(i), balls.getY(i), 1e-3);
+        }
+        for (int i = 0; i < 10000; i++) {
+            world.update();
+            assertTrue(world.getLeftScore() < World.WINNING_SCORE);
+            assertTrue(world.getRightScore() < World.WINNING_SCORE);
+        }
+    }
+
+    @Test
+    public void worldIsCreatedFromItsConfig() {
+        GameConfig config = GameConfig.DEFAULT.withScreen(WIDTH, HEIGHT).withDifficulty(Difficulty.HARD).withBallCount(3);
+        World world = new World(config, 1);
+        assertSame(config, world.getConfig());
+        assertEquals(WIDTH, world.getWidth());
+        assertEquals(Difficulty.HARD.getBotSpeed(), world.getBotSpeed());
+        assertEquals(3, world.getBalls().getCount());
+        /*The config is immutable, a change is a new config.*/
+        assertEquals(Difficulty.MEDIUM, GameConfig.DEFAULT.getDifficulty());
+    }
+
+    @Test
+    public void botChangesDuringTheGame() {
+        World world = new World(GameConfig.DEFAULT, 1);
+        for (int i = 0; i < 100; i++)
+            world.update();
+        world.setConfig(world.getConfig().withDifficulty(Difficulty.NIGHTMARE));
+        assertEquals(Difficulty.NIGHTMARE, world.getDifficulty());
+        /*The bot moves with his new speed.*/
+        int botX = world.getBot().centerX();
+        int maxStep = 0;
+        for (int i = 0; i < 1000; i++) {
+            world.update();
+            maxStep = Math.max(maxStep, Math.abs(world.getBot().centerX() - botX));
+            botX = world.getBot().centerX();
+        }
+        assertTrue(maxStep > Difficulty.MEDIUM.getBotSpeed());
+        assertTrue(maxStep <= Difficulty.NIGHTMARE.getBotSpeed());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void onlyTheBotChangesDuringTheGame() {
+        World world = new World(GameConfig.DEFAULT, 1);
+        world.setConfig(world.getConfig().withBallCount(2));
+    }
+
+    /*Plays the world with a player which follows the first ball, and gives the state of every tick.*/
+    private static long[] trace(World world, int ticks) {
+        long[] trace = new long[ticks];
+        for (int i = 0; i < ticks; i++) {
+            world.setPlayerX((int) world.getBalls().getX(0) + i % 50);
+            world.update();
+            BallStore balls = world.getBalls();
+            long hash = world.getLeftScore() * 31L + world.getRightScore();
+            for (int b = 0; b < balls.getCount(); b++)
+                hash = hash * 31 + Float.floatToIntBits(balls.getX(b)) * 17L + Float.floatToIntBits(balls.getY(b));
+            trace[i] = hash * 31 + world.getBot().getLeft() * 7L + world.getPlayer().getLeft();
+        }
+        return trace;
+    }
+
+    @Test
+    public void restartedWorldPlaysLikeANewWorld() {
+        GameConfig config = GameConfig.DEFAULT.withScreen(WIDTH, HEIGHT).withBallCount(3);
+        World reused = new World(config, 1);
+        trace(reused, 5000);
+        GameConfig hard = config.withDifficulty(Difficulty.HARD);
+        reused.restart(hard, 42);
+        assertEquals(0, reused.getLeftScore() + reused.getRightScore() + reused.getLeftWins() + reused.getRightWins());
+        assertEquals(42, reused.getSeed());
+        assertEquals(Difficulty.HARD, reused.getDifficulty());
+        assertArrayEquals(trace(new World(hard, 42), 20000), trace(reused, 20000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void restartedWorldKeepsItsSize() {
+        World world = new World(GameConfig.DEFAULT, 1);
+        world.restart(GameConfig.DEFAULT.withScreen(720, 1280), 1);
+    }
+
+    @Test
+    public void restoredWorldPlaysTheSameTicksAgain() {
+        World world = new World(GameConfig.DEFAULT.withScreen(WIDTH, HEIGHT).withBallCount(3), 7);
+        world.setRemoteBot(true);
+        trace(world, 3000);
+        WorldState state = new WorldState(3);
+        world.save(state);
+        long[] first = trace(world, 5000);
+        world.restore(state);
+        assertArrayEquals(first, trace(world, 5000));
+    }
+
+    @Test
+    public void remotePlayerMovesTheBotOnHisLine() {
+        World world = new World(GameConfig.DEFAULT.withScreen(WIDTH, HEIGHT), 1);
+        world.setRemoteBot(true);
+        world.setBotX(WIDTH / 4);
+        world.update();
+        assertEquals(WIDTH / 4, world.getBot().centerX());
+        world.setBotX(-100);
+        world.update();
+        assertEquals(0, world.getBot().getLeft());
+        assertEquals(100, world.getBot().centerY());
+    }
+}